@@ -5,6 +5,7 @@ import com.letsteamup.exception.FileProcessingException;
 import com.letsteamup.exception.InsufficientParticipantsException;
 import com.letsteamup.exception.InvalidScoreException;
 import com.letsteamup.service.DataService;
+import com.letsteamup.service.FormationCache;
 import com.letsteamup.service.SurveyService;
 import com.letsteamup.service.TeamFormationService;
 import com.letsteamup.util.ConsoleUI;
@@ -16,6 +17,9 @@ import java.util.Scanner;
 
 public class LetsTeamUpApplication {
 
+    private static final String FORMATION_CACHE_DIR = "src/main/resources/cache";
+    private static final int FORMATION_CACHE_SIZE = 16;
+
     private static Scanner scanner = new Scanner(System.in);
     private static MenuController menuController;
     private static BufferedWriter logWriter;
@@ -30,7 +34,8 @@ public class LetsTeamUpApplication {
 
         DataService dataService = new DataService();
         SurveyService surveyService = new SurveyService();
-        TeamFormationService teamFormationService = new TeamFormationService();
+        TeamFormationService teamFormationService = new TeamFormationService(
+                new FormationCache(FORMATION_CACHE_SIZE, new File(FORMATION_CACHE_DIR)));
 
         menuController = new MenuController(dataService, surveyService, teamFormationService);
 
@@ -216,7 +221,7 @@ public class LetsTeamUpApplication {
     // Writes a timestamped message to the application log file, ensuring each entry
     // is flushed immediately and handling any I/O issues safely.
 
-    public static void logMessage(String message) {
+    public static synchronized void logMessage(String message) {
         if (logWriter != null) {
             try {
                 String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
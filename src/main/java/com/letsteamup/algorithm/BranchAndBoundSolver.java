@@ -0,0 +1,613 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact team formation for small pools by depth-first branch-and-bound
+ *
+ * Objective, compared lexicographically: first the number of members beyond the soft
+ * caps of the formation rules (by default the per-team game cap), then the spread between
+ * the highest and lowest team skill total. Hard caps, minimums and skill bounds are hard
+ * constraints, as in the balanced algorithm: by default every team gets one or two
+ * Leaders. Participants left over when the pool does not divide evenly go to a bench and
+ * do not count towards the objective.
+ *
+ * The incumbent is seeded with a short genetic run, then participants are branched on
+ * in descending skill order with teams tried from the lowest running total up. Nodes
+ * are pruned with a bound built from the smallest and largest totals each team can
+ * still reach. Symmetry is broken twice: of several teams in an identical state only
+ * the first is tried, and identical participants (same skill and rule counters)
+ * are placed in non-decreasing team order. The top levels of the tree are split into
+ * fork/join tasks, so idle workers steal open subtrees from busy ones.
+ *
+ * In determinism mode the search returns the optimal leaf that a sequential search would
+ * reach first, whatever the number of workers: among leaves of equal cost the one whose
+ * branch path (candidate positions from the root) is lexicographically smallest wins, and
+ * a subtree that can only tie the incumbent is pruned only when its path already sorts
+ * after the incumbent's.
+ */
+public class BranchAndBoundSolver {
+
+    /** Largest pool the solver accepts; beyond this the search tree is too large to prove optimality. */
+    public static final int MAX_PARTICIPANTS = 60;
+
+    private static final int SPLIT_DEPTH = 3;
+    private static final int STOP_CHECK_INTERVAL = 1024;
+    private static final long WARM_START_SEED = 1L;
+
+    private final GeneticFormationEngine warmStart = new GeneticFormationEngine();
+
+    /**
+     * Searches for an optimal formation until the tree is exhausted, the lower bound is
+     * reached, or the context's deadline or cancellation fires.
+     */
+    public Solution solve(ParticipantColumns columns, int teamCount, int teamSize,
+                          ForkJoinPool pool, FormationContext context) {
+        if (columns.size() > MAX_PARTICIPANTS) {
+            throw new IllegalArgumentException("Exact formation supports at most " + MAX_PARTICIPANTS
+                    + " participants, got " + columns.size());
+        }
+
+        long start = System.nanoTime();
+        Search search = new Search(columns, teamCount, teamSize, context);
+        SearchState root = search.rootState();
+
+        if (search.n > 0 && search.coverable()) {
+            int[] genome = warmStart.evolve(columns, teamCount, teamSize, WARM_START_SEED, pool, context);
+            search.offerIncumbent(genome);
+            pool.invoke(new SubtreeTask(search, root, 0));
+        }
+
+        boolean proven = !search.stopped;
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return search.toSolution(proven, elapsed);
+    }
+
+    /**
+     * Best formation found by the solver
+     */
+    public static final class Solution {
+        private final int[] teamOf;
+        private final int gameOverflow;
+        private final int skillSpread;
+        private final boolean provenOptimal;
+        private final long nodesExplored;
+        private final long elapsedMillis;
+
+        private Solution(int[] teamOf, int gameOverflow, int skillSpread, boolean provenOptimal,
+                         long nodesExplored, long elapsedMillis) {
+            this.teamOf = teamOf;
+            this.gameOverflow = gameOverflow;
+            this.skillSpread = skillSpread;
+            this.provenOptimal = provenOptimal;
+            this.nodesExplored = nodesExplored;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Builds teams T1..Tn from the solution; benched participants are left out
+         */
+        public List<Team> toTeams(ParticipantColumns columns, int teamCount, int teamSize) {
+            List<Team> teams = new ArrayList<>(teamCount);
+            for (int t = 0; t < teamCount; t++) {
+                teams.add(new Team("T" + (t + 1), teamSize));
+            }
+            if (teamOf == null) {
+                return teams;
+            }
+            for (int i = 0; i < teamOf.length; i++) {
+                if (teamOf[i] < teamCount) {
+                    teams.get(teamOf[i]).addMember(columns.participant(i));
+                }
+            }
+            return teams;
+        }
+
+        public boolean hasSolution() {
+            return teamOf != null;
+        }
+
+        /**
+         * Members beyond the soft caps, by default players beyond two of a game in a team
+         */
+        public int getGameOverflow() {
+            return gameOverflow;
+        }
+
+        public int getSkillSpread() {
+            return skillSpread;
+        }
+
+        /**
+         * True when the search finished, so no better formation exists
+         */
+        public boolean isProvenOptimal() {
+            return provenOptimal;
+        }
+
+        public long getNodesExplored() {
+            return nodesExplored;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    private static final class SubtreeTask extends RecursiveAction {
+        private final Search search;
+        private final SearchState state;
+        private final int depth;
+
+        SubtreeTask(Search search, SearchState state, int depth) {
+            this.search = search;
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH || depth >= search.n) {
+                search.dfs(state, depth);
+                search.nodes.add(state.nodes);
+                return;
+            }
+            if (search.prune(state, depth)) {
+                return;
+            }
+
+            int[] candidates = search.candidates(state, depth);
+            List<SubtreeTask> children = new ArrayList<>(candidates.length);
+            for (int c = 0; c < candidates.length; c++) {
+                SearchState child = state.copy();
+                child.branch[depth] = c;
+                search.apply(child, depth, candidates[c]);
+                children.add(new SubtreeTask(search, child, depth + 1));
+            }
+            invokeAll(children);
+        }
+    }
+
+    // Mutable partial assignment; copied when a subtree is handed to another task.
+    private static final class SearchState {
+        final int[] sum;
+        final int[] filled;
+        final int[] counts;
+        final int[] shortfall;
+        final int[] choice;
+        final int[] branch;
+        final int[] remaining;
+        final int[] deficit;
+        int benchUsed;
+        int overflow;
+        int nodes;
+
+        SearchState(int teamCount, int counterCount, int n) {
+            sum = new int[teamCount];
+            filled = new int[teamCount];
+            counts = new int[teamCount * counterCount];
+            shortfall = new int[teamCount];
+            choice = new int[n];
+            branch = new int[n];
+            remaining = new int[counterCount];
+            deficit = new int[counterCount];
+        }
+
+        private SearchState(SearchState other) {
+            sum = other.sum.clone();
+            filled = other.filled.clone();
+            counts = other.counts.clone();
+            shortfall = other.shortfall.clone();
+            choice = other.choice.clone();
+            branch = other.branch.clone();
+            remaining = other.remaining.clone();
+            deficit = other.deficit.clone();
+            benchUsed = other.benchUsed;
+            overflow = other.overflow;
+        }
+
+        SearchState copy() {
+            return new SearchState(this);
+        }
+    }
+
+    // Best leaf so far; replaced as a whole so its cost and path are always read together.
+    // A null path sorts after every leaf of the tree.
+    private static final class Incumbent {
+        final long cost;
+        final int[] choice;
+        final int[] branch;
+
+        Incumbent(long cost, int[] choice, int[] branch) {
+            this.cost = cost;
+            this.choice = choice;
+            this.branch = branch;
+        }
+    }
+
+    // Problem data in branching order plus the incumbent shared by all tasks. Counter ids per
+    // depth are laid out ATTRIBUTES to a participant, -1 where no rule counts the value.
+    private static final class Search {
+        final FormationContext context;
+        final boolean deterministic;
+        final CompiledRules rules;
+        final int n;
+        final int teamCount;
+        final int teamSize;
+        final int counterCount;
+        final int benchCapacity;
+        final int[] original;
+        final int[] skill;
+        final int[] counters;
+        final int[] softCounters;
+        final boolean[] sameAsPrevious;
+        final long overflowWeight;
+        final long floorCost;
+        final int ceilAverage;
+        final int floorAverage;
+
+        final LongAdder nodes = new LongAdder();
+        volatile Incumbent incumbent = new Incumbent(Long.MAX_VALUE, null, null);
+        volatile boolean finished;
+        volatile boolean stopped;
+
+        Search(ParticipantColumns columns, int teamCount, int teamSize, FormationContext context) {
+            this.context = context;
+            this.deterministic = context.isDeterministic();
+            this.rules = CompiledRules.compile(context.getRules(), columns, teamSize);
+            this.n = columns.size();
+            this.teamCount = teamCount;
+            this.teamSize = teamSize;
+            this.counterCount = rules.counterCount();
+            this.benchCapacity = n - teamCount * teamSize;
+
+            // Strongest first; among equal skill, participants under a hard rule come first and
+            // identical participants end up next to each other.
+            Integer[] byValue = new Integer[n];
+            for (int i = 0; i < n; i++) byValue[i] = i;
+            Arrays.sort(byValue, (a, b) -> {
+                if (columns.skill(a) != columns.skill(b)) return columns.skill(b) - columns.skill(a);
+                if (underHardRule(a) != underHardRule(b)) return underHardRule(a) ? -1 : 1;
+                for (int attribute = 0; attribute < CompiledRules.ATTRIBUTES; attribute++) {
+                    int ca = rules.counter(a, attribute);
+                    int cb = rules.counter(b, attribute);
+                    if (ca != cb) return ca - cb;
+                }
+                return a - b;
+            });
+
+            original = new int[n];
+            skill = new int[n];
+            counters = new int[n * CompiledRules.ATTRIBUTES];
+            sameAsPrevious = new boolean[n];
+            int maxSkill = 0;
+            long total = 0;
+            for (int k = 0; k < n; k++) {
+                int i = byValue[k];
+                original[k] = i;
+                skill[k] = columns.skill(i);
+                for (int attribute = 0; attribute < CompiledRules.ATTRIBUTES; attribute++) {
+                    counters[k * CompiledRules.ATTRIBUTES + attribute] = rules.counter(i, attribute);
+                }
+                sameAsPrevious[k] = k > 0 && skill[k] == skill[k - 1] && rules.sameCounters(i, original[k - 1]);
+                maxSkill = Math.max(maxSkill, skill[k]);
+                total += skill[k];
+            }
+
+            int soft = 0;
+            for (int c = 0; c < counterCount; c++) {
+                if (rules.softCap(c) != CompiledRules.UNLIMITED) soft++;
+            }
+            softCounters = new int[soft];
+            for (int c = 0, k = 0; c < counterCount; c++) {
+                if (rules.softCap(c) != CompiledRules.UNLIMITED) softCounters[k++] = c;
+            }
+
+            overflowWeight = (long) maxSkill * teamSize + 1;
+            if (benchCapacity == 0 && teamCount > 0) {
+                floorAverage = (int) (total / teamCount);
+                ceilAverage = (int) ((total + teamCount - 1) / teamCount);
+                floorCost = ceilAverage - floorAverage;
+            } else {
+                floorAverage = Integer.MAX_VALUE;
+                ceilAverage = Integer.MIN_VALUE;
+                floorCost = 0;
+            }
+        }
+
+        private boolean underHardRule(int i) {
+            for (int attribute = 0; attribute < CompiledRules.ATTRIBUTES; attribute++) {
+                int c = rules.counter(i, attribute);
+                if (c >= 0 && rules.isHard(c)) return true;
+            }
+            return false;
+        }
+
+        // Whether the pool holds enough members for every minimum in every team.
+        boolean coverable() {
+            for (int c : rules.minimumCounters()) {
+                if (rules.poolCount(c) < (long) rules.minimum(c) * teamCount) return false;
+            }
+            return rules.totalMinimum() <= teamSize;
+        }
+
+        SearchState rootState() {
+            SearchState root = new SearchState(teamCount, counterCount, n);
+            for (int k = 0; k < n; k++) {
+                for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                    int c = counters[k * CompiledRules.ATTRIBUTES + a];
+                    if (c >= 0) root.remaining[c]++;
+                }
+            }
+            for (int c = 0; c < counterCount; c++) {
+                root.deficit[c] = rules.minimum(c) * teamCount;
+            }
+            Arrays.fill(root.shortfall, rules.totalMinimum());
+            return root;
+        }
+
+        void dfs(SearchState state, int depth) {
+            if (finished) return;
+            if (++state.nodes == STOP_CHECK_INTERVAL) {
+                nodes.add(state.nodes);
+                state.nodes = 0;
+                if (context.shouldStop()) {
+                    stopped = true;
+                    finished = true;
+                    return;
+                }
+            }
+
+            if (depth == n) {
+                recordLeaf(state, true);
+                return;
+            }
+            if (prune(state, depth)) return;
+
+            int[] candidates = candidates(state, depth);
+            for (int c = 0; c < candidates.length; c++) {
+                state.branch[depth] = c;
+                apply(state, depth, candidates[c]);
+                dfs(state, depth + 1);
+                undo(state, depth, candidates[c]);
+                if (finished) return;
+            }
+        }
+
+        boolean prune(SearchState state, int depth) {
+            if (finished) return true;
+            Incumbent best = incumbent;
+            long bound = lowerBound(state, depth);
+            if (bound != best.cost) return bound > best.cost;
+            return !deterministic || comparePaths(state.branch, best.branch, depth) > 0;
+        }
+
+        // Compares the first length branch positions of two paths; a null path sorts last.
+        private static int comparePaths(int[] path, int[] other, int length) {
+            if (other == null) return -1;
+            return Arrays.compare(path, 0, length, other, 0, length);
+        }
+
+        // Every team ends between its running total plus its open seats filled with the weakest
+        // and with the strongest remaining participant; without a bench the averages bound it too.
+        // Members of a soft-capped value beyond the seats still free under its cap must overflow.
+        long lowerBound(SearchState state, int depth) {
+            int benchLeft = benchCapacity - state.benchUsed;
+            int forcedOverflow = 0;
+            for (int c : softCounters) {
+                int cap = rules.softCap(c);
+                int free = benchLeft;
+                for (int t = 0; t < teamCount && free < state.remaining[c]; t++) {
+                    int open = teamSize - state.filled[t];
+                    free += Math.max(0, Math.min(cap - state.counts[t * counterCount + c], open));
+                }
+                forcedOverflow += Math.max(0, state.remaining[c] - free);
+            }
+
+            int strongest = skill[depth];
+            int weakest = skill[n - 1];
+            long maxLower = ceilAverage;
+            long minUpper = floorAverage;
+            for (int t = 0; t < teamCount; t++) {
+                int open = teamSize - state.filled[t];
+                maxLower = Math.max(maxLower, state.sum[t] + (long) open * weakest);
+                minUpper = Math.min(minUpper, state.sum[t] + (long) open * strongest);
+            }
+            return (state.overflow + forcedOverflow) * overflowWeight + Math.max(0, maxLower - minUpper);
+        }
+
+        // Offers a complete assignment as the incumbent. Leaves of the tree carry their branch
+        // path; the warm-start genome has none and sorts after every tree leaf of equal cost.
+        void recordLeaf(SearchState state, boolean inTree) {
+            int max = Integer.MIN_VALUE;
+            int min = Integer.MAX_VALUE;
+            for (int t = 0; t < teamCount; t++) {
+                max = Math.max(max, state.sum[t]);
+                min = Math.min(min, state.sum[t]);
+            }
+            long cost = state.overflow * overflowWeight + (max - min);
+            int[] branch = inTree ? state.branch : null;
+
+            synchronized (this) {
+                Incumbent best = incumbent;
+                boolean better = cost < best.cost
+                        || (deterministic && inTree && cost == best.cost
+                                && comparePaths(branch, best.branch, n) < 0);
+                if (!better) return;
+                incumbent = new Incumbent(cost, state.choice.clone(), inTree ? branch.clone() : null);
+            }
+            context.reportProgress(teamCount, teamCount, n - benchCapacity, n, max - min);
+            if (cost <= floorCost && !deterministic) {
+                finished = true;
+            }
+        }
+
+        // Takes a genome from the genetic engine (teams as consecutive blocks) as the first
+        // incumbent when it satisfies the hard rules, so the tree search prunes from the start.
+        void offerIncumbent(int[] genome) {
+            int[] position = new int[n];
+            for (int k = 0; k < n; k++) position[original[k]] = k;
+
+            SearchState state = rootState();
+            for (int p = 0; p < n; p++) {
+                int t = p < teamCount * teamSize ? p / teamSize : teamCount;
+                apply(state, position[genome[p]], t);
+            }
+            for (int t = 0; t < teamCount; t++) {
+                if (!rules.skillWithinBounds(state.sum[t])) return;
+                for (int c = 0; c < counterCount; c++) {
+                    int count = state.counts[t * counterCount + c];
+                    if (count < rules.minimum(c) || count > rules.hardCap(c)) return;
+                }
+            }
+            recordLeaf(state, false);
+        }
+
+        // Feasible teams for the participant at this depth: teams where its soft caps still have
+        // room first, then by lowest running total; the bench, when it has room, is tried last
+        // and is encoded as team index teamCount. A team is skipped when the participant would
+        // break a hard cap or the skill bounds, would take a seat the team keeps for an unmet
+        // minimum, or would leave too few of a minimum's members for the teams still short.
+        int[] candidates(SearchState state, int depth) {
+            int participant = original[depth];
+            int first = sameAsPrevious[depth] ? state.choice[depth - 1] : 0;
+            int[] result = new int[teamCount + 1];
+            int size = 0;
+
+            for (int t = first; t < teamCount; t++) {
+                int base = t * counterCount;
+                if (state.filled[t] == teamSize) continue;
+                if (!rules.fits(state.counts, base, state.filled[t], state.sum[t], participant)) continue;
+                if (!spareForMinimums(state, depth, base)) continue;
+                int covered = rules.coverage(state.counts, base, participant);
+                if (teamSize - state.filled[t] - 1 < state.shortfall[t] - covered) continue;
+                if (hasIdenticalTeamBefore(state, first, t)) continue;
+
+                int pos = size++;
+                while (pos > 0 && rank(state, result[pos - 1], depth) > rank(state, t, depth)) {
+                    result[pos] = result[pos - 1];
+                    pos--;
+                }
+                result[pos] = t;
+            }
+
+            if (state.benchUsed < benchCapacity && spareForMinimums(state, depth, -1)) {
+                result[size++] = teamCount;
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        }
+
+        // Whether placing the participant at this depth somewhere other than a team short of one
+        // of its minimums (base -1 for the bench) still leaves enough members for those teams.
+        private boolean spareForMinimums(SearchState state, int depth, int base) {
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                int c = counters[depth * CompiledRules.ATTRIBUTES + a];
+                if (c < 0 || rules.minimum(c) == 0) continue;
+                boolean covers = base >= 0 && state.counts[base + c] < rules.minimum(c);
+                if (!covers && state.remaining[c] - 1 < state.deficit[c]) return false;
+            }
+            return true;
+        }
+
+        private long rank(SearchState state, int t, int depth) {
+            boolean overflows = false;
+            for (int a = 0; a < CompiledRules.ATTRIBUTES && !overflows; a++) {
+                int c = counters[depth * CompiledRules.ATTRIBUTES + a];
+                overflows = c >= 0 && state.counts[t * counterCount + c] >= rules.softCap(c);
+            }
+            return (overflows ? 1L << 32 : 0) + state.sum[t];
+        }
+
+        private boolean hasIdenticalTeamBefore(SearchState state, int first, int t) {
+            for (int u = first; u < t; u++) {
+                if (state.filled[u] != state.filled[t] || state.sum[u] != state.sum[t]) {
+                    continue;
+                }
+                if (Arrays.equals(state.counts, u * counterCount, (u + 1) * counterCount,
+                        state.counts, t * counterCount, (t + 1) * counterCount)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void apply(SearchState state, int depth, int t) {
+            state.choice[depth] = t;
+            int at = depth * CompiledRules.ATTRIBUTES;
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                if (counters[at + a] >= 0) state.remaining[counters[at + a]]--;
+            }
+            if (t == teamCount) {
+                state.benchUsed++;
+                return;
+            }
+            state.sum[t] += skill[depth];
+            state.filled[t]++;
+            int base = t * counterCount;
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                int c = counters[at + a];
+                if (c < 0) continue;
+                if (state.counts[base + c] < rules.minimum(c)) {
+                    state.shortfall[t]--;
+                    state.deficit[c]--;
+                }
+                if (++state.counts[base + c] > rules.softCap(c)) state.overflow++;
+            }
+        }
+
+        void undo(SearchState state, int depth, int t) {
+            int at = depth * CompiledRules.ATTRIBUTES;
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                if (counters[at + a] >= 0) state.remaining[counters[at + a]]++;
+            }
+            if (t == teamCount) {
+                state.benchUsed--;
+                return;
+            }
+            state.sum[t] -= skill[depth];
+            state.filled[t]--;
+            int base = t * counterCount;
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                int c = counters[at + a];
+                if (c < 0) continue;
+                if (state.counts[base + c]-- > rules.softCap(c)) state.overflow--;
+                if (state.counts[base + c] < rules.minimum(c)) {
+                    state.shortfall[t]++;
+                    state.deficit[c]++;
+                }
+            }
+        }
+
+        synchronized Solution toSolution(boolean proven, long elapsedMillis) {
+            int[] bestChoice = incumbent.choice;
+            if (bestChoice == null) {
+                return new Solution(null, 0, 0, proven, nodes.sum(), elapsedMillis);
+            }
+            int[] teamOf = new int[n];
+            int[] sums = new int[teamCount];
+            int[] counts = new int[teamCount * counterCount];
+            int overflow = 0;
+            for (int k = 0; k < n; k++) {
+                int t = bestChoice[k];
+                teamOf[original[k]] = t;
+                if (t == teamCount) continue;
+                sums[t] += skill[k];
+                for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                    int c = counters[k * CompiledRules.ATTRIBUTES + a];
+                    if (c >= 0 && ++counts[t * counterCount + c] > rules.softCap(c)) overflow++;
+                }
+            }
+            int max = Arrays.stream(sums).max().orElse(0);
+            int min = Arrays.stream(sums).min().orElse(0);
+            return new Solution(teamOf, overflow, max - min, proven, nodes.sum(), elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.FormationRules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Formation rules compiled against one pool into primitive counters
+ *
+ * Every attribute value a rule names becomes a counter with a hard cap, a soft cap and a
+ * minimum; a '*' rule becomes one counter per value present in the pool, and rules on the
+ * same value share a counter. Each participant is mapped up front to at most one counter
+ * per attribute, so checking or recording an insertion reads or bumps at most
+ * ATTRIBUTES entries of a per-team count array: O(1) per insertion, with no strings or
+ * maps on the engines' hot paths. Count arrays are laid out team by team, counterCount()
+ * entries each.
+ */
+public final class CompiledRules {
+
+    /** Attributes a participant can be counted under, at most one counter each */
+    public static final int ATTRIBUTES = FormationRules.Attribute.values().length;
+
+    /** Cap of a counter without one */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final ParticipantColumns columns;
+    private final int teamSize;
+    private final int counterCount;
+    private final int[] attributeOf;
+    private final String[] labels;
+    private final int[] hardCap;
+    private final int[] softCap;
+    private final int[] minimum;
+    private final int[] poolCount;
+    private final int[] counterOf;
+    private final int[][] counterByCode;
+    private final int[] minimumCounters;
+    private final int totalMinimum;
+    private final int[] hardClass;
+    private final long minTeamSkill;
+    private final long maxTeamSkill;
+    private final int strongest;
+
+    private CompiledRules(ParticipantColumns columns, int teamSize, Builder b, FormationRules rules) {
+        this.columns = columns;
+        this.teamSize = teamSize;
+        this.counterCount = b.attributes.size();
+        this.attributeOf = toArray(b.attributes);
+        this.labels = b.labels.toArray(new String[0]);
+        this.hardCap = toArray(b.hardCaps);
+        this.softCap = toArray(b.softCaps);
+        this.minimum = toArray(b.minimums);
+        this.counterByCode = b.counterByCode;
+
+        int n = columns.size();
+        this.counterOf = new int[n * ATTRIBUTES];
+        this.poolCount = new int[counterCount];
+        int maxSkill = 0;
+        for (int p = 0; p < n; p++) {
+            for (int a = 0; a < ATTRIBUTES; a++) {
+                int c = counterByCode[a][code(columns, a, p)];
+                counterOf[p * ATTRIBUTES + a] = c;
+                if (c >= 0) poolCount[c]++;
+            }
+            maxSkill = Math.max(maxSkill, columns.skill(p));
+        }
+        this.strongest = maxSkill;
+
+        int minimumSum = 0;
+        int withMinimum = 0;
+        for (int c = 0; c < counterCount; c++) {
+            if (minimum[c] > 0) withMinimum++;
+        }
+        this.minimumCounters = new int[withMinimum];
+        for (int c = 0, k = 0; c < counterCount; c++) {
+            if (minimum[c] > 0) {
+                minimumCounters[k++] = c;
+                minimumSum += minimum[c];
+            }
+        }
+        this.totalMinimum = minimumSum;
+
+        this.hardClass = new int[n];
+        Map<Long, Integer> classes = new HashMap<>();
+        for (int p = 0; p < n; p++) {
+            long key = 0;
+            for (int a = 0; a < ATTRIBUTES; a++) {
+                int c = counterOf[p * ATTRIBUTES + a];
+                key = (key << 21) | (c >= 0 && isHard(c) ? c + 1 : 0);
+            }
+            hardClass[p] = classes.computeIfAbsent(key, k -> classes.size());
+        }
+
+        this.minTeamSkill = rules.getMinAverageSkill() == Double.NEGATIVE_INFINITY ? Long.MIN_VALUE
+                : (long) Math.ceil(rules.getMinAverageSkill() * teamSize - 1e-9);
+        this.maxTeamSkill = rules.getMaxAverageSkill() == Double.POSITIVE_INFINITY ? Long.MAX_VALUE
+                : (long) Math.floor(rules.getMaxAverageSkill() * teamSize + 1e-9);
+    }
+
+    /**
+     * Compiles rules for teams of teamSize drawn from this pool
+     */
+    public static CompiledRules compile(FormationRules rules, ParticipantColumns columns, int teamSize) {
+        Builder builder = new Builder(columns);
+        for (FormationRules.Rule rule : rules.getRules()) {
+            int a = rule.getAttribute().ordinal();
+            if (rule.appliesToEveryValue()) {
+                for (int code = 0; code < valueCount(columns, a); code++) {
+                    builder.apply(builder.counterFor(a, code), rule);
+                }
+            } else {
+                builder.apply(builder.counterFor(a, rule.getValue()), rule);
+            }
+        }
+        return new CompiledRules(columns, teamSize, builder, rules);
+    }
+
+    // Collects counters while the rules are read; a value absent from the pool still gets a
+    // counter so that a minimum on it is reported as unmet.
+    private static final class Builder {
+        final ParticipantColumns columns;
+        final int[][] counterByCode = new int[ATTRIBUTES][];
+        final List<Integer> attributes = new ArrayList<>();
+        final List<String> labels = new ArrayList<>();
+        final List<Integer> hardCaps = new ArrayList<>();
+        final List<Integer> softCaps = new ArrayList<>();
+        final List<Integer> minimums = new ArrayList<>();
+        final Map<String, Integer> absent = new HashMap<>();
+
+        Builder(ParticipantColumns columns) {
+            this.columns = columns;
+            for (int a = 0; a < ATTRIBUTES; a++) {
+                counterByCode[a] = new int[valueCount(columns, a)];
+                Arrays.fill(counterByCode[a], -1);
+            }
+        }
+
+        int counterFor(int a, int code) {
+            if (counterByCode[a][code] < 0) {
+                counterByCode[a][code] = add(a, name(columns, a, code));
+            }
+            return counterByCode[a][code];
+        }
+
+        // Values match ignoring case, as roles do, so "fifa" counts every spelling of FIFA in the pool.
+        int counterFor(int a, String value) {
+            int c = -1;
+            for (int code = 0; code < valueCount(columns, a); code++) {
+                if (!name(columns, a, code).equalsIgnoreCase(value)) continue;
+                if (c < 0) {
+                    c = counterFor(a, code);
+                } else if (counterByCode[a][code] < 0) {
+                    counterByCode[a][code] = c;
+                }
+            }
+            if (c >= 0) {
+                return c;
+            }
+            return absent.computeIfAbsent(a + ":" + value.toLowerCase(Locale.ROOT), k -> add(a, value));
+        }
+
+        private int add(int a, String label) {
+            attributes.add(a);
+            labels.add(label);
+            hardCaps.add(UNLIMITED);
+            softCaps.add(UNLIMITED);
+            minimums.add(0);
+            return attributes.size() - 1;
+        }
+
+        void apply(int c, FormationRules.Rule rule) {
+            switch (rule.getKind()) {
+                case MAX:
+                    hardCaps.set(c, Math.min(hardCaps.get(c), rule.getLimit()));
+                    break;
+                case PREFER_MAX:
+                    softCaps.set(c, Math.min(softCaps.get(c), rule.getLimit()));
+                    break;
+                case MIN:
+                default:
+                    minimums.set(c, Math.max(minimums.get(c), rule.getLimit()));
+                    break;
+            }
+        }
+    }
+
+    private static int valueCount(ParticipantColumns columns, int attribute) {
+        switch (FormationRules.Attribute.values()[attribute]) {
+            case PERSONALITY:
+                return columns.personalityCount();
+            case GAME:
+                return columns.gameCount();
+            case ROLE:
+            default:
+                return columns.roleCount();
+        }
+    }
+
+    private static int code(ParticipantColumns columns, int attribute, int p) {
+        switch (FormationRules.Attribute.values()[attribute]) {
+            case PERSONALITY:
+                return columns.personality(p);
+            case GAME:
+                return columns.game(p);
+            case ROLE:
+            default:
+                return columns.role(p);
+        }
+    }
+
+    private static String name(ParticipantColumns columns, int attribute, int code) {
+        switch (FormationRules.Attribute.values()[attribute]) {
+            case PERSONALITY:
+                return columns.personalityName(code);
+            case GAME:
+                return columns.gameName(code);
+            case ROLE:
+            default:
+                return columns.roleName(code);
+        }
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    public ParticipantColumns columns() {
+        return columns;
+    }
+
+    public int teamSize() {
+        return teamSize;
+    }
+
+    public int counterCount() {
+        return counterCount;
+    }
+
+    /**
+     * Counter the participant is counted under for this attribute (an Attribute ordinal), or -1
+     */
+    public int counter(int p, int attribute) {
+        return counterOf[p * ATTRIBUTES + attribute];
+    }
+
+    /**
+     * Counter for a dictionary code of an attribute, or -1 when no rule counts that value
+     */
+    public int counterForCode(int attribute, int code) {
+        return counterByCode[attribute][code];
+    }
+
+    public boolean matches(int p, int c) {
+        return counterOf[p * ATTRIBUTES + attributeOf[c]] == c;
+    }
+
+    public int hardCap(int c) {
+        return hardCap[c];
+    }
+
+    public int softCap(int c) {
+        return softCap[c];
+    }
+
+    public int minimum(int c) {
+        return minimum[c];
+    }
+
+    /**
+     * Participants in the pool counted by this counter
+     */
+    public int poolCount(int c) {
+        return poolCount[c];
+    }
+
+    /**
+     * The attribute value a counter counts, e.g. "Leader"
+     */
+    public String label(int c) {
+        return labels[c];
+    }
+
+    public FormationRules.Attribute attribute(int c) {
+        return FormationRules.Attribute.values()[attributeOf[c]];
+    }
+
+    /**
+     * Counters with a minimum, in rule order
+     */
+    public int[] minimumCounters() {
+        return minimumCounters;
+    }
+
+    /**
+     * Sum of all minimums: seats every team must keep for coverage
+     */
+    public int totalMinimum() {
+        return totalMinimum;
+    }
+
+    /**
+     * Whether the counter has a hard cap or a minimum
+     */
+    public boolean isHard(int c) {
+        return hardCap[c] != UNLIMITED || minimum[c] > 0;
+    }
+
+    /**
+     * Participants with the same hard class can trade teams without changing any team's
+     * hard-capped or minimum counts
+     */
+    public int hardClass(int p) {
+        return hardClass[p];
+    }
+
+    /**
+     * Whether two participants are counted under exactly the same counters
+     */
+    public boolean sameCounters(int p, int q) {
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            if (counterOf[p * ATTRIBUTES + a] != counterOf[q * ATTRIBUTES + a]) return false;
+        }
+        return true;
+    }
+
+    public long minTeamSkill() {
+        return minTeamSkill;
+    }
+
+    public long maxTeamSkill() {
+        return maxTeamSkill;
+    }
+
+    public boolean skillWithinBounds(long teamSkill) {
+        return teamSkill >= minTeamSkill && teamSkill <= maxTeamSkill;
+    }
+
+    /**
+     * Whether p can join the team whose counts start at base without breaking a hard cap,
+     * and without making the skill bounds unreachable for the full team
+     */
+    public boolean fits(int[] counts, int base, int filled, long skillTotal, int p) {
+        int at = p * ATTRIBUTES;
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            int c = counterOf[at + a];
+            if (c >= 0 && counts[base + c] >= hardCap[c]) return false;
+        }
+        long total = skillTotal + columns.skill(p);
+        return total <= maxTeamSkill && total + (long) (teamSize - filled - 1) * strongest >= minTeamSkill;
+    }
+
+    /**
+     * Whether p can join the team without going over a soft cap
+     */
+    public boolean fitsPreferred(int[] counts, int base, int p) {
+        int at = p * ATTRIBUTES;
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            int c = counterOf[at + a];
+            if (c >= 0 && counts[base + c] >= softCap[c]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unmet minimum places p would fill in the team
+     */
+    public int coverage(int[] counts, int base, int p) {
+        int at = p * ATTRIBUTES;
+        int covered = 0;
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            int c = counterOf[at + a];
+            if (c >= 0 && counts[base + c] < minimum[c]) covered++;
+        }
+        return covered;
+    }
+
+    public void add(int[] counts, int base, int p) {
+        int at = p * ATTRIBUTES;
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            int c = counterOf[at + a];
+            if (c >= 0) counts[base + c]++;
+        }
+    }
+
+    public void remove(int[] counts, int base, int p) {
+        int at = p * ATTRIBUTES;
+        for (int a = 0; a < ATTRIBUTES; a++) {
+            int c = counterOf[at + a];
+            if (c >= 0) counts[base + c]--;
+        }
+    }
+
+    public Tally newTally(int teamCount) {
+        return new Tally(teamCount);
+    }
+
+    /**
+     * Running counts, sizes, skill totals and unmet minimums of a set of teams, for engines
+     * that build teams one insertion at a time
+     */
+    public final class Tally {
+        private final int[] counts;
+        private final int[] filled;
+        private final long[] skillTotal;
+        private final int[] shortfall;
+
+        private Tally(int teamCount) {
+            this.counts = new int[teamCount * counterCount];
+            this.filled = new int[teamCount];
+            this.skillTotal = new long[teamCount];
+            this.shortfall = new int[teamCount];
+            Arrays.fill(shortfall, totalMinimum);
+        }
+
+        public boolean fits(int t, int p) {
+            return CompiledRules.this.fits(counts, t * counterCount, filled[t], skillTotal[t], p);
+        }
+
+        public boolean fitsPreferred(int t, int p) {
+            return CompiledRules.this.fitsPreferred(counts, t * counterCount, p);
+        }
+
+        /**
+         * Whether the team still has a seat for each unmet minimum once p joins
+         */
+        public boolean leavesRoom(int t, int p) {
+            return teamSize - filled[t] - 1 >= shortfall[t] - coverage(t, p);
+        }
+
+        /**
+         * Unmet minimum places of the team p would fill
+         */
+        public int coverage(int t, int p) {
+            return CompiledRules.this.coverage(counts, t * counterCount, p);
+        }
+
+        public void add(int t, int p) {
+            int base = t * counterCount;
+            shortfall[t] -= CompiledRules.this.coverage(counts, base, p);
+            CompiledRules.this.add(counts, base, p);
+            filled[t]++;
+            skillTotal[t] += columns.skill(p);
+        }
+
+        /**
+         * Undoes add(t, p) for a member leaving the team
+         */
+        public void remove(int t, int p) {
+            int base = t * counterCount;
+            CompiledRules.this.remove(counts, base, p);
+            shortfall[t] += CompiledRules.this.coverage(counts, base, p);
+            filled[t]--;
+            skillTotal[t] -= columns.skill(p);
+        }
+
+        public int count(int t, int c) {
+            return counts[t * counterCount + c];
+        }
+
+        public int filled(int t) {
+            return filled[t];
+        }
+
+        public int shortfall(int t) {
+            return shortfall[t];
+        }
+    }
+}
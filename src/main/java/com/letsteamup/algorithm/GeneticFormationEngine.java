@@ -0,0 +1,523 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Genetic algorithm over team assignments
+ *
+ * A genome is a permutation of participant indices held in a primitive int array:
+ * positions [t * teamSize, (t + 1) * teamSize) form team t and any positions past
+ * teamCount * teamSize are left unassigned. The context's formation rules are enforced
+ * by repair operators after crossover and mutation (minimums and hard caps first, then
+ * soft caps) and priced into the cost of whatever they cannot fix; fitness is evaluated
+ * in parallel over the population on a ForkJoinPool. When the context carries a pairing
+ * history, every pair of former teammates sharing a team adds a small penalty, looked up
+ * in O(1) through history indexes resolved once per participant.
+ */
+public class GeneticFormationEngine {
+
+    private static final double HARD_PENALTY = 1000.0;
+    private static final double SOFT_PENALTY = 10.0;
+    private static final double PAIR_PENALTY = 1.0;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final int ELITE_COUNT = 2;
+    private static final int STALL_GENERATIONS = 60;
+    private static final int SOFT_REPAIR_ATTEMPTS = 4;
+
+    private final int populationSize;
+    private final int maxGenerations;
+    private final double mutationRate;
+
+    public GeneticFormationEngine() {
+        this(40, 300, 0.01);
+    }
+
+    public GeneticFormationEngine(int populationSize, int maxGenerations, double mutationRate) {
+        if (populationSize < ELITE_COUNT + 2) {
+            throw new IllegalArgumentException("Population size must be at least " + (ELITE_COUNT + 2));
+        }
+        if (maxGenerations < 1) {
+            throw new IllegalArgumentException("At least one generation is required");
+        }
+        this.populationSize = populationSize;
+        this.maxGenerations = maxGenerations;
+        this.mutationRate = mutationRate;
+    }
+
+    /**
+     * Evolves team assignments and returns the best genome found.
+     * Stops early when the context's deadline or cancellation fires, or when the
+     * best fitness has not improved for a number of generations.
+     */
+    public int[] evolve(ParticipantColumns columns, int teamCount, int teamSize, long seed,
+                        ForkJoinPool pool, FormationContext context) {
+        Problem problem = new Problem(CompiledRules.compile(context.getRules(), columns, teamSize), teamCount,
+                context.getPairingHistory());
+        SplittableRandom master = new SplittableRandom(seed);
+
+        int[][] initial = new int[populationSize][];
+        int[][] offspring = new int[populationSize][];
+        Workspace[] workspaces = new Workspace[populationSize];
+        double[] fitness = new double[populationSize];
+        double[] sortedFitness = new double[populationSize];
+        long[] rankKeys = new long[populationSize];
+        int[] ranked = new int[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            offspring[i] = new int[problem.n];
+            workspaces[i] = new Workspace(problem);
+        }
+
+        long[] seeds = nextSeeds(master, populationSize);
+        ParallelLoops.forRange(pool, populationSize, i -> {
+            SplittableRandom rng = new SplittableRandom(seeds[i]);
+            int[] genome = i == 0 ? problem.snakeGenome() : problem.randomGenome(rng);
+            problem.repair(genome, workspaces[i], rng);
+            initial[i] = genome;
+        });
+
+        int[][] population = initial;
+        int[] best = null;
+        double bestFitness = Double.MAX_VALUE;
+        int stall = 0;
+
+        for (int generation = 0; generation < maxGenerations; generation++) {
+            final int[][] current = population;
+            ParallelLoops.forRange(pool, populationSize,
+                    i -> fitness[i] = problem.cost(current[i], workspaces[i]));
+
+            rank(fitness, sortedFitness, rankKeys, ranked);
+            if (fitness[ranked[0]] < bestFitness) {
+                bestFitness = fitness[ranked[0]];
+                best = population[ranked[0]].clone();
+                stall = 0;
+            } else {
+                stall++;
+            }
+
+            context.reportProgress(teamCount, teamCount, problem.seats, problem.n, bestFitness);
+            if (context.shouldStop() || stall >= STALL_GENERATIONS || bestFitness == 0.0) {
+                break;
+            }
+
+            for (int e = 0; e < ELITE_COUNT; e++) {
+                System.arraycopy(current[ranked[e]], 0, offspring[e], 0, problem.n);
+            }
+
+            long[] childSeeds = nextSeeds(master, populationSize);
+            final int[][] children = offspring;
+            ParallelLoops.forRange(pool, populationSize - ELITE_COUNT, k -> {
+                int i = k + ELITE_COUNT;
+                SplittableRandom rng = new SplittableRandom(childSeeds[i]);
+                int[] a = current[tournament(fitness, rng)];
+                int[] b = current[tournament(fitness, rng)];
+                problem.crossover(a, b, children[i], workspaces[i], rng);
+                problem.mutate(children[i], rng, mutationRate);
+                problem.repair(children[i], workspaces[i], rng);
+            });
+
+            offspring = population;
+            population = children;
+        }
+
+        return best;
+    }
+
+    /**
+     * Materialises a genome as teams named T1..Tn
+     */
+    public static List<Team> toTeams(ParticipantColumns columns, int[] genome, int teamCount, int teamSize) {
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int t = 0; t < teamCount; t++) {
+            Team team = new Team("T" + (t + 1), teamSize);
+            for (int p = t * teamSize; p < (t + 1) * teamSize; p++) {
+                team.addMember(columns.participant(genome[p]));
+            }
+            teams.add(team);
+        }
+        return teams;
+    }
+
+    private static long[] nextSeeds(SplittableRandom master, int count) {
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = master.nextLong();
+        }
+        return seeds;
+    }
+
+    // Fills ranked with the population's indices from fittest to least fit, ties in index
+    // order. Each index is packed below the position of its fitness among the sorted values,
+    // so one primitive sort of the keys ranks the population without boxing or a comparator.
+    private static void rank(double[] fitness, double[] sorted, long[] keys, int[] ranked) {
+        System.arraycopy(fitness, 0, sorted, 0, fitness.length);
+        Arrays.sort(sorted);
+        for (int i = 0; i < fitness.length; i++) {
+            keys[i] = (long) firstPosition(sorted, fitness[i]) << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int k = 0; k < keys.length; k++) {
+            ranked[k] = (int) keys[k];
+        }
+    }
+
+    // Position of the first value in the sorted array that is not below the given one.
+    private static int firstPosition(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(sorted[mid], value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int tournament(double[] fitness, SplittableRandom rng) {
+        int winner = rng.nextInt(fitness.length);
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            int challenger = rng.nextInt(fitness.length);
+            if (fitness[challenger] < fitness[winner]) {
+                winner = challenger;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Scratch arrays owned by one population slot, reused every generation
+     */
+    private static final class Workspace {
+        final boolean[] taken;
+        final int[] teamCounts;
+        final int[] counts;
+
+        Workspace(Problem problem) {
+            this.taken = new boolean[problem.n];
+            this.teamCounts = new int[problem.teamCount];
+            this.counts = new int[problem.rules.counterCount()];
+        }
+    }
+
+    /**
+     * Immutable problem definition plus the genetic operators that act on it
+     */
+    private static final class Problem {
+        final CompiledRules rules;
+        final ParticipantColumns columns;
+        final int teamCount;
+        final int teamSize;
+        final int n;
+        final int seats;
+        // Null without a pairing history; otherwise each participant's history index, or -1
+        final PairingHistory history;
+        final int[] historyIndex;
+
+        Problem(CompiledRules rules, int teamCount, PairingHistory history) {
+            this.rules = rules;
+            this.columns = rules.columns();
+            this.teamCount = teamCount;
+            this.teamSize = rules.teamSize();
+            this.n = columns.size();
+            this.seats = teamCount * teamSize;
+            if (history != null && history.getPairCount() > 0) {
+                this.history = history;
+                this.historyIndex = new int[n];
+                for (int p = 0; p < n; p++) {
+                    historyIndex[p] = history.indexOf(columns.participant(p).getId());
+                }
+            } else {
+                this.history = null;
+                this.historyIndex = null;
+            }
+        }
+
+        // Seeds the population with a skill snake draft, a strong starting point for balance.
+        int[] snakeGenome() {
+            int[] bySkill = SnakeDraftEngine.orderBySkillDescending(columns);
+
+            int[] genome = new int[n];
+            for (int k = 0; k < n; k++) {
+                if (k < seats) {
+                    int round = k / teamCount;
+                    int j = k % teamCount;
+                    int team = (round % 2 == 0) ? j : teamCount - 1 - j;
+                    genome[team * teamSize + round] = bySkill[k];
+                } else {
+                    genome[k] = bySkill[k];
+                }
+            }
+            return genome;
+        }
+
+        int[] randomGenome(SplittableRandom rng) {
+            int[] genome = new int[n];
+            for (int i = 0; i < n; i++) {
+                genome[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                swap(genome, i, rng.nextInt(i + 1));
+            }
+            return genome;
+        }
+
+        // Lower is better: variance of team skill totals plus penalties for broken rules and
+        // repeated pairings. Hard caps, minimums and skill bounds weigh a hundred times more
+        // than soft caps, which weigh ten times more than a pair of former teammates.
+        double cost(int[] genome, Workspace ws) {
+            long totalSkill = 0;
+            for (int p = 0; p < seats; p++) {
+                totalSkill += columns.skill(genome[p]);
+            }
+            double mean = (double) totalSkill / teamCount;
+
+            double variance = 0;
+            int hardViolations = 0;
+            int softExcess = 0;
+            int repeatedPairs = 0;
+            int[] counts = ws.counts;
+
+            for (int t = 0; t < teamCount; t++) {
+                int from = t * teamSize;
+                int to = from + teamSize;
+                long sum = 0;
+                for (int p = from; p < to; p++) {
+                    int member = genome[p];
+                    sum += columns.skill(member);
+                    rules.add(counts, 0, member);
+                }
+                for (int c : rules.minimumCounters()) {
+                    hardViolations += Math.max(0, rules.minimum(c) - counts[c]);
+                }
+                // Each counter is read once, through its first member, then cleared for the next team.
+                for (int p = from; p < to; p++) {
+                    for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                        int c = rules.counter(genome[p], a);
+                        if (c < 0) continue;
+                        hardViolations += Math.max(0, counts[c] - rules.hardCap(c));
+                        softExcess += Math.max(0, counts[c] - rules.softCap(c));
+                        counts[c] = 0;
+                    }
+                }
+                if (!rules.skillWithinBounds(sum)) hardViolations++;
+                variance += (sum - mean) * (sum - mean);
+                if (history != null) {
+                    for (int p = from; p < to; p++) {
+                        for (int q = p + 1; q < to; q++) {
+                            repeatedPairs += history.penalty(historyIndex[genome[p]], historyIndex[genome[q]]);
+                        }
+                    }
+                }
+            }
+
+            return variance / teamCount + SOFT_PENALTY * softExcess + HARD_PENALTY * hardViolations
+                    + PAIR_PENALTY * repeatedPairs;
+        }
+
+        // Block order crossover: a run of whole teams is inherited from parent a,
+        // every other position is filled with the remaining participants in parent b's order.
+        void crossover(int[] a, int[] b, int[] child, Workspace ws, SplittableRandom rng) {
+            boolean[] taken = ws.taken;
+            Arrays.fill(taken, false);
+
+            int firstTeam = rng.nextInt(teamCount);
+            int lastTeam = firstTeam + 1 + rng.nextInt(Math.max(1, teamCount / 2));
+            int from = firstTeam * teamSize;
+            int to = Math.min(seats, lastTeam * teamSize);
+
+            for (int p = from; p < to; p++) {
+                child[p] = a[p];
+                taken[a[p]] = true;
+            }
+
+            int fill = 0;
+            for (int q = 0; q < n; q++) {
+                int gene = b[q];
+                if (taken[gene]) continue;
+                if (fill == from) fill = to;
+                child[fill++] = gene;
+            }
+        }
+
+        void mutate(int[] genome, SplittableRandom rng, double rate) {
+            if (teamCount < 2) return;
+            int swaps = Math.max(1, (int) Math.round(n * rate));
+            for (int i = 0; i < swaps; i++) {
+                int x = rng.nextInt(n);
+                int y = rng.nextInt(n);
+                if (x / teamSize != y / teamSize) {
+                    swap(genome, x, y);
+                }
+            }
+        }
+
+        // Repair operators: bring every team within each minimum and hard cap, then break up
+        // values that go over a soft cap in a team by swapping with other teams.
+        void repair(int[] genome, Workspace ws, SplittableRandom rng) {
+            for (int c = 0; c < rules.counterCount(); c++) {
+                if (rules.isHard(c)) repairCounter(genome, ws, c);
+            }
+            repairSoftCaps(genome, ws, rng);
+        }
+
+        private void repairCounter(int[] genome, Workspace ws, int c) {
+            int minimum = rules.minimum(c);
+            int cap = rules.hardCap(c);
+            int[] matching = ws.teamCounts;
+            Arrays.fill(matching, 0);
+            for (int p = 0; p < seats; p++) {
+                if (rules.matches(genome[p], c)) matching[p / teamSize]++;
+            }
+
+            int spare = seats;
+            int donor = 0;
+            for (int t = 0; t < teamCount; t++) {
+                while (matching[t] < minimum) {
+                    while (spare < n && !rules.matches(genome[spare], c)) spare++;
+                    int source;
+                    if (spare < n) {
+                        source = spare++;
+                    } else {
+                        while (donor < teamCount && matching[donor] <= minimum) donor++;
+                        if (donor == teamCount) return;
+                        source = memberMatching(genome, donor, c);
+                        matching[donor]--;
+                    }
+
+                    int target = closestOther(genome, t, c, columns.skill(genome[source]));
+                    if (target < 0) return;
+                    swap(genome, source, target);
+                    matching[t]++;
+                }
+            }
+
+            int spareSeat = seats;
+            int receiver = 0;
+            for (int t = 0; t < teamCount; t++) {
+                while (matching[t] > cap) {
+                    int source = memberMatching(genome, t, c);
+                    while (receiver < teamCount && matching[receiver] >= cap) receiver++;
+                    int target;
+                    if (receiver < teamCount) {
+                        target = closestOther(genome, receiver, c, columns.skill(genome[source]));
+                        matching[receiver]++;
+                    } else {
+                        while (spareSeat < n && rules.matches(genome[spareSeat], c)) spareSeat++;
+                        if (spareSeat == n) return;
+                        target = spareSeat++;
+                    }
+                    swap(genome, source, target);
+                    matching[t]--;
+                }
+            }
+        }
+
+        private void repairSoftCaps(int[] genome, Workspace ws, SplittableRandom rng) {
+            if (teamCount < 2) return;
+            int[] counts = ws.counts;
+
+            for (int t = 0; t < teamCount; t++) {
+                int from = t * teamSize;
+                int to = from + teamSize;
+                for (int p = from; p < to; p++) rules.add(counts, 0, genome[p]);
+
+                for (int p = from; p < to; p++) {
+                    int c = overSoftCap(genome[p], counts);
+                    if (c < 0) continue;
+
+                    for (int attempt = 0; attempt < SOFT_REPAIR_ATTEMPTS; attempt++) {
+                        int other = rng.nextInt(teamCount);
+                        if (other == t) continue;
+                        int q = swapCandidate(genome, other, genome[p], c, counts);
+                        if (q >= 0) {
+                            rules.remove(counts, 0, genome[p]);
+                            rules.add(counts, 0, genome[q]);
+                            swap(genome, p, q);
+                            break;
+                        }
+                    }
+                }
+
+                Arrays.fill(counts, 0);
+            }
+        }
+
+        private int overSoftCap(int participant, int[] counts) {
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                int c = rules.counter(participant, a);
+                if (c >= 0 && counts[c] > rules.softCap(c)) return c;
+            }
+            return -1;
+        }
+
+        // Finds a member of team other that can trade places with participant without changing
+        // either team's hard counts or pushing counter c, or a value of the member's, over its
+        // soft cap.
+        private int swapCandidate(int[] genome, int other, int participant, int c, int[] ownCounts) {
+            int from = other * teamSize;
+            int to = from + teamSize;
+            int matchingInOther = 0;
+            for (int q = from; q < to; q++) {
+                if (rules.matches(genome[q], c)) matchingInOther++;
+            }
+            if (matchingInOther >= rules.softCap(c)) return -1;
+
+            for (int q = from; q < to; q++) {
+                int candidate = genome[q];
+                if (rules.hardClass(candidate) != rules.hardClass(participant)) continue;
+                if (!rules.matches(candidate, c) && fitsSoftCaps(candidate, participant, ownCounts)) {
+                    return q;
+                }
+            }
+            return -1;
+        }
+
+        // Whether the candidate's values, apart from those it shares with the member it replaces,
+        // are all under their soft caps in the team.
+        private boolean fitsSoftCaps(int candidate, int replaced, int[] counts) {
+            for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+                int c = rules.counter(candidate, a);
+                if (c >= 0 && c != rules.counter(replaced, a) && counts[c] >= rules.softCap(c)) return false;
+            }
+            return true;
+        }
+
+        private int memberMatching(int[] genome, int team, int c) {
+            for (int p = team * teamSize; p < (team + 1) * teamSize; p++) {
+                if (rules.matches(genome[p], c)) return p;
+            }
+            throw new IllegalStateException("Team " + team + " has no " + rules.label(c) + " to give");
+        }
+
+        private int closestOther(int[] genome, int team, int c, int skill) {
+            int best = -1;
+            int bestGap = Integer.MAX_VALUE;
+            for (int p = team * teamSize; p < (team + 1) * teamSize; p++) {
+                int member = genome[p];
+                if (rules.matches(member, c)) continue;
+                int gap = Math.abs(columns.skill(member) - skill);
+                if (gap < bestGap) {
+                    bestGap = gap;
+                    best = p;
+                }
+            }
+            return best;
+        }
+
+        private static void swap(int[] genome, int x, int y) {
+            int tmp = genome[x];
+            genome[x] = genome[y];
+            genome[y] = tmp;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.letsteamup.algorithm;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Min-cost max-flow solver on primitive arrays (primal-dual method)
+ *
+ * Each phase runs Dijkstra on reduced costs, updates the node potentials and then
+ * pushes a blocking flow through the arcs whose reduced cost became zero. Costs must
+ * be non-negative. The number of phases is bounded by the number of distinct
+ * shortest-path lengths, so for the small integer costs used by the formation
+ * engines the runtime is O(C * E log V) with C the largest path cost.
+ */
+public final class MinCostFlow {
+
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final int nodeCount;
+    private final int[] head;
+    private int[] next;
+    private int[] to;
+    private long[] capacity;
+    private long[] cost;
+    private int edgeCount;
+
+    private BooleanSupplier stopCondition = () -> false;
+
+    public MinCostFlow(int nodeCount, int expectedEdges) {
+        this.nodeCount = nodeCount;
+        this.head = new int[nodeCount];
+        Arrays.fill(head, -1);
+        int slots = Math.max(2, expectedEdges * 2);
+        this.next = new int[slots];
+        this.to = new int[slots];
+        this.capacity = new long[slots];
+        this.cost = new long[slots];
+    }
+
+    /**
+     * Adds an arc and returns its index; the residual arc is stored at index ^ 1
+     */
+    public int addEdge(int from, int target, long cap, long arcCost) {
+        if (arcCost < 0) {
+            throw new IllegalArgumentException("Arc costs must be non-negative");
+        }
+        ensureCapacity(edgeCount + 2);
+        int forward = edgeCount;
+        link(from, target, cap, arcCost);
+        link(target, from, 0, -arcCost);
+        return forward;
+    }
+
+    /**
+     * Flow currently routed through the arc returned by addEdge
+     */
+    public long flow(int edge) {
+        return capacity[edge ^ 1];
+    }
+
+    /**
+     * Stops the solver between phases, leaving a feasible but possibly smaller flow
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Sends as much flow as possible from source to sink at minimum total cost.
+     * Returns {flow, cost}.
+     */
+    public long[] solve(int source, int sink) {
+        long[] potential = new long[nodeCount];
+        long[] dist = new long[nodeCount];
+        int[] level = new int[nodeCount];
+        int[] currentArc = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        int[] pathEdges = new int[nodeCount];
+        long[] heap = new long[Math.max(16, edgeCount + 1)];
+        long totalFlow = 0;
+        long totalCost = 0;
+
+        while (!stopCondition.getAsBoolean()) {
+            if (!shortestPaths(source, sink, potential, dist, heap)) {
+                break;
+            }
+
+            long target = dist[sink];
+            for (int v = 0; v < nodeCount; v++) {
+                potential[v] += Math.min(dist[v], target);
+            }
+            long pathCost = potential[sink] - potential[source];
+
+            while (admissibleLevels(source, sink, potential, level, queue)) {
+                System.arraycopy(head, 0, currentArc, 0, nodeCount);
+                long pushed;
+                while ((pushed = augment(source, sink, potential, level, currentArc, pathEdges)) > 0) {
+                    totalFlow += pushed;
+                    totalCost += pushed * pathCost;
+                }
+            }
+        }
+
+        return new long[]{totalFlow, totalCost};
+    }
+
+    // Dijkstra over residual arcs using reduced costs; returns false when the sink is unreachable.
+    private boolean shortestPaths(int source, int sink, long[] potential, long[] dist, long[] heap) {
+        Arrays.fill(dist, INF);
+        dist[source] = 0;
+        int size = 0;
+        heap[size++] = encode(0, source);
+
+        while (size > 0) {
+            long top = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+
+            int u = (int) (top % nodeCount);
+            long d = top / nodeCount;
+            if (d > dist[u]) continue;
+
+            for (int e = head[u]; e != -1; e = next[e]) {
+                if (capacity[e] == 0) continue;
+                int v = to[e];
+                long nd = d + cost[e] + potential[u] - potential[v];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+                    heap[size++] = encode(nd, v);
+                    siftUp(heap, size - 1);
+                }
+            }
+        }
+        return dist[sink] < INF;
+    }
+
+    // BFS layering restricted to residual arcs with zero reduced cost.
+    private boolean admissibleLevels(int source, int sink, long[] potential, int[] level, int[] queue) {
+        Arrays.fill(level, -1);
+        level[source] = 0;
+        int headIndex = 0;
+        int tail = 0;
+        queue[tail++] = source;
+
+        while (headIndex < tail) {
+            int u = queue[headIndex++];
+            for (int e = head[u]; e != -1; e = next[e]) {
+                int v = to[e];
+                if (capacity[e] > 0 && level[v] < 0 && cost[e] + potential[u] - potential[v] == 0) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    // Finds one augmenting path along increasing levels (iteratively, without recursion)
+    // and pushes its bottleneck capacity; returns 0 when the layered graph is blocked.
+    private long augment(int source, int sink, long[] potential, int[] level, int[] currentArc, int[] pathEdges) {
+        int depth = 0;
+        int u = source;
+
+        while (true) {
+            if (u == sink) {
+                long pushed = INF;
+                for (int i = 0; i < depth; i++) {
+                    pushed = Math.min(pushed, capacity[pathEdges[i]]);
+                }
+                for (int i = 0; i < depth; i++) {
+                    capacity[pathEdges[i]] -= pushed;
+                    capacity[pathEdges[i] ^ 1] += pushed;
+                }
+                return pushed;
+            }
+
+            boolean advanced = false;
+            for (int e = currentArc[u]; e != -1; e = next[e]) {
+                currentArc[u] = e;
+                int v = to[e];
+                if (capacity[e] > 0 && level[v] == level[u] + 1
+                        && cost[e] + potential[u] - potential[v] == 0) {
+                    pathEdges[depth++] = e;
+                    u = v;
+                    advanced = true;
+                    break;
+                }
+            }
+
+            if (!advanced) {
+                currentArc[u] = -1;
+                level[u] = -1;
+                if (depth == 0) {
+                    return 0;
+                }
+                int back = pathEdges[--depth];
+                u = to[back ^ 1];
+                currentArc[u] = next[currentArc[u]];
+            }
+        }
+    }
+
+    private long encode(long distance, int node) {
+        return distance * nodeCount + node;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) return;
+        int index = 0;
+        long value = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= value) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private void link(int from, int target, long cap, long arcCost) {
+        to[edgeCount] = target;
+        capacity[edgeCount] = cap;
+        cost[edgeCount] = arcCost;
+        next[edgeCount] = head[from];
+        head[from] = edgeCount;
+        edgeCount++;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= to.length) return;
+        int size = Math.max(required, to.length * 2);
+        next = Arrays.copyOf(next, size);
+        to = Arrays.copyOf(to, size);
+        capacity = Arrays.copyOf(capacity, size);
+        cost = Arrays.copyOf(cost, size);
+    }
+}
@@ -0,0 +1,209 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces repeated pairings in formed teams with quality-neutral swaps
+ *
+ * Only members with the same Leader status and skill level are exchanged, so team sizes,
+ * skill totals and Leader counts stay exactly as the formation algorithm left them. Every
+ * other rule is checked per swap on the context's compiled rules: a swap may not break a
+ * hard cap or a minimum, nor add soft-cap overflow such as a third player of one game.
+ * Members are laid out as flat seat arrays; a candidate swap is scored with O(teamSize)
+ * history lookups plus O(1) count checks, and candidates come from the swapping member's
+ * own Leader and skill bucket, never from a scan of the pool.
+ */
+public class PairingSwapper {
+
+    private static final int MAX_PASSES = 4;
+    private static final int BUCKET_PROBE = 64;
+
+    /**
+     * Swaps members between the given teams in place and returns the repeated pairs left
+     */
+    public int reduce(List<Team> teams, PairingHistory history, FormationContext context) {
+        int teamCount = teams.size();
+        int[] start = new int[teamCount + 1];
+        for (int t = 0; t < teamCount; t++) {
+            start[t + 1] = start[t] + teams.get(t).getCurrentSize();
+        }
+        int seats = start[teamCount];
+        Participant[] occupant = new Participant[seats];
+        int[] index = new int[seats];
+        int[] teamOf = new int[seats];
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        int[] bucketOf = new int[seats];
+        List<int[]> bucketSeats = new ArrayList<>();
+        int largestTeam = 0;
+
+        for (int t = 0; t < teamCount; t++) {
+            List<Participant> members = teams.get(t).getMembers();
+            largestTeam = Math.max(largestTeam, members.size());
+            for (int k = 0; k < members.size(); k++) {
+                int seat = start[t] + k;
+                Participant p = members.get(k);
+                occupant[seat] = p;
+                index[seat] = history.indexOf(p.getId());
+                teamOf[seat] = t;
+                buckets.computeIfAbsent(bucketKey(p), key -> new ArrayList<>()).add(seat);
+            }
+        }
+
+        // Columns are taken in seat order, so column[seat] starts out as the seat itself
+        CompiledRules rules = CompiledRules.compile(context.getRules(),
+                ParticipantColumns.of(Arrays.asList(occupant)), Math.max(1, largestTeam));
+        int counters = rules.counterCount();
+        int[] column = new int[seats];
+        int[] counts = new int[teamCount * counters];
+        for (int seat = 0; seat < seats; seat++) {
+            column[seat] = seat;
+            rules.add(counts, teamOf[seat] * counters, seat);
+        }
+        for (List<Integer> bucket : buckets.values()) {
+            int[] members = new int[bucket.size()];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = bucket.get(i);
+                bucketOf[members[i]] = bucketSeats.size();
+            }
+            bucketSeats.add(members);
+        }
+
+        boolean[] changed = new boolean[teamCount];
+        for (int pass = 0; pass < MAX_PASSES && !context.shouldStop(); pass++) {
+            boolean improved = false;
+            for (int seat = 0; seat < seats; seat++) {
+                int team = teamOf[seat];
+                int current = clashes(history, index, start, team, index[seat], seat);
+                if (current == 0) continue;
+
+                int[] bucket = bucketSeats.get(bucketOf[seat]);
+                int bestSeat = -1;
+                int bestDelta = 0;
+                int probes = Math.min(bucket.length, BUCKET_PROBE);
+                int offset = indexIn(bucket, seat);
+                for (int i = 1; i <= probes; i++) {
+                    int other = bucket[(offset + i) % bucket.length];
+                    int otherTeam = teamOf[other];
+                    if (otherTeam == team) continue;
+                    if (!keepsRules(rules, counts, column[seat], team, column[other], otherTeam)) continue;
+                    int delta = clashes(history, index, start, otherTeam, index[seat], other)
+                            + clashes(history, index, start, team, index[other], seat)
+                            - current
+                            - clashes(history, index, start, otherTeam, index[other], other);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestSeat = other;
+                    }
+                }
+                if (bestSeat >= 0) {
+                    int otherTeam = teamOf[bestSeat];
+                    rules.remove(counts, team * counters, column[seat]);
+                    rules.add(counts, otherTeam * counters, column[seat]);
+                    rules.remove(counts, otherTeam * counters, column[bestSeat]);
+                    rules.add(counts, team * counters, column[bestSeat]);
+                    swap(occupant, index, column, seat, bestSeat);
+                    changed[team] = true;
+                    changed[otherTeam] = true;
+                    improved = true;
+                }
+            }
+            if (!improved) break;
+        }
+
+        int repeated = 0;
+        for (int t = 0; t < teamCount; t++) {
+            for (int a = start[t]; a < start[t + 1]; a++) {
+                for (int b = a + 1; b < start[t + 1]; b++) {
+                    repeated += history.penalty(index[a], index[b]);
+                }
+            }
+            if (changed[t]) {
+                Team team = teams.get(t);
+                for (Participant p : new ArrayList<>(team.getMembers())) {
+                    team.removeMember(p);
+                }
+                for (int seat = start[t]; seat < start[t + 1]; seat++) {
+                    team.addMember(occupant[seat]);
+                }
+            }
+        }
+        return repeated;
+    }
+
+    // Former teammates of a member (by history index) among a team's seats, skipping the seat
+    // the member occupies or is about to take.
+    private static int clashes(PairingHistory history, int[] index, int[] start, int team, int member,
+                               int ownSeat) {
+        if (member < 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int seat = start[team]; seat < start[team + 1]; seat++) {
+            if (seat != ownSeat) {
+                count += history.penalty(member, index[seat]);
+            }
+        }
+        return count;
+    }
+
+    // Whether moving member x from team tx to team ty and member y the other way keeps every
+    // hard cap and minimum and adds no soft-cap overflow. Counters both members share do not
+    // move; the others are checked from the count arrays in O(1) per attribute.
+    private static boolean keepsRules(CompiledRules rules, int[] counts, int x, int tx, int y, int ty) {
+        int counters = rules.counterCount();
+        int overflow = 0;
+        for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+            int cx = rules.counter(x, a);
+            int cy = rules.counter(y, a);
+            if (cx == cy) continue;
+            if (cx >= 0) {
+                int leaving = counts[tx * counters + cx];
+                int joining = counts[ty * counters + cx];
+                if (leaving <= rules.minimum(cx) || joining >= rules.hardCap(cx)) return false;
+                overflow += (joining >= rules.softCap(cx) ? 1 : 0) - (leaving > rules.softCap(cx) ? 1 : 0);
+            }
+            if (cy >= 0) {
+                int leaving = counts[ty * counters + cy];
+                int joining = counts[tx * counters + cy];
+                if (leaving <= rules.minimum(cy) || joining >= rules.hardCap(cy)) return false;
+                overflow += (joining >= rules.softCap(cy) ? 1 : 0) - (leaving > rules.softCap(cy) ? 1 : 0);
+            }
+        }
+        return overflow <= 0;
+    }
+
+    private static void swap(Participant[] occupant, int[] index, int[] column, int a, int b) {
+        Participant p = occupant[a];
+        occupant[a] = occupant[b];
+        occupant[b] = p;
+        int i = index[a];
+        index[a] = index[b];
+        index[b] = i;
+        int c = column[a];
+        column[a] = column[b];
+        column[b] = c;
+    }
+
+    private static int indexIn(int[] bucket, int seat) {
+        int low = 0;
+        int high = bucket.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket[mid] < seat) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    private static long bucketKey(Participant p) {
+        return (long) p.getSkillLevel() << 1 | (p.isLeader() ? 1 : 0);
+    }
+}
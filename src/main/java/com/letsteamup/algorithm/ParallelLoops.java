@@ -0,0 +1,54 @@
+package com.letsteamup.algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Fork/join helpers shared by the formation engines
+ * Work is split recursively so idle workers steal the remaining halves
+ */
+public final class ParallelLoops {
+
+    private ParallelLoops() {
+    }
+
+    /**
+     * Runs body for every index in [0, count) on the pool and waits for all of them.
+     * Each index is expected to be a substantial unit of work (e.g. one genome).
+     */
+    public static void forRange(ForkJoinPool pool, int count, IntConsumer body) {
+        if (count <= 0) {
+            return;
+        }
+        if (count == 1 || pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new RangeAction(0, count, body));
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        RangeAction(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, body), new RangeAction(mid, to, body));
+        }
+    }
+}
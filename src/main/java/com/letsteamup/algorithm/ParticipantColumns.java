@@ -0,0 +1,157 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.PersonalityType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented, dictionary-coded view of a participant pool
+ * Engines work on these primitive arrays instead of Participant objects,
+ * which keeps their inner loops free of string comparisons and allocation
+ */
+public final class ParticipantColumns {
+
+    private static final String[] PERSONALITY_NAMES = personalityNames();
+
+    private final List<Participant> participants;
+    private final int[] skill;
+    private final int[] personalityScore;
+    private final boolean[] leader;
+    private final int[] game;
+    private final int[] role;
+    private final int[] personality;
+    private final String[] gameNames;
+    private final String[] roleNames;
+    private final String[] personalityNames;
+
+    private ParticipantColumns(List<Participant> participants, int[] skill, int[] personalityScore,
+                               boolean[] leader, int[] game, int[] role, int[] personality,
+                               String[] gameNames, String[] roleNames, String[] personalityNames) {
+        this.participants = participants;
+        this.skill = skill;
+        this.personalityScore = personalityScore;
+        this.leader = leader;
+        this.game = game;
+        this.role = role;
+        this.personality = personality;
+        this.gameNames = gameNames;
+        this.roleNames = roleNames;
+        this.personalityNames = personalityNames;
+    }
+
+    /**
+     * Encodes a pool in one pass; game and role codes are assigned in order of first
+     * appearance, personality codes are PersonalityType ordinals
+     */
+    public static ParticipantColumns of(List<Participant> participants) {
+        int n = participants.size();
+        int[] skill = new int[n];
+        int[] personalityScore = new int[n];
+        boolean[] leader = new boolean[n];
+        int[] game = new int[n];
+        int[] role = new int[n];
+        int[] personality = new int[n];
+        Map<String, Integer> gameCodes = new HashMap<>();
+        Map<String, Integer> roleCodes = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Participant p = participants.get(i);
+            skill[i] = p.getSkillLevel();
+            personalityScore[i] = p.getPersonalityScore();
+            leader[i] = p.isLeader();
+            game[i] = gameCodes.computeIfAbsent(String.valueOf(p.getPreferredGame()), k -> gameCodes.size());
+            role[i] = roleCodes.computeIfAbsent(String.valueOf(p.getPreferredRole()), k -> roleCodes.size());
+            personality[i] = p.getPersonality().ordinal();
+        }
+
+        return new ParticipantColumns(participants, skill, personalityScore, leader, game, role, personality,
+                namesOf(gameCodes), namesOf(roleCodes), PERSONALITY_NAMES);
+    }
+
+    private static String[] personalityNames() {
+        PersonalityType[] types = PersonalityType.values();
+        String[] names = new String[types.length];
+        for (PersonalityType type : types) {
+            names[type.ordinal()] = type.getDisplayName();
+        }
+        return names;
+    }
+
+    private static String[] namesOf(Map<String, Integer> codes) {
+        String[] names = new String[codes.size()];
+        for (Map.Entry<String, Integer> entry : codes.entrySet()) {
+            names[entry.getValue()] = entry.getKey();
+        }
+        return names;
+    }
+
+    public int size() {
+        return skill.length;
+    }
+
+    public Participant participant(int index) {
+        return participants.get(index);
+    }
+
+    public int skill(int index) {
+        return skill[index];
+    }
+
+    public int personalityScore(int index) {
+        return personalityScore[index];
+    }
+
+    public boolean isLeader(int index) {
+        return leader[index];
+    }
+
+    public int game(int index) {
+        return game[index];
+    }
+
+    public int role(int index) {
+        return role[index];
+    }
+
+    public int personality(int index) {
+        return personality[index];
+    }
+
+    public int gameCount() {
+        return gameNames.length;
+    }
+
+    public int roleCount() {
+        return roleNames.length;
+    }
+
+    public int personalityCount() {
+        return personalityNames.length;
+    }
+
+    public String gameName(int code) {
+        return gameNames[code];
+    }
+
+    public String roleName(int code) {
+        return roleNames[code];
+    }
+
+    public String personalityName(int code) {
+        return personalityNames[code];
+    }
+
+    /**
+     * Counts leaders in the pool
+     */
+    public int leaderCount() {
+        int count = 0;
+        for (boolean l : leader) {
+            if (l) count++;
+        }
+        return count;
+    }
+}
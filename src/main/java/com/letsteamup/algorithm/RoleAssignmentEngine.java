@@ -0,0 +1,264 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Role-based team formation as two min-cost flow problems
+ *
+ * Participants of the same preferred role are interchangeable for role coverage, so the
+ * flow runs on role classes rather than individuals: source -> role -> team -> sink.
+ * Every extra member of a role already present in a team costs one more than the last
+ * (convex marginal cost), so the minimum-cost flow fills every seat it can while keeping
+ * each team's role mix as varied as the pool allows.
+ *
+ * Members a minimum rule asks for (by default the Leaders) are seated first, one flow per
+ * minimum, where a team's seats beyond the minimum are expensive: every team reaches its
+ * minimum before any team gets more, and none goes past the hard cap. The remaining seats
+ * are then filled from everyone else with the roles already seated counted. Inside each
+ * (team, role) quota participants are dealt by skill in zigzag order, so strong players
+ * of a role are spread across teams; a hard cap on roles limits the flow's arcs, and one on
+ * any other attribute makes the dealer pass over a participant for the next of the role.
+ *
+ * The flow graphs have O(roles * teams * teamSize) arcs and the arc costs are bounded
+ * by teamSize, which bounds the number of solver phases independently of the pool size.
+ */
+public class RoleAssignmentEngine {
+
+    /**
+     * Assigns participants to teamCount teams of up to teamSize members. Participants left
+     * over when the seats run out (or a Leader who would be a team's third) stay unassigned.
+     */
+    public List<Team> assign(ParticipantColumns columns, int teamCount, int teamSize, FormationContext context) {
+        int n = columns.size();
+        int roleCount = columns.roleCount();
+        int[] order = SnakeDraftEngine.orderBySkillDescending(columns);
+        CompiledRules rules = CompiledRules.compile(context.getRules(), columns, teamSize);
+        CompiledRules.Tally tally = rules.newTally(teamCount);
+
+        int[] members = new int[teamCount * teamSize];
+        int[] filled = new int[teamCount];
+        int[] roleCounts = new int[teamCount * roleCount];
+        boolean[] placed = new boolean[n];
+
+        for (int c : rules.minimumCounters()) {
+            int[] covering = eligible(order, p -> !placed[p] && rules.matches(p, c));
+            int[] quota = seatCovering(rules, c, byRole(columns, covering, roleCount), tally, teamCount, roleCount,
+                    teamSize, context);
+            deal(columns, covering, quota, tally, placed, teamCount, roleCount, teamSize, members, filled, roleCounts);
+        }
+        context.reportProgress(0, teamCount, sum(filled), n, duplicateCost(roleCounts, teamCount, roleCount));
+
+        int[] others = eligible(order, p -> !placed[p] && !coveredUpToCap(rules, p));
+        int[] otherQuota = fillSeats(rules, byRole(columns, others, roleCount), tally, filled, roleCounts, teamCount,
+                roleCount, teamSize, context);
+        deal(columns, others, otherQuota, tally, placed, teamCount, roleCount, teamSize, members, filled, roleCounts);
+        context.reportProgress(fullTeams(filled, teamSize), teamCount, sum(filled), n,
+                duplicateCost(roleCounts, teamCount, roleCount));
+
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int t = 0; t < teamCount; t++) {
+            Team team = new Team("T" + (t + 1), teamSize);
+            for (int k = 0; k < filled[t]; k++) {
+                team.addMember(columns.participant(members[t * teamSize + k]));
+            }
+            teams.add(team);
+        }
+        return teams;
+    }
+
+    // Members of a capped minimum were offered every seat the cap allows by their own flow.
+    private static boolean coveredUpToCap(CompiledRules rules, int p) {
+        for (int c : rules.minimumCounters()) {
+            if (rules.hardCap(c) != CompiledRules.UNLIMITED && rules.matches(p, c)) return true;
+        }
+        return false;
+    }
+
+    // Coverage flow for one minimum: source -> role -> team -> sink. A team's seats up to the
+    // minimum are free and further ones up to the hard cap cost more than any role clash, so
+    // the counter's members spread over the teams before any team gets extras.
+    private int[] seatCovering(CompiledRules rules, int c, int[] coveringByRole, CompiledRules.Tally tally,
+                               int teamCount, int roleCount, int teamSize, FormationContext context) {
+        int source = 0;
+        int sink = roleCount + teamCount + 1;
+        long extraSeatCost = teamSize + 1L;
+        int cap = Math.min(rules.hardCap(c) == CompiledRules.UNLIMITED ? rules.minimum(c) : rules.hardCap(c),
+                teamSize);
+        MinCostFlow flow = new MinCostFlow(sink + 1, roleCount * (cap * teamCount + 1) + 2 * teamCount);
+        flow.setStopCondition(context::shouldStop);
+
+        int[][] arcs = new int[teamCount * roleCount][];
+        for (int r = 0; r < roleCount; r++) {
+            if (coveringByRole[r] == 0) continue;
+            flow.addEdge(source, 1 + r, coveringByRole[r], 0);
+            for (int t = 0; t < teamCount; t++) {
+                int slots = Math.min(Math.min(cap, coveringByRole[r]), roleRoom(rules, tally, t, r));
+                int[] unitArcs = new int[slots];
+                for (int k = 0; k < slots; k++) {
+                    unitArcs[k] = flow.addEdge(1 + r, 1 + roleCount + t, 1, k);
+                }
+                arcs[t * roleCount + r] = unitArcs;
+            }
+        }
+        for (int t = 0; t < teamCount; t++) {
+            int seated = tally.count(t, c);
+            int room = Math.max(0, Math.min(cap - seated, teamSize - tally.filled(t)));
+            int needed = Math.min(room, Math.max(0, rules.minimum(c) - seated));
+            if (needed > 0) {
+                flow.addEdge(1 + roleCount + t, sink, needed, 0);
+            }
+            if (room > needed) {
+                flow.addEdge(1 + roleCount + t, sink, room - needed, extraSeatCost);
+            }
+        }
+
+        flow.solve(source, sink);
+        return quotas(flow, arcs);
+    }
+
+    // Fill flow: the k-th extra member of role r in team t costs (members of r already seated) + k.
+    private int[] fillSeats(CompiledRules rules, int[] othersByRole, CompiledRules.Tally tally, int[] filled,
+                            int[] roleCounts, int teamCount, int roleCount, int teamSize, FormationContext context) {
+        int source = 0;
+        int sink = roleCount + teamCount + 1;
+        MinCostFlow flow = new MinCostFlow(sink + 1, roleCount * teamCount * teamSize + roleCount + teamCount);
+        flow.setStopCondition(context::shouldStop);
+
+        int[][] arcs = new int[teamCount * roleCount][];
+        for (int r = 0; r < roleCount; r++) {
+            if (othersByRole[r] == 0) continue;
+            flow.addEdge(source, 1 + r, othersByRole[r], 0);
+            for (int t = 0; t < teamCount; t++) {
+                int slots = Math.min(Math.min(teamSize - filled[t], othersByRole[r]), roleRoom(rules, tally, t, r));
+                int[] unitArcs = new int[slots];
+                for (int k = 0; k < slots; k++) {
+                    unitArcs[k] = flow.addEdge(1 + r, 1 + roleCount + t, 1, roleCounts[t * roleCount + r] + k);
+                }
+                arcs[t * roleCount + r] = unitArcs;
+            }
+        }
+        for (int t = 0; t < teamCount; t++) {
+            if (filled[t] < teamSize) {
+                flow.addEdge(1 + roleCount + t, sink, teamSize - filled[t], 0);
+            }
+        }
+
+        flow.solve(source, sink);
+        return quotas(flow, arcs);
+    }
+
+    // Seats of role r team t can still take under a hard cap on that role.
+    private static int roleRoom(CompiledRules rules, CompiledRules.Tally tally, int t, int r) {
+        int c = rules.counterForCode(FormationRules.Attribute.ROLE.ordinal(), r);
+        if (c < 0 || rules.hardCap(c) == CompiledRules.UNLIMITED) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, rules.hardCap(c) - tally.count(t, c));
+    }
+
+    private static int[] eligible(int[] order, IntPredicate filter) {
+        int[] chosen = new int[order.length];
+        int size = 0;
+        for (int p : order) {
+            if (filter.test(p)) chosen[size++] = p;
+        }
+        return Arrays.copyOf(chosen, size);
+    }
+
+    private static int[] byRole(ParticipantColumns columns, int[] participants, int roleCount) {
+        int[] counts = new int[roleCount];
+        for (int p : participants) {
+            counts[columns.role(p)]++;
+        }
+        return counts;
+    }
+
+    private static int[] quotas(MinCostFlow flow, int[][] arcs) {
+        int[] quota = new int[arcs.length];
+        for (int slot = 0; slot < arcs.length; slot++) {
+            if (arcs[slot] == null) continue;
+            for (int arc : arcs[slot]) {
+                quota[slot] += (int) flow.flow(arc);
+            }
+        }
+        return quota;
+    }
+
+    // Hands out each (team, role) quota, walking every role's participants from the highest
+    // skill down and visiting the teams that still need that role in zigzag order. When the
+    // hard caps keep the next participant out of a team, the first later one who fits is taken.
+    private static void deal(ParticipantColumns columns, int[] participants, int[] quota, CompiledRules.Tally tally,
+                             boolean[] placed, int teamCount, int roleCount, int teamSize,
+                             int[] members, int[] filled, int[] roleCounts) {
+        int[][] byRole = new int[roleCount][];
+        int[] sizes = byRole(columns, participants, roleCount);
+        for (int r = 0; r < roleCount; r++) {
+            byRole[r] = new int[sizes[r]];
+            sizes[r] = 0;
+        }
+        for (int p : participants) {
+            int r = columns.role(p);
+            byRole[r][sizes[r]++] = p;
+        }
+
+        for (int r = 0; r < roleCount; r++) {
+            int[] queue = byRole[r];
+            int next = 0;
+            boolean progressed = true;
+            for (int round = 0; progressed; round++) {
+                progressed = false;
+                boolean reverse = (round & 1) == 1;
+                for (int step = 0; step < teamCount && next < queue.length; step++) {
+                    int t = reverse ? teamCount - 1 - step : step;
+                    int slot = t * roleCount + r;
+                    if (quota[slot] == 0) continue;
+
+                    int pick = next;
+                    while (pick < queue.length && !tally.fits(t, queue[pick])) pick++;
+                    quota[slot]--;
+                    progressed = true;
+                    if (pick == queue.length) continue;
+
+                    int p = queue[pick];
+                    System.arraycopy(queue, next, queue, next + 1, pick - next);
+                    queue[next++] = p;
+                    members[t * teamSize + filled[t]++] = p;
+                    roleCounts[slot]++;
+                    tally.add(t, p);
+                    placed[p] = true;
+                }
+            }
+        }
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int v : values) total += v;
+        return total;
+    }
+
+    private static int fullTeams(int[] filled, int teamSize) {
+        int full = 0;
+        for (int f : filled) {
+            if (f == teamSize) full++;
+        }
+        return full;
+    }
+
+    // Sum over teams and roles of m(m-1)/2: the number of same-role pairs inside teams.
+    private static double duplicateCost(int[] roleCounts, int teamCount, int roleCount) {
+        long cost = 0;
+        for (int slot = 0; slot < teamCount * roleCount; slot++) {
+            long m = roleCounts[slot];
+            cost += m * (m - 1) / 2;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,126 @@
+package com.letsteamup.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Bulk arithmetic over columnar skill data: per-team sums, sums of squares, means and
+ * variances for every team at once, and value histograms
+ *
+ * Team kernels take a seat-major matrix, the value of seat k of team t at k * teamCount + t
+ * and 0 in empty seats, so that consecutive lanes are consecutive teams and a team sum is a
+ * column sum. get() returns the SIMD implementation on the incubating Vector API when it was
+ * compiled in (the vector build profile) and the JVM runs with jdk.incubator.vector;
+ * otherwise the scalar loops below.
+ */
+public abstract class SkillKernels {
+
+    private static final String VECTOR_KERNELS = "com.letsteamup.algorithm.VectorSkillKernels";
+    private static final SkillKernels ACTIVE = load();
+
+    /**
+     * The fastest kernels available in this JVM
+     */
+    public static SkillKernels get() {
+        return ACTIVE;
+    }
+
+    /**
+     * The portable scalar kernels
+     */
+    public static SkillKernels scalar() {
+        return Scalar.INSTANCE;
+    }
+
+    private static SkillKernels load() {
+        try {
+            return (SkillKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // Not compiled in, or the incubator module is not in the module graph
+            return Scalar.INSTANCE;
+        }
+    }
+
+    /**
+     * Short name of the implementation, e.g. for diagnostics
+     */
+    public abstract String name();
+
+    /**
+     * sums[t] = sum over the rows of column t of the seat-major matrix
+     */
+    public abstract void teamSums(int[] matrix, int teamCount, int rows, int[] sums);
+
+    /**
+     * squares[t] = sum of the squared values in column t of the seat-major matrix
+     */
+    public abstract void teamSquares(int[] matrix, int teamCount, int rows, int[] squares);
+
+    /**
+     * counts[v - offset] += occurrences of v among values[0, length); values outside
+     * [offset, offset + counts.length) are not counted
+     */
+    public abstract void histogram(int[] values, int length, int offset, int[] counts);
+
+    /**
+     * Per-team mean and population variance of the seat-major matrix, sizes[t] filled seats
+     * per team; empty teams get 0
+     */
+    public void teamMoments(int[] matrix, int teamCount, int rows, int[] sizes, double[] means, double[] variances) {
+        int[] sums = new int[teamCount];
+        int[] squares = new int[teamCount];
+        teamSums(matrix, teamCount, rows, sums);
+        teamSquares(matrix, teamCount, rows, squares);
+        for (int t = 0; t < teamCount; t++) {
+            if (sizes[t] == 0) {
+                means[t] = 0.0;
+                variances[t] = 0.0;
+                continue;
+            }
+            double mean = (double) sums[t] / sizes[t];
+            means[t] = mean;
+            variances[t] = Math.max(0.0, (double) squares[t] / sizes[t] - mean * mean);
+        }
+    }
+
+    private static final class Scalar extends SkillKernels {
+        static final Scalar INSTANCE = new Scalar();
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public void teamSums(int[] matrix, int teamCount, int rows, int[] sums) {
+            Arrays.fill(sums, 0, teamCount, 0);
+            for (int r = 0; r < rows; r++) {
+                int row = r * teamCount;
+                for (int t = 0; t < teamCount; t++) {
+                    sums[t] += matrix[row + t];
+                }
+            }
+        }
+
+        @Override
+        public void teamSquares(int[] matrix, int teamCount, int rows, int[] squares) {
+            Arrays.fill(squares, 0, teamCount, 0);
+            for (int r = 0; r < rows; r++) {
+                int row = r * teamCount;
+                for (int t = 0; t < teamCount; t++) {
+                    int v = matrix[row + t];
+                    squares[t] += v * v;
+                }
+            }
+        }
+
+        @Override
+        public void histogram(int[] values, int length, int offset, int[] counts) {
+            for (int i = 0; i < length; i++) {
+                int bin = values[i] - offset;
+                if (bin >= 0 && bin < counts.length) {
+                    counts[bin]++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Skill-based snake draft in linear time
+ *
+ * Participants are ordered by a stable counting sort on skill (highest first; a sort of
+ * packed keys when the skill range is wider than the pool) and dealt to teams in zigzag
+ * rounds: 1..T, T..1, 1..T, ... The team visited at each step is
+ * computed from the round parity, per-team fill and rule counts live in int arrays,
+ * and no lists are allocated per round. A participant the context's hard caps or skill
+ * bounds rule out of the team whose turn it is is skipped; under the default rules that
+ * is a Leader who would be a team's third, as in the original comparator based draft.
+ */
+public class SnakeDraftEngine {
+
+    /**
+     * Orders participant indices by descending skill; ties keep their pool order.
+     * Runs in O(n + skill range) by counting sort while the skill range is within the
+     * pool size, and in O(n log n) by a primitive sort of packed keys beyond it.
+     */
+    public static int[] orderBySkillDescending(ParticipantColumns columns) {
+        int n = columns.size();
+        if (n == 0) {
+            return new int[0];
+        }
+
+        int minSkill = Integer.MAX_VALUE;
+        int maxSkill = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            minSkill = Math.min(minSkill, columns.skill(i));
+            maxSkill = Math.max(maxSkill, columns.skill(i));
+        }
+
+        if ((long) maxSkill - minSkill >= n) {
+            return orderByPackedKeys(columns);
+        }
+
+        int[] starts = new int[maxSkill - minSkill + 2];
+        for (int i = 0; i < n; i++) {
+            starts[maxSkill - columns.skill(i) + 1]++;
+        }
+        for (int b = 1; b < starts.length; b++) {
+            starts[b] += starts[b - 1];
+        }
+
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[starts[maxSkill - columns.skill(i)]++] = i;
+        }
+        return order;
+    }
+
+    // Sorts keys holding the negated skill above the pool index, so ascending key order is
+    // descending skill with ties in pool order.
+    private static int[] orderByPackedKeys(ParticipantColumns columns) {
+        int n = columns.size();
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (-(long) columns.skill(i) << 31) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    /**
+     * Drafts teamCount teams of up to teamSize members, stopping early with the
+     * teams drafted so far when the context's deadline or cancellation fires.
+     */
+    public List<Team> draft(ParticipantColumns columns, int teamCount, int teamSize, FormationContext context) {
+        int n = columns.size();
+        int[] order = orderBySkillDescending(columns);
+        CompiledRules.Tally tally = CompiledRules.compile(context.getRules(), columns, teamSize).newTally(teamCount);
+        int[] members = new int[teamCount * teamSize];
+        int[] filled = new int[teamCount];
+        long[] skillSums = new long[teamCount];
+
+        int fullTeams = 0;
+        int assigned = 0;
+        int next = 0;
+
+        for (int round = 0; next < n && fullTeams < teamCount && !context.shouldStop(); round++) {
+            boolean reverse = (round & 1) == 1;
+
+            for (int step = 0; step < teamCount && next < n; step++) {
+                int t = reverse ? teamCount - 1 - step : step;
+                if (filled[t] == teamSize) continue;
+
+                int p = order[next++];
+                if (!tally.fits(t, p)) continue;
+                tally.add(t, p);
+
+                members[t * teamSize + filled[t]] = p;
+                skillSums[t] += columns.skill(p);
+                assigned++;
+                if (++filled[t] == teamSize) fullTeams++;
+            }
+
+            context.reportProgress(fullTeams, teamCount, assigned, n, averageSkillSpread(skillSums, filled));
+        }
+
+        List<Team> teams = new ArrayList<>(teamCount);
+        for (int t = 0; t < teamCount; t++) {
+            Team team = new Team("T" + (t + 1), teamSize);
+            for (int k = 0; k < filled[t]; k++) {
+                team.addMember(columns.participant(members[t * teamSize + k]));
+            }
+            teams.add(team);
+        }
+        return teams;
+    }
+
+    private static double averageSkillSpread(long[] skillSums, int[] filled) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int t = 0; t < skillSums.length; t++) {
+            if (filled[t] == 0) continue;
+            double average = (double) skillSums[t] / filled[t];
+            min = Math.min(min, average);
+            max = Math.max(max, average);
+        }
+        return max < min ? 0.0 : max - min;
+    }
+}
@@ -0,0 +1,502 @@
+package com.letsteamup.algorithm;
+
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.PersonalityType;
+import com.letsteamup.model.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scores a whole formation on a 0-100 scale so that results of different algorithms
+ * can be compared directly
+ *
+ * The score is the share of participants placed times a weighted mean of five team
+ * qualities in [0, 1]: skill balance across teams, game diversity, role coverage,
+ * personality mix and Leader balance (the Leader count the rules allow, one or two per
+ * team under the default rules). The weights are
+ * configurable; an Evaluation keeps the per-team terms so that the score change of a
+ * member swap between two teams is found in O(1). Its team skill totals come from the
+ * SkillKernels column sums.
+ */
+public class TeamQualityScorer {
+
+    private static final int ROLE_KINDS = 5;
+    private static final int PERSONALITY_KINDS = 3;
+    private static final int PERSONALITY_CODES = PersonalityType.values().length;
+
+    /**
+     * Relative weights of the five qualities, normalised to sum to one
+     */
+    public static final class Weights {
+
+        /** Skill balance first, then Leader balance, role coverage, games and personalities */
+        public static final Weights DEFAULT = of(0.30, 0.15, 0.20, 0.10, 0.25);
+
+        private final double skill;
+        private final double game;
+        private final double role;
+        private final double personality;
+        private final double leader;
+
+        private Weights(double skill, double game, double role, double personality, double leader) {
+            this.skill = skill;
+            this.game = game;
+            this.role = role;
+            this.personality = personality;
+            this.leader = leader;
+        }
+
+        /**
+         * Weights in any non-negative scale; at least one must be positive
+         */
+        public static Weights of(double skill, double game, double role, double personality, double leader) {
+            double total = skill + game + role + personality + leader;
+            if (skill < 0 || game < 0 || role < 0 || personality < 0 || leader < 0 || !(total > 0)
+                    || Double.isInfinite(total)) {
+                throw new IllegalArgumentException("Weights must be non-negative with a positive sum");
+            }
+            return new Weights(skill / total, game / total, role / total, personality / total, leader / total);
+        }
+
+        public double getSkill() {
+            return skill;
+        }
+
+        public double getGame() {
+            return game;
+        }
+
+        public double getRole() {
+            return role;
+        }
+
+        public double getPersonality() {
+            return personality;
+        }
+
+        public double getLeader() {
+            return leader;
+        }
+    }
+
+    private final Weights weights;
+    private final FormationRules rules;
+    private final int minLeaders;
+    private final int maxLeaders;
+
+    public TeamQualityScorer() {
+        this(Weights.DEFAULT);
+    }
+
+    public TeamQualityScorer(Weights weights) {
+        this(weights, FormationRules.DEFAULT);
+    }
+
+    /**
+     * A scorer whose Leader balance counts teams within the Leader minimum and cap of the rules
+     */
+    public TeamQualityScorer(Weights weights, FormationRules rules) {
+        if (weights == null || rules == null) {
+            throw new IllegalArgumentException("Weights and rules are required");
+        }
+        this.weights = weights;
+        this.rules = rules;
+        String leader = PersonalityType.LEADER.getDisplayName();
+        this.minLeaders = rules.minimumOf(FormationRules.Attribute.PERSONALITY, leader);
+        this.maxLeaders = rules.maximumOf(FormationRules.Attribute.PERSONALITY, leader);
+    }
+
+    /**
+     * This scorer's weights applied under other rules
+     */
+    public TeamQualityScorer withRules(FormationRules rules) {
+        return this.rules.equals(rules) ? this : new TeamQualityScorer(weights, rules);
+    }
+
+    public Weights getWeights() {
+        return weights;
+    }
+
+    public FormationRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Scores the teams formed from a pool of participantCount participants
+     */
+    public double score(List<Team> teams, int participantCount) {
+        if (teams.isEmpty() || participantCount <= 0) {
+            return 0.0;
+        }
+
+        int assigned = 0;
+        double skillSum = 0;
+        double skillSquares = 0;
+        double games = 0;
+        double roles = 0;
+        double personalities = 0;
+        int balancedLeaders = 0;
+        int scored = 0;
+
+        for (Team team : teams) {
+            int size = team.getCurrentSize();
+            if (size == 0) continue;
+            assigned += size;
+            scored++;
+
+            double average = (double) team.getSkillTotal() / size;
+            skillSum += average;
+            skillSquares += average * average;
+
+            Set<String> teamGames = new HashSet<>();
+            Set<String> teamRoles = new HashSet<>();
+            int teamTypes = 0;
+            for (Participant p : team.getMembers()) {
+                teamGames.add(p.getPreferredGame());
+                teamRoles.add(p.getPreferredRole());
+                teamTypes |= 1 << p.getPersonality().ordinal();
+            }
+            games += gameTerm(teamGames.size(), size);
+            roles += roleTerm(teamRoles.size(), size);
+            personalities += personalityTerm(Integer.bitCount(teamTypes), size);
+            balancedLeaders += leaderTerm(team.getLeaderCount());
+        }
+        return combine(assigned, participantCount, scored, skillSum, skillSquares, games, roles, personalities,
+                balancedLeaders);
+    }
+
+    /**
+     * Scores each team on a 0-100 scale, its skill balance measured against the mean team
+     * average of the formation; empty teams score 0
+     */
+    public double[] scoreTeams(List<Team> teams) {
+        double[] scores = new double[teams.size()];
+        double skillSum = 0;
+        int scored = 0;
+        for (Team team : teams) {
+            if (team.getCurrentSize() == 0) continue;
+            skillSum += (double) team.getSkillTotal() / team.getCurrentSize();
+            scored++;
+        }
+        double mean = scored == 0 ? 0 : skillSum / scored;
+
+        for (int t = 0; t < scores.length; t++) {
+            Team team = teams.get(t);
+            int size = team.getCurrentSize();
+            if (size == 0) continue;
+            Set<String> teamGames = new HashSet<>();
+            Set<String> teamRoles = new HashSet<>();
+            int teamTypes = 0;
+            for (Participant p : team.getMembers()) {
+                teamGames.add(p.getPreferredGame());
+                teamRoles.add(p.getPreferredRole());
+                teamTypes |= 1 << p.getPersonality().ordinal();
+            }
+            double deviation = (double) team.getSkillTotal() / size - mean;
+            scores[t] = 100.0 * (weights.skill / (1.0 + deviation * deviation)
+                    + weights.game * gameTerm(teamGames.size(), size)
+                    + weights.role * Math.min(1.0, roleTerm(teamRoles.size(), size))
+                    + weights.personality * Math.min(1.0, personalityTerm(Integer.bitCount(teamTypes), size))
+                    + weights.leader * leaderTerm(team.getLeaderCount()));
+        }
+        return scores;
+    }
+
+    /**
+     * Indexes the teams for incremental scoring of member swaps
+     */
+    public Evaluation evaluate(List<Team> teams, int participantCount) {
+        return new Evaluation(teams, participantCount);
+    }
+
+    private static double gameTerm(int distinct, int size) {
+        return (double) distinct / size;
+    }
+
+    private static double roleTerm(int distinct, int size) {
+        return (double) distinct / Math.min(size, ROLE_KINDS);
+    }
+
+    private static double personalityTerm(int distinct, int size) {
+        return (double) distinct / Math.min(size, PERSONALITY_KINDS);
+    }
+
+    private int leaderTerm(int leaders) {
+        return leaders >= minLeaders && leaders <= maxLeaders ? 1 : 0;
+    }
+
+    private double combine(int assigned, int participantCount, int scored, double skillSum, double skillSquares,
+                           double games, double roles, double personalities, int balancedLeaders) {
+        if (scored == 0 || participantCount <= 0) {
+            return 0.0;
+        }
+        double mean = skillSum / scored;
+        double variance = Math.max(0.0, skillSquares / scored - mean * mean);
+        double quality = weights.skill / (1.0 + variance)
+                + weights.game * games / scored
+                + weights.role * Math.min(1.0, roles / scored)
+                + weights.personality * Math.min(1.0, personalities / scored)
+                + weights.leader * balancedLeaders / scored;
+        double coverage = Math.min(1.0, (double) assigned / participantCount);
+        return 100.0 * coverage * quality;
+    }
+
+    /**
+     * A formation held as dictionary-coded members with per-team value counts and the running
+     * sums of every quality term. A swap leaves team sizes alone and changes two teams' counts
+     * by one value each, so its score delta needs a few count lookups and no pass over members.
+     * Not thread-safe.
+     */
+    public final class Evaluation {
+        private static final int SKILL_SUM = 0;
+        private static final int SKILL_SQUARES = 1;
+        private static final int GAMES = 2;
+        private static final int ROLES = 3;
+        private static final int PERSONALITIES = 4;
+        private static final int BALANCED_LEADERS = 5;
+
+        private final List<Team> source;
+        private final int participantCount;
+        private final Participant[][] members;
+        private final int[][] skillOf;
+        private final int[][] gameOf;
+        private final int[][] roleOf;
+        private final int[][] typeOf;
+        private final int gameKinds;
+        private final int roleKinds;
+        private final int typeKinds;
+        private final int leaderType;
+        private final int[] gameCounts;
+        private final int[] roleCounts;
+        private final int[] typeCounts;
+        private final int[] distinctGames;
+        private final int[] distinctRoles;
+        private final int[] distinctTypes;
+        private final long[] skillTotal;
+        private final int[] leaders;
+        private final double[] terms = new double[6];
+        private final double[] trial = new double[6];
+        private int assigned;
+        private int scored;
+
+        private Evaluation(List<Team> teams, int participantCount) {
+            this.source = teams;
+            this.participantCount = participantCount;
+            int teamCount = teams.size();
+            Map<String, Integer> gameCodes = new HashMap<>();
+            Map<String, Integer> roleCodes = new HashMap<>();
+
+            members = new Participant[teamCount][];
+            skillOf = new int[teamCount][];
+            gameOf = new int[teamCount][];
+            roleOf = new int[teamCount][];
+            typeOf = new int[teamCount][];
+            for (int t = 0; t < teamCount; t++) {
+                List<Participant> team = teams.get(t).getMembers();
+                int size = team.size();
+                members[t] = team.toArray(new Participant[0]);
+                skillOf[t] = new int[size];
+                gameOf[t] = new int[size];
+                roleOf[t] = new int[size];
+                typeOf[t] = new int[size];
+                for (int k = 0; k < size; k++) {
+                    Participant p = members[t][k];
+                    skillOf[t][k] = p.getSkillLevel();
+                    gameOf[t][k] = gameCodes.computeIfAbsent(p.getPreferredGame(), key -> gameCodes.size());
+                    roleOf[t][k] = roleCodes.computeIfAbsent(p.getPreferredRole(), key -> roleCodes.size());
+                    typeOf[t][k] = p.getPersonality().ordinal();
+                }
+            }
+            gameKinds = gameCodes.size();
+            roleKinds = roleCodes.size();
+            typeKinds = PERSONALITY_CODES;
+            leaderType = PersonalityType.LEADER.ordinal();
+
+            gameCounts = new int[teamCount * gameKinds];
+            roleCounts = new int[teamCount * roleKinds];
+            typeCounts = new int[teamCount * typeKinds];
+            distinctGames = new int[teamCount];
+            distinctRoles = new int[teamCount];
+            distinctTypes = new int[teamCount];
+            skillTotal = teamSkillTotals(skillOf);
+            leaders = new int[teamCount];
+            for (int t = 0; t < teamCount; t++) {
+                for (int k = 0; k < members[t].length; k++) {
+                    if (typeOf[t][k] == leaderType) leaders[t]++;
+                    if (gameCounts[t * gameKinds + gameOf[t][k]]++ == 0) distinctGames[t]++;
+                    if (roleCounts[t * roleKinds + roleOf[t][k]]++ == 0) distinctRoles[t]++;
+                    if (typeCounts[t * typeKinds + typeOf[t][k]]++ == 0) distinctTypes[t]++;
+                }
+                assigned += members[t].length;
+                if (members[t].length > 0) {
+                    scored++;
+                    accumulate(terms, t, skillTotal[t], distinctGames[t], distinctRoles[t], distinctTypes[t],
+                            leaders[t], 1);
+                }
+            }
+        }
+
+        // Lays the skills out seat-major (teams across, seats down) and sums every team at once.
+        private long[] teamSkillTotals(int[][] skills) {
+            int teamCount = skills.length;
+            int rows = 0;
+            for (int[] team : skills) {
+                rows = Math.max(rows, team.length);
+            }
+            int[] matrix = new int[rows * teamCount];
+            for (int t = 0; t < teamCount; t++) {
+                for (int k = 0; k < skills[t].length; k++) {
+                    matrix[k * teamCount + t] = skills[t][k];
+                }
+            }
+            int[] sums = new int[teamCount];
+            SkillKernels.get().teamSums(matrix, teamCount, rows, sums);
+            long[] totals = new long[teamCount];
+            for (int t = 0; t < teamCount; t++) {
+                totals[t] = sums[t];
+            }
+            return totals;
+        }
+
+        // Adds (sign 1) or removes (sign -1) one team's terms from a set of running sums.
+        private void accumulate(double[] sums, int t, long skill, int gameValues, int roleValues, int typeValues,
+                                int leaderCount, int sign) {
+            int size = members[t].length;
+            double average = (double) skill / size;
+            sums[SKILL_SUM] += sign * average;
+            sums[SKILL_SQUARES] += sign * average * average;
+            sums[GAMES] += sign * gameTerm(gameValues, size);
+            sums[ROLES] += sign * roleTerm(roleValues, size);
+            sums[PERSONALITIES] += sign * personalityTerm(typeValues, size);
+            sums[BALANCED_LEADERS] += sign * leaderTerm(leaderCount);
+        }
+
+        private double scoreOf(double[] sums) {
+            return combine(assigned, participantCount, scored, sums[SKILL_SUM], sums[SKILL_SQUARES], sums[GAMES],
+                    sums[ROLES], sums[PERSONALITIES], (int) Math.round(sums[BALANCED_LEADERS]));
+        }
+
+        /**
+         * The formation's current score; equals score() of the teams as swapped so far
+         */
+        public double score() {
+            return scoreOf(terms);
+        }
+
+        /**
+         * Score change if member i of team a and member j of team b traded places; O(1)
+         */
+        public double swapDelta(int a, int i, int b, int j) {
+            if (a == b) {
+                return 0.0;
+            }
+            System.arraycopy(terms, 0, trial, 0, terms.length);
+            exchangeTerms(trial, a, i, b, j);
+            return scoreOf(trial) - scoreOf(terms);
+        }
+
+        /**
+         * Makes the swap: member i of team a and member j of team b trade places; O(1)
+         */
+        public void applySwap(int a, int i, int b, int j) {
+            if (a == b) {
+                return;
+            }
+            exchangeTerms(terms, a, i, b, j);
+
+            int skillIn = skillOf[b][j] - skillOf[a][i];
+            skillTotal[a] += skillIn;
+            skillTotal[b] -= skillIn;
+            int leaderIn = (typeOf[b][j] == leaderType ? 1 : 0) - (typeOf[a][i] == leaderType ? 1 : 0);
+            leaders[a] += leaderIn;
+            leaders[b] -= leaderIn;
+            move(gameCounts, gameKinds, distinctGames, gameOf, a, i, b, j);
+            move(roleCounts, roleKinds, distinctRoles, roleOf, a, i, b, j);
+            move(typeCounts, typeKinds, distinctTypes, typeOf, a, i, b, j);
+
+            int skill = skillOf[a][i];
+            skillOf[a][i] = skillOf[b][j];
+            skillOf[b][j] = skill;
+            Participant p = members[a][i];
+            members[a][i] = members[b][j];
+            members[b][j] = p;
+        }
+
+        // Replaces the two teams' terms in the sums with their terms after the swap.
+        private void exchangeTerms(double[] sums, int a, int i, int b, int j) {
+            int skillIn = skillOf[b][j] - skillOf[a][i];
+            int leaderIn = (typeOf[b][j] == leaderType ? 1 : 0) - (typeOf[a][i] == leaderType ? 1 : 0);
+            accumulate(sums, a, skillTotal[a], distinctGames[a], distinctRoles[a], distinctTypes[a], leaders[a], -1);
+            accumulate(sums, b, skillTotal[b], distinctGames[b], distinctRoles[b], distinctTypes[b], leaders[b], -1);
+            accumulate(sums, a, skillTotal[a] + skillIn,
+                    distinctAfter(gameCounts, gameKinds, distinctGames, a, gameOf[a][i], gameOf[b][j]),
+                    distinctAfter(roleCounts, roleKinds, distinctRoles, a, roleOf[a][i], roleOf[b][j]),
+                    distinctAfter(typeCounts, typeKinds, distinctTypes, a, typeOf[a][i], typeOf[b][j]),
+                    leaders[a] + leaderIn, 1);
+            accumulate(sums, b, skillTotal[b] - skillIn,
+                    distinctAfter(gameCounts, gameKinds, distinctGames, b, gameOf[b][j], gameOf[a][i]),
+                    distinctAfter(roleCounts, roleKinds, distinctRoles, b, roleOf[b][j], roleOf[a][i]),
+                    distinctAfter(typeCounts, typeKinds, distinctTypes, b, typeOf[b][j], typeOf[a][i]),
+                    leaders[b] - leaderIn, 1);
+        }
+
+        // Moves one value of a dictionary-coded attribute between the teams' counts.
+        private void move(int[] counts, int kinds, int[] distinct, int[][] codes, int a, int i, int b, int j) {
+            int out = codes[a][i];
+            int in = codes[b][j];
+            if (out != in) {
+                distinct[a] = distinctAfter(counts, kinds, distinct, a, out, in);
+                distinct[b] = distinctAfter(counts, kinds, distinct, b, in, out);
+                counts[a * kinds + out]--;
+                counts[a * kinds + in]++;
+                counts[b * kinds + in]--;
+                counts[b * kinds + out]++;
+            }
+            codes[a][i] = in;
+            codes[b][j] = out;
+        }
+
+        // Distinct values in team t once a member with value out is replaced by one with value in.
+        private int distinctAfter(int[] counts, int kinds, int[] distinct, int t, int out, int in) {
+            if (out == in) {
+                return distinct[t];
+            }
+            return distinct[t] - (counts[t * kinds + out] == 1 ? 1 : 0) + (counts[t * kinds + in] == 0 ? 1 : 0);
+        }
+
+        /**
+         * Current members as new teams carrying the original IDs, names and sizes
+         */
+        public List<Team> toTeams() {
+            List<Team> teams = new ArrayList<>(members.length);
+            for (int t = 0; t < members.length; t++) {
+                Team original = source.get(t);
+                Team team = new Team(original.getTeamId(), original.getMaxSize());
+                team.setTeamName(original.getTeamName());
+                for (Participant p : members[t]) {
+                    team.addMember(p);
+                }
+                teams.add(team);
+            }
+            return teams;
+        }
+
+        public int teamCount() {
+            return members.length;
+        }
+
+        public int teamSize(int t) {
+            return members[t].length;
+        }
+
+        public Participant member(int t, int k) {
+            return members[t][k];
+        }
+    }
+}
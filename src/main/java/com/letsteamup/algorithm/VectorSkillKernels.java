@@ -0,0 +1,96 @@
+package com.letsteamup.algorithm;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * SIMD kernels on the incubating Vector API, loaded reflectively by SkillKernels.get()
+ *
+ * Only compiled by the vector build profile, which adds jdk.incubator.vector to the module
+ * graph; lanes run across teams, so a pass over one seat row updates a vector of teams.
+ */
+public final class VectorSkillKernels extends SkillKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    // Above this many bins one compare pass per bin costs more than the scalar increments
+    private static final int MAX_VECTOR_BINS = 32;
+
+    public VectorSkillKernels() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No SIMD lanes for int on this platform");
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public void teamSums(int[] matrix, int teamCount, int rows, int[] sums) {
+        int upper = SPECIES.loopBound(teamCount);
+        for (int t = 0; t < upper; t += SPECIES.length()) {
+            IntVector acc = IntVector.zero(SPECIES);
+            for (int r = 0; r < rows; r++) {
+                acc = acc.add(IntVector.fromArray(SPECIES, matrix, r * teamCount + t));
+            }
+            acc.intoArray(sums, t);
+        }
+        Arrays.fill(sums, upper, teamCount, 0);
+        for (int r = 0; r < rows; r++) {
+            int row = r * teamCount;
+            for (int t = upper; t < teamCount; t++) {
+                sums[t] += matrix[row + t];
+            }
+        }
+    }
+
+    @Override
+    public void teamSquares(int[] matrix, int teamCount, int rows, int[] squares) {
+        int upper = SPECIES.loopBound(teamCount);
+        for (int t = 0; t < upper; t += SPECIES.length()) {
+            IntVector acc = IntVector.zero(SPECIES);
+            for (int r = 0; r < rows; r++) {
+                IntVector v = IntVector.fromArray(SPECIES, matrix, r * teamCount + t);
+                acc = acc.add(v.mul(v));
+            }
+            acc.intoArray(squares, t);
+        }
+        Arrays.fill(squares, upper, teamCount, 0);
+        for (int r = 0; r < rows; r++) {
+            int row = r * teamCount;
+            for (int t = upper; t < teamCount; t++) {
+                int v = matrix[row + t];
+                squares[t] += v * v;
+            }
+        }
+    }
+
+    @Override
+    public void histogram(int[] values, int length, int offset, int[] counts) {
+        if (counts.length > MAX_VECTOR_BINS) {
+            SkillKernels.scalar().histogram(values, length, offset, counts);
+            return;
+        }
+        int upper = SPECIES.loopBound(length);
+        for (int bin = 0; bin < counts.length; bin++) {
+            int value = bin + offset;
+            int found = 0;
+            for (int i = 0; i < upper; i += SPECIES.length()) {
+                VectorMask<Integer> hits = IntVector.fromArray(SPECIES, values, i).compare(VectorOperators.EQ, value);
+                found += hits.trueCount();
+            }
+            counts[bin] += found;
+        }
+        for (int i = upper; i < length; i++) {
+            int bin = values[i] - offset;
+            if (bin >= 0 && bin < counts.length) {
+                counts[bin]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.letsteamup.cluster;
+
+import com.letsteamup.LetsTeamUpApplication;
+import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import com.letsteamup.service.TeamFormationService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Coordinates team formation across worker JVMs over localhost TCP
+ *
+ * The pool is sharded by a stable hash of participant IDs, so a participant lands
+ * on the same worker every run. Each worker forms as many teams as its shard allows;
+ * the coordinator then merges the shard teams and forms the pooled leftovers of all
+ * shards in a final local pass. Every shard carries the run's rules, seed and remaining
+ * deadline. A worker that is down or restarting is retried with a growing backoff, and
+ * its shard is formed locally if it never comes back.
+ */
+public class FormationCoordinator {
+
+    private static final int DEFAULT_ATTEMPTS = 5;
+    private static final long DEFAULT_BACKOFF_MILLIS = 200;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private final List<InetSocketAddress> workers;
+    private final TeamFormationService localService;
+    private int attempts;
+    private long backoffMillis;
+
+    public FormationCoordinator(List<InetSocketAddress> workers, TeamFormationService localService) {
+        if (workers == null || workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker address is required");
+        }
+        this.workers = new ArrayList<>(workers);
+        this.localService = localService;
+        this.attempts = DEFAULT_ATTEMPTS;
+        this.backoffMillis = DEFAULT_BACKOFF_MILLIS;
+    }
+
+    /**
+     * Sets how often a shard is sent to its worker before it is formed locally;
+     * the wait before retry n is n * backoffMillis
+     */
+    public void setRetryPolicy(int attempts, long backoffMillis) {
+        if (attempts < 1 || backoffMillis < 0) {
+            throw new IllegalArgumentException("Attempts must be positive and backoff non-negative");
+        }
+        this.attempts = attempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * Shard a participant belongs to: FNV-1a over the participant ID, stable across runs and JVMs
+     */
+    public static int shardOf(Participant participant, int shardCount) {
+        String id = participant.getId() == null ? "" : participant.getId();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return (int) Math.floorMod(hash, (long) shardCount);
+    }
+
+    /**
+     * Forms teams across all workers under the default rules, with no deadline
+     */
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize)
+            throws InsufficientParticipantsException {
+        return form(algorithm, participants, teamSize, FormationContext.unbounded());
+    }
+
+    /**
+     * Forms teams across all workers and returns the merged result; teams are numbered shard by
+     * shard, followed by the teams formed from cross-shard leftovers. The pool is validated
+     * against the context's rules up front, and every shard is formed under those rules, the
+     * context's seed and what is left of its deadline. The result is incomplete when a shard
+     * or the final pass was stopped, or when a team's worth of participants is left over.
+     */
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                FormationContext context) throws InsufficientParticipantsException {
+
+        localService.validateInput(participants, teamSize, context.getRules());
+
+        long startTime = System.currentTimeMillis();
+        List<List<Participant>> shards = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (Participant p : participants) {
+            shards.get(shardOf(p, workers.size())).add(p);
+        }
+
+        LetsTeamUpApplication.logMessage("Coordinating " + algorithm.getKey() + " formation of "
+                + participants.size() + " participants across " + workers.size() + " workers");
+
+        ExecutorService requests = Executors.newFixedThreadPool(workers.size());
+        List<FormationResult> shardResults = new ArrayList<>();
+        try {
+            List<CompletableFuture<FormationResult>> futures = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                int shard = i;
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> formShard(algorithm, shards.get(shard), teamSize, context, workers.get(shard)),
+                        requests));
+            }
+            for (CompletableFuture<FormationResult> future : futures) {
+                shardResults.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            requests.shutdown();
+        }
+
+        List<Team> teams = new ArrayList<>();
+        Set<Participant> placed = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean complete = true;
+        for (FormationResult formed : shardResults) {
+            complete &= formed.isComplete();
+            for (Team team : formed.getTeams()) {
+                teams.add(renumber(team, teams.size() + 1));
+                placed.addAll(team.getMembers());
+            }
+        }
+
+        List<Participant> leftovers = new ArrayList<>();
+        for (Participant p : participants) {
+            if (!placed.contains(p)) leftovers.add(p);
+        }
+        if (leftovers.size() >= teamSize) {
+            FormationResult mixed = localService.formAvailable(algorithm, leftovers, teamSize, context.fork());
+            complete &= mixed.isComplete();
+            for (Team team : mixed.getTeams()) {
+                teams.add(renumber(team, teams.size() + 1));
+                placed.addAll(team.getMembers());
+            }
+        }
+
+        int unassigned = participants.size() - placed.size();
+        if (unassigned > 0) {
+            LetsTeamUpApplication.logMessage(unassigned + " participants left unassigned after the cross-shard pass");
+        }
+        complete &= unassigned < teamSize;
+
+        return new FormationResult(algorithm, teamSize, participants.size(), teams,
+                System.currentTimeMillis() - startTime, false, complete, false, context.getRules());
+    }
+
+    // Sends one shard to its worker, retrying while the worker is unreachable and the run has
+    // time left; a worker that rejects the shard, or never answers, has its shard formed by the
+    // local service instead.
+    private FormationResult formShard(FormationAlgorithm algorithm, List<Participant> shard, int teamSize,
+                                      FormationContext context, InetSocketAddress worker) {
+        if (shard.isEmpty()) {
+            return new FormationResult(algorithm, teamSize, 0, new ArrayList<>(), 0, false, true, false,
+                    context.getRules());
+        }
+
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                return request(algorithm, shard, teamSize, context, worker);
+            } catch (WorkerRejectedException e) {
+                LetsTeamUpApplication.logMessage("Worker " + worker + " rejected its shard: " + e.getMessage());
+                break;
+            } catch (IOException e) {
+                LetsTeamUpApplication.logMessage("Worker " + worker + " unavailable (attempt " + attempt + "/"
+                        + attempts + "): " + e.getMessage());
+                if (attempt < attempts && (context.getRemainingMillis() <= attempt * backoffMillis
+                        || !sleep(attempt * backoffMillis))) {
+                    break;
+                }
+            }
+        }
+
+        LetsTeamUpApplication.logMessage("Forming the shard of " + worker + " locally");
+        try {
+            return localService.formAvailable(algorithm, shard, teamSize, context.fork());
+        } catch (InsufficientParticipantsException e) {
+            throw new IllegalStateException("Local shard formation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private FormationResult request(FormationAlgorithm algorithm, List<Participant> shard, int teamSize,
+                                    FormationContext context, InetSocketAddress worker) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+
+            BufferedWriter writer = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            List<String> ruleLines = WireFormat.ruleLines(context.getRules());
+            long timeoutMillis = context.hasDeadline() ? Math.max(1L, context.getRemainingMillis()) : 0L;
+            writer.write(WireFormat.FORM + " " + algorithm.getKey() + " " + teamSize + " " + shard.size() + " "
+                    + ruleLines.size() + " " + timeoutMillis + " "
+                    + (context.hasSeed() ? Long.toString(context.getSeed()) : WireFormat.NO_SEED) + " "
+                    + (context.isDeterministic() ? 1 : 0));
+            writer.newLine();
+            for (String line : ruleLines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            for (Participant p : shard) {
+                WireFormat.writeParticipant(writer, p);
+            }
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String status = WireFormat.requireLine(reader);
+            if (status.startsWith(WireFormat.ERROR)) {
+                throw new WorkerRejectedException(WireFormat.unescape(status.substring(WireFormat.ERROR.length()).trim()));
+            }
+            String[] fields = status.split(" ");
+            if (fields.length != 3 || !WireFormat.OK.equals(fields[0])) {
+                throw new IOException("Unexpected response: " + status);
+            }
+
+            int teamCount = Integer.parseInt(fields[1]);
+            boolean complete = WireFormat.COMPLETE.equals(fields[2]);
+            boolean[] used = new boolean[shard.size()];
+            List<Team> teams = new ArrayList<>(teamCount);
+            for (int t = 0; t < teamCount; t++) {
+                String[] line = WireFormat.requireLine(reader).split("\t", -1);
+                if (line.length != 2) {
+                    throw new IOException("Malformed team line");
+                }
+                Team team = new Team(WireFormat.unescape(line[0]), teamSize);
+                for (int position : WireFormat.parseMembers(line[1])) {
+                    if (position < 0 || position >= shard.size() || used[position]) {
+                        throw new IOException("Invalid member position " + position);
+                    }
+                    used[position] = true;
+                    team.addMember(shard.get(position));
+                }
+                teams.add(team);
+            }
+            return new FormationResult(algorithm, teamSize, shard.size(), teams, 0, false, complete, false,
+                    context.getRules());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed response: " + e.getMessage(), e);
+        }
+    }
+
+    private static Team renumber(Team source, int number) {
+        Team team = new Team("T" + number, source.getMaxSize());
+        for (Participant p : source.getMembers()) {
+            team.addMember(p);
+        }
+        return team;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // A worker answered with ERROR: the shard itself is the problem, so retrying is pointless.
+    private static final class WorkerRejectedException extends IOException {
+        WorkerRejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.letsteamup.cluster;
+
+import com.letsteamup.LetsTeamUpApplication;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import com.letsteamup.service.TeamFormationService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Formation worker serving shard requests from a coordinator over localhost TCP
+ * Each connection carries one shard with the rules, seed and deadline to form it under;
+ * the worker forms as many teams as the shard allows with its own TeamFormationService
+ * and answers with member positions.
+ *
+ * Run as its own JVM with: java com.letsteamup.cluster.FormationWorker [port]
+ * Port 0 picks a free port; the bound port is printed as "READY port".
+ */
+public class FormationWorker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final TeamFormationService service;
+    private final ExecutorService connections;
+    private final AtomicInteger servedShards;
+    private volatile boolean running;
+
+    public FormationWorker(int port, TeamFormationService service) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.service = service;
+        this.servedShards = new AtomicInteger();
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "formation-worker-" + serverSocket.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts accepting coordinator connections on a background thread
+     */
+    public void start() {
+        running = true;
+        connections.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Counts shards formed successfully since the worker started
+     */
+    public int getServedShards() {
+        return servedShards.get();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                if (running) {
+                    LetsTeamUpApplication.logMessage("Worker socket error: " + e.getMessage());
+                }
+                return;
+            } catch (IOException e) {
+                LetsTeamUpApplication.logMessage("Worker failed to accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+
+            try {
+                writeResponse(writer, serve(reader));
+            } catch (Exception e) {
+                writer.write(WireFormat.ERROR + " " + WireFormat.escape(String.valueOf(e.getMessage())));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            LetsTeamUpApplication.logMessage("Worker connection failed: " + e.getMessage());
+        }
+    }
+
+    // Reads one FORM request and forms the shard it carries.
+    private ShardAnswer serve(BufferedReader reader) throws Exception {
+        String[] header = WireFormat.requireLine(reader).split(" ");
+        if (header.length != 8 || !WireFormat.FORM.equals(header[0])) {
+            throw new IOException("Unexpected request: " + String.join(" ", header));
+        }
+
+        FormationAlgorithm algorithm = FormationAlgorithm.fromKey(header[1]);
+        int teamSize = Integer.parseInt(header[2]);
+        int count = Integer.parseInt(header[3]);
+        FormationContext context = FormationContext.withTimeout(Long.parseLong(header[5]));
+        context.setRules(WireFormat.readRules(reader, Integer.parseInt(header[4])));
+        if (!WireFormat.NO_SEED.equals(header[6])) {
+            context.setSeed(Long.parseLong(header[6]));
+        }
+        context.setDeterministic("1".equals(header[7]));
+
+        List<Participant> shard = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shard.add(WireFormat.readParticipant(reader));
+        }
+
+        FormationResult result = service.formAvailable(algorithm, shard, teamSize, context);
+        servedShards.incrementAndGet();
+        return new ShardAnswer(shard, result.getTeams(), result.isComplete());
+    }
+
+    private void writeResponse(BufferedWriter writer, ShardAnswer answer) throws IOException {
+        Map<Participant, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < answer.shard.size(); i++) {
+            positions.put(answer.shard.get(i), i);
+        }
+
+        writer.write(WireFormat.OK + " " + answer.teams.size() + " "
+                + (answer.complete ? WireFormat.COMPLETE : WireFormat.PARTIAL));
+        writer.newLine();
+        for (Team team : answer.teams) {
+            List<Integer> members = new ArrayList<>(team.getCurrentSize());
+            for (Participant p : team.getMembers()) {
+                members.add(positions.get(p));
+            }
+            writer.write(WireFormat.escape(team.getTeamId()) + "\t" + WireFormat.formatMembers(members));
+            writer.newLine();
+        }
+    }
+
+    private static final class ShardAnswer {
+        final List<Participant> shard;
+        final List<Team> teams;
+        final boolean complete;
+
+        ShardAnswer(List<Participant> shard, List<Team> teams, boolean complete) {
+            this.shard = shard;
+            this.teams = teams;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Stops accepting connections and releases the port
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        TeamFormationService service = new TeamFormationService();
+        FormationWorker worker = new FormationWorker(port, service);
+        worker.start();
+        System.out.println("READY " + worker.getPort());
+        System.out.flush();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                worker.close();
+            } catch (IOException ignored) {
+            }
+            service.shutdown();
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,156 @@
+package com.letsteamup.cluster;
+
+import com.letsteamup.exception.InvalidInputException;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line-based protocol between the formation coordinator and its workers
+ *
+ * Request:  FORM algorithm teamSize count ruleCount timeoutMillis seed deterministic, then
+ *           the formation rules one per line in their text format, then one tab-separated
+ *           participant per line. A timeout of 0 means no deadline and a seed of "-" none.
+ * Response: OK teamCount COMPLETE|PARTIAL, then per team "teamId TAB i,j,k" where i, j, k
+ *           are positions in the request, or ERROR message. PARTIAL marks a shard whose
+ *           formation stopped at the deadline.
+ * Tabs, newlines and backslashes inside fields are backslash-escaped.
+ */
+final class WireFormat {
+
+    static final String FORM = "FORM";
+    static final String OK = "OK";
+    static final String ERROR = "ERROR";
+    static final String COMPLETE = "COMPLETE";
+    static final String PARTIAL = "PARTIAL";
+    static final String NO_SEED = "-";
+
+    private WireFormat() {
+    }
+
+    static List<String> ruleLines(FormationRules rules) {
+        List<String> lines = new ArrayList<>();
+        for (String line : rules.toSpec().split("\n")) {
+            if (!line.isEmpty()) lines.add(line);
+        }
+        return lines;
+    }
+
+    static FormationRules readRules(BufferedReader reader, int count) throws IOException {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            spec.append(requireLine(reader)).append('\n');
+        }
+        try {
+            return FormationRules.parse(spec.toString());
+        } catch (InvalidInputException e) {
+            throw new IOException("Malformed rules: " + e.getMessage(), e);
+        }
+    }
+
+    static void writeParticipant(BufferedWriter writer, Participant p) throws IOException {
+        writer.write(escape(p.getId()));
+        writer.write('\t');
+        writer.write(escape(p.getName()));
+        writer.write('\t');
+        writer.write(Integer.toString(p.getAge()));
+        writer.write('\t');
+        writer.write(escape(p.getEmail()));
+        writer.write('\t');
+        writer.write(Integer.toString(p.getPersonalityScore()));
+        writer.write('\t');
+        writer.write(escape(p.getPreferredGame()));
+        writer.write('\t');
+        writer.write(escape(p.getPreferredRole()));
+        writer.write('\t');
+        writer.write(Integer.toString(p.getSkillLevel()));
+        writer.newLine();
+    }
+
+    static Participant readParticipant(BufferedReader reader) throws IOException {
+        String line = requireLine(reader);
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 8) {
+            throw new IOException("Malformed participant line: " + line);
+        }
+        try {
+            return new Participant(unescape(fields[0]), unescape(fields[1]), Integer.parseInt(fields[2]),
+                    unescape(fields[3]), Integer.parseInt(fields[4]), unescape(fields[5]),
+                    unescape(fields[6]), Integer.parseInt(fields[7]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed participant line: " + line, e);
+        }
+    }
+
+    static String formatMembers(List<Integer> positions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < positions.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(positions.get(i));
+        }
+        return sb.toString();
+    }
+
+    static List<Integer> parseMembers(String field) throws IOException {
+        List<Integer> positions = new ArrayList<>();
+        if (field.isEmpty()) {
+            return positions;
+        }
+        try {
+            for (String part : field.split(",")) {
+                positions.add(Integer.parseInt(part));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed member list: " + field, e);
+        }
+        return positions;
+    }
+
+    static String requireLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Connection closed mid-message");
+        }
+        return line;
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "\\0";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String unescape(String value) {
+        if (value.equals("\\0")) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,16 +1,34 @@
 package com.letsteamup.controller;
 
+import com.letsteamup.algorithm.BranchAndBoundSolver;
+import com.letsteamup.model.AutoSelection;
+import com.letsteamup.model.Division;
+import com.letsteamup.model.DivisionScheme;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.FormationStatistics;
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.RobustnessReport;
 import com.letsteamup.model.Participant;
 import com.letsteamup.model.Team;
+import com.letsteamup.model.TeamSizeOption;
+import com.letsteamup.service.CancellationToken;
 import com.letsteamup.service.DataService;
+import com.letsteamup.service.FormationContext;
 import com.letsteamup.service.SurveyService;
 import com.letsteamup.service.TeamFormationService;
 import com.letsteamup.util.ConsoleUI;
+import com.letsteamup.validator.ValidationEngine;
 import com.letsteamup.exception.*;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class MenuController {
 
@@ -19,6 +37,8 @@ public class MenuController {
     private TeamFormationService teamFormationService;
     private Scanner scanner;
 
+    private static final int MAX_SWEEP_TEAM_SIZE = 12;
+
     // Constructor that injects the required services for menu operations,
     // enabling loading data, conducting surveys, and forming teams.
     public MenuController(DataService dataService, SurveyService surveyService,
@@ -72,6 +92,7 @@ public class MenuController {
         } else {
             System.out.print("Enter file path: ");
             String filename = scanner.nextLine().trim();
+            requireCsvPath(filename);
             dataService.loadFromCSV(filename);
         }
 
@@ -118,46 +139,273 @@ public class MenuController {
 
         if (participants.size() % teamSize != 0) {
             ConsoleUI.printError("Cannot form equal teams! " + participants.size() + " participants cannot be divided equally by team size " + teamSize);
-            System.out.println("Suggested team sizes for " + participants.size() + " participants:");
-            for (int size = 3; size <= participants.size() / 2; size++) {
-                if (participants.size() % size == 0) {
-                    System.out.println("  - Team size " + size + " = " + (participants.size() / size) + " teams");
-                }
-            }
+            compareTeamSizes(participants);
             return;
         }
 
         System.out.println("\nSelect Team Formation Algorithm:");
-        System.out.println("1. Balanced Algorithm (Diversity-focused)");
-        System.out.println("2. Skill-based Algorithm (Performance-focused)");
-        System.out.println("3. Role-based Algorithm (Strategic-focused)");
+        FormationAlgorithm[] algorithms = FormationAlgorithm.values();
+        for (int i = 0; i < algorithms.length; i++) {
+            System.out.println((i + 1) + ". " + algorithms[i].getDescription());
+        }
+        System.out.println((algorithms.length + 1) + ". Auto (run every algorithm and keep the best)");
         System.out.print("\nChoice: ");
-        int algorithm = ConsoleUI.getIntInput(1, 3);
+        int algorithm = ConsoleUI.getIntInput(1, algorithms.length + 1);
+        boolean auto = algorithm == algorithms.length + 1;
+        FormationAlgorithm chosen = auto ? null : algorithms[algorithm - 1];
+
+        if (chosen == FormationAlgorithm.EXACT
+                && participants.size() > BranchAndBoundSolver.MAX_PARTICIPANTS) {
+            ConsoleUI.printError("Exact formation supports at most " + BranchAndBoundSolver.MAX_PARTICIPANTS
+                    + " participants. Please choose another algorithm.");
+            return;
+        }
+
+        int mode = 1;
+        if (!auto) {
+            System.out.println("\nSelect Formation Mode:");
+            System.out.println("1. Whole pool");
+            System.out.println("2. Same game (teams stay within one preferred game)");
+            System.out.println("3. Skill divisions (teams stay within one skill tier)");
+            System.out.println("4. Rotation schedule (several rounds, fewest repeat teammates)");
+            System.out.println("5. Robustness runs (rerun on shuffled input, keep the best)");
+            System.out.print("\nChoice: ");
+            mode = ConsoleUI.getIntInput(1, 5);
+        }
 
-        ConsoleUI.printInfo("\nForming teams...");
+        DivisionScheme scheme = null;
+        if (mode == 3) {
+            System.out.println("1. Fixed tiers (1-3, 4-6, 7-10)");
+            System.out.println("2. Quantile tiers (equal-sized divisions)");
+            System.out.print("Choice: ");
+            if (ConsoleUI.getIntInput(1, 2) == 1) {
+                scheme = DivisionScheme.STANDARD;
+            } else {
+                System.out.print("Number of divisions (2-5): ");
+                scheme = DivisionScheme.quantiles(ConsoleUI.getIntInput(2, 5));
+            }
+        }
+
+        int rounds = 1;
+        if (mode == 4) {
+            System.out.print("Number of rounds (2-20): ");
+            rounds = ConsoleUI.getIntInput(2, 20);
+        } else if (mode == 5) {
+            System.out.print("Number of runs (2-500): ");
+            rounds = ConsoleUI.getIntInput(2, 500);
+        }
+
+        System.out.print("Time limit in seconds (0 = no limit): ");
+        int timeLimit = ConsoleUI.getIntInput(0, 3600);
+
+        System.out.print("Seed for a reproducible run (0 = random): ");
+        int seed = ConsoleUI.getIntInput(0, Integer.MAX_VALUE);
+        if (seed != 0 && timeLimit > 0) {
+            ConsoleUI.printInfo("A run cut short by the time limit may not be reproducible");
+        }
+
+        PairingHistory history = loadPairingHistory();
+        boolean avoidRepeats = false;
+        if (history != null && history.getRounds() > 0) {
+            System.out.print("Avoid teammates from the " + history.getRounds() + " recorded rounds? (1 = yes, 2 = no): ");
+            avoidRepeats = ConsoleUI.getIntInput(1, 2) == 1;
+        }
+
+        ConsoleUI.printInfo("\nPress Enter to cancel the formation");
         long startTime = System.currentTimeMillis();
 
-        List<Team> teams;
-        switch (algorithm) {
-            case 1:
-                teams = teamFormationService.formBalancedTeams(participants, teamSize);
-                break;
-            case 2:
-                teams = teamFormationService.formSkillBasedTeams(participants, teamSize);
-                break;
-            case 3:
-                teams = teamFormationService.formRoleBasedTeams(participants, teamSize);
-                break;
-            default:
-                teams = teamFormationService.formBalancedTeams(participants, teamSize);
+        CancellationToken token = new CancellationToken();
+        FormationContext context = new FormationContext(timeLimit * 1000L, token);
+        if (seed != 0) {
+            context.setSeed(seed);
+            context.setDeterministic(true);
+        }
+        if (avoidRepeats) {
+            context.setPairingHistory(history);
         }
+        context.setRules(loadFormationRules());
+        context.setProgressListener(ConsoleUI::printProgress);
+        FormationResult result;
+        if (auto) {
+            AutoSelection selection = awaitFormation(
+                    teamFormationService.formAutoAsync(participants, teamSize, context), token);
+            ConsoleUI.endProgress();
+            printAutoSelection(selection);
+            result = selection.getWinner();
+            if (result == null) {
+                ConsoleUI.printError("No algorithm could form teams for this pool");
+                return;
+            }
+        } else if (scheme != null) {
+            List<Division> divisions = awaitFormation(teamFormationService.formDivisionsAsync(
+                    chosen, participants, teamSize, scheme, context), token);
+            ConsoleUI.endProgress();
+            for (Division division : divisions) {
+                ConsoleUI.printInfo(division.toString());
+            }
+            result = teamFormationService.getLastResult();
+        } else if (mode == 4) {
+            List<FormationResult> schedule = awaitFormation(teamFormationService.formRotationAsync(
+                    chosen, participants, teamSize, rounds, context), token);
+            ConsoleUI.endProgress();
+            if (schedule.isEmpty()) {
+                ConsoleUI.printWarning("Rotation stopped before the first round was formed");
+                return;
+            }
+            printRotation(schedule);
+            result = schedule.get(0);
+        } else if (mode == 5) {
+            RobustnessReport report = awaitFormation(teamFormationService.formRobustAsync(
+                    chosen, participants, teamSize, rounds, context), token);
+            ConsoleUI.endProgress();
+            ConsoleUI.printInfo(report.getRuns() + " runs");
+            ConsoleUI.printInfo("Skill spread:    " + report.getSkillSpread());
+            ConsoleUI.printInfo("Team diversity:  " + report.getDiversity());
+            ConsoleUI.printInfo("Quality score:   " + report.getScore());
+            ConsoleUI.printInfo(String.format("Keeping run %d (score %.2f; original order scored %.2f)",
+                    report.getBestRun(), report.getBestScore(), report.getBaselineScore()));
+            result = report.getBest();
+        } else {
+            CompletableFuture<FormationResult> formation = mode == 2
+                    ? teamFormationService.formByGameAsync(chosen, participants, teamSize, context)
+                    : teamFormationService.formAsync(chosen, participants, teamSize, context);
+            result = awaitFormation(formation, token);
+            ConsoleUI.endProgress();
+        }
+        List<Team> teams = result.getTeams();
 
         long endTime = System.currentTimeMillis();
 
+        if (result.isFromCache()) {
+            ConsoleUI.printInfo("Reused a previously computed formation for this pool");
+        }
+        if (!result.isComplete()) {
+            ConsoleUI.printWarning("Formation stopped early - showing best-so-far teams ("
+                    + result.getAssignedCount() + "/" + result.getParticipantCount() + " participants placed)");
+        }
+        if (result.isProvenOptimal()) {
+            ConsoleUI.printSuccess("Proven optimal formation: team skill totals differ by "
+                    + result.getSkillSpread() + " (solved in " + result.getElapsedMillis() + "ms)");
+        }
         ConsoleUI.printSuccess("\nTeam formation completed in " + (endTime - startTime) + "ms");
         ConsoleUI.printSuccess("Formed " + teams.size() + " teams successfully!");
 
-        displayTeamStatistics(teams);
+        displayTeamStatistics(result);
+    }
+    // Lists the feasible team sizes for the pool and optionally forms all of them in parallel
+    // with one algorithm, letting the organiser adopt a size from the comparison.
+    private void compareTeamSizes(List<Participant> participants) throws InsufficientParticipantsException {
+        int maxSize = Math.min(participants.size() / 2, MAX_SWEEP_TEAM_SIZE);
+        FormationRules rules = loadFormationRules();
+        List<TeamSizeOption> options = teamFormationService.analyseTeamSizes(participants, 3, maxSize, rules);
+        System.out.println("Feasible team sizes for " + participants.size() + " participants:");
+        boolean anyFeasible = false;
+        for (TeamSizeOption option : options) {
+            if (option.isFeasible()) {
+                anyFeasible = true;
+                System.out.println("  - Team size " + option.getTeamSize() + " = " + option.getTeamCount() + " teams"
+                        + (option.getIssues().isEmpty() ? "" : " (" + String.join("; ", option.getIssues()) + ")"));
+            }
+        }
+        if (!anyFeasible) {
+            ConsoleUI.printWarning("No team size up to " + maxSize + " divides the pool within the formation rules");
+            return;
+        }
+
+        System.out.print("Form teams at every feasible size and compare them? (1 = yes, 2 = no): ");
+        if (ConsoleUI.getIntInput(1, 2) != 1) {
+            return;
+        }
+        FormationAlgorithm[] algorithms = FormationAlgorithm.values();
+        for (int i = 0; i < algorithms.length; i++) {
+            System.out.println((i + 1) + ". " + algorithms[i].getDescription());
+        }
+        System.out.print("Algorithm: ");
+        FormationAlgorithm algorithm = algorithms[ConsoleUI.getIntInput(1, algorithms.length) - 1];
+
+        ConsoleUI.printInfo("\nPress Enter to cancel the comparison");
+        CancellationToken token = new CancellationToken();
+        FormationContext context = new FormationContext(0, token);
+        context.setRules(rules);
+        List<TeamSizeOption> swept = awaitFormation(teamFormationService.sweepTeamSizesAsync(
+                algorithm, participants, 3, maxSize, context), token);
+
+        System.out.printf("%-6s %6s %8s %8s %10s%n", "Size", "Teams", "Placed", "Score", "Time (ms)");
+        for (TeamSizeOption option : swept) {
+            FormationResult run = option.getResult();
+            if (run != null) {
+                System.out.printf("%-6d %6d %8d %8.2f %10d%n", option.getTeamSize(), run.getTeamCount(),
+                        run.getAssignedCount(), option.getScore(), run.getElapsedMillis());
+            }
+        }
+
+        System.out.print("Use the teams of size (0 = none): ");
+        int chosen = ConsoleUI.getIntInput(0, maxSize);
+        for (TeamSizeOption option : swept) {
+            if (option.getTeamSize() == chosen && option.getResult() != null) {
+                teamFormationService.selectResult(option.getResult());
+                ConsoleUI.printSuccess("Formed " + option.getResult().getTeamCount() + " teams of " + chosen);
+                displayTeamStatistics(option.getResult());
+                return;
+            }
+        }
+        if (chosen != 0) {
+            ConsoleUI.printWarning("No formation was run for team size " + chosen);
+        }
+    }
+    // Prints the auto-mode comparison table, best score first, and names the winner.
+    private void printAutoSelection(AutoSelection selection) {
+        System.out.printf("%-12s %8s %8s %8s %10s%n", "Algorithm", "Score", "Teams", "Placed", "Time (ms)");
+        for (AutoSelection.Entry entry : selection.getEntries()) {
+            if (!entry.isSuccessful()) {
+                System.out.printf("%-12s %8s  failed: %s%n", entry.getAlgorithm().getKey(), "-", entry.getFailure());
+                continue;
+            }
+            FormationResult run = entry.getResult();
+            System.out.printf("%-12s %8.2f %8d %8d %10d%n", entry.getAlgorithm().getKey(), entry.getScore(),
+                    run.getTeamCount(), run.getAssignedCount(), run.getElapsedMillis());
+        }
+        if (selection.getWinner() != null) {
+            ConsoleUI.printSuccess("Auto selected: " + selection.getWinner().getAlgorithm().getDescription());
+        }
+    }
+    // Summarises a rotation schedule round by round, counting pairings already seen in
+    // earlier rounds of the schedule.
+    private void printRotation(List<FormationResult> schedule) {
+        PairingHistory seen = new PairingHistory();
+        for (int round = 0; round < schedule.size(); round++) {
+            List<Team> teams = schedule.get(round).getTeams();
+            ConsoleUI.printInfo("Round " + (round + 1) + ": " + teams.size() + " teams, "
+                    + seen.repeatedPairs(teams) + " repeated pairs, skill spread "
+                    + schedule.get(round).getSkillSpread());
+            seen.recordRound(teams);
+        }
+        ConsoleUI.printInfo("Showing round 1 below");
+    }
+    // Waits for a background formation while watching the console, cancelling the run
+    // when the user presses Enter so the menu never blocks on a long formation.
+    private <T> T awaitFormation(CompletableFuture<T> future, CancellationToken token)
+            throws InsufficientParticipantsException {
+        while (true) {
+            try {
+                return future.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!token.isCancelled() && ConsoleUI.isInputPending()) {
+                    ConsoleUI.skipLine();
+                    token.cancel();
+                    ConsoleUI.printWarning("Cancelling formation...");
+                }
+            } catch (InterruptedException e) {
+                token.cancel();
+                Thread.currentThread().interrupt();
+                return future.join();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InsufficientParticipantsException) {
+                    throw (InsufficientParticipantsException) e.getCause();
+                }
+                throw new IllegalStateException("Team formation failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
     }
     // Displays all previously formed teams with full team statistics and member details,
     // and ensures teams exist before viewing by throwing an exception if none are formed.
@@ -213,44 +461,94 @@ public class MenuController {
         } else {
             System.out.print("Enter file name: ");
             filename = scanner.nextLine().trim();
+            requireCsvPath(filename);
         }
 
         dataService.exportTeamsToCSV(teams, filename);
         ConsoleUI.printSuccess("Teams exported successfully to src/main/resources/" + filename);
+
+        System.out.print("Record these teams as a round in the pairing history? (1 = yes, 2 = no): ");
+        if (ConsoleUI.getIntInput(1, 2) == 1) {
+            PairingHistory history = dataService.recordExportedRound(filename);
+            ConsoleUI.printSuccess("Pairing history now holds " + history.getRounds() + " rounds");
+        }
+    }
+    // Loads the saved pairing history, warning instead of failing when it cannot be read
+    // so formation still works without one.
+    private PairingHistory loadPairingHistory() {
+        try {
+            return dataService.getPairingHistory();
+        } catch (FileProcessingException e) {
+            ConsoleUI.printWarning("Pairing history unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+    // Loads the event's formation rules, announcing any that differ from the defaults and
+    // falling back to the defaults when the rules file cannot be read.
+    private FormationRules loadFormationRules() {
+        try {
+            FormationRules rules = dataService.getFormationRules();
+            if (!FormationRules.DEFAULT.equals(rules)) {
+                ConsoleUI.printInfo("Formation rules: " + rules);
+            }
+            return rules;
+        } catch (FileProcessingException e) {
+            ConsoleUI.printWarning("Formation rules unreadable, using the defaults: " + e.getMessage());
+            return FormationRules.DEFAULT;
+        }
     }
     // Displays detailed statistics for all formed teams, including averages and
     // distributions of personality types, roles, and games for analysis insights.
-    private void displayTeamStatistics(List<Team> teams) {
+    // The quality score's coverage is measured against the whole pool that was formed.
+    private void displayTeamStatistics(FormationResult result) {
+        List<Team> teams = result.getTeams();
         ConsoleUI.printSeparator();
         System.out.println("TEAM FORMATION STATISTICS");
         ConsoleUI.printSeparator();
 
-        Map<String, Object> stats = teamFormationService.calculateStatistics(teams);
-
-        System.out.println("Total Teams: " + stats.get("totalTeams"));
-        System.out.println("Total Members: " + stats.get("totalMembers"));
-        System.out.printf("Average Team Size: %.2f\n", stats.get("avgTeamSize"));
-        System.out.printf("Average Skill Level: %.2f\n", stats.get("avgSkillLevel"));
-        System.out.printf("Average Diversity Score: %.2f\n", stats.get("avgDiversity"));
+        FormationStatistics stats = teamFormationService.formationStatistics(teams);
+
+        System.out.println("Total Teams: " + stats.getTotalTeams());
+        System.out.println("Total Members: " + stats.getTotalMembers());
+        System.out.printf("Average Team Size: %.2f\n", stats.getAvgTeamSize());
+        System.out.printf("Average Skill Level: %.2f\n", stats.getAvgSkillLevel());
+        System.out.printf("Skill Range: %d - %d (variance %.2f)\n", stats.getMinSkill(), stats.getMaxSkill(),
+                stats.getSkillVariance());
+        System.out.printf("Team Average Skill (p10 / median / p90): %.2f / %.2f / %.2f\n",
+                stats.getTeamSkillPercentile(0.10), stats.getTeamSkillPercentile(0.50),
+                stats.getTeamSkillPercentile(0.90));
+        System.out.printf("Average Diversity Score: %.2f\n", stats.getAvgDiversity());
+        System.out.printf("Quality Score: %.2f / 100\n",
+                teamFormationService.scoreFormation(teams, result.getParticipantCount()));
+
+        System.out.println("\nTeam Quality:");
+        double[] teamScores = teamFormationService.scoreTeams(teams);
+        for (int t = 0; t < teams.size(); t++) {
+            System.out.printf("  %s: %.2f\n", teams.get(t).getTeamId(), teamScores[t]);
+        }
 
         System.out.println("\nPersonality Distribution:");
-        @SuppressWarnings("unchecked")
-        Map<String, Integer> personalityDist = (Map<String, Integer>) stats.get("personalityDistribution");
-        for (Map.Entry<String, Integer> entry : personalityDist.entrySet()) {
-            System.out.printf("  %s: %d\n", entry.getKey(), entry.getValue());
-        }
+        printDistribution(stats.getPersonalityDistribution());
 
         System.out.println("\nRole Distribution:");
-        @SuppressWarnings("unchecked")
-        Map<String, Integer> roleDist = (Map<String, Integer>) stats.get("roleDistribution");
-        for (Map.Entry<String, Integer> entry : roleDist.entrySet()) {
-            System.out.printf("  %s: %d\n", entry.getKey(), entry.getValue());
-        }
+        printDistribution(stats.getRoleDistribution());
 
         System.out.println("\nGame Distribution:");
-        @SuppressWarnings("unchecked")
-        Map<String, Integer> gameDist = (Map<String, Integer>) stats.get("gameDistribution");
-        for (Map.Entry<String, Integer> entry : gameDist.entrySet()) {
+        printDistribution(stats.getGameDistribution());
+    }
+
+    // Rejects a typed file name that is blank or not a .csv file before any file is touched.
+    private static void requireCsvPath(String filename) throws FileProcessingException {
+        ValidationEngine.Result result = ValidationEngine.checkText(ValidationEngine.Field.CSV_PATH, filename);
+        if (result != ValidationEngine.Result.VALID) {
+            throw new FileProcessingException(
+                    ValidationEngine.describe(ValidationEngine.Field.CSV_PATH, result, filename));
+        }
+    }
+
+    // Prints a distribution as one "name: count" line per value, in the order it was counted.
+    private static void printDistribution(Map<String, Integer> distribution) {
+        for (Map.Entry<String, Integer> entry : distribution.entrySet()) {
             System.out.printf("  %s: %d\n", entry.getKey(), entry.getValue());
         }
     }
@@ -0,0 +1,80 @@
+package com.letsteamup.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Outcome of racing every formation algorithm on one pool: each algorithm's
+ * result and quality score, best first, and the winning formation
+ */
+public final class AutoSelection {
+
+    /**
+     * One algorithm's run; the result is null when the algorithm failed
+     */
+    public static final class Entry {
+        private final FormationAlgorithm algorithm;
+        private final FormationResult result;
+        private final double score;
+        private final String failure;
+
+        public Entry(FormationAlgorithm algorithm, FormationResult result, double score) {
+            this.algorithm = algorithm;
+            this.result = result;
+            this.score = score;
+            this.failure = null;
+        }
+
+        public Entry(FormationAlgorithm algorithm, String failure) {
+            this.algorithm = algorithm;
+            this.result = null;
+            this.score = 0.0;
+            this.failure = failure;
+        }
+
+        public FormationAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public FormationResult getResult() {
+            return result;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getFailure() {
+            return failure;
+        }
+
+        public boolean isSuccessful() {
+            return result != null;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    public AutoSelection(List<Entry> entries) {
+        List<Entry> ranked = new ArrayList<>(entries);
+        ranked.sort(Comparator.comparing((Entry entry) -> !entry.isSuccessful())
+                .thenComparing(Comparator.comparingDouble(Entry::getScore).reversed()));
+        this.entries = Collections.unmodifiableList(ranked);
+    }
+
+    /**
+     * All entries, best score first and failed algorithms last
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The best-scoring formation, or null if every algorithm failed
+     */
+    public FormationResult getWinner() {
+        return entries.isEmpty() || !entries.get(0).isSuccessful() ? null : entries.get(0).getResult();
+    }
+}
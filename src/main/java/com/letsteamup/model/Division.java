@@ -0,0 +1,44 @@
+package com.letsteamup.model;
+
+import java.util.List;
+
+/**
+ * A labelled skill division and the teams formed inside it
+ */
+public final class Division {
+    private final String label;
+    private final FormationResult result;
+
+    public Division(String label, FormationResult result) {
+        this.label = label;
+        this.result = result;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public FormationResult getResult() {
+        return result;
+    }
+
+    /**
+     * Gets a fresh copy of the division's teams
+     */
+    public List<Team> getTeams() {
+        return result.getTeams();
+    }
+
+    /**
+     * Counts division members that could not be placed into a full team
+     */
+    public int getUnassignedCount() {
+        return result.getParticipantCount() - result.getAssignedCount();
+    }
+
+    @Override
+    public String toString() {
+        return label + ": " + result.getTeamCount() + " teams, " + result.getAssignedCount() + "/"
+                + result.getParticipantCount() + " assigned";
+    }
+}
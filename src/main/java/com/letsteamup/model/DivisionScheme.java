@@ -0,0 +1,104 @@
+package com.letsteamup.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a participant pool into skill tiers, either at fixed skill bounds
+ * or at quantiles of the pool's own skill distribution
+ */
+public final class DivisionScheme {
+
+    /** The default tiers: 1-3, 4-6 and 7-10 */
+    public static final DivisionScheme STANDARD = fixed(3, 6, 10);
+
+    private final int[] upperBounds;
+    private final int quantiles;
+
+    private DivisionScheme(int[] upperBounds, int quantiles) {
+        this.upperBounds = upperBounds;
+        this.quantiles = quantiles;
+    }
+
+    /**
+     * Tiers ending at the given inclusive skill levels, in ascending order;
+     * fixed(3, 6, 10) gives 1-3, 4-6 and 7-10
+     */
+    public static DivisionScheme fixed(int... upperBounds) {
+        if (upperBounds.length == 0) {
+            throw new IllegalArgumentException("At least one tier bound is required");
+        }
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Tier bounds must be strictly ascending");
+            }
+        }
+        return new DivisionScheme(upperBounds.clone(), 0);
+    }
+
+    /**
+     * Tiers holding roughly equal shares of the pool; participants with the same
+     * skill level always stay in the same tier
+     */
+    public static DivisionScheme quantiles(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Quantile count must be at least 1");
+        }
+        return new DivisionScheme(null, count);
+    }
+
+    /**
+     * Groups the pool by tier, lowest tier first, keeping pool order inside each tier.
+     * Tiers without participants are left out; keys are labels such as "Skill 4-6".
+     */
+    public Map<String, List<Participant>> partition(List<Participant> participants) {
+        int[] bounds = upperBounds != null ? upperBounds : quantileBounds(participants);
+
+        List<List<Participant>> tiers = new ArrayList<>();
+        for (int i = 0; i <= bounds.length; i++) {
+            tiers.add(new ArrayList<>());
+        }
+        for (Participant p : participants) {
+            int tier = 0;
+            while (tier < bounds.length && p.getSkillLevel() > bounds[tier]) tier++;
+            tiers.get(tier).add(p);
+        }
+
+        Map<String, List<Participant>> divisions = new LinkedHashMap<>();
+        for (int i = 0; i < tiers.size(); i++) {
+            List<Participant> tier = tiers.get(i);
+            if (tier.isEmpty()) continue;
+            int low = tier.stream().mapToInt(Participant::getSkillLevel).min().getAsInt();
+            int high = tier.stream().mapToInt(Participant::getSkillLevel).max().getAsInt();
+            divisions.put(low == high ? "Skill " + low : "Skill " + low + "-" + high, tier);
+        }
+        return divisions;
+    }
+
+    // Upper skill bound of each quantile, deduplicated so ties never straddle two tiers.
+    private int[] quantileBounds(List<Participant> participants) {
+        int[] skills = participants.stream().mapToInt(Participant::getSkillLevel).sorted().toArray();
+        if (skills.length == 0) {
+            return new int[0];
+        }
+
+        int[] bounds = new int[quantiles - 1];
+        int size = 0;
+        for (int q = 1; q < quantiles; q++) {
+            int bound = skills[Math.max(0, (int) ((long) skills.length * q / quantiles) - 1)];
+            if (size == 0 || bound > bounds[size - 1]) {
+                bounds[size++] = bound;
+            }
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    @Override
+    public String toString() {
+        return upperBounds != null ? "DivisionScheme" + Arrays.toString(upperBounds)
+                : "DivisionScheme{quantiles=" + quantiles + "}";
+    }
+}
@@ -0,0 +1,44 @@
+package com.letsteamup.model;
+
+/**
+ * Team formation algorithms offered by the formation service
+ */
+public enum FormationAlgorithm {
+    BALANCED("balanced", "Balanced Algorithm (Diversity-focused)"),
+    SKILL_BASED("skill", "Skill-based Algorithm (Performance-focused)"),
+    ROLE_BASED("role", "Role-based Algorithm (Strategic-focused)"),
+    GENETIC("genetic", "Genetic Algorithm (Optimization-focused)"),
+    EXACT("exact", "Exact Branch-and-Bound (Optimal, small pools only)");
+
+    private final String key;
+    private final String description;
+
+    FormationAlgorithm(String key, String description) {
+        this.key = key;
+        this.description = description;
+    }
+
+    /**
+     * Short stable identifier, used in cache keys and log messages
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Looks up an algorithm by its key
+     * @throws IllegalArgumentException if no algorithm has that key
+     */
+    public static FormationAlgorithm fromKey(String key) {
+        for (FormationAlgorithm algorithm : values()) {
+            if (algorithm.key.equals(key)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown formation algorithm: " + key);
+    }
+}
@@ -0,0 +1,153 @@
+package com.letsteamup.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable outcome of a single team formation run
+ * Teams are copied on the way in and on the way out, so a result can be
+ * shared freely between threads and events
+ */
+public final class FormationResult {
+    private final FormationAlgorithm algorithm;
+    private final int teamSize;
+    private final int participantCount;
+    private final List<Team> teams;
+    private final long elapsedMillis;
+    private final boolean fromCache;
+    private final boolean complete;
+    private final boolean provenOptimal;
+    private final FormationRules rules;
+
+    public FormationResult(FormationAlgorithm algorithm, int teamSize, int participantCount,
+                           List<Team> teams, long elapsedMillis, boolean fromCache, boolean complete) {
+        this(algorithm, teamSize, participantCount, teams, elapsedMillis, fromCache, complete, false);
+    }
+
+    public FormationResult(FormationAlgorithm algorithm, int teamSize, int participantCount,
+                           List<Team> teams, long elapsedMillis, boolean fromCache, boolean complete,
+                           boolean provenOptimal) {
+        this(algorithm, teamSize, participantCount, teams, elapsedMillis, fromCache, complete, provenOptimal,
+                FormationRules.DEFAULT);
+    }
+
+    public FormationResult(FormationAlgorithm algorithm, int teamSize, int participantCount,
+                           List<Team> teams, long elapsedMillis, boolean fromCache, boolean complete,
+                           boolean provenOptimal, FormationRules rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules are required");
+        }
+        this.algorithm = algorithm;
+        this.teamSize = teamSize;
+        this.participantCount = participantCount;
+        this.teams = Collections.unmodifiableList(copyOf(teams));
+        this.elapsedMillis = elapsedMillis;
+        this.fromCache = fromCache;
+        this.complete = complete;
+        this.provenOptimal = provenOptimal;
+        this.rules = rules;
+    }
+
+    private static List<Team> copyOf(List<Team> teams) {
+        List<Team> copy = new ArrayList<>(teams.size());
+        for (Team team : teams) {
+            copy.add(team.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Gets a fresh, modifiable copy of the formed teams
+     */
+    public List<Team> getTeams() {
+        return copyOf(teams);
+    }
+
+    /**
+     * Counts participants placed into teams
+     */
+    public int getAssignedCount() {
+        int assigned = 0;
+        for (Team team : teams) {
+            assigned += team.getCurrentSize();
+        }
+        return assigned;
+    }
+
+    /**
+     * Difference between the highest and lowest team skill total
+     */
+    public int getSkillSpread() {
+        int max = Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        for (Team team : teams) {
+            int total = 0;
+            for (Participant p : team.getMembers()) {
+                total += p.getSkillLevel();
+            }
+            max = Math.max(max, total);
+            min = Math.min(min, total);
+        }
+        return teams.isEmpty() ? 0 : max - min;
+    }
+
+    // Getters
+    public FormationAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    public int getTeamCount() {
+        return teams.size();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * False when the run hit its deadline or was cancelled and the teams are a best-so-far result
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * True when an exact solver finished its search, so no better formation exists
+     */
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    /**
+     * The rules the teams were formed under; later changes to the teams must keep them
+     */
+    public FormationRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        return "FormationResult{" +
+                "algorithm=" + algorithm.getKey() +
+                ", teams=" + teams.size() +
+                ", assigned=" + getAssignedCount() + "/" + participantCount +
+                ", elapsedMillis=" + elapsedMillis +
+                ", fromCache=" + fromCache +
+                ", complete=" + complete +
+                ", provenOptimal=" + provenOptimal +
+                '}';
+    }
+}
@@ -0,0 +1,367 @@
+package com.letsteamup.model;
+
+import com.letsteamup.exception.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Per-team formation rules for one event: caps per attribute value, caps the algorithms
+ * only try to respect, minimum coverage and bounds on the team's average skill
+ *
+ * Rules are written one per line; '*' stands for every value of the attribute and '#'
+ * starts a comment:
+ * <pre>
+ *   max personality Leader 2     hard cap: no team gets a third Leader
+ *   min personality Leader 1     coverage: every team gets a Leader
+ *   prefer max game * 2          soft cap: avoid a third player of any one game
+ *   skill 4 7                    team average skill between 4 and 7
+ * </pre>
+ */
+public final class FormationRules {
+
+    /** Written in place of a value to mean every value of the attribute */
+    public static final String ANY_VALUE = "*";
+
+    /**
+     * Participant attribute a rule counts
+     */
+    public enum Attribute {
+        PERSONALITY("personality"),
+        GAME("game"),
+        ROLE("role");
+
+        private final String key;
+
+        Attribute(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String valueOf(Participant participant) {
+            switch (this) {
+                case PERSONALITY:
+                    return participant.getPersonalityType();
+                case GAME:
+                    return participant.getPreferredGame();
+                case ROLE:
+                default:
+                    return participant.getPreferredRole();
+            }
+        }
+
+        public static Attribute fromKey(String key) {
+            for (Attribute attribute : values()) {
+                if (attribute.key.equalsIgnoreCase(key)) {
+                    return attribute;
+                }
+            }
+            throw new IllegalArgumentException("Unknown attribute: " + key);
+        }
+    }
+
+    /**
+     * How a rule limits the number of matching members in a team
+     */
+    public enum Kind {
+        MAX("max"),
+        PREFER_MAX("prefer max"),
+        MIN("min");
+
+        private final String keyword;
+
+        Kind(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+    }
+
+    /**
+     * One cap or minimum on the members sharing an attribute value
+     */
+    public static final class Rule {
+        private final Kind kind;
+        private final Attribute attribute;
+        private final String value;
+        private final int limit;
+
+        private Rule(Kind kind, Attribute attribute, String value, int limit) {
+            this.kind = kind;
+            this.attribute = attribute;
+            this.value = value;
+            this.limit = limit;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Attribute getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * The value counted, or null when the rule applies to every value separately
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public boolean appliesToEveryValue() {
+            return value == null;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Rule)) return false;
+            Rule other = (Rule) o;
+            return kind == other.kind && attribute == other.attribute && limit == other.limit
+                    && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, attribute, value, limit);
+        }
+
+        @Override
+        public String toString() {
+            return kind.getKeyword() + " " + attribute.getKey() + " " + (value == null ? ANY_VALUE : value) + " "
+                    + limit;
+        }
+    }
+
+    /** No rules at all */
+    public static final FormationRules NONE = new FormationRules(Collections.emptyList(),
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    /** The club's standing rules: one or two Leaders per team, ideally at most two per game */
+    public static final FormationRules DEFAULT = NONE
+            .withMax(Attribute.PERSONALITY, PersonalityType.LEADER.getDisplayName(), 2)
+            .withMin(Attribute.PERSONALITY, PersonalityType.LEADER.getDisplayName(), 1)
+            .withPreferredMax(Attribute.GAME, ANY_VALUE, 2);
+
+    private final List<Rule> rules;
+    private final double minAverageSkill;
+    private final double maxAverageSkill;
+
+    private FormationRules(List<Rule> rules, double minAverageSkill, double maxAverageSkill) {
+        this.rules = rules;
+        this.minAverageSkill = minAverageSkill;
+        this.maxAverageSkill = maxAverageSkill;
+    }
+
+    /**
+     * These rules plus a hard cap on members with the value; ANY_VALUE caps every value
+     */
+    public FormationRules withMax(Attribute attribute, String value, int limit) {
+        return with(Kind.MAX, attribute, value, limit);
+    }
+
+    /**
+     * These rules plus a cap the algorithms respect where they can but may exceed
+     */
+    public FormationRules withPreferredMax(Attribute attribute, String value, int limit) {
+        return with(Kind.PREFER_MAX, attribute, value, limit);
+    }
+
+    /**
+     * These rules plus a minimum number of members with the value in every team
+     */
+    public FormationRules withMin(Attribute attribute, String value, int limit) {
+        if (ANY_VALUE.equals(value)) {
+            throw new IllegalArgumentException("A minimum needs a specific " + attribute.getKey());
+        }
+        return with(Kind.MIN, attribute, value, limit);
+    }
+
+    /**
+     * These rules with every team's average skill bounded, both ends inclusive
+     */
+    public FormationRules withSkillBounds(double minAverage, double maxAverage) {
+        if (Double.isNaN(minAverage) || Double.isNaN(maxAverage) || minAverage > maxAverage) {
+            throw new IllegalArgumentException("Invalid skill bounds: " + minAverage + " to " + maxAverage);
+        }
+        return new FormationRules(rules, minAverage, maxAverage);
+    }
+
+    private FormationRules with(Kind kind, Attribute attribute, String value, int limit) {
+        if (attribute == null || value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("A rule needs an attribute and a value");
+        }
+        if (limit < 0 || (kind != Kind.MIN && limit < 1)) {
+            throw new IllegalArgumentException("Invalid limit " + limit + " for " + kind.getKeyword());
+        }
+        List<Rule> extended = new ArrayList<>(rules);
+        extended.add(new Rule(kind, attribute, ANY_VALUE.equals(value) ? null : value, limit));
+        return new FormationRules(Collections.unmodifiableList(extended), minAverageSkill, maxAverageSkill);
+    }
+
+    /**
+     * Parses rules in the line format described above
+     */
+    public static FormationRules parse(String text) throws InvalidInputException {
+        FormationRules parsed = NONE;
+        String[] lines = text == null ? new String[0] : text.split("\r?\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed = parseLine(parsed, line.split("\\s+"));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("Rule on line " + (i + 1) + " (" + line + "): " + e.getMessage(), e);
+            }
+        }
+        return parsed;
+    }
+
+    private static FormationRules parseLine(FormationRules rules, String[] words) {
+        String keyword = words[0].toLowerCase(Locale.ROOT);
+        if (keyword.equals("skill")) {
+            expectWords(words, 3);
+            return rules.withSkillBounds(Double.parseDouble(words[1]), Double.parseDouble(words[2]));
+        }
+
+        int first = 1;
+        Kind kind;
+        if (keyword.equals("max")) {
+            kind = Kind.MAX;
+        } else if (keyword.equals("min")) {
+            kind = Kind.MIN;
+        } else if (keyword.equals("prefer") && words.length > 1 && words[1].equalsIgnoreCase("max")) {
+            kind = Kind.PREFER_MAX;
+            first = 2;
+        } else {
+            throw new IllegalArgumentException("expected max, prefer max, min or skill");
+        }
+
+        expectWords(words, first + 3);
+        Attribute attribute = Attribute.fromKey(words[first]);
+        int limit = Integer.parseInt(words[first + 2]);
+        switch (kind) {
+            case MAX:
+                return rules.withMax(attribute, words[first + 1], limit);
+            case PREFER_MAX:
+                return rules.withPreferredMax(attribute, words[first + 1], limit);
+            case MIN:
+            default:
+                return rules.withMin(attribute, words[first + 1], limit);
+        }
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("expected " + count + " words, found " + words.length);
+        }
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Hard cap on members with the value in one team, Integer.MAX_VALUE without one; values
+     * are compared ignoring case
+     */
+    public int maximumOf(Attribute attribute, String value) {
+        int maximum = Integer.MAX_VALUE;
+        for (Rule rule : rules) {
+            if (rule.kind == Kind.MAX && rule.attribute == attribute
+                    && (rule.appliesToEveryValue() || rule.value.equalsIgnoreCase(value))) {
+                maximum = Math.min(maximum, rule.limit);
+            }
+        }
+        return maximum;
+    }
+
+    /**
+     * Members with the value every team needs, 0 without a minimum; values are compared ignoring case
+     */
+    public int minimumOf(Attribute attribute, String value) {
+        int minimum = 0;
+        for (Rule rule : rules) {
+            if (rule.kind == Kind.MIN && rule.attribute == attribute && rule.value.equalsIgnoreCase(value)) {
+                minimum = Math.max(minimum, rule.limit);
+            }
+        }
+        return minimum;
+    }
+
+    public boolean hasSkillBounds() {
+        return minAverageSkill != Double.NEGATIVE_INFINITY || maxAverageSkill != Double.POSITIVE_INFINITY;
+    }
+
+    public double getMinAverageSkill() {
+        return minAverageSkill;
+    }
+
+    public double getMaxAverageSkill() {
+        return maxAverageSkill;
+    }
+
+    /**
+     * The rules in the line format, one per line; parsing the result gives equal rules
+     */
+    public String toSpec() {
+        StringBuilder sb = new StringBuilder();
+        for (Rule rule : rules) {
+            sb.append(rule).append('\n');
+        }
+        if (hasSkillBounds()) {
+            sb.append("skill ").append(minAverageSkill).append(' ').append(maxAverageSkill).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stable 64-bit hash of the rules, used to key cached formations
+     */
+    public long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        String spec = toSpec();
+        for (int i = 0; i < spec.length(); i++) {
+            hash = (hash ^ spec.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FormationRules)) return false;
+        FormationRules other = (FormationRules) o;
+        return rules.equals(other.rules) && Double.compare(minAverageSkill, other.minAverageSkill) == 0
+                && Double.compare(maxAverageSkill, other.maxAverageSkill) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rules, minAverageSkill, maxAverageSkill);
+    }
+
+    @Override
+    public String toString() {
+        return toSpec().trim().replace('\n', ';');
+    }
+}
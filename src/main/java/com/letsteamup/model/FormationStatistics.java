@@ -0,0 +1,333 @@
+package com.letsteamup.model;
+
+import com.letsteamup.algorithm.SkillKernels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Aggregated statistics of a formation: sizes, member skill spread, per-team average skill
+ * percentiles and the personality, role and game distributions
+ *
+ * Built in one pass over the teams by collector(), which is combinable and so runs on a
+ * parallel stream. Personalities are counted by their PersonalityType code, and roles and
+ * games are dictionary-coded per accumulator while counting, so each member costs two hash
+ * lookups and some array increments; accumulators are merged by value, keeping the
+ * first-seen order of a sequential pass. Member skills are
+ * gathered into one column and reduced by the SkillKernels histogram when finishing, or
+ * sorted instead when their range is wider than the member count.
+ */
+public final class FormationStatistics {
+
+    private static final int PERSONALITY_TYPES = PersonalityType.values().length;
+
+    private final int totalTeams;
+    private final int totalMembers;
+    private final double avgSkillLevel;
+    private final double skillVariance;
+    private final int minSkill;
+    private final int maxSkill;
+    private final int[] skillCounts;
+    private final int[] sortedSkills;
+    private final double avgDiversity;
+    private final double[] teamAverages;
+    private final Map<String, Integer> personalityDistribution;
+    private final Map<String, Integer> roleDistribution;
+    private final Map<String, Integer> gameDistribution;
+
+    private FormationStatistics(Accumulator acc) {
+        this.totalTeams = acc.teams;
+        this.totalMembers = acc.members;
+        this.minSkill = acc.members == 0 ? 0 : acc.minSkill;
+        this.maxSkill = acc.members == 0 ? 0 : acc.maxSkill;
+        // Moments are taken of skill - minSkill so that wide skill values cannot overflow them.
+        long skillSum = 0;
+        double skillSquares = 0;
+        if (acc.members > 0 && (long) maxSkill - minSkill < acc.members) {
+            this.skillCounts = new int[maxSkill - minSkill + 1];
+            this.sortedSkills = new int[0];
+            SkillKernels.get().histogram(acc.skills, acc.members, minSkill, skillCounts);
+            for (int bin = 0; bin < skillCounts.length; bin++) {
+                skillSum += (long) bin * skillCounts[bin];
+                skillSquares += (double) bin * bin * skillCounts[bin];
+            }
+        } else {
+            this.skillCounts = new int[0];
+            this.sortedSkills = Arrays.copyOf(acc.skills, acc.members);
+            Arrays.sort(sortedSkills);
+            for (int skill : sortedSkills) {
+                long offset = (long) skill - minSkill;
+                skillSum += offset;
+                skillSquares += (double) offset * offset;
+            }
+        }
+        this.avgSkillLevel = acc.members == 0 ? 0.0 : minSkill + (double) skillSum / acc.members;
+        this.skillVariance = acc.members == 0 ? 0.0
+                : Math.max(0.0, (skillSquares - (double) skillSum * skillSum / acc.members) / acc.members);
+        this.avgDiversity = acc.teams == 0 ? 0.0 : (double) acc.diversitySum / acc.teams;
+        this.teamAverages = Arrays.copyOf(acc.teamAverages, acc.teams);
+        Arrays.sort(teamAverages);
+        this.personalityDistribution = acc.personalityMap();
+        this.roleDistribution = acc.roles.toMap();
+        this.gameDistribution = acc.games.toMap();
+    }
+
+    /**
+     * Collector building the statistics from a stream of teams, sequential or parallel
+     */
+    public static Collector<Team, ?, FormationStatistics> collector() {
+        return Collector.of(Accumulator::new, Accumulator::accept, Accumulator::combine, FormationStatistics::new);
+    }
+
+    /**
+     * Statistics of the given teams from a sequential pass
+     */
+    public static FormationStatistics of(List<Team> teams) {
+        return teams.stream().collect(collector());
+    }
+
+    public int getTotalTeams() {
+        return totalTeams;
+    }
+
+    public int getTotalMembers() {
+        return totalMembers;
+    }
+
+    public double getAvgTeamSize() {
+        return totalTeams == 0 ? 0.0 : (double) totalMembers / totalTeams;
+    }
+
+    public double getAvgSkillLevel() {
+        return avgSkillLevel;
+    }
+
+    /**
+     * Population variance of member skill levels
+     */
+    public double getSkillVariance() {
+        return skillVariance;
+    }
+
+    public double getSkillStandardDeviation() {
+        return Math.sqrt(skillVariance);
+    }
+
+    public int getMinSkill() {
+        return minSkill;
+    }
+
+    public int getMaxSkill() {
+        return maxSkill;
+    }
+
+    /**
+     * Number of members with the given skill level
+     */
+    public int getSkillCount(int skill) {
+        if (skill < minSkill || skill > maxSkill || totalMembers == 0) {
+            return 0;
+        }
+        if (skillCounts.length > 0) {
+            return skillCounts[skill - minSkill];
+        }
+        return firstPosition(skill, true) - firstPosition(skill, false);
+    }
+
+    // Position of the first sorted skill above the given one, or not below it.
+    private int firstPosition(int skill, boolean above) {
+        int low = 0;
+        int high = sortedSkills.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedSkills[mid] < skill || (above && sortedSkills[mid] == skill)) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Mean number of distinct preferred games per team
+     */
+    public double getAvgDiversity() {
+        return avgDiversity;
+    }
+
+    /**
+     * Nearest-rank percentile (0 to 1) of the teams' average skill; empty teams count as 0
+     */
+    public double getTeamSkillPercentile(double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1: " + percentile);
+        }
+        if (teamAverages.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * teamAverages.length) - 1;
+        return teamAverages[Math.max(0, Math.min(teamAverages.length - 1, index))];
+    }
+
+    public Map<String, Integer> getPersonalityDistribution() {
+        return personalityDistribution;
+    }
+
+    public Map<String, Integer> getRoleDistribution() {
+        return roleDistribution;
+    }
+
+    public Map<String, Integer> getGameDistribution() {
+        return gameDistribution;
+    }
+
+    /**
+     * The statistics under the keys of the untyped statistics map
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTeams", totalTeams);
+        stats.put("totalMembers", totalMembers);
+        stats.put("avgTeamSize", getAvgTeamSize());
+        stats.put("avgSkillLevel", avgSkillLevel);
+        stats.put("skillVariance", skillVariance);
+        stats.put("minSkill", minSkill);
+        stats.put("maxSkill", maxSkill);
+        stats.put("avgDiversity", avgDiversity);
+        stats.put("teamSkillMedian", getTeamSkillPercentile(0.50));
+        stats.put("personalityDistribution", personalityDistribution);
+        stats.put("roleDistribution", roleDistribution);
+        stats.put("gameDistribution", gameDistribution);
+        return stats;
+    }
+
+    // Mutable partial result of the collector, covering a contiguous run of teams.
+    private static final class Accumulator {
+        private int teams;
+        private int members;
+        private int[] skills = new int[64];
+        private int minSkill = Integer.MAX_VALUE;
+        private int maxSkill = Integer.MIN_VALUE;
+        private long diversitySum;
+        private double[] teamAverages = new double[16];
+        private final int[] personalityCounts = new int[PERSONALITY_TYPES];
+        // Personality codes in first-seen order
+        private final int[] personalityOrder = new int[PERSONALITY_TYPES];
+        private int personalitiesSeen;
+        private final Dictionary roles = new Dictionary();
+        private final Dictionary games = new Dictionary();
+        // Team that last saw each game code, for counting distinct games without a set
+        private int[] gameSeenBy = new int[8];
+
+        void accept(Team team) {
+            int teamSkill = 0;
+            int distinctGames = 0;
+            List<Participant> teamMembers = team.getMembers();
+            for (int k = 0; k < teamMembers.size(); k++) {
+                Participant p = teamMembers.get(k);
+                int skill = p.getSkillLevel();
+                teamSkill += skill;
+                if (members + k == skills.length) {
+                    skills = Arrays.copyOf(skills, skills.length * 2);
+                }
+                skills[members + k] = skill;
+                if (skill < minSkill) minSkill = skill;
+                if (skill > maxSkill) maxSkill = skill;
+                countPersonality(p.getPersonality().ordinal(), 1);
+                roles.count(p.getPreferredRole(), 1);
+                int game = games.count(p.getPreferredGame(), 1);
+                if (game >= gameSeenBy.length) {
+                    gameSeenBy = Arrays.copyOf(gameSeenBy, Math.max(game + 1, gameSeenBy.length * 2));
+                }
+                if (gameSeenBy[game] != teams + 1) {
+                    gameSeenBy[game] = teams + 1;
+                    distinctGames++;
+                }
+            }
+            int size = teamMembers.size();
+            members += size;
+            diversitySum += distinctGames;
+            if (teams == teamAverages.length) {
+                teamAverages = Arrays.copyOf(teamAverages, teams * 2);
+            }
+            teamAverages[teams++] = size == 0 ? 0.0 : (double) teamSkill / size;
+        }
+
+        Accumulator combine(Accumulator other) {
+            if (members + other.members > skills.length) {
+                skills = Arrays.copyOf(skills, members + other.members);
+            }
+            System.arraycopy(other.skills, 0, skills, members, other.members);
+            members += other.members;
+            minSkill = Math.min(minSkill, other.minSkill);
+            maxSkill = Math.max(maxSkill, other.maxSkill);
+            diversitySum += other.diversitySum;
+            if (teams + other.teams > teamAverages.length) {
+                teamAverages = Arrays.copyOf(teamAverages, teams + other.teams);
+            }
+            System.arraycopy(other.teamAverages, 0, teamAverages, teams, other.teams);
+            teams += other.teams;
+            for (int i = 0; i < other.personalitiesSeen; i++) {
+                int code = other.personalityOrder[i];
+                countPersonality(code, other.personalityCounts[code]);
+            }
+            roles.merge(other.roles);
+            games.merge(other.games);
+            return this;
+        }
+
+        private void countPersonality(int code, int amount) {
+            if (personalityCounts[code] == 0) {
+                personalityOrder[personalitiesSeen++] = code;
+            }
+            personalityCounts[code] += amount;
+        }
+
+        Map<String, Integer> personalityMap() {
+            Map<String, Integer> map = new LinkedHashMap<>();
+            for (int i = 0; i < personalitiesSeen; i++) {
+                int code = personalityOrder[i];
+                map.put(PersonalityType.fromCode(code).getDisplayName(), personalityCounts[code]);
+            }
+            return Collections.unmodifiableMap(map);
+        }
+    }
+
+    // Codes attribute values in first-seen order and counts members per code.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] counts = new int[8];
+
+        int count(String value, int amount) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = names.size();
+                codes.put(value, code);
+                names.add(value);
+                if (code == counts.length) {
+                    counts = Arrays.copyOf(counts, code * 2);
+                }
+            }
+            counts[code] += amount;
+            return code;
+        }
+
+        void merge(Dictionary other) {
+            for (int code = 0; code < other.names.size(); code++) {
+                count(other.names.get(code), other.counts[code]);
+            }
+        }
+
+        Map<String, Integer> toMap() {
+            Map<String, Integer> map = new LinkedHashMap<>();
+            for (int code = 0; code < names.size(); code++) {
+                map.put(names.get(code), counts[code]);
+            }
+            return Collections.unmodifiableMap(map);
+        }
+    }
+}
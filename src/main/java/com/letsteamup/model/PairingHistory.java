@@ -0,0 +1,272 @@
+package com.letsteamup.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records who has been on a team with whom across formation rounds
+ *
+ * Participant IDs are mapped to dense indexes. Up to DENSE_LIMIT participants the pairs
+ * live in a bitset adjacency matrix (n * n bits, 2 MB at the limit); beyond that the
+ * store switches to an open-addressing hash set of packed index pairs, so memory follows
+ * the number of recorded pairs rather than the square of the pool. Either way a lookup
+ * is O(1). Lookups may run concurrently; recording must not overlap with them.
+ */
+public final class PairingHistory {
+
+    /** Largest pool kept as a bitset matrix */
+    public static final int DENSE_LIMIT = 4096;
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> indexes;
+    private final List<String> ids;
+    private long[] matrix;
+    private int capacity;
+    private long[] pairKeys;
+    private int pairCount;
+    private int rounds;
+
+    public PairingHistory() {
+        this.indexes = new HashMap<>();
+        this.ids = new ArrayList<>();
+        this.capacity = INITIAL_CAPACITY;
+        this.matrix = new long[INITIAL_CAPACITY * (INITIAL_CAPACITY >>> 6)];
+    }
+
+    /**
+     * Index of a participant ID, or -1 when the participant has no history
+     */
+    public int indexOf(String id) {
+        Integer index = indexes.get(id);
+        return index == null ? -1 : index;
+    }
+
+    private int register(String id) {
+        Integer index = indexes.get(id);
+        if (index != null) {
+            return index;
+        }
+        int added = ids.size();
+        ids.add(id);
+        indexes.put(id, added);
+        if (matrix != null && added >= capacity) {
+            if (added >= DENSE_LIMIT) {
+                toSparse();
+            } else {
+                growMatrix(Math.min(capacity * 2, DENSE_LIMIT));
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 1 when the participants at these indexes were teammates in a recorded round, else 0;
+     * unknown (-1) indexes never clash
+     */
+    public int penalty(int a, int b) {
+        if (a < 0 || b < 0 || a == b) {
+            return 0;
+        }
+        if (matrix != null) {
+            return (int) (matrix[a * (capacity >>> 6) + (b >>> 6)] >>> b) & 1;
+        }
+        return contains(key(a, b)) ? 1 : 0;
+    }
+
+    public boolean havePaired(String a, String b) {
+        return penalty(indexOf(a), indexOf(b)) == 1;
+    }
+
+    /**
+     * Marks two participants as former teammates
+     */
+    public void recordPair(String a, String b) {
+        int first = register(a);
+        int second = register(b);
+        if (first == second || penalty(first, second) == 1) {
+            return;
+        }
+        if (matrix != null) {
+            int stride = capacity >>> 6;
+            matrix[first * stride + (second >>> 6)] |= 1L << second;
+            matrix[second * stride + (first >>> 6)] |= 1L << first;
+        } else {
+            insert(key(first, second));
+        }
+        pairCount++;
+    }
+
+    /**
+     * Records one round given as the member IDs of each team
+     */
+    public void recordRoundOfIds(Collection<? extends List<String>> teams) {
+        for (List<String> members : teams) {
+            for (int i = 0; i < members.size(); i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    recordPair(members.get(i), members.get(j));
+                }
+            }
+        }
+        rounds++;
+    }
+
+    /**
+     * Records one round of formed teams
+     */
+    public void recordRound(List<Team> teams) {
+        List<List<String>> round = new ArrayList<>(teams.size());
+        for (Team team : teams) {
+            List<String> members = new ArrayList<>(team.getCurrentSize());
+            for (Participant p : team.getMembers()) {
+                members.add(p.getId());
+            }
+            round.add(members);
+        }
+        recordRoundOfIds(round);
+    }
+
+    /**
+     * Counts the teammate pairs in these teams that already played together
+     */
+    public int repeatedPairs(List<Team> teams) {
+        int repeated = 0;
+        for (Team team : teams) {
+            List<Participant> members = team.getMembers();
+            int[] index = new int[members.size()];
+            for (int i = 0; i < index.length; i++) {
+                index[i] = indexOf(members.get(i).getId());
+            }
+            for (int i = 0; i < index.length; i++) {
+                for (int j = i + 1; j < index.length; j++) {
+                    repeated += penalty(index[i], index[j]);
+                }
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * All recorded pairs as {id, id}, each pair once
+     */
+    public List<String[]> getPairs() {
+        List<String[]> pairs = new ArrayList<>(pairCount);
+        if (matrix != null) {
+            for (int a = 0; a < ids.size(); a++) {
+                for (int b = a + 1; b < ids.size(); b++) {
+                    if (penalty(a, b) == 1) pairs.add(new String[]{ids.get(a), ids.get(b)});
+                }
+            }
+        } else {
+            for (long key : pairKeys) {
+                if (key != EMPTY) pairs.add(new String[]{ids.get((int) (key >>> 32)), ids.get((int) key)});
+            }
+        }
+        return pairs;
+    }
+
+    public int getParticipantCount() {
+        return ids.size();
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Restores the round count of a history loaded from disk
+     */
+    public void setRounds(int rounds) {
+        this.rounds = rounds;
+    }
+
+    /**
+     * Whether pairs are held in the bitset matrix rather than the hashed pair set
+     */
+    public boolean isDense() {
+        return matrix != null;
+    }
+
+    private void growMatrix(int newCapacity) {
+        int oldStride = capacity >>> 6;
+        int newStride = newCapacity >>> 6;
+        long[] grown = new long[newCapacity * newStride];
+        for (int row = 0; row < capacity; row++) {
+            System.arraycopy(matrix, row * oldStride, grown, row * newStride, oldStride);
+        }
+        matrix = grown;
+        capacity = newCapacity;
+    }
+
+    // Moves every pair from the matrix into the hash set once the pool outgrows DENSE_LIMIT.
+    private void toSparse() {
+        long[] dense = matrix;
+        int stride = capacity >>> 6;
+        int rows = capacity;
+        matrix = null;
+        pairKeys = newTable(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, pairCount)) << 2));
+        for (int a = 0; a < rows; a++) {
+            for (int w = a >>> 6; w < stride; w++) {
+                long bits = dense[a * stride + w];
+                while (bits != 0) {
+                    int b = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (b > a) insert(key(a, b));
+                }
+            }
+        }
+    }
+
+    private static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    private static long[] newTable(int size) {
+        long[] table = new long[size];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private boolean contains(long key) {
+        int mask = pairKeys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (pairKeys[i] == key) return true;
+            if (pairKeys[i] == EMPTY) return false;
+        }
+    }
+
+    // Inserts a key known to be absent, doubling the table to stay at most half full.
+    private void insert(long key) {
+        if ((pairCount + 1) * 2 > pairKeys.length) {
+            long[] old = pairKeys;
+            pairKeys = newTable(old.length * 2);
+            for (long k : old) {
+                if (k != EMPTY) place(k);
+            }
+        }
+        place(key);
+    }
+
+    private void place(long key) {
+        int mask = pairKeys.length - 1;
+        int i = slot(key, mask);
+        while (pairKeys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        pairKeys[i] = key;
+    }
+}
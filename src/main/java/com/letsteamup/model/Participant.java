@@ -12,7 +12,8 @@ public class Participant {
     private int age;
     private String email;
     private int personalityScore;
-    private String personalityType;
+    private PersonalityType personality = PersonalityType.UNKNOWN;
+    private String personalityType = PersonalityType.UNKNOWN.getDisplayName();
     private String preferredGame;
     private String preferredRole;
     private int skillLevel;
@@ -33,23 +34,15 @@ public class Participant {
         this.preferredGame = preferredGame;
         this.preferredRole = preferredRole;
         this.skillLevel = skillLevel;
-        this.personalityType = classifyPersonality(personalityScore);
+        classifyPersonality(personalityScore);
     }
 
     /**
-     * Classifies personality based on score
-     * Leader: 90-100, Balanced: 70-89, Thinker: 50-69
+     * Classifies personality based on score through the PersonalityType table
      */
-    private String classifyPersonality(int score) {
-        if (score >= 90 && score <= 100) {
-            return "Leader";
-        } else if (score >= 70 && score < 90) {
-            return "Balanced";
-        } else if (score >= 50 && score < 70) {
-            return "Thinker";
-        } else {
-            return "Unknown";
-        }
+    private void classifyPersonality(int score) {
+        this.personality = PersonalityType.fromScore(score);
+        this.personalityType = personality.getDisplayName();
     }
 
     // Getters and Setters
@@ -91,13 +84,24 @@ public class Participant {
 
     public void setPersonalityScore(int personalityScore) {
         this.personalityScore = personalityScore;
-        this.personalityType = classifyPersonality(personalityScore);
+        classifyPersonality(personalityScore);
     }
 
     public String getPersonalityType() {
         return personalityType;
     }
 
+    /**
+     * The personality classified from the score; Unknown until a score is set, never null
+     */
+    public PersonalityType getPersonality() {
+        return personality;
+    }
+
+    public boolean isLeader() {
+        return personality == PersonalityType.LEADER;
+    }
+
     public String getPreferredGame() {
         return preferredGame;
     }
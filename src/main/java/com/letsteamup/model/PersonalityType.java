@@ -0,0 +1,87 @@
+package com.letsteamup.model;
+
+/**
+ * Personality types assigned from the 0-100 personality score
+ * Leader: 90-100, Balanced: 70-89, Thinker: 50-69, anything else Unknown
+ *
+ * Classification is one read from a 101-entry table built once from the bands, and every
+ * type carries its display name as a constant, so classifying allocates nothing and the
+ * Leader check is a reference compare instead of a string comparison.
+ */
+public enum PersonalityType {
+    LEADER("Leader", 90),
+    BALANCED("Balanced", 70),
+    THINKER("Thinker", 50),
+    UNKNOWN("Unknown", Integer.MAX_VALUE);
+
+    /** Lowest and highest personality score */
+    public static final int MIN_SCORE = 0;
+    public static final int MAX_SCORE = 100;
+
+    private static final PersonalityType[] VALUES = values();
+    private static final byte[] BY_SCORE = new byte[MAX_SCORE + 1];
+
+    static {
+        for (int score = MIN_SCORE; score <= MAX_SCORE; score++) {
+            PersonalityType type = UNKNOWN;
+            // Bands are declared from the highest threshold down
+            for (PersonalityType candidate : VALUES) {
+                if (score >= candidate.threshold) {
+                    type = candidate;
+                    break;
+                }
+            }
+            BY_SCORE[score] = (byte) type.ordinal();
+        }
+    }
+
+    private final String displayName;
+    private final int threshold;
+
+    PersonalityType(String displayName, int threshold) {
+        this.displayName = displayName;
+        this.threshold = threshold;
+    }
+
+    /**
+     * The type for a personality score; scores outside 0-100 are Unknown
+     */
+    public static PersonalityType fromScore(int score) {
+        return VALUES[codeOf(score)];
+    }
+
+    /**
+     * The type's code (its ordinal) for a personality score, for columnar storage
+     */
+    public static int codeOf(int score) {
+        return score < MIN_SCORE || score > MAX_SCORE ? UNKNOWN.ordinal() : BY_SCORE[score];
+    }
+
+    public static PersonalityType fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * The type with the given display name, ignoring case, or null if there is none
+     */
+    public static PersonalityType fromName(String name) {
+        for (PersonalityType type : VALUES) {
+            if (type.displayName.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Name shown to users and written to files, e.g. "Leader"
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,130 @@
+package com.letsteamup.model;
+
+import java.util.Arrays;
+
+/**
+ * Quality distribution over repeated runs of one algorithm on shuffled copies of a pool,
+ * with the best run kept; run 0 always uses the pool in its original order
+ */
+public final class RobustnessReport {
+
+    /**
+     * Min, median, 95th percentile and max of one metric across runs
+     */
+    public static final class Distribution {
+        private final double min;
+        private final double median;
+        private final double p95;
+        private final double max;
+
+        private Distribution(double min, double median, double p95, double max) {
+            this.min = min;
+            this.median = median;
+            this.p95 = p95;
+            this.max = max;
+        }
+
+        /**
+         * Nearest-rank percentiles of the given values
+         */
+        public static Distribution of(double[] values) {
+            if (values.length == 0) {
+                return new Distribution(0, 0, 0, 0);
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            return new Distribution(sorted[0], rank(sorted, 0.50), rank(sorted, 0.95), sorted[sorted.length - 1]);
+        }
+
+        private static double rank(double[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMedian() {
+            return median;
+        }
+
+        public double getP95() {
+            return p95;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("min %.2f, median %.2f, p95 %.2f, max %.2f", min, median, p95, max);
+        }
+    }
+
+    private final int runs;
+    private final Distribution skillSpread;
+    private final Distribution diversity;
+    private final Distribution score;
+    private final double baselineScore;
+    private final int bestRun;
+    private final double bestScore;
+    private final FormationResult best;
+
+    public RobustnessReport(int runs, Distribution skillSpread, Distribution diversity, Distribution score,
+                            double baselineScore, int bestRun, double bestScore, FormationResult best) {
+        this.runs = runs;
+        this.skillSpread = skillSpread;
+        this.diversity = diversity;
+        this.score = score;
+        this.baselineScore = baselineScore;
+        this.bestRun = bestRun;
+        this.bestScore = bestScore;
+        this.best = best;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Difference between the strongest and weakest team skill totals per run
+     */
+    public Distribution getSkillSpread() {
+        return skillSpread;
+    }
+
+    /**
+     * Average team diversity score per run
+     */
+    public Distribution getDiversity() {
+        return diversity;
+    }
+
+    /**
+     * Shared quality score per run
+     */
+    public Distribution getScore() {
+        return score;
+    }
+
+    /**
+     * Quality score of run 0, the pool in its original order
+     */
+    public double getBaselineScore() {
+        return baselineScore;
+    }
+
+    public int getBestRun() {
+        return bestRun;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public FormationResult getBest() {
+        return best;
+    }
+}
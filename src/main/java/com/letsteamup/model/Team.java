@@ -1,7 +1,9 @@
 package com.letsteamup.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -14,6 +16,11 @@ public class Team {
     private List<Participant> members;
     private int maxSize;
 
+    // Aggregates kept current by addMember/removeMember
+    private int skillTotal;
+    private int leaderCount;
+    private final Map<String, Integer> gameCounts = new HashMap<>();
+
     // Constructor
     public Team(String teamId, int maxSize) {
         this.teamId = teamId;
@@ -30,11 +37,54 @@ public class Team {
     public boolean addMember(Participant participant) {
         if (members.size() < maxSize) {
             members.add(participant);
+            track(participant, 1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a participant from the team
+     * @param participant The participant to remove
+     * @return true if the participant was a member
+     */
+    public boolean removeMember(Participant participant) {
+        if (members.remove(participant)) {
+            track(participant, -1);
             return true;
         }
         return false;
     }
 
+    private void track(Participant participant, int delta) {
+        skillTotal += delta * participant.getSkillLevel();
+        if (participant.isLeader()) {
+            leaderCount += delta;
+        }
+        gameCounts.merge(String.valueOf(participant.getPreferredGame()), delta, Integer::sum);
+    }
+
+    /**
+     * Sum of member skill levels, maintained as members join and leave
+     */
+    public int getSkillTotal() {
+        return skillTotal;
+    }
+
+    /**
+     * Number of Leader members, maintained as members join and leave
+     */
+    public int getLeaderCount() {
+        return leaderCount;
+    }
+
+    /**
+     * Number of members preferring the given game, maintained as members join and leave
+     */
+    public int getGameCount(String game) {
+        return gameCounts.getOrDefault(String.valueOf(game), 0);
+    }
+
     /**
      * Checks if team is full
      */
@@ -92,6 +142,19 @@ public class Team {
                 .orElse(0.0);
     }
 
+    /**
+     * Creates an independent copy of this team sharing the same participants
+     */
+    public Team copy() {
+        Team copy = new Team(teamId, maxSize);
+        copy.teamName = teamName;
+        for (Participant p : members) {
+            copy.members.add(p);
+            copy.track(p, 1);
+        }
+        return copy;
+    }
+
     // Getters and Setters
     public String getTeamId() {
         return teamId;
@@ -105,6 +168,10 @@ public class Team {
         this.teamName = teamName;
     }
 
+    /**
+     * Gets the live member list; change membership through addMember and
+     * removeMember so the team's aggregates stay current
+     */
     public List<Participant> getMembers() {
         return members;
     }
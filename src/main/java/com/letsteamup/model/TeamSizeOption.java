@@ -0,0 +1,87 @@
+package com.letsteamup.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Feasibility of one candidate team size for a pool and, once formed, the result
+ * and quality score at that size
+ */
+public final class TeamSizeOption {
+    private final int teamSize;
+    private final int teamCount;
+    private final int leftover;
+    private final boolean feasible;
+    private final List<String> issues;
+    private final FormationResult result;
+    private final double score;
+
+    public TeamSizeOption(int teamSize, int teamCount, int leftover, boolean feasible, List<String> issues) {
+        this(teamSize, teamCount, leftover, feasible, issues, null, 0.0);
+    }
+
+    private TeamSizeOption(int teamSize, int teamCount, int leftover, boolean feasible, List<String> issues,
+                           FormationResult result, double score) {
+        this.teamSize = teamSize;
+        this.teamCount = teamCount;
+        this.leftover = leftover;
+        this.feasible = feasible;
+        this.issues = Collections.unmodifiableList(new ArrayList<>(issues));
+        this.result = result;
+        this.score = score;
+    }
+
+    /**
+     * Copy of this option carrying the formation run at this size
+     */
+    public TeamSizeOption withResult(FormationResult result, double score) {
+        return new TeamSizeOption(teamSize, teamCount, leftover, feasible, issues, result, score);
+    }
+
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /**
+     * Participants left over when the pool does not divide evenly
+     */
+    public int getLeftover() {
+        return leftover;
+    }
+
+    /**
+     * Whether the pool divides evenly and has a Leader for every team
+     */
+    public boolean isFeasible() {
+        return feasible;
+    }
+
+    /**
+     * Hard failures and soft warnings (game caps, surplus Leaders) found for this size
+     */
+    public List<String> getIssues() {
+        return issues;
+    }
+
+    /**
+     * The formation at this size, or null if it was not run
+     */
+    public FormationResult getResult() {
+        return result;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "TeamSizeOption{teamSize=" + teamSize + ", teams=" + teamCount + ", feasible=" + feasible
+                + ", issues=" + issues + (result != null ? ", score=" + String.format("%.2f", score) : "") + "}";
+    }
+}
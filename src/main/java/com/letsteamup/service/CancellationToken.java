@@ -0,0 +1,21 @@
+package com.letsteamup.service;
+
+/**
+ * Cooperative cancellation flag shared between a caller and a running formation
+ * Algorithms poll the token and return their best-so-far teams once it is set
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Requests that any formation observing this token stops as soon as possible
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
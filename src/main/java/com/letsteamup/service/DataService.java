@@ -1,5 +1,7 @@
 package com.letsteamup.service;
 
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.PairingHistory;
 import com.letsteamup.model.Participant;
 import com.letsteamup.model.Team;
 import com.letsteamup.util.CSVHandler;
@@ -16,6 +18,10 @@ public class DataService {
     private List<Participant> participants;
     private static final String ALL_PARTICIPANTS_FILE = "src/main/resources/allParticipants.csv";
     private static final String SAMPLE_FILE = "src/main/resources/participants_sample.csv";
+    private static final String PAIRING_HISTORY_FILE = "src/main/resources/pairing_history.csv";
+    private static final String FORMATION_RULES_FILE = "src/main/resources/formation_rules.txt";
+    private PairingHistory pairingHistory;
+    private FormationRules formationRules;
 
     public DataService() {
         this.participants = new ArrayList<>();
@@ -110,6 +116,34 @@ public class DataService {
         LetsTeamUpApplication.logMessage("Exported " + teams.size() + " teams to " + fullPath);
     }
 
+    // Loads the pairing history saved next to the exported rounds on first use;
+    // without a saved file the history starts empty.
+    public PairingHistory getPairingHistory() throws FileProcessingException {
+        if (pairingHistory == null) {
+            pairingHistory = CSVHandler.readPairingHistory(PAIRING_HISTORY_FILE);
+        }
+        return pairingHistory;
+    }
+    // Records an exported round of teams (e.g. formed_teams.csv) in the pairing history
+    // and saves the updated history.
+    public PairingHistory recordExportedRound(String filename) throws FileProcessingException {
+        PairingHistory history = getPairingHistory();
+        history.recordRoundOfIds(CSVHandler.readTeamRoundFromCSV("src/main/resources/" + filename));
+        CSVHandler.writePairingHistory(history, PAIRING_HISTORY_FILE);
+        LetsTeamUpApplication.logMessage("Recorded round " + history.getRounds() + " from " + filename + ": "
+                + history.getPairCount() + " former teammate pairs");
+        return history;
+    }
+
+    // Loads the event's formation rules on first use; without a rules file the club's
+    // default rules apply.
+    public FormationRules getFormationRules() throws FileProcessingException {
+        if (formationRules == null) {
+            formationRules = CSVHandler.readFormationRules(FORMATION_RULES_FILE);
+        }
+        return formationRules;
+    }
+
     public int getParticipantCount() {
         return participants.size();
     }
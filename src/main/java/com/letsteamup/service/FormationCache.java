@@ -0,0 +1,294 @@
+package com.letsteamup.service;
+
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.util.PoolFingerprint;
+import com.letsteamup.LetsTeamUpApplication;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Size-bounded LRU cache of formation results keyed by pool fingerprint,
+ * team size and algorithm, with an optional on-disk tier that survives restarts
+ *
+ * Both tiers store a formation as member positions in the pool it was formed from,
+ * together with that pool's participant IDs. A hit is rebuilt from the pool passed
+ * to get and only returned when the IDs line up, so a fingerprint collision or a
+ * stale file can never hand back participants who are not in the pool.
+ */
+public class FormationCache {
+
+    private final int maxEntries;
+    private final File diskDirectory;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    // Creates a memory-only cache holding at most maxEntries formations.
+    public FormationCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    // Creates a cache whose entries are also persisted as small CSV files in diskDirectory,
+    // so that a formation computed in a previous run can be reused.
+    public FormationCache(int maxEntries, File diskDirectory) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.diskDirectory = diskDirectory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > FormationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Builds the cache key for a participant pool
+     */
+    public static Key keyFor(List<Participant> participants, int teamSize, String algorithm) {
+        return new Key(PoolFingerprint.of(participants), teamSize, algorithm);
+    }
+
+    // Looks up a cached formation, falling back to the disk tier on a memory miss, and
+    // rebuilds its teams from the given pool. Returns null if the formation is unknown or
+    // was formed from a pool whose participant IDs differ from this one.
+    public synchronized List<Team> get(Key key, List<Participant> participants) {
+        Entry cached = entries.get(key);
+
+        if (cached == null && diskDirectory != null) {
+            cached = readFromDisk(key);
+            if (cached != null) {
+                entries.put(key, cached);
+            }
+        }
+
+        return cached == null ? null : cached.rebuild(participants);
+    }
+
+    // Stores the formed teams as pool positions and writes them through to the disk tier
+    // when enabled. Teams holding anyone outside the pool are not cached.
+    public synchronized void put(Key key, List<Participant> participants, List<Team> teams) {
+        Entry stored = Entry.of(participants, teams);
+        if (stored == null) {
+            LetsTeamUpApplication.logMessage("Not caching a formation with members outside its pool");
+            return;
+        }
+        entries.put(key, stored);
+
+        if (diskDirectory != null) {
+            writeToDisk(key, stored);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    // Persists a formation as the pool's IDs followed by one line per team listing member
+    // positions in the pool, which keeps files small and lets the teams be rebuilt later.
+    private void writeToDisk(Key key, Entry entry) {
+        if (!diskDirectory.exists() && !diskDirectory.mkdirs()) {
+            LetsTeamUpApplication.logMessage("Could not create formation cache directory: " + diskDirectory);
+            return;
+        }
+
+        File file = new File(diskDirectory, key.toFileName());
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+            bw.write("PoolSize," + entry.poolIds.length);
+            bw.newLine();
+            bw.write("Ids," + String.join(";", entry.poolIds));
+            bw.newLine();
+            for (int t = 0; t < entry.teamIds.length; t++) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(entry.teamIds[t]).append(',').append(entry.maxSizes[t]).append(',');
+                int[] members = entry.positions[t];
+                for (int i = 0; i < members.length; i++) {
+                    if (i > 0) sb.append(';');
+                    sb.append(members[i]);
+                }
+                bw.write(sb.toString());
+                bw.newLine();
+            }
+        } catch (IOException e) {
+            LetsTeamUpApplication.logMessage("Failed to write formation cache entry: " + e.getMessage());
+        }
+    }
+
+    // Reads a persisted formation, discarding files in an older or damaged format.
+    private Entry readFromDisk(Key key) {
+        File file = new File(diskDirectory, key.toFileName());
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String header = br.readLine();
+            String ids = br.readLine();
+            if (header == null || !header.startsWith("PoolSize,") || ids == null || !ids.startsWith("Ids,")) {
+                return null;
+            }
+            int poolSize = Integer.parseInt(header.substring("PoolSize,".length()));
+            String[] poolIds = poolSize == 0 ? new String[0] : ids.substring("Ids,".length()).split(";", -1);
+            if (poolIds.length != poolSize) {
+                return null;
+            }
+
+            List<String> teamIds = new ArrayList<>();
+            List<Integer> maxSizes = new ArrayList<>();
+            List<int[]> positions = new ArrayList<>();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] values = line.split(",", -1);
+                teamIds.add(values[0]);
+                maxSizes.add(Integer.parseInt(values[1]));
+                String[] members = values[2].isEmpty() ? new String[0] : values[2].split(";");
+                int[] team = new int[members.length];
+                for (int i = 0; i < members.length; i++) {
+                    team[i] = Integer.parseInt(members[i]);
+                }
+                positions.add(team);
+            }
+
+            LetsTeamUpApplication.logMessage("Loaded cached formation from " + file.getName());
+            return new Entry(poolIds, teamIds.toArray(new String[0]), null,
+                    maxSizes.stream().mapToInt(Integer::intValue).toArray(), positions.toArray(new int[0][]));
+        } catch (IOException | RuntimeException e) {
+            LetsTeamUpApplication.logMessage("Ignoring unreadable formation cache entry " + file.getName());
+            return null;
+        }
+    }
+
+    // A formation as member positions in the pool it was formed from, with that pool's IDs.
+    // Team names are kept in memory only; teams read from disk get their default names.
+    private static final class Entry {
+        final String[] poolIds;
+        final String[] teamIds;
+        final String[] teamNames;
+        final int[] maxSizes;
+        final int[][] positions;
+
+        Entry(String[] poolIds, String[] teamIds, String[] teamNames, int[] maxSizes, int[][] positions) {
+            this.poolIds = poolIds;
+            this.teamIds = teamIds;
+            this.teamNames = teamNames;
+            this.maxSizes = maxSizes;
+            this.positions = positions;
+        }
+
+        // Null when a team holds a participant who is not in the pool.
+        static Entry of(List<Participant> participants, List<Team> teams) {
+            Map<Participant, Integer> positionOf = new IdentityHashMap<>(participants.size() * 2);
+            String[] poolIds = new String[participants.size()];
+            for (int i = 0; i < participants.size(); i++) {
+                positionOf.put(participants.get(i), i);
+                poolIds[i] = participants.get(i).getId();
+            }
+
+            String[] teamIds = new String[teams.size()];
+            String[] teamNames = new String[teams.size()];
+            int[] maxSizes = new int[teams.size()];
+            int[][] positions = new int[teams.size()][];
+            for (int t = 0; t < teams.size(); t++) {
+                Team team = teams.get(t);
+                teamIds[t] = team.getTeamId();
+                teamNames[t] = team.getTeamName();
+                maxSizes[t] = team.getMaxSize();
+                List<Participant> members = team.getMembers();
+                positions[t] = new int[members.size()];
+                for (int i = 0; i < members.size(); i++) {
+                    Integer position = positionOf.get(members.get(i));
+                    if (position == null) {
+                        return null;
+                    }
+                    positions[t][i] = position;
+                }
+            }
+            return new Entry(poolIds, teamIds, teamNames, maxSizes, positions);
+        }
+
+        // New teams of the given pool's participants, or null if its IDs are not the stored ones.
+        List<Team> rebuild(List<Participant> participants) {
+            if (participants.size() != poolIds.length) {
+                return null;
+            }
+            for (int i = 0; i < poolIds.length; i++) {
+                if (!Objects.equals(poolIds[i], participants.get(i).getId())) {
+                    return null;
+                }
+            }
+
+            List<Team> teams = new ArrayList<>(teamIds.length);
+            for (int t = 0; t < teamIds.length; t++) {
+                Team team = new Team(teamIds[t], maxSizes[t]);
+                if (teamNames != null) {
+                    team.setTeamName(teamNames[t]);
+                }
+                for (int position : positions[t]) {
+                    if (position < 0 || position >= poolIds.length) {
+                        return null;
+                    }
+                    team.addMember(participants.get(position));
+                }
+                teams.add(team);
+            }
+            return teams;
+        }
+    }
+
+    /**
+     * Identifies a formation by pool fingerprint, team size and algorithm
+     */
+    public static final class Key {
+        private final long fingerprint;
+        private final int teamSize;
+        private final String algorithm;
+
+        public Key(long fingerprint, int teamSize, String algorithm) {
+            this.fingerprint = fingerprint;
+            this.teamSize = teamSize;
+            this.algorithm = algorithm;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public int getTeamSize() {
+            return teamSize;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        String toFileName() {
+            return "formation_" + String.format("%016x", fingerprint) + "_" + teamSize + "_" + algorithm + ".csv";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return fingerprint == other.fingerprint
+                    && teamSize == other.teamSize
+                    && algorithm.equals(other.algorithm);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint) * 31 * 31 + teamSize * 31 + algorithm.hashCode();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.letsteamup.service;
+
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.Team;
+
+import java.util.List;
+
+/**
+ * Per-call execution settings for a formation run: a time budget, a cancellation token
+ * and an optional progress listener
+ * Contexts are cheap to create and are never shared between unrelated runs
+ */
+public class FormationContext {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000L;
+
+    private final long startNanos;
+    private final long budgetNanos;
+    private final CancellationToken cancellationToken;
+    private volatile boolean stopped;
+    private volatile FormationProgressListener progressListener;
+    private long lastProgressNanos;
+    private volatile boolean seeded;
+    private volatile long seed;
+    private volatile PairingHistory pairingHistory;
+    private volatile boolean deterministic;
+    private volatile FormationRules rules = FormationRules.DEFAULT;
+
+    // Creates a context that stops the run once timeoutMillis have elapsed or the token is cancelled.
+    // A timeout of zero or less means the run has no time budget.
+    public FormationContext(long timeoutMillis, CancellationToken cancellationToken) {
+        this.startNanos = System.nanoTime();
+        this.budgetNanos = timeoutMillis > 0 ? timeoutMillis * 1_000_000L : NO_DEADLINE;
+        this.cancellationToken = cancellationToken != null ? cancellationToken : new CancellationToken();
+        this.lastProgressNanos = startNanos - PROGRESS_INTERVAL_NANOS;
+    }
+
+    private FormationContext(long startNanos, long budgetNanos, CancellationToken cancellationToken) {
+        this.startNanos = startNanos;
+        this.budgetNanos = budgetNanos;
+        this.cancellationToken = cancellationToken;
+        this.lastProgressNanos = startNanos - PROGRESS_INTERVAL_NANOS;
+    }
+
+    /**
+     * Creates a context with no deadline and a private cancellation token
+     */
+    public static FormationContext unbounded() {
+        return new FormationContext(0, null);
+    }
+
+    /**
+     * Creates a context with a time budget and a private cancellation token
+     */
+    public static FormationContext withTimeout(long timeoutMillis) {
+        return new FormationContext(timeoutMillis, null);
+    }
+
+    /**
+     * Creates an unbounded context in determinism mode with the given seed
+     */
+    public static FormationContext deterministic(long seed) {
+        FormationContext context = unbounded();
+        context.setSeed(seed);
+        context.setDeterministic(true);
+        return context;
+    }
+
+    /**
+     * Checks whether the run should stop and return its best-so-far result
+     */
+    public boolean shouldStop() {
+        if (cancellationToken.isCancelled() || isDeadlineExceeded()) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Checks whether an algorithm observed the stop signal, i.e. its result is only best-so-far
+     */
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return budgetNanos != NO_DEADLINE && System.nanoTime() - startNanos >= budgetNanos;
+    }
+
+    public boolean hasDeadline() {
+        return budgetNanos != NO_DEADLINE;
+    }
+
+    /**
+     * Milliseconds left before the deadline, Long.MAX_VALUE without one
+     */
+    public long getRemainingMillis() {
+        if (budgetNanos == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, (budgetNanos - (System.nanoTime() - startNanos)) / 1_000_000L);
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Fixes the random seed used by randomised algorithms, making their output reproducible
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seeded = true;
+    }
+
+    public boolean hasSeed() {
+        return seeded;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Seed for one randomised run: the fixed seed when there is one, 0 in determinism mode,
+    // otherwise the clock.
+    long runSeed() {
+        return seeded ? seed : deterministic ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Asks parallel engines for output that depends only on the seed and the input, never on
+     * thread count or scheduling. A deadline or cancellation still ends the run wherever it
+     * is, so only runs that finish are reproducible.
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Asks the run to avoid pairing former teammates recorded in this history
+     */
+    public void setPairingHistory(PairingHistory pairingHistory) {
+        this.pairingHistory = pairingHistory;
+    }
+
+    public PairingHistory getPairingHistory() {
+        return pairingHistory;
+    }
+
+    /**
+     * Sets the per-team rules every algorithm applies; DEFAULT unless changed
+     */
+    public void setRules(FormationRules rules) {
+        this.rules = rules != null ? rules : FormationRules.DEFAULT;
+    }
+
+    public FormationRules getRules() {
+        return rules;
+    }
+
+    // Derives a context for one sub-run that shares this run's deadline, cancellation token,
+    // seed, determinism mode, rules and pairing history but has its own stop flag and reports no progress.
+    public FormationContext fork() {
+        FormationContext child = new FormationContext(startNanos, budgetNanos, cancellationToken);
+        child.seeded = seeded;
+        child.seed = seed;
+        child.deterministic = deterministic;
+        child.rules = rules;
+        child.pairingHistory = pairingHistory;
+        return child;
+    }
+
+    public FormationProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    public void setProgressListener(FormationProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    // Reports the state of a running formation at most every 100ms. The snapshot is only
+    // built when a listener is attached and due an update, so algorithms may call this freely.
+    public synchronized void reportProgress(List<Team> teams, int totalTeams, int totalParticipants) {
+        FormationProgressListener listener = progressListener;
+        if (listener == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastProgressNanos < PROGRESS_INTERVAL_NANOS) {
+            return;
+        }
+        lastProgressNanos = now;
+        listener.onProgress(snapshot(teams, totalTeams, totalParticipants, false));
+    }
+
+    // Reports progress for engines that track their state in primitive arrays rather than teams.
+    public synchronized void reportProgress(int teamsFormed, int totalTeams, int participantsAssigned,
+                                            int totalParticipants, double objectiveValue) {
+        FormationProgressListener listener = progressListener;
+        if (listener == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastProgressNanos < PROGRESS_INTERVAL_NANOS) {
+            return;
+        }
+        lastProgressNanos = now;
+        listener.onProgress(new FormationProgress(teamsFormed, totalTeams, participantsAssigned,
+                totalParticipants, objectiveValue, getElapsedMillis(), false));
+    }
+
+    // Sends the final snapshot of a formation regardless of the reporting interval.
+    public synchronized void reportFinished(List<Team> teams, int totalTeams, int totalParticipants) {
+        FormationProgressListener listener = progressListener;
+        if (listener != null) {
+            listener.onProgress(snapshot(teams, totalTeams, totalParticipants, true));
+        }
+    }
+
+    private FormationProgress snapshot(List<Team> teams, int totalTeams, int totalParticipants, boolean finished) {
+        int fullTeams = 0;
+        int assigned = 0;
+        double minSkill = Double.MAX_VALUE;
+        double maxSkill = -Double.MAX_VALUE;
+
+        for (Team team : teams) {
+            if (team.getCurrentSize() == 0) continue;
+            if (team.isFull()) fullTeams++;
+            assigned += team.getCurrentSize();
+            double avgSkill = team.getAverageSkillLevel();
+            minSkill = Math.min(minSkill, avgSkill);
+            maxSkill = Math.max(maxSkill, avgSkill);
+        }
+
+        double skillSpread = assigned == 0 ? 0.0 : maxSkill - minSkill;
+        return new FormationProgress(fullTeams, totalTeams, assigned, totalParticipants,
+                skillSpread, getElapsedMillis(), finished);
+    }
+}
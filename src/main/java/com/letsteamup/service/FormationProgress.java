@@ -0,0 +1,71 @@
+package com.letsteamup.service;
+
+/**
+ * Snapshot of a running formation, delivered to progress listeners
+ */
+public final class FormationProgress {
+    private final int teamsFormed;
+    private final int totalTeams;
+    private final int participantsAssigned;
+    private final int totalParticipants;
+    private final double objectiveValue;
+    private final long elapsedMillis;
+    private final boolean finished;
+
+    public FormationProgress(int teamsFormed, int totalTeams, int participantsAssigned, int totalParticipants,
+                             double objectiveValue, long elapsedMillis, boolean finished) {
+        this.teamsFormed = teamsFormed;
+        this.totalTeams = totalTeams;
+        this.participantsAssigned = participantsAssigned;
+        this.totalParticipants = totalParticipants;
+        this.objectiveValue = objectiveValue;
+        this.elapsedMillis = elapsedMillis;
+        this.finished = finished;
+    }
+
+    /**
+     * Participants placed per second since the run started
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? participantsAssigned * 1000.0 : participantsAssigned * 1000.0 / elapsedMillis;
+    }
+
+    // Getters
+    public int getTeamsFormed() {
+        return teamsFormed;
+    }
+
+    public int getTotalTeams() {
+        return totalTeams;
+    }
+
+    public int getParticipantsAssigned() {
+        return participantsAssigned;
+    }
+
+    public int getTotalParticipants() {
+        return totalParticipants;
+    }
+
+    /**
+     * Current objective, lower is better: the spread between the highest and lowest team
+     * average skill for the greedy algorithms, or the best fitness for optimising engines
+     */
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("teams %d/%d | assigned %d/%d | objective %.2f | %.0f participants/s",
+                teamsFormed, totalTeams, participantsAssigned, totalParticipants, objectiveValue, getThroughput());
+    }
+}
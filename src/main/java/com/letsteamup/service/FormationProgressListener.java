@@ -0,0 +1,10 @@
+package com.letsteamup.service;
+
+/**
+ * Receives progress snapshots while a formation runs
+ * Called on the thread running the formation, so implementations should return quickly
+ */
+@FunctionalInterface
+public interface FormationProgressListener {
+    void onProgress(FormationProgress progress);
+}
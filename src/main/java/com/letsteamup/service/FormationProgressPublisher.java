@@ -0,0 +1,37 @@
+package com.letsteamup.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Bridges formation progress to java.util.concurrent.Flow subscribers for batch monitoring
+ * Events are offered without blocking; a slow subscriber misses intermediate snapshots
+ * rather than slowing the formation down
+ */
+public class FormationProgressPublisher implements FormationProgressListener, AutoCloseable {
+
+    private final SubmissionPublisher<FormationProgress> publisher;
+
+    public FormationProgressPublisher() {
+        this.publisher = new SubmissionPublisher<>();
+    }
+
+    public FormationProgressPublisher(Executor executor, int bufferCapacity) {
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    public void subscribe(Flow.Subscriber<? super FormationProgress> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onProgress(FormationProgress progress) {
+        publisher.offer(progress, (subscriber, dropped) -> false);
+    }
+
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.letsteamup.service;
+
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.exception.InsufficientParticipantsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Formation workspace for a single event (e.g. one tournament)
+ * Several sessions can share one TeamFormationService and its thread pool
+ * while each keeps track of its own latest result
+ */
+public class FormationSession {
+
+    private final String eventName;
+    private final TeamFormationService service;
+    private final AtomicReference<FormationResult> latestResult;
+
+    FormationSession(String eventName, TeamFormationService service) {
+        this.eventName = eventName;
+        this.service = service;
+        this.latestResult = new AtomicReference<>();
+    }
+
+    /**
+     * Forms teams for this event on the calling thread
+     */
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize)
+            throws InsufficientParticipantsException {
+        return form(algorithm, participants, teamSize, FormationContext.unbounded());
+    }
+
+    /**
+     * Forms teams for this event on the calling thread within the context's time budget
+     */
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                FormationContext context) throws InsufficientParticipantsException {
+        FormationResult result = service.form(algorithm, participants, teamSize, context);
+        latestResult.set(result);
+        return result;
+    }
+
+    /**
+     * Forms teams for this event on the shared executor
+     */
+    public CompletableFuture<FormationResult> formAsync(FormationAlgorithm algorithm,
+                                                        List<Participant> participants, int teamSize) {
+        return formAsync(algorithm, participants, teamSize, FormationContext.unbounded());
+    }
+
+    /**
+     * Forms teams for this event on the shared executor within the context's time budget
+     */
+    public CompletableFuture<FormationResult> formAsync(FormationAlgorithm algorithm, List<Participant> participants,
+                                                        int teamSize, FormationContext context) {
+        return service.formAsync(algorithm, participants, teamSize, context)
+                .thenApply(result -> {
+                    latestResult.set(result);
+                    return result;
+                });
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public FormationResult getLatestResult() {
+        return latestResult.get();
+    }
+
+    /**
+     * Gets the teams of the latest formation for this event, or an empty list
+     */
+    public List<Team> getFormedTeams() {
+        FormationResult result = latestResult.get();
+        return result == null ? new ArrayList<>() : result.getTeams();
+    }
+}
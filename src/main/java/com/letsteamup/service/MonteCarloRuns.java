@@ -0,0 +1,100 @@
+package com.letsteamup.service;
+
+import com.letsteamup.algorithm.TeamQualityScorer;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.RobustnessReport;
+import com.letsteamup.model.Team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Reruns one algorithm on shuffled copies of a pool to measure how much its quality
+ * depends on input order
+ *
+ * Every run gets its own seed split from one root stream in run order, shuffles the pool
+ * with it and passes it on to seeded algorithms, so the runs are reproducible however the
+ * service's fork-join pool schedules them. Results are reduced in run order; the best score wins, the
+ * lowest run number breaking ties.
+ */
+final class MonteCarloRuns {
+
+    private final TeamFormationService service;
+    private final TeamQualityScorer scorer;
+    private final FormationAlgorithm algorithm;
+    private final int teamSize;
+    private final FormationContext context;
+
+    MonteCarloRuns(TeamFormationService service, TeamQualityScorer scorer, FormationAlgorithm algorithm,
+                   int teamSize, FormationContext context) {
+        this.service = service;
+        this.scorer = scorer;
+        this.algorithm = algorithm;
+        this.teamSize = teamSize;
+        this.context = context;
+    }
+
+    RobustnessReport run(List<Participant> pool, int runs) {
+        SplittableRandom root = new SplittableRandom(context.runSeed());
+        List<CompletableFuture<FormationResult>> futures = new ArrayList<>(runs);
+        for (int run = 0; run < runs; run++) {
+            long seed = root.split().nextLong();
+            boolean shuffle = run > 0;
+            futures.add(CompletableFuture.supplyAsync(() -> formOnce(pool, seed, shuffle),
+                    service.forkJoinPool()));
+        }
+
+        double[] spreads = new double[runs];
+        double[] diversities = new double[runs];
+        double[] scores = new double[runs];
+        int bestRun = 0;
+        FormationResult best = null;
+        for (int run = 0; run < runs; run++) {
+            FormationResult result = join(futures.get(run));
+            List<Team> teams = result.getTeams();
+            spreads[run] = result.getSkillSpread();
+            diversities[run] = teams.stream().mapToInt(Team::getDiversityScore).average().orElse(0.0);
+            scores[run] = scorer.score(teams, pool.size());
+            if (best == null || scores[run] > scores[bestRun]) {
+                bestRun = run;
+                best = result;
+            }
+        }
+
+        return new RobustnessReport(runs, RobustnessReport.Distribution.of(spreads),
+                RobustnessReport.Distribution.of(diversities), RobustnessReport.Distribution.of(scores),
+                scores[0], bestRun, scores[bestRun], best);
+    }
+
+    private FormationResult formOnce(List<Participant> pool, long seed, boolean shuffle) {
+        List<Participant> input = new ArrayList<>(pool);
+        if (shuffle) {
+            Collections.shuffle(input, new Random(seed));
+        }
+        FormationContext runContext = context.fork();
+        runContext.setSeed(seed);
+
+        long startTime = System.currentTimeMillis();
+        List<Team> teams = service.runAlgorithm(algorithm, input, teamSize, runContext);
+        return new FormationResult(algorithm, teamSize, pool.size(), teams, System.currentTimeMillis() - startTime,
+                false, !runContext.wasStopped(), false, context.getRules());
+    }
+
+    private static FormationResult join(CompletableFuture<FormationResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.letsteamup.service;
+
+import com.letsteamup.algorithm.CompiledRules;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs one formation algorithm independently inside each partition of a pool
+ * Partitions share nothing, so each is formed as its own task on the service's
+ * fork-join pool; outcomes are collected in partition order to keep merges deterministic
+ */
+final class PartitionedFormation {
+
+    private final TeamFormationService service;
+    private final FormationAlgorithm algorithm;
+    private final int teamSize;
+    private final FormationContext context;
+
+    PartitionedFormation(TeamFormationService service, FormationAlgorithm algorithm, int teamSize,
+                         FormationContext context) {
+        this.service = service;
+        this.algorithm = algorithm;
+        this.teamSize = teamSize;
+        this.context = context;
+    }
+
+    /**
+     * Teams formed inside one partition and the members it could not place
+     */
+    static final class Outcome {
+        final String label;
+        final List<Team> teams;
+        final List<Participant> leftovers;
+
+        Outcome(String label, List<Team> teams, List<Participant> leftovers) {
+            this.label = label;
+            this.teams = teams;
+            this.leftovers = leftovers;
+        }
+    }
+
+    /**
+     * Forms every partition concurrently and returns the outcomes in partition order
+     */
+    List<Outcome> formAll(Map<String, List<Participant>> partitions) {
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>(partitions.size());
+        for (Map.Entry<String, List<Participant>> entry : partitions.entrySet()) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> formPartition(entry.getKey(), entry.getValue()), service.forkJoinPool()));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(futures.size());
+        for (CompletableFuture<Outcome> future : futures) {
+            try {
+                outcomes.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Forms as many full teams as the partition's size and the rules' minimums allow. The
+     * members picked for those teams cover every minimum (by default one Leader per team);
+     * everyone else, and anyone the algorithm leaves out, is returned as a leftover.
+     */
+    Outcome formPartition(String label, List<Participant> members) {
+        ParticipantColumns columns = ParticipantColumns.of(members);
+        CompiledRules rules = CompiledRules.compile(context.getRules(), columns, teamSize);
+
+        int teamCount = rules.totalMinimum() > teamSize ? 0 : members.size() / teamSize;
+        for (int c : rules.minimumCounters()) {
+            teamCount = Math.min(teamCount, rules.poolCount(c) / rules.minimum(c));
+        }
+        if (teamCount == 0 || context.shouldStop()) {
+            return new Outcome(label, new ArrayList<>(), new ArrayList<>(members));
+        }
+
+        List<Participant> selected = select(columns, rules, teamCount);
+        List<Team> teams = service.runAlgorithm(algorithm, selected, teamSize, context);
+
+        Set<Participant> placed = new HashSet<>();
+        for (Team team : teams) {
+            placed.addAll(team.getMembers());
+        }
+        List<Participant> leftovers = new ArrayList<>();
+        for (Participant p : members) {
+            if (!placed.contains(p)) leftovers.add(p);
+        }
+        return new Outcome(label, teams, leftovers);
+    }
+
+    // Picks teamCount * teamSize members: each minimum's members for every team first, then
+    // members outside every hard cap in pool order, topping up with capped members (by
+    // default Leaders, at most two per team) if those run out.
+    private List<Participant> select(ParticipantColumns columns, CompiledRules rules, int teamCount) {
+        int n = columns.size();
+        int seats = teamCount * teamSize;
+        boolean[] chosen = new boolean[n];
+        int[] chosenCounts = new int[rules.counterCount()];
+        List<Participant> selected = new ArrayList<>(seats);
+
+        for (int c : rules.minimumCounters()) {
+            long needed = (long) rules.minimum(c) * teamCount;
+            for (int p = 0; p < n && chosenCounts[c] < needed && selected.size() < seats; p++) {
+                if (!chosen[p] && rules.matches(p, c)) {
+                    choose(columns, rules, p, chosen, chosenCounts, selected);
+                }
+            }
+        }
+        for (int p = 0; p < n && selected.size() < seats; p++) {
+            if (!chosen[p] && !underHardCap(rules, p)) {
+                choose(columns, rules, p, chosen, chosenCounts, selected);
+            }
+        }
+        for (int p = 0; p < n && selected.size() < seats; p++) {
+            if (!chosen[p] && withinCaps(rules, p, chosenCounts, teamCount)) {
+                choose(columns, rules, p, chosen, chosenCounts, selected);
+            }
+        }
+        return selected;
+    }
+
+    private static void choose(ParticipantColumns columns, CompiledRules rules, int p, boolean[] chosen,
+                               int[] chosenCounts, List<Participant> selected) {
+        chosen[p] = true;
+        rules.add(chosenCounts, 0, p);
+        selected.add(columns.participant(p));
+    }
+
+    private static boolean underHardCap(CompiledRules rules, int p) {
+        for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+            int c = rules.counter(p, a);
+            if (c >= 0 && rules.hardCap(c) != CompiledRules.UNLIMITED) return true;
+        }
+        return false;
+    }
+
+    private static boolean withinCaps(CompiledRules rules, int p, int[] chosenCounts, int teamCount) {
+        for (int a = 0; a < CompiledRules.ATTRIBUTES; a++) {
+            int c = rules.counter(p, a);
+            if (c >= 0 && chosenCounts[c] >= (long) rules.hardCap(c) * teamCount) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Renumbers teams T{first}, T{first + 1}, ... and names them after their partition
+     */
+    static List<Team> relabel(List<Team> teams, int firstNumber, String label) {
+        List<Team> relabelled = new ArrayList<>(teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            Team source = teams.get(i);
+            Team team = new Team("T" + (firstNumber + i), source.getMaxSize());
+            team.setTeamName(label + " Team " + team.getTeamId());
+            for (Participant p : source.getMembers()) {
+                team.addMember(p);
+            }
+            relabelled.add(team);
+        }
+        return relabelled;
+    }
+}
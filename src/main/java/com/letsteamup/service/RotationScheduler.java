@@ -0,0 +1,175 @@
+package com.letsteamup.service;
+
+import com.letsteamup.LetsTeamUpApplication;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Builds a multi-round rotation in which every round satisfies the usual formation
+ * constraints while repeating as few earlier pairings as possible
+ *
+ * Each round forms several candidates concurrently on the service's fork-join pool, each from
+ * its own shuffle of the pool and consulting the pairing history of the rounds so far.
+ * Shuffles only exchange participants with the same Leader status and skill level, so
+ * the algorithms see the same Leader and skill layout every round and keep their balance.
+ * The candidate placing the most participants, then with the fewest repeated pairs and
+ * the smallest skill spread, is kept
+ * and recorded before the next round starts. Candidates are compared in a fixed order,
+ * so a seeded schedule is reproducible.
+ */
+final class RotationScheduler {
+
+    static final int CANDIDATES_PER_ROUND = 4;
+
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final TeamFormationService service;
+    private final FormationAlgorithm algorithm;
+    private final int teamSize;
+    private final FormationContext context;
+
+    RotationScheduler(TeamFormationService service, FormationAlgorithm algorithm, int teamSize,
+                      FormationContext context) {
+        this.service = service;
+        this.algorithm = algorithm;
+        this.teamSize = teamSize;
+        this.context = context;
+    }
+
+    // One candidate round and its score.
+    private static final class Candidate {
+        final List<Team> teams;
+        final int assigned;
+        final int repeatedPairs;
+        final int skillSpread;
+        final boolean complete;
+
+        Candidate(List<Team> teams, int assigned, int repeatedPairs, int skillSpread, boolean complete) {
+            this.teams = teams;
+            this.assigned = assigned;
+            this.repeatedPairs = repeatedPairs;
+            this.skillSpread = skillSpread;
+            this.complete = complete;
+        }
+
+        boolean beats(Candidate other) {
+            if (assigned != other.assigned) {
+                return assigned > other.assigned;
+            }
+            if (repeatedPairs != other.repeatedPairs) {
+                return repeatedPairs < other.repeatedPairs;
+            }
+            return skillSpread < other.skillSpread;
+        }
+    }
+
+    /**
+     * Forms up to the requested number of rounds, fewer if the context stops the run
+     */
+    List<FormationResult> schedule(List<Participant> pool, int rounds) {
+        PairingHistory history = new PairingHistory();
+        PairingHistory prior = context.getPairingHistory();
+        if (prior != null) {
+            for (String[] pair : prior.getPairs()) {
+                history.recordPair(pair[0], pair[1]);
+            }
+            history.setRounds(prior.getRounds());
+        }
+        long baseSeed = context.runSeed();
+
+        List<FormationResult> schedule = new ArrayList<>(rounds);
+        for (int round = 0; round < rounds && !context.shouldStop(); round++) {
+            long startTime = System.currentTimeMillis();
+
+            List<CompletableFuture<Candidate>> futures = new ArrayList<>(CANDIDATES_PER_ROUND);
+            for (int c = 0; c < CANDIDATES_PER_ROUND; c++) {
+                long seed = baseSeed + SEED_STEP * ((long) round * CANDIDATES_PER_ROUND + c + 1);
+                futures.add(CompletableFuture.supplyAsync(() -> candidate(pool, seed, history),
+                        service.forkJoinPool()));
+            }
+
+            Candidate best = null;
+            for (CompletableFuture<Candidate> future : futures) {
+                Candidate candidate = join(future);
+                if (best == null || candidate.beats(best)) {
+                    best = candidate;
+                }
+            }
+
+            history.recordRound(best.teams);
+            schedule.add(new FormationResult(algorithm, teamSize, pool.size(), best.teams,
+                    System.currentTimeMillis() - startTime, false, best.complete, false, context.getRules()));
+            LetsTeamUpApplication.logMessage("Rotation round " + (round + 1) + " of " + rounds + ": "
+                    + best.assigned + " placed, " + best.repeatedPairs + " repeated pairs, skill spread "
+                    + best.skillSpread);
+        }
+        return schedule;
+    }
+
+    private Candidate candidate(List<Participant> pool, long seed, PairingHistory history) {
+        List<Participant> shuffled = shuffleWithinLayout(pool, new Random(seed));
+        FormationContext candidateContext = context.fork();
+        candidateContext.setSeed(seed);
+        candidateContext.setPairingHistory(history);
+
+        List<Team> teams = service.runAlgorithm(algorithm, shuffled, teamSize, candidateContext);
+
+        int assigned = 0;
+        int minTotal = Integer.MAX_VALUE;
+        int maxTotal = Integer.MIN_VALUE;
+        for (Team team : teams) {
+            assigned += team.getCurrentSize();
+            minTotal = Math.min(minTotal, team.getSkillTotal());
+            maxTotal = Math.max(maxTotal, team.getSkillTotal());
+        }
+        int spread = teams.isEmpty() ? 0 : maxTotal - minTotal;
+        return new Candidate(teams, assigned, history.repeatedPairs(teams), spread, !candidateContext.wasStopped());
+    }
+
+    // Shuffles each group of participants sharing Leader status and skill level among the
+    // positions that group holds in the pool.
+    private static List<Participant> shuffleWithinLayout(List<Participant> pool, Random random) {
+        Map<Integer, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < pool.size(); i++) {
+            Participant p = pool.get(i);
+            int layout = (p.isLeader() ? 1 << 16 : 0) | (p.getSkillLevel() & 0xFFFF);
+            positions.computeIfAbsent(layout, key -> new ArrayList<>()).add(i);
+        }
+
+        List<Participant> shuffled = new ArrayList<>(pool);
+        for (List<Integer> group : positions.values()) {
+            List<Participant> members = new ArrayList<>(group.size());
+            for (int position : group) {
+                members.add(pool.get(position));
+            }
+            Collections.shuffle(members, random);
+            for (int i = 0; i < group.size(); i++) {
+                shuffled.set(group.get(i), members.get(i));
+            }
+        }
+        return shuffled;
+    }
+
+    private static Candidate join(CompletableFuture<Candidate> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.letsteamup.service;
 
 import com.letsteamup.model.Participant;
+import com.letsteamup.model.PersonalityType;
 import com.letsteamup.util.ConsoleUI;
 import com.letsteamup.exception.InvalidScoreException;
 import com.letsteamup.exception.InvalidInputException;
 import com.letsteamup.validator.InputValidator;
+import com.letsteamup.validator.ValidationEngine;
 import com.letsteamup.LetsTeamUpApplication;
 
 import java.util.*;
@@ -25,9 +27,7 @@ public class SurveyService {
             "Basketball", "Badminton", "Football", "Cricket", "Table Tennis"
     };
 
-    private static final String[] AVAILABLE_ROLES = {
-            "Strategist", "Attacker", "Defender", "Supporter", "Coordinator"
-    };
+    private static final List<String> AVAILABLE_ROLES = ValidationEngine.getValidRoles();
 
     public SurveyService() {
         this.scanner = new Scanner(System.in);
@@ -115,18 +115,10 @@ public class SurveyService {
         int scaledScore = totalScore * 4;
 
         System.out.println("\nPersonality Score: " + scaledScore + "/100");
-        System.out.println("Personality Type: " + classifyPersonality(scaledScore));
+        System.out.println("Personality Type: " + PersonalityType.fromScore(scaledScore).getDisplayName());
 
         return scaledScore;
     }
-    // Classifies a participant’s personality type based on their scaled score,
-    // returning one of the predefined categories such as Leader, Balanced, or Thinker.
-    private String classifyPersonality(int score) {
-        if (score >= 90) return "Leader";
-        if (score >= 70) return "Balanced";
-        if (score >= 50) return "Thinker";
-        return "Unknown";
-    }
     // Displays a list of available games and prompts the user to select one,
     // returning the chosen game after validating the input selection.
     private String selectGame() {
@@ -155,14 +147,14 @@ public class SurveyService {
         System.out.println("Select your preferred playing role:");
         ConsoleUI.printSeparator();
 
-        for (int i = 0; i < AVAILABLE_ROLES.length; i++) {
-            System.out.printf("%d. %s\n", (i + 1), AVAILABLE_ROLES[i]);
+        for (int i = 0; i < AVAILABLE_ROLES.size(); i++) {
+            System.out.printf("%d. %s\n", (i + 1), AVAILABLE_ROLES.get(i));
         }
 
         System.out.print("\nEnter role number: ");
-        int choice = ConsoleUI.getIntInput(1, AVAILABLE_ROLES.length);
+        int choice = ConsoleUI.getIntInput(1, AVAILABLE_ROLES.size());
 
-        String selectedRole = AVAILABLE_ROLES[choice - 1];
+        String selectedRole = AVAILABLE_ROLES.get(choice - 1);
         System.out.println("Selected role: " + selectedRole);
 
         return selectedRole;
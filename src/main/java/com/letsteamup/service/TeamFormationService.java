@@ -1,220 +1,723 @@
 package com.letsteamup.service;
 
+import com.letsteamup.algorithm.BranchAndBoundSolver;
+import com.letsteamup.algorithm.CompiledRules;
+import com.letsteamup.algorithm.GeneticFormationEngine;
+import com.letsteamup.algorithm.PairingSwapper;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.algorithm.RoleAssignmentEngine;
+import com.letsteamup.algorithm.SnakeDraftEngine;
+import com.letsteamup.algorithm.TeamQualityScorer;
+import com.letsteamup.model.AutoSelection;
+import com.letsteamup.model.Division;
+import com.letsteamup.model.DivisionScheme;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.FormationStatistics;
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.RobustnessReport;
 import com.letsteamup.model.Participant;
 import com.letsteamup.model.Team;
+import com.letsteamup.model.TeamSizeOption;
 import com.letsteamup.exception.InsufficientParticipantsException;
 import com.letsteamup.LetsTeamUpApplication;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 public class TeamFormationService {
 
-    private List<Team> formedTeams;
-    private ExecutorService executorService;
+    private static final int DEFAULT_CACHE_SIZE = 16;
+    // Below this many teams the statistics pass is cheaper than splitting it
+    private static final int PARALLEL_STATISTICS_TEAMS = 4096;
+
+    private final AtomicReference<FormationResult> lastResult;
+    private final ExecutorService executorService;
+    private final boolean ownsExecutor;
+    private final FormationCache cache;
+    private final GeneticFormationEngine geneticEngine;
+    private final SnakeDraftEngine snakeDraftEngine;
+    private final RoleAssignmentEngine roleAssignmentEngine;
+    private final BranchAndBoundSolver branchAndBoundSolver;
+    private final PairingSwapper pairingSwapper;
+    private volatile TeamQualityScorer qualityScorer;
     // Initializes the team formation service by setting up storage for formed teams
     // and creating a thread pool optimized for parallel team-forming operations.
     public TeamFormationService() {
-        this.formedTeams = new ArrayList<>();
-        this.executorService = Executors.newFixedThreadPool(
-                Runtime.getRuntime().availableProcessors()
-        );
+        this(new FormationCache(DEFAULT_CACHE_SIZE));
     }
-    // Creates balanced teams by distributing participants to maximize diversity,
-    // validating inputs, forming each team, and returning the final team list.
-    public List<Team> formBalancedTeams(List<Participant> participants, int teamSize)
+    // Initializes the service with a caller-supplied result cache, e.g. one backed by a disk
+    // directory; the owned pool is work-stealing so engines can fork subtasks onto it.
+    public TeamFormationService(FormationCache cache) {
+        this(Executors.newWorkStealingPool(), cache, true);
+    }
+    // Initializes the service on an executor shared with other services or events;
+    // the caller keeps ownership of the executor and is responsible for shutting it down.
+    public TeamFormationService(ExecutorService executorService, FormationCache cache) {
+        this(executorService, cache, false);
+    }
+
+    private TeamFormationService(ExecutorService executorService, FormationCache cache, boolean ownsExecutor) {
+        this.lastResult = new AtomicReference<>();
+        this.executorService = executorService;
+        this.ownsExecutor = ownsExecutor;
+        this.cache = cache;
+        this.geneticEngine = new GeneticFormationEngine();
+        this.snakeDraftEngine = new SnakeDraftEngine();
+        this.roleAssignmentEngine = new RoleAssignmentEngine();
+        this.branchAndBoundSolver = new BranchAndBoundSolver();
+        this.pairingSwapper = new PairingSwapper();
+        this.qualityScorer = new TeamQualityScorer();
+    }
+    // Runs the selected algorithm on a snapshot of the participants and returns an immutable result.
+    // The service keeps no per-call state, so any number of threads may call this concurrently.
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize)
             throws InsufficientParticipantsException {
+        return form(algorithm, participants, teamSize, FormationContext.unbounded());
+    }
+    // Runs the selected algorithm under the context's time budget and cancellation token;
+    // when either fires the algorithm stops and the result holds the teams formed so far.
+    public FormationResult form(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                FormationContext context) throws InsufficientParticipantsException {
 
-        validateInput(participants, teamSize);
+        validateInput(participants, teamSize, context.getRules());
 
-        formedTeams.clear();
-        List<Participant> available = new ArrayList<>(participants);
-        int numberOfTeams = participants.size() / teamSize;
+        List<Participant> pool = new ArrayList<>(participants);
+        long startTime = System.currentTimeMillis();
 
-        LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " balanced teams with size " + teamSize);
+        FormationCache.Key key = cacheKeyFor(algorithm, pool, teamSize, context);
+        List<Team> teams = key == null ? null : cache.get(key, pool);
+        boolean fromCache = teams != null;
 
-        for (int i = 0; i < numberOfTeams; i++) {
-            Team team = createBalancedTeam("T" + (i + 1), available, teamSize);
-            if (team.getCurrentSize() > 0) {
-                formedTeams.add(team);
+        if (fromCache) {
+            LetsTeamUpApplication.logMessage("Reusing cached " + algorithm.getKey() + " formation of "
+                    + teams.size() + " teams");
+        } else {
+            teams = runAlgorithm(algorithm, pool, teamSize, context);
+        }
+
+        context.reportFinished(teams, teams.size(), pool.size());
+
+        boolean complete = fromCache || !context.wasStopped();
+        if (!complete) {
+            LetsTeamUpApplication.logMessage("Formation stopped early after " + context.getElapsedMillis()
+                    + "ms, returning best-so-far teams");
+        } else if (!fromCache && key != null) {
+            cache.put(key, pool, teams);
+        }
+
+        FormationResult result = new FormationResult(algorithm, teamSize, pool.size(), teams,
+                System.currentTimeMillis() - startTime, fromCache, complete,
+                algorithm == FormationAlgorithm.EXACT && complete, context.getRules());
+        lastResult.set(result);
+        return result;
+    }
+    // Runs the selected algorithm on an already validated pool, then swaps former teammates
+    // apart when the context carries a pairing history; also used for partitioned formations.
+    List<Team> runAlgorithm(FormationAlgorithm algorithm, List<Participant> pool, int teamSize,
+                            FormationContext context) {
+        List<Team> teams = dispatch(algorithm, pool, teamSize, context);
+        PairingHistory history = context.getPairingHistory();
+        if (history != null && history.getPairCount() > 0) {
+            int before = history.repeatedPairs(teams);
+            if (before > 0) {
+                int after = pairingSwapper.reduce(teams, history, context);
+                LetsTeamUpApplication.logMessage("Repeated pairings from " + history.getRounds()
+                        + " recorded rounds reduced from " + before + " to " + after);
             }
         }
+        return teams;
+    }
 
-        LetsTeamUpApplication.logMessage("Successfully formed " + formedTeams.size() + " teams");
-        return new ArrayList<>(formedTeams);
+    private List<Team> dispatch(FormationAlgorithm algorithm, List<Participant> pool, int teamSize,
+                                FormationContext context) {
+        switch (algorithm) {
+            case SKILL_BASED:
+                return skillBasedTeams(pool, teamSize, context);
+            case ROLE_BASED:
+                return roleBasedTeams(pool, teamSize, context);
+            case GENETIC:
+                return geneticTeams(pool, teamSize, context);
+            case EXACT:
+                return exactTeams(pool, teamSize, context);
+            case BALANCED:
+            default:
+                return balancedTeams(pool, teamSize, context);
+        }
     }
-    // Builds a balanced team by prioritizing personality diversity, limiting leaders,
-    // and controlling game distribution before assigning members to the team.
-    private Team createBalancedTeam(String teamId, List<Participant> available, int teamSize) {
-        Team team = new Team(teamId, teamSize);
+    // Deterministic algorithms are cached by pool, size and algorithm; randomised ones only
+    // when the caller fixed a seed, which then becomes part of the key, as does a fingerprint
+    // of any rules other than the defaults. Runs that consult a pairing history depend on
+    // more than the pool and are never cached.
+    private FormationCache.Key cacheKeyFor(FormationAlgorithm algorithm, List<Participant> pool,
+                                           int teamSize, FormationContext context) {
+        if (context.getPairingHistory() != null) {
+            return null;
+        }
+        String label = algorithm.getKey();
+        if (!FormationRules.DEFAULT.equals(context.getRules())) {
+            label += "-r" + Long.toHexString(context.getRules().fingerprint());
+        }
+        if (algorithm == FormationAlgorithm.GENETIC) {
+            if (!context.hasSeed()) {
+                return null;
+            }
+            return FormationCache.keyFor(pool, teamSize, label + "-" + context.getSeed());
+        }
+        return FormationCache.keyFor(pool, teamSize, label);
+    }
+    // Submits a formation to the shared executor so several events can be formed in parallel
+    // on one service instance; validation failures complete the future exceptionally.
+    public CompletableFuture<FormationResult> formAsync(FormationAlgorithm algorithm,
+                                                        List<Participant> participants, int teamSize) {
+        return formAsync(algorithm, participants, teamSize, FormationContext.unbounded());
+    }
+
+    public CompletableFuture<FormationResult> formAsync(FormationAlgorithm algorithm, List<Participant> participants,
+                                                        int teamSize, FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> form(algorithm, pool, teamSize, context));
+    }
+    // Forms as many full teams as the pool's size and the rules' minimums allow and leaves the rest
+    // unassigned, instead of rejecting a pool that is short of Leaders; used for shards and leftovers.
+    public FormationResult formAvailable(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                         FormationContext context) throws InsufficientParticipantsException {
+        if (participants == null) {
+            throw new InsufficientParticipantsException("No participants available");
+        }
+        if (teamSize < 3) {
+            throw new InsufficientParticipantsException("Team size must be at least 3");
+        }
 
-        Map<String, List<Participant>> byPersonality = available.stream()
-                .collect(Collectors.groupingBy(Participant::getPersonalityType));
+        List<Participant> pool = new ArrayList<>(participants);
+        long startTime = System.currentTimeMillis();
 
-        List<Participant> selected = new ArrayList<>();
-        Map<String, Integer> gameCount = new HashMap<>();
-        int leaderCount = 0;
+        PartitionedFormation.Outcome outcome = new PartitionedFormation(this, algorithm, teamSize, context)
+                .formPartition("Pool", pool);
 
-        List<Participant> leaders = byPersonality.getOrDefault("Leader", new ArrayList<>());
-        if (!leaders.isEmpty() && leaderCount < 2) {
-            Participant leader = leaders.get(0);
-            selected.add(leader);
-            leaderCount++;
-            gameCount.put(leader.getPreferredGame(), 1);
+        return new FormationResult(algorithm, teamSize, pool.size(), outcome.teams,
+                System.currentTimeMillis() - startTime, false, !context.wasStopped(), false, context.getRules());
+    }
+    // Forms teams inside each preferred-game partition concurrently on the executor, then places
+    // the leftovers of all games in a final cross-game pass, so most teams play a single game.
+    public FormationResult formByGame(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                      FormationContext context) throws InsufficientParticipantsException {
+
+        validateInput(participants, teamSize, context.getRules());
+
+        List<Participant> pool = new ArrayList<>(participants);
+        long startTime = System.currentTimeMillis();
+
+        Map<String, List<Participant>> byGame = new LinkedHashMap<>();
+        for (Participant p : pool) {
+            byGame.computeIfAbsent(String.valueOf(p.getPreferredGame()), k -> new ArrayList<>()).add(p);
         }
 
-        for (Participant p : available) {
-            if (selected.size() >= teamSize) break;
-            if (selected.contains(p)) continue;
+        LetsTeamUpApplication.logMessage("Forming " + algorithm.getKey() + " teams within " + byGame.size()
+                + " game partitions");
 
-            int currentGameCount = gameCount.getOrDefault(p.getPreferredGame(), 0);
+        PartitionedFormation partitioned = new PartitionedFormation(this, algorithm, teamSize, context);
+        List<Team> teams = new ArrayList<>();
+        List<Participant> leftovers = new ArrayList<>();
+        for (PartitionedFormation.Outcome outcome : partitioned.formAll(byGame)) {
+            teams.addAll(PartitionedFormation.relabel(outcome.teams, teams.size() + 1, outcome.label));
+            leftovers.addAll(outcome.leftovers);
+        }
 
-            if (p.getPersonalityType().equals("Leader")) {
-                if (leaderCount >= 2) continue;
+        if (!leftovers.isEmpty()) {
+            PartitionedFormation.Outcome mixed = partitioned.formPartition("Mixed", leftovers);
+            teams.addAll(PartitionedFormation.relabel(mixed.teams, teams.size() + 1, mixed.label));
+            if (!mixed.leftovers.isEmpty()) {
+                LetsTeamUpApplication.logMessage(mixed.leftovers.size()
+                        + " participants left unassigned after the cross-game pass");
             }
+        }
 
-            if (currentGameCount < 2) {
-                selected.add(p);
-                gameCount.put(p.getPreferredGame(), currentGameCount + 1);
-                if (p.getPersonalityType().equals("Leader")) {
-                    leaderCount++;
-                }
-            }
+        context.reportFinished(teams, teams.size(), pool.size());
+
+        FormationResult result = new FormationResult(algorithm, teamSize, pool.size(), teams,
+                System.currentTimeMillis() - startTime, false, !context.wasStopped(), false, context.getRules());
+        lastResult.set(result);
+        return result;
+    }
+
+    public CompletableFuture<FormationResult> formByGameAsync(FormationAlgorithm algorithm,
+                                                              List<Participant> participants, int teamSize,
+                                                              FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> formByGame(algorithm, pool, teamSize, context));
+    }
+
+    // Splits the pool into skill divisions and forms each one in parallel with the chosen
+    // algorithm, so teams only ever play against others of a similar level.
+    public List<Division> formDivisions(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                        DivisionScheme scheme, FormationContext context)
+            throws InsufficientParticipantsException {
+
+        validateInput(participants, teamSize, context.getRules());
+
+        List<Participant> pool = new ArrayList<>(participants);
+        long startTime = System.currentTimeMillis();
+        Map<String, List<Participant>> tiers = scheme.partition(pool);
+
+        LetsTeamUpApplication.logMessage("Forming " + algorithm.getKey() + " teams in " + tiers.size()
+                + " skill divisions");
+
+        PartitionedFormation partitioned = new PartitionedFormation(this, algorithm, teamSize, context);
+        List<Division> divisions = new ArrayList<>();
+        List<Team> allTeams = new ArrayList<>();
+        for (PartitionedFormation.Outcome outcome : partitioned.formAll(tiers)) {
+            List<Team> teams = PartitionedFormation.relabel(outcome.teams, allTeams.size() + 1, outcome.label);
+            allTeams.addAll(teams);
+            FormationResult result = new FormationResult(algorithm, teamSize, tiers.get(outcome.label).size(), teams,
+                    System.currentTimeMillis() - startTime, false, !context.wasStopped(), false, context.getRules());
+            divisions.add(new Division(outcome.label, result));
         }
 
-        for (Participant p : available) {
-            if (selected.size() >= teamSize) break;
-            if (selected.contains(p)) continue;
+        context.reportFinished(allTeams, allTeams.size(), pool.size());
+
+        lastResult.set(new FormationResult(algorithm, teamSize, pool.size(), allTeams,
+                System.currentTimeMillis() - startTime, false, !context.wasStopped(), false, context.getRules()));
+        return divisions;
+    }
+
+    public CompletableFuture<List<Division>> formDivisionsAsync(FormationAlgorithm algorithm,
+                                                                List<Participant> participants, int teamSize,
+                                                                DivisionScheme scheme, FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> formDivisions(algorithm, pool, teamSize, scheme, context));
+    }
+
+    private <T> CompletableFuture<T> submit(FormationCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.run();
+            } catch (InsufficientParticipantsException e) {
+                throw new CompletionException(e);
+            }
+        }, executorService);
+    }
+
+    @FunctionalInterface
+    private interface FormationCall<T> {
+        T run() throws InsufficientParticipantsException;
+    }
+    // Races every algorithm on the same pool concurrently on the fork-join pool, scores each result
+    // with the shared quality scorer and records the best one as the latest result.
+    public AutoSelection formAuto(List<Participant> participants, int teamSize, FormationContext context)
+            throws InsufficientParticipantsException {
+        validateInput(participants, teamSize, context.getRules());
+        List<Participant> pool = new ArrayList<>(participants);
 
-            if (p.getPersonalityType().equals("Leader") && leaderCount >= 2) {
+        Map<FormationAlgorithm, CompletableFuture<FormationResult>> runs = new LinkedHashMap<>();
+        for (FormationAlgorithm algorithm : FormationAlgorithm.values()) {
+            if (algorithm == FormationAlgorithm.EXACT && pool.size() > BranchAndBoundSolver.MAX_PARTICIPANTS) {
                 continue;
             }
+            runs.put(algorithm, CompletableFuture.supplyAsync(
+                    () -> runContender(algorithm, pool, teamSize, context.fork()), forkJoinPool()));
+        }
 
-            selected.add(p);
-            if (p.getPersonalityType().equals("Leader")) {
-                leaderCount++;
+        TeamQualityScorer scorer = qualityScorer.withRules(context.getRules());
+        List<AutoSelection.Entry> entries = new ArrayList<>();
+        for (Map.Entry<FormationAlgorithm, CompletableFuture<FormationResult>> run : runs.entrySet()) {
+            try {
+                FormationResult result = run.getValue().join();
+                entries.add(new AutoSelection.Entry(run.getKey(), result,
+                        scorer.score(result.getTeams(), pool.size())));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                LetsTeamUpApplication.logMessage("Auto formation: " + run.getKey().getKey() + " failed: "
+                        + cause.getMessage());
+                entries.add(new AutoSelection.Entry(run.getKey(), String.valueOf(cause.getMessage())));
             }
         }
 
-        for (Participant p : selected) {
-            team.addMember(p);
-            available.remove(p);
+        AutoSelection selection = new AutoSelection(entries);
+        FormationResult winner = selection.getWinner();
+        if (winner != null) {
+            LetsTeamUpApplication.logMessage("Auto formation picked " + winner.getAlgorithm().getKey() + " with score "
+                    + String.format("%.2f", selection.getEntries().get(0).getScore()));
+            lastResult.set(winner);
         }
+        return selection;
+    }
 
-        return team;
+    public CompletableFuture<AutoSelection> formAutoAsync(List<Participant> participants, int teamSize,
+                                                          FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> formAuto(pool, teamSize, context));
     }
-    // Forms teams by sorting participants by skill (highest to lowest) and distributing
-    // them in a zigzag pattern to keep teams balanced while respecting leader limits.
-    public List<Team> formSkillBasedTeams(List<Participant> participants, int teamSize)
+
+    private FormationResult runContender(FormationAlgorithm algorithm, List<Participant> pool, int teamSize,
+                                         FormationContext context) {
+        long startTime = System.currentTimeMillis();
+        List<Team> teams = runAlgorithm(algorithm, pool, teamSize, context);
+        boolean complete = !context.wasStopped();
+        return new FormationResult(algorithm, teamSize, pool.size(), teams, System.currentTimeMillis() - startTime,
+                false, complete, algorithm == FormationAlgorithm.EXACT && complete, context.getRules());
+    }
+    // Checks every team size in the range against the pool under the default rules.
+    public List<TeamSizeOption> analyseTeamSizes(List<Participant> participants, int minSize, int maxSize) {
+        return analyseTeamSizes(participants, minSize, maxSize, FormationRules.DEFAULT);
+    }
+    // Checks every team size in the range against the pool: even division, enough members for
+    // every minimum and reachable skill bounds, and (as warnings) the caps. Counts per rule value
+    // are taken once, in a single pass over the pool.
+    public List<TeamSizeOption> analyseTeamSizes(List<Participant> participants, int minSize, int maxSize,
+                                                 FormationRules rules) {
+        List<Participant> pool = participants == null ? new ArrayList<>() : participants;
+        int n = pool.size();
+        ParticipantColumns columns = ParticipantColumns.of(pool);
+        CompiledRules counted = CompiledRules.compile(rules, columns, Math.max(1, minSize));
+        long totalSkill = 0;
+        for (int i = 0; i < n; i++) {
+            totalSkill += columns.skill(i);
+        }
+
+        List<TeamSizeOption> options = new ArrayList<>();
+        for (int size = Math.max(3, minSize); size <= Math.min(maxSize, n); size++) {
+            int teams = n / size;
+            int leftover = n % size;
+            List<String> issues = new ArrayList<>();
+            if (leftover > 0) {
+                issues.add(leftover + " participants left over");
+            }
+            if (counted.totalMinimum() > size) {
+                issues.add("the rules need " + counted.totalMinimum() + " members per team");
+            }
+            for (int c : counted.minimumCounters()) {
+                long needed = (long) counted.minimum(c) * teams;
+                if (counted.poolCount(c) < needed) {
+                    issues.add("needs " + needed + " " + members(counted, c) + ", have " + counted.poolCount(c));
+                }
+            }
+            if (leftover == 0 && rules.hasSkillBounds()) {
+                CompiledRules sized = CompiledRules.compile(rules, columns, size);
+                if (totalSkill < sized.minTeamSkill() * teams || totalSkill > sized.maxTeamSkill() * teams) {
+                    issues.add(String.format("average skill %.2f is outside the skill bounds",
+                            (double) totalSkill / n));
+                }
+            }
+            boolean feasible = issues.isEmpty();
+
+            for (int c = 0; c < counted.counterCount(); c++) {
+                long hardRoom = (long) counted.hardCap(c) * teams;
+                long softRoom = (long) counted.softCap(c) * teams;
+                if (counted.poolCount(c) > hardRoom) {
+                    issues.add((counted.poolCount(c) - hardRoom) + " " + members(counted, c) + " over the cap of "
+                            + counted.hardCap(c) + " per team");
+                } else if (counted.poolCount(c) > softRoom) {
+                    issues.add(counted.label(c) + " has " + counted.poolCount(c) + " players, more than "
+                            + counted.softCap(c) + " per team allows");
+                }
+            }
+            options.add(new TeamSizeOption(size, teams, leftover, feasible, issues));
+        }
+        return options;
+    }
+
+    // Names the members a counter counts: "Leaders", "Strategists", "FIFA players".
+    private static String members(CompiledRules rules, int c) {
+        String label = rules.label(c);
+        if (rules.attribute(c) == FormationRules.Attribute.GAME) {
+            return label + " players";
+        }
+        return label.endsWith("s") ? label : label + "s";
+    }
+    // Analyses every size in the range, then runs the algorithm concurrently for each feasible
+    // size on the fork-join pool and attaches each run's result, quality score and runtime.
+    public List<TeamSizeOption> sweepTeamSizes(FormationAlgorithm algorithm, List<Participant> participants,
+                                               int minSize, int maxSize, FormationContext context)
             throws InsufficientParticipantsException {
+        if (participants == null || participants.isEmpty()) {
+            throw new InsufficientParticipantsException("No participants available");
+        }
+        List<Participant> pool = new ArrayList<>(participants);
+        List<TeamSizeOption> options = analyseTeamSizes(pool, minSize, maxSize, context.getRules());
+        boolean runnable = algorithm != FormationAlgorithm.EXACT || pool.size() <= BranchAndBoundSolver.MAX_PARTICIPANTS;
+
+        List<CompletableFuture<FormationResult>> runs = new ArrayList<>(options.size());
+        for (TeamSizeOption option : options) {
+            runs.add(option.isFeasible() && runnable
+                    ? CompletableFuture.supplyAsync(() -> runContender(algorithm, pool, option.getTeamSize(),
+                            context.fork()), forkJoinPool())
+                    : null);
+        }
 
-        validateInput(participants, teamSize);
+        TeamQualityScorer scorer = qualityScorer.withRules(context.getRules());
+        List<TeamSizeOption> swept = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            TeamSizeOption option = options.get(i);
+            if (runs.get(i) == null) {
+                swept.add(option);
+                continue;
+            }
+            try {
+                FormationResult result = runs.get(i).join();
+                swept.add(option.withResult(result, scorer.score(result.getTeams(), pool.size())));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                LetsTeamUpApplication.logMessage("Team size " + option.getTeamSize() + " failed: " + cause.getMessage());
+                swept.add(option);
+            }
+        }
+        LetsTeamUpApplication.logMessage("Swept team sizes " + minSize + "-" + maxSize + " with " + algorithm.getKey()
+                + ": " + runs.stream().filter(Objects::nonNull).count() + " feasible sizes formed");
+        return swept;
+    }
 
-        formedTeams.clear();
+    public CompletableFuture<List<TeamSizeOption>> sweepTeamSizesAsync(FormationAlgorithm algorithm,
+                                                                       List<Participant> participants, int minSize,
+                                                                       int maxSize, FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> sweepTeamSizes(algorithm, pool, minSize, maxSize, context));
+    }
+    // Records a result picked from an exploration such as a team-size sweep as the latest result.
+    public void selectResult(FormationResult result) {
+        lastResult.set(result);
+    }
+    // Reruns the algorithm on shuffled copies of the pool in parallel and reports the spread of
+    // its quality; the best run becomes the latest result.
+    public RobustnessReport formRobust(FormationAlgorithm algorithm, List<Participant> participants, int teamSize,
+                                       int runs, FormationContext context) throws InsufficientParticipantsException {
+        validateInput(participants, teamSize, context.getRules());
+        if (runs < 1) {
+            throw new IllegalArgumentException("At least one run is required");
+        }
 
-        List<Participant> sorted = new ArrayList<>(participants);
-        sorted.sort(Comparator.comparingInt(Participant::getSkillLevel).reversed());
+        long startTime = System.currentTimeMillis();
+        RobustnessReport report = new MonteCarloRuns(this, qualityScorer.withRules(context.getRules()), algorithm,
+                teamSize, context)
+                .run(new ArrayList<>(participants), runs);
+        LetsTeamUpApplication.logMessage(runs + " " + algorithm.getKey() + " runs in "
+                + (System.currentTimeMillis() - startTime) + "ms: score " + report.getScore() + "; best run "
+                + report.getBestRun() + " scored " + String.format("%.2f", report.getBestScore())
+                + " against " + String.format("%.2f", report.getBaselineScore()) + " for the original order");
+
+        lastResult.set(report.getBest());
+        return report;
+    }
 
-        int numberOfTeams = participants.size() / teamSize;
+    public CompletableFuture<RobustnessReport> formRobustAsync(FormationAlgorithm algorithm,
+                                                               List<Participant> participants, int teamSize,
+                                                               int runs, FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> formRobust(algorithm, pool, teamSize, runs, context));
+    }
+    // Forms a schedule of several rounds on the same pool, each under the usual constraints,
+    // keeping per round the candidate that repeats the fewest earlier pairings; round one
+    // becomes the latest result.
+    public List<FormationResult> formRotation(FormationAlgorithm algorithm, List<Participant> participants,
+                                              int teamSize, int rounds, FormationContext context)
+            throws InsufficientParticipantsException {
+        validateInput(participants, teamSize, context.getRules());
+        if (rounds < 1) {
+            throw new IllegalArgumentException("A rotation needs at least one round");
+        }
 
-        LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " skill-based teams");
+        long startTime = System.currentTimeMillis();
+        List<FormationResult> schedule = new RotationScheduler(this, algorithm, teamSize, context)
+                .schedule(new ArrayList<>(participants), rounds);
+        LetsTeamUpApplication.logMessage("Formed " + schedule.size() + " rotation rounds of " + participants.size()
+                + " participants in " + (System.currentTimeMillis() - startTime) + "ms");
 
-        for (int i = 0; i < numberOfTeams; i++) {
-            formedTeams.add(new Team("T" + (i + 1), teamSize));
+        if (!schedule.isEmpty()) {
+            lastResult.set(schedule.get(0));
         }
+        return schedule;
+    }
 
-        boolean reverse = false;
-        int participantIndex = 0;
+    public CompletableFuture<List<FormationResult>> formRotationAsync(FormationAlgorithm algorithm,
+                                                                      List<Participant> participants, int teamSize,
+                                                                      int rounds, FormationContext context) {
+        List<Participant> pool = participants == null ? null : new ArrayList<>(participants);
+        return submit(() -> formRotation(algorithm, pool, teamSize, rounds, context));
+    }
+    // Opens a roster over a formation's teams so late sign-ups can be placed incrementally
+    // without re-running the algorithm or moving anyone already placed.
+    public TeamRoster openRoster(FormationResult result) {
+        return new TeamRoster(result);
+    }
+    // Places late sign-ups into the roster's open teams (or new teams once enough are waiting)
+    // and records the updated formation as the latest result.
+    public FormationResult placeLateParticipants(TeamRoster roster, List<Participant> late) {
+        int placed = roster.placeLate(late);
+        LetsTeamUpApplication.logMessage("Placed " + placed + " of " + late.size() + " late participants, "
+                + roster.getWaiting().size() + " waiting for a team");
+
+        FormationResult result = roster.toResult();
+        lastResult.set(result);
+        return result;
+    }
+    // Removes withdrawn participants from the roster and repairs the teams they left with the
+    // fewest member moves, recording the repaired formation as the latest result.
+    public TeamRoster.Rebalance rebalanceAfterWithdrawals(TeamRoster roster, Set<String> withdrawnIds) {
+        long startTime = System.nanoTime();
+        TeamRoster.Rebalance rebalance = roster.withdraw(withdrawnIds);
+        LetsTeamUpApplication.logMessage("Rebalanced after " + rebalance.getWithdrawn() + " withdrawals in "
+                + (System.nanoTime() - startTime) / 1_000_000 + " ms: " + rebalance.getMoves() + " moves, "
+                + rebalance.getDissolvedTeams().size() + " teams dissolved, "
+                + rebalance.getBenched().size() + " members waiting for a team");
+        if (rebalance.getTeamsWithoutLeader() > 0) {
+            LetsTeamUpApplication.logMessage(rebalance.getTeamsWithoutLeader()
+                    + " teams remain without a Leader: no Leader could be spared");
+        }
 
-        while (participantIndex < sorted.size()) {
-            List<Team> order = new ArrayList<>(formedTeams);
-            if (reverse) {
-                Collections.reverse(order);
-            }
+        lastResult.set(roster.toResult());
+        return rebalance;
+    }
+    // Opens a formation session for one event; sessions share this service and its
+    // thread pool but remember their own latest result.
+    public FormationSession openSession(String eventName) {
+        return new FormationSession(eventName, this);
+    }
+    // Creates balanced teams by distributing participants to maximize diversity,
+    // validating inputs, forming each team, and returning the final team list.
+    public List<Team> formBalancedTeams(List<Participant> participants, int teamSize)
+            throws InsufficientParticipantsException {
+        return form(FormationAlgorithm.BALANCED, participants, teamSize).getTeams();
+    }
 
-            for (Team team : order) {
-                if (participantIndex < sorted.size() && !team.isFull()) {
-                    Participant p = sorted.get(participantIndex);
+    private List<Team> balancedTeams(List<Participant> participants, int teamSize, FormationContext context) {
+        List<Team> formedTeams = new ArrayList<>();
+        ParticipantColumns columns = ParticipantColumns.of(participants);
+        int numberOfTeams = participants.size() / teamSize;
+        CompiledRules rules = CompiledRules.compile(context.getRules(), columns, teamSize);
+        CompiledRules.Tally tally = rules.newTally(numberOfTeams);
+        boolean[] taken = new boolean[columns.size()];
 
-                    long leaderCount = team.getMembers().stream()
-                            .filter(m -> m.getPersonalityType().equals("Leader"))
-                            .count();
+        LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " balanced teams with size " + teamSize);
 
-                    if (p.getPersonalityType().equals("Leader") && leaderCount >= 2) {
-                        participantIndex++;
-                        continue;
-                    }
+        for (int i = 0; i < numberOfTeams; i++) {
+            if (context.shouldStop()) break;
+            Team team = createBalancedTeam("T" + (i + 1), i, columns, rules, tally, taken, teamSize);
+            if (team.getCurrentSize() > 0) {
+                formedTeams.add(team);
+            }
+            context.reportProgress(formedTeams, numberOfTeams, participants.size());
+        }
 
-                    team.addMember(p);
-                    participantIndex++;
+        LetsTeamUpApplication.logMessage("Successfully formed " + formedTeams.size() + " teams");
+        return formedTeams;
+    }
+    // Builds a balanced team from the participants not yet taken, in pool order: first members
+    // for the rules' minimums (by default one Leader), then members within every cap, then
+    // members within the hard caps only (by default no third Leader, games may pass two).
+    private Team createBalancedTeam(String teamId, int t, ParticipantColumns columns, CompiledRules rules,
+                                    CompiledRules.Tally tally, boolean[] taken, int teamSize) {
+        Team team = new Team(teamId, teamSize);
+        int n = columns.size();
+
+        for (int c : rules.minimumCounters()) {
+            for (int p = 0; p < n && tally.count(t, c) < rules.minimum(c) && tally.filled(t) < teamSize; p++) {
+                if (!taken[p] && rules.matches(p, c) && tally.fits(t, p)) {
+                    take(team, t, p, columns, tally, taken);
                 }
             }
+        }
 
-            reverse = !reverse;
+        for (int p = 0; p < n && tally.filled(t) < teamSize; p++) {
+            if (!taken[p] && tally.fits(t, p) && tally.fitsPreferred(t, p)) {
+                take(team, t, p, columns, tally, taken);
+            }
         }
 
-        return new ArrayList<>(formedTeams);
+        for (int p = 0; p < n && tally.filled(t) < teamSize; p++) {
+            if (!taken[p] && tally.fits(t, p)) {
+                take(team, t, p, columns, tally, taken);
+            }
+        }
+
+        return team;
     }
-    // Forms teams by grouping participants based on their preferred roles and distributing
-    // them evenly across teams, while ensuring no team exceeds leader limits.
-    public List<Team> formRoleBasedTeams(List<Participant> participants, int teamSize)
+
+    private static void take(Team team, int t, int p, ParticipantColumns columns, CompiledRules.Tally tally,
+                             boolean[] taken) {
+        team.addMember(columns.participant(p));
+        tally.add(t, p);
+        taken[p] = true;
+    }
+    // Forms teams by sorting participants by skill (highest to lowest) and distributing
+    // them in a zigzag pattern to keep teams balanced while respecting leader limits.
+    public List<Team> formSkillBasedTeams(List<Participant> participants, int teamSize)
             throws InsufficientParticipantsException {
+        return form(FormationAlgorithm.SKILL_BASED, participants, teamSize).getTeams();
+    }
 
-        validateInput(participants, teamSize);
+    private List<Team> skillBasedTeams(List<Participant> participants, int teamSize, FormationContext context) {
+        int numberOfTeams = participants.size() / teamSize;
 
-        formedTeams.clear();
+        LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " skill-based teams");
 
-        Map<String, List<Participant>> byRole = participants.stream()
-                .collect(Collectors.groupingBy(Participant::getPreferredRole));
+        return snakeDraftEngine.draft(ParticipantColumns.of(participants), numberOfTeams, teamSize, context);
+    }
+    // Forms teams by routing participants to (team, role) seats with a min-cost flow, so every
+    // team gets a Leader and the most varied role mix the pool allows.
+    public List<Team> formRoleBasedTeams(List<Participant> participants, int teamSize)
+            throws InsufficientParticipantsException {
+        return form(FormationAlgorithm.ROLE_BASED, participants, teamSize).getTeams();
+    }
 
+    private List<Team> roleBasedTeams(List<Participant> participants, int teamSize, FormationContext context) {
         int numberOfTeams = participants.size() / teamSize;
 
         LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " role-based teams");
 
-        for (int i = 0; i < numberOfTeams; i++) {
-            formedTeams.add(new Team("T" + (i + 1), teamSize));
+        List<Team> formedTeams = roleAssignmentEngine.assign(ParticipantColumns.of(participants), numberOfTeams,
+                teamSize, context);
+
+        int assigned = formedTeams.stream().mapToInt(Team::getCurrentSize).sum();
+        if (assigned < participants.size()) {
+            LetsTeamUpApplication.logMessage((participants.size() - assigned)
+                    + " participants left unassigned by role-based formation");
         }
+        return formedTeams;
+    }
+    // Forms teams with the genetic engine on primitive genomes; fitness is evaluated in parallel on
+    // the service's fork/join pool when it has one, otherwise on the common pool.
+    private List<Team> geneticTeams(List<Participant> participants, int teamSize, FormationContext context) {
+        ParticipantColumns columns = ParticipantColumns.of(participants);
+        int numberOfTeams = participants.size() / teamSize;
+        long seed = context.runSeed();
 
-        for (Map.Entry<String, List<Participant>> entry : byRole.entrySet()) {
-            List<Participant> roleParticipants = entry.getValue();
-            int teamIndex = 0;
+        LetsTeamUpApplication.logMessage("Forming " + numberOfTeams + " teams with the genetic algorithm (seed "
+                + seed + ")");
 
-            for (Participant p : roleParticipants) {
-                while (teamIndex < formedTeams.size() &&
-                        formedTeams.get(teamIndex).isFull()) {
-                    teamIndex++;
-                }
+        int[] genome = geneticEngine.evolve(columns, numberOfTeams, teamSize, seed, forkJoinPool(), context);
+        return GeneticFormationEngine.toTeams(columns, genome, numberOfTeams, teamSize);
+    }
 
-                if (teamIndex < formedTeams.size()) {
-                    Team team = formedTeams.get(teamIndex);
-
-                    long leaderCount = team.getMembers().stream()
-                            .filter(m -> m.getPersonalityType().equals("Leader"))
-                            .count();
-
-                    if (p.getPersonalityType().equals("Leader") && leaderCount >= 2) {
-                        teamIndex++;
-                        if (teamIndex >= formedTeams.size()) {
-                            teamIndex = 0;
-                        }
-                        continue;
-                    }
-
-                    team.addMember(p);
-                    teamIndex++;
-                    if (teamIndex >= formedTeams.size()) {
-                        teamIndex = 0;
-                    }
-                }
-            }
-        }
+    // Solves small pools exactly with branch-and-bound; open subtrees are spread over the
+    // service's fork/join pool, and a finished search proves the formation optimal.
+    private List<Team> exactTeams(List<Participant> participants, int teamSize, FormationContext context) {
+        ParticipantColumns columns = ParticipantColumns.of(participants);
+        int numberOfTeams = participants.size() / teamSize;
+
+        LetsTeamUpApplication.logMessage("Solving " + numberOfTeams + " teams exactly with branch-and-bound");
 
-        return new ArrayList<>(formedTeams);
+        BranchAndBoundSolver.Solution solution = branchAndBoundSolver.solve(columns, numberOfTeams, teamSize,
+                forkJoinPool(), context);
+
+        LetsTeamUpApplication.logMessage((solution.isProvenOptimal() ? "Proven optimal" : "Best found")
+                + " formation: skill spread " + solution.getSkillSpread() + ", game cap overflow "
+                + solution.getGameOverflow() + " (" + solution.getNodesExplored() + " nodes, "
+                + solution.getElapsedMillis() + "ms)");
+
+        return solution.toTeams(columns, numberOfTeams, teamSize);
+    }
+
+    // Pool for work a running formation fans out and then joins. A join inside a ForkJoinPool
+    // adds a worker while it waits, so a bounded caller-supplied executor is never starved.
+    ForkJoinPool forkJoinPool() {
+        return executorService instanceof ForkJoinPool ? (ForkJoinPool) executorService : ForkJoinPool.commonPool();
     }
     // Validates team formation requirements by checking participant count, team size,
-    // and ensuring enough leaders exist to distribute across all teams.
-    private void validateInput(List<Participant> participants, int teamSize)
+    // and ensuring the pool can meet every minimum of the rules (by default a Leader per team).
+    public void validateInput(List<Participant> participants, int teamSize, FormationRules rules)
             throws InsufficientParticipantsException {
 
         if (participants == null || participants.isEmpty()) {
@@ -231,76 +734,82 @@ public class TeamFormationService {
             );
         }
 
-        long leaderCount = participants.stream()
-                .filter(p -> p.getPersonalityType().equals("Leader"))
-                .count();
+        CompiledRules compiled = CompiledRules.compile(rules, ParticipantColumns.of(participants), teamSize);
+        if (compiled.totalMinimum() > teamSize) {
+            throw new InsufficientParticipantsException("The formation rules need " + compiled.totalMinimum()
+                    + " members per team, more than the team size of " + teamSize);
+        }
 
         int numberOfTeams = participants.size() / teamSize;
-        if (leaderCount < numberOfTeams) {
-            throw new InsufficientParticipantsException(
-                    "Insufficient leaders. Need at least " + numberOfTeams + " leaders, have " + leaderCount
-            );
+        for (int c : compiled.minimumCounters()) {
+            long needed = (long) compiled.minimum(c) * numberOfTeams;
+            if (compiled.poolCount(c) < needed) {
+                String members = members(compiled, c);
+                if (compiled.attribute(c) == FormationRules.Attribute.PERSONALITY) {
+                    members = members.toLowerCase(Locale.ROOT);
+                }
+                throw new InsufficientParticipantsException(
+                        "Insufficient " + members + ". Need at least " + needed + " " + members + ", have "
+                                + compiled.poolCount(c)
+                );
+            }
         }
     }
 
+    // Scores a formation with the service's quality scorer on a 0-100 scale; participants of
+    // the pool left out of the teams count against the score.
+    public double scoreFormation(List<Team> teams, int participantCount) {
+        return qualityScorer.score(teams, participantCount);
+    }
+    // Scores every team of a formation on a 0-100 scale with the service's quality scorer,
+    // for reports that rank teams within one formation.
+    public double[] scoreTeams(List<Team> teams) {
+        return qualityScorer.scoreTeams(teams);
+    }
+    // Replaces the weights used to compare formations, e.g. by Auto selection, team-size sweeps
+    // and robustness runs started after the call.
+    public void setQualityWeights(TeamQualityScorer.Weights weights) {
+        this.qualityScorer = new TeamQualityScorer(weights);
+    }
+
+    public TeamQualityScorer getQualityScorer() {
+        return qualityScorer;
+    }
+
+    // Returns the teams of the most recent formation run on this service, or an empty list.
     public List<Team> getFormedTeams() {
-        return new ArrayList<>(formedTeams);
+        FormationResult result = lastResult.get();
+        return result == null ? new ArrayList<>() : result.getTeams();
+    }
+
+    public FormationResult getLastResult() {
+        return lastResult.get();
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public FormationCache getCache() {
+        return cache;
+    }
+    // Computes aggregated statistics for all formed teams in one pass, in parallel when the
+    // formation is large: averages, skill spread and percentiles, and attribute distributions.
+    public FormationStatistics formationStatistics(List<Team> teams) {
+        if (teams.size() < PARALLEL_STATISTICS_TEAMS) {
+            return FormationStatistics.of(teams);
+        }
+        return teams.parallelStream().collect(FormationStatistics.collector());
     }
     // Computes aggregated statistics for all formed teams, including averages and
     // distributions of personality types, roles, games, skills, and team sizes.
     public Map<String, Object> calculateStatistics(List<Team> teams) {
-        Map<String, Object> stats = new HashMap<>();
-
-        stats.put("totalTeams", teams.size());
-
-        int totalMembers = teams.stream()
-                .mapToInt(Team::getCurrentSize)
-                .sum();
-        stats.put("totalMembers", totalMembers);
-
-        double avgTeamSize = teams.stream()
-                .mapToInt(Team::getCurrentSize)
-                .average()
-                .orElse(0.0);
-        stats.put("avgTeamSize", avgTeamSize);
-
-        double avgSkill = teams.stream()
-                .flatMap(t -> t.getMembers().stream())
-                .mapToInt(Participant::getSkillLevel)
-                .average()
-                .orElse(0.0);
-        stats.put("avgSkillLevel", avgSkill);
-
-        double avgDiversity = teams.stream()
-                .mapToInt(Team::getDiversityScore)
-                .average()
-                .orElse(0.0);
-        stats.put("avgDiversity", avgDiversity);
-
-        Map<String, Integer> personalityDist = new HashMap<>();
-        teams.stream()
-                .flatMap(t -> t.getMembers().stream())
-                .forEach(p -> personalityDist.merge(p.getPersonalityType(), 1, Integer::sum));
-        stats.put("personalityDistribution", personalityDist);
-
-        Map<String, Integer> roleDist = new HashMap<>();
-        teams.stream()
-                .flatMap(t -> t.getMembers().stream())
-                .forEach(p -> roleDist.merge(p.getPreferredRole(), 1, Integer::sum));
-        stats.put("roleDistribution", roleDist);
-
-        Map<String, Integer> gameDist = new HashMap<>();
-        teams.stream()
-                .flatMap(t -> t.getMembers().stream())
-                .forEach(p -> gameDist.merge(p.getPreferredGame(), 1, Integer::sum));
-        stats.put("gameDistribution", gameDist);
-
-        return stats;
+        return formationStatistics(teams).toMap();
     }
     // Safely shuts down the executor service by waiting for ongoing tasks for finishing,
     // forcing termination if needed and handling interruptions gracefully.
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
+        if (ownsExecutor && executorService != null && !executorService.isShutdown()) {
             executorService.shutdown();
             try {
                 if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
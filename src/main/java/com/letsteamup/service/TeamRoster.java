@@ -0,0 +1,645 @@
+package com.letsteamup.service;
+
+import com.letsteamup.algorithm.CompiledRules;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.PersonalityType;
+import com.letsteamup.model.Team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Mutable working copy of a formation that absorbs late sign-ups incrementally
+ *
+ * The roster keeps the rules the formation was made under. Each batch compiles them once
+ * over the roster's participants, a flat O(n) pass, and every insertion is then checked
+ * against a CompiledRules.Tally of the teams in O(1). Open teams sit in min-heaps by skill
+ * total, one per Leader count up to the Leader cap, so a newcomer is placed after probing
+ * a constant number of heap tops: O(log t) per participant. Placed members are never
+ * moved. Newcomers that fit nowhere wait until enough of them (including the Leaders the
+ * rules require) have gathered to open a new team.
+ *
+ * Withdrawals are absorbed the same way: an ID index finds each leaver's team directly,
+ * and per-team aggregates plus indexes of teams short of Leaders, with Leaders to spare
+ * and at the Leader cap pick the few moves needed to restore full teams within the rules.
+ */
+public class TeamRoster {
+
+    private static final int PROBE = 4;
+    private static final int BLOCKED = Integer.MAX_VALUE;
+
+    private final FormationAlgorithm algorithm;
+    private final int teamSize;
+    private final FormationRules rules;
+    private final int minLeaders;
+    private final int maxLeaders;
+    private final List<Team> teams;
+    private final List<Participant> waiting;
+    private final List<PriorityQueue<Slot>> openByLeaders;
+    private final List<Slot> slots;
+    private final Map<String, Slot> slotOfMember;
+    private final Set<Slot> shortOfLeaders;
+    private final Set<Slot> spareLeaders;
+    private final Set<Slot> fullOfLeaders;
+    private final Map<Participant, Integer> column;
+    private CompiledRules.Tally tally;
+    private int participantCount;
+    private int nextTeamNumber;
+    private int nextTally;
+
+    public TeamRoster(FormationResult result) {
+        this.algorithm = result.getAlgorithm();
+        this.teamSize = result.getTeamSize();
+        this.rules = result.getRules();
+        String leader = PersonalityType.LEADER.getDisplayName();
+        this.minLeaders = rules.minimumOf(FormationRules.Attribute.PERSONALITY, leader);
+        this.maxLeaders = Math.min(teamSize, rules.maximumOf(FormationRules.Attribute.PERSONALITY, leader));
+        this.teams = result.getTeams();
+        this.waiting = new ArrayList<>();
+        this.participantCount = result.getParticipantCount();
+        this.openByLeaders = new ArrayList<>();
+        this.slots = new ArrayList<>();
+        this.slotOfMember = new HashMap<>();
+        this.shortOfLeaders = new LinkedHashSet<>();
+        this.spareLeaders = new LinkedHashSet<>();
+        this.fullOfLeaders = new LinkedHashSet<>();
+        this.column = new IdentityHashMap<>();
+        this.nextTeamNumber = teams.size() + 1;
+
+        Comparator<Slot> bySkill = Comparator.<Slot>comparingInt(slot -> slot.team.getSkillTotal())
+                .thenComparingInt(slot -> slot.index);
+        for (int leaders = 0; leaders <= maxLeaders; leaders++) {
+            openByLeaders.add(new PriorityQueue<>(bySkill));
+        }
+        for (int i = 0; i < teams.size(); i++) {
+            track(new Slot(teams.get(i), i));
+        }
+    }
+
+    // An open team, its position in the roster (the heap tie-breaker) and its index in the
+    // current tally.
+    private static final class Slot {
+        final Team team;
+        final int index;
+        int tally;
+
+        Slot(Team team, int index) {
+            this.team = team;
+            this.index = index;
+        }
+    }
+
+    // Compiles the rules over every member, waiting participant and newcomer and tallies the
+    // teams, with room for the teams the batch can open.
+    private void compile(List<Participant> incoming) {
+        List<Participant> everyone = new ArrayList<>();
+        for (Slot slot : slots) {
+            everyone.addAll(slot.team.getMembers());
+        }
+        everyone.addAll(waiting);
+        everyone.addAll(incoming);
+
+        ParticipantColumns columns = ParticipantColumns.of(everyone);
+        CompiledRules compiled = CompiledRules.compile(rules, columns, teamSize);
+        column.clear();
+        for (int i = 0; i < everyone.size(); i++) {
+            column.put(everyone.get(i), i);
+        }
+        tally = compiled.newTally(slots.size() + everyone.size() / teamSize + 1);
+        nextTally = 0;
+        for (Slot slot : slots) {
+            slot.tally = nextTally++;
+            for (Participant p : slot.team.getMembers()) {
+                tally.add(slot.tally, column.get(p));
+            }
+        }
+    }
+
+    /**
+     * Places late participants one by one, opening new teams from the waiting list when
+     * possible; returns how many of them ended up in a team
+     */
+    public int placeLate(List<Participant> late) {
+        compile(late);
+        int placed = 0;
+        for (Participant p : late) {
+            participantCount++;
+            if (place(p)) {
+                placed++;
+            } else {
+                waiting.add(p);
+                placed += openTeamFromWaiting();
+            }
+        }
+        return placed;
+    }
+
+    // Leaders go to the weakest open team with the fewest Leaders that takes them. Others go to
+    // the weakest open team, never taking a seat a team still needs for an unmet minimum.
+    // Teams within the soft caps are preferred among the probed candidates.
+    private boolean place(Participant p) {
+        List<Slot> probed = new ArrayList<>();
+        Slot chosen = null;
+
+        if (isLeader(p)) {
+            for (int leaders = 0; leaders < maxLeaders && chosen == null; leaders++) {
+                chosen = probe(openByLeaders.get(leaders), p, probed);
+            }
+        } else {
+            for (PriorityQueue<Slot> heap : openByLeaders) {
+                Slot candidate = probe(heap, p, probed);
+                if (candidate != null && (chosen == null || better(candidate, chosen, p))) {
+                    chosen = candidate;
+                }
+            }
+        }
+
+        for (Slot slot : probed) {
+            if (slot != chosen) offer(slot);
+        }
+        if (chosen == null) {
+            return false;
+        }
+        join(chosen, p);
+        offer(chosen);
+        return true;
+    }
+
+    // Polls up to PROBE teams from a heap into probed and returns the weakest one p can join,
+    // preferring a team within the soft caps.
+    private Slot probe(PriorityQueue<Slot> heap, Participant p, List<Slot> probed) {
+        int q = column.get(p);
+        Slot fallback = null;
+        for (int i = 0; i < PROBE && !heap.isEmpty(); i++) {
+            Slot slot = heap.poll();
+            probed.add(slot);
+            if (!tally.fits(slot.tally, q) || !tally.leavesRoom(slot.tally, q)) continue;
+            if (tally.fitsPreferred(slot.tally, q)) {
+                return slot;
+            }
+            if (fallback == null) fallback = slot;
+        }
+        return fallback;
+    }
+
+    private boolean better(Slot candidate, Slot current, Participant p) {
+        int q = column.get(p);
+        boolean candidateFits = tally.fitsPreferred(candidate.tally, q);
+        boolean currentFits = tally.fitsPreferred(current.tally, q);
+        if (candidateFits != currentFits) {
+            return candidateFits;
+        }
+        return candidate.team.getSkillTotal() < current.team.getSkillTotal();
+    }
+
+    private void offer(Slot slot) {
+        Team team = slot.team;
+        if (!team.isFull() && team.getLeaderCount() <= maxLeaders) {
+            openByLeaders.get(team.getLeaderCount()).offer(slot);
+        }
+    }
+
+    // Opens a team once the waiting list holds a full team that meets the rules: members
+    // covering the minimums first, then the others in order of arrival.
+    private int openTeamFromWaiting() {
+        if (waiting.size() < teamSize) {
+            return 0;
+        }
+        int t = nextTally;
+        List<Participant> chosen = new ArrayList<>(teamSize);
+        for (Participant p : waiting) {
+            int q = column.get(p);
+            if (tally.shortfall(t) > 0 && tally.coverage(t, q) > 0 && tally.fits(t, q)) {
+                tally.add(t, q);
+                chosen.add(p);
+            }
+        }
+        Set<Participant> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+        taken.addAll(chosen);
+        for (Participant p : waiting) {
+            if (tally.filled(t) == teamSize) break;
+            int q = column.get(p);
+            if (!taken.contains(p) && tally.fits(t, q) && tally.leavesRoom(t, q)) {
+                tally.add(t, q);
+                chosen.add(p);
+            }
+        }
+        if (tally.filled(t) < teamSize || tally.shortfall(t) > 0) {
+            for (Participant p : chosen) {
+                tally.remove(t, column.get(p));
+            }
+            return 0;
+        }
+
+        Team team = new Team("T" + nextTeamNumber++, teamSize);
+        for (Participant p : chosen) {
+            team.addMember(p);
+        }
+        taken.addAll(chosen);
+        waiting.removeIf(taken::contains);
+        teams.add(team);
+        Slot slot = new Slot(team, slots.size());
+        slot.tally = nextTally++;
+        track(slot);
+        return team.getCurrentSize();
+    }
+
+    // Registers a team with the member and Leader indexes and, if open, with its heap.
+    private void track(Slot slot) {
+        slots.add(slot);
+        for (Participant p : slot.team.getMembers()) {
+            slotOfMember.put(p.getId(), slot);
+        }
+        indexLeaders(slot);
+        offer(slot);
+    }
+
+    private void join(Slot slot, Participant p) {
+        slot.team.addMember(p);
+        tally.add(slot.tally, column.get(p));
+        slotOfMember.put(p.getId(), slot);
+        indexLeaders(slot);
+    }
+
+    private void leave(Slot slot, Participant p) {
+        slot.team.removeMember(p);
+        tally.remove(slot.tally, column.get(p));
+        slotOfMember.remove(p.getId());
+        indexLeaders(slot);
+    }
+
+    private void indexLeaders(Slot slot) {
+        int leaders = slot.team.getLeaderCount();
+        if (leaders < minLeaders) shortOfLeaders.add(slot); else shortOfLeaders.remove(slot);
+        if (leaders > minLeaders) spareLeaders.add(slot); else spareLeaders.remove(slot);
+        if (leaders >= maxLeaders) fullOfLeaders.add(slot); else fullOfLeaders.remove(slot);
+    }
+
+    /**
+     * Removes withdrawn participants and restores full teams within the rules, moving as few
+     * remaining members as possible; see Rebalance for what was done
+     */
+    public Rebalance withdraw(Set<String> withdrawnIds) {
+        compile(Collections.emptyList());
+        Map<Participant, Team> origin = new IdentityHashMap<>();
+        int withdrawn = 0;
+        for (String id : withdrawnIds) {
+            Slot slot = slotOfMember.get(id);
+            if (slot == null) continue;
+            for (Participant p : slot.team.getMembers()) {
+                if (id.equals(p.getId())) {
+                    leave(slot, p);
+                    withdrawn++;
+                    break;
+                }
+            }
+        }
+        int waitingBefore = waiting.size();
+        waiting.removeIf(p -> withdrawnIds.contains(p.getId()));
+        withdrawn += waitingBefore - waiting.size();
+        participantCount -= withdrawn;
+
+        List<Participant> free = new ArrayList<>(waiting);
+        waiting.clear();
+        List<String> dissolved = dissolveUnfillable(free, origin);
+        int swaps = restoreLeaders(free, origin);
+
+        fillLeaderCappedTeams(free);
+        for (PriorityQueue<Slot> heap : openByLeaders) {
+            heap.clear();
+        }
+        for (Slot slot : slots) {
+            offer(slot);
+        }
+        // Non-Leaders fill the holes first so spare Leaders stay free to open new teams later.
+        free.sort(Comparator.comparing(TeamRoster::isLeader));
+        for (Participant p : free) {
+            if (!place(p)) waiting.add(p);
+        }
+
+        int moves = 0;
+        List<Participant> benched = new ArrayList<>();
+        for (Map.Entry<Participant, Team> entry : origin.entrySet()) {
+            Slot now = slotOfMember.get(entry.getKey().getId());
+            if (now == null) {
+                benched.add(entry.getKey());
+            } else if (now.team != entry.getValue()) {
+                moves++;
+            }
+        }
+        return new Rebalance(withdrawn, moves, swaps, dissolved, benched, shortOfLeaders.size());
+    }
+
+    // Dissolves the smallest teams while the free participants cannot fill the remaining
+    // holes (those in teams at the Leader cap need non-Leaders), or the free Leaders and those
+    // other teams can spare cannot bring every team up to the Leader minimum.
+    private List<String> dissolveUnfillable(List<Participant> free, Map<Participant, Team> origin) {
+        int holes = 0;
+        for (Slot slot : slots) {
+            holes += teamSize - slot.team.getCurrentSize();
+        }
+        int nonLeaderHoles = 0;
+        for (Slot slot : fullOfLeaders) {
+            nonLeaderHoles += teamSize - slot.team.getCurrentSize();
+        }
+        int missingLeaders = 0;
+        for (Slot slot : shortOfLeaders) {
+            missingLeaders += minLeaders - slot.team.getLeaderCount();
+        }
+        int sparedLeaders = 0;
+        for (Slot slot : spareLeaders) {
+            sparedLeaders += slot.team.getLeaderCount() - minLeaders;
+        }
+        int freeLeaders = 0;
+        for (Participant p : free) {
+            if (isLeader(p)) freeLeaders++;
+        }
+
+        List<Slot> bySize = new ArrayList<>(slots);
+        bySize.sort(Comparator.<Slot>comparingInt(slot -> slot.team.getCurrentSize())
+                .thenComparingInt(slot -> slot.team.getLeaderCount()));
+        List<String> dissolved = new ArrayList<>();
+        Set<Slot> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        int next = 0;
+        while (true) {
+            boolean shortOfMembers = holes > free.size() || nonLeaderHoles > free.size() - freeLeaders;
+            boolean shortOfLeaderSupply = missingLeaders > freeLeaders + sparedLeaders;
+            if (!shortOfMembers && !shortOfLeaderSupply) break;
+
+            Slot victim = null;
+            if (shortOfMembers) {
+                while (next < bySize.size() && removed.contains(bySize.get(next))) next++;
+                if (next < bySize.size()) victim = bySize.get(next);
+            } else {
+                for (Slot slot : bySize) {
+                    if (!removed.contains(slot) && shortOfLeaders.contains(slot)) {
+                        victim = slot;
+                        break;
+                    }
+                }
+            }
+            if (victim == null) break;
+
+            removed.add(victim);
+            int leaders = victim.team.getLeaderCount();
+            holes -= teamSize - victim.team.getCurrentSize();
+            if (fullOfLeaders.contains(victim)) nonLeaderHoles -= teamSize - victim.team.getCurrentSize();
+            missingLeaders -= Math.max(0, minLeaders - leaders);
+            sparedLeaders -= Math.max(0, leaders - minLeaders);
+            for (Participant p : new ArrayList<>(victim.team.getMembers())) {
+                origin.putIfAbsent(p, victim.team);
+                leave(victim, p);
+                free.add(p);
+                if (isLeader(p)) freeLeaders++;
+            }
+            shortOfLeaders.remove(victim);
+            spareLeaders.remove(victim);
+            fullOfLeaders.remove(victim);
+            dissolved.add(victim.team.getTeamId());
+        }
+
+        if (!removed.isEmpty()) {
+            slots.removeIf(removed::contains);
+            teams.clear();
+            for (Slot slot : slots) {
+                teams.add(slot.team);
+            }
+        }
+        return dissolved;
+    }
+
+    // Open seats in teams at the Leader cap can only take non-Leaders, so they are filled first,
+    // preferring members within the team's soft caps.
+    private void fillLeaderCappedTeams(List<Participant> free) {
+        for (Slot slot : fullOfLeaders) {
+            while (!slot.team.isFull()) {
+                Participant chosen = null;
+                for (Participant p : free) {
+                    int q = column.get(p);
+                    if (isLeader(p) || !tally.fits(slot.tally, q) || !tally.leavesRoom(slot.tally, q)) continue;
+                    if (chosen == null) chosen = p;
+                    if (tally.fitsPreferred(slot.tally, q)) {
+                        chosen = p;
+                        break;
+                    }
+                }
+                if (chosen == null) break;
+                free.remove(chosen);
+                join(slot, chosen);
+            }
+        }
+    }
+
+    // Brings every team short of Leaders up to the minimum: with a free Leader if available,
+    // otherwise with one taken from a team that can spare it, exchanged for the closest-skilled
+    // non-Leader when the team is full. Returns how many such exchanges were made.
+    private int restoreLeaders(List<Participant> free, Map<Participant, Team> origin) {
+        int swaps = 0;
+        for (Slot slot : new ArrayList<>(shortOfLeaders)) {
+            while (slot.team.getLeaderCount() < minLeaders) {
+                Participant freeLeader = null;
+                Participant out = null;
+                for (Participant p : free) {
+                    if (!isLeader(p)) continue;
+                    out = slot.team.isFull() ? closestNonLeader(slot, p) : null;
+                    if (out != null || (!slot.team.isFull() && exchangeCost(slot, p, null) != BLOCKED)) {
+                        freeLeader = p;
+                        break;
+                    }
+                }
+                if (freeLeader != null) {
+                    if (out != null) {
+                        origin.putIfAbsent(out, slot.team);
+                        leave(slot, out);
+                        free.add(out);
+                    }
+                    free.remove(freeLeader);
+                    join(slot, freeLeader);
+                } else if (exchangeWithDonor(slot, origin)) {
+                    swaps++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return swaps;
+    }
+
+    // Probes a few teams with Leaders to spare for the Leader/non-Leader pair that keeps both
+    // teams within the rules with the fewest soft-cap overflows and the smallest skill change,
+    // and applies it.
+    private boolean exchangeWithDonor(Slot slot, Map<Participant, Team> origin) {
+        Slot bestDonor = null;
+        Participant bestLeader = null;
+        Participant bestOut = null;
+        long bestCost = Long.MAX_VALUE;
+        int probed = 0;
+        for (Slot donor : spareLeaders) {
+            if (probed++ == PROBE && bestDonor != null) break;
+            for (Participant leader : donor.team.getMembers()) {
+                if (!isLeader(leader)) continue;
+                if (!slot.team.isFull()) {
+                    int incoming = exchangeCost(slot, leader, null);
+                    int outgoing = exchangeCost(donor, null, leader);
+                    if (incoming == BLOCKED || outgoing == BLOCKED) continue;
+                    long cost = (incoming + outgoing) * 100L;
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestDonor = donor;
+                        bestLeader = leader;
+                        bestOut = null;
+                    }
+                    continue;
+                }
+                for (Participant out : slot.team.getMembers()) {
+                    if (isLeader(out)) continue;
+                    int incoming = exchangeCost(slot, leader, out);
+                    int outgoing = exchangeCost(donor, out, leader);
+                    if (incoming == BLOCKED || outgoing == BLOCKED) continue;
+                    long cost = (incoming + outgoing) * 100L + Math.abs(leader.getSkillLevel() - out.getSkillLevel());
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestDonor = donor;
+                        bestLeader = leader;
+                        bestOut = out;
+                    }
+                }
+            }
+        }
+        if (bestDonor == null) {
+            return false;
+        }
+
+        origin.putIfAbsent(bestLeader, bestDonor.team);
+        leave(bestDonor, bestLeader);
+        if (bestOut != null) {
+            origin.putIfAbsent(bestOut, slot.team);
+            leave(slot, bestOut);
+            join(bestDonor, bestOut);
+        }
+        join(slot, bestLeader);
+        return true;
+    }
+
+    // BLOCKED when incoming cannot take outgoing's place in the team (either may be null)
+    // without breaking a hard cap or leaving a minimum unmet that was met; otherwise 1 when
+    // incoming goes over a soft cap, else 0. The tally is left as it was.
+    private int exchangeCost(Slot slot, Participant incoming, Participant outgoing) {
+        int t = slot.tally;
+        int allowed = tally.shortfall(t) - (incoming == null ? 0 : tally.coverage(t, column.get(incoming)));
+        if (outgoing != null) tally.remove(t, column.get(outgoing));
+        int cost = 0;
+        if (incoming != null) {
+            int q = column.get(incoming);
+            cost = !tally.fits(t, q) ? BLOCKED : tally.fitsPreferred(t, q) ? 0 : 1;
+            tally.add(t, q);
+        }
+        if (tally.shortfall(t) > allowed) cost = BLOCKED;
+        if (incoming != null) tally.remove(t, column.get(incoming));
+        if (outgoing != null) tally.add(t, column.get(outgoing));
+        return cost;
+    }
+
+    private Participant closestNonLeader(Slot slot, Participant leader) {
+        int skill = leader.getSkillLevel();
+        Participant closest = null;
+        for (Participant p : slot.team.getMembers()) {
+            if (!isLeader(p) && exchangeCost(slot, leader, p) != BLOCKED && (closest == null
+                    || Math.abs(p.getSkillLevel() - skill) < Math.abs(closest.getSkillLevel() - skill))) {
+                closest = p;
+            }
+        }
+        return closest;
+    }
+
+    private static boolean isLeader(Participant p) {
+        return p.isLeader();
+    }
+
+    /**
+     * Late participants still waiting for a team
+     */
+    public List<Participant> getWaiting() {
+        return new ArrayList<>(waiting);
+    }
+
+    public int getTeamCount() {
+        return teams.size();
+    }
+
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    /**
+     * What a withdrawal rebalance changed: moves counts remaining members now in a different
+     * team, benched lists members left without a team (they join the waiting list)
+     */
+    public static final class Rebalance {
+        private final int withdrawn;
+        private final int moves;
+        private final int leaderSwaps;
+        private final List<String> dissolvedTeams;
+        private final List<Participant> benched;
+        private final int teamsWithoutLeader;
+
+        Rebalance(int withdrawn, int moves, int leaderSwaps, List<String> dissolvedTeams,
+                  List<Participant> benched, int teamsWithoutLeader) {
+            this.withdrawn = withdrawn;
+            this.moves = moves;
+            this.leaderSwaps = leaderSwaps;
+            this.dissolvedTeams = Collections.unmodifiableList(new ArrayList<>(dissolvedTeams));
+            this.benched = Collections.unmodifiableList(new ArrayList<>(benched));
+            this.teamsWithoutLeader = teamsWithoutLeader;
+        }
+
+        public int getWithdrawn() {
+            return withdrawn;
+        }
+
+        public int getMoves() {
+            return moves;
+        }
+
+        public int getLeaderSwaps() {
+            return leaderSwaps;
+        }
+
+        public List<String> getDissolvedTeams() {
+            return dissolvedTeams;
+        }
+
+        public List<Participant> getBenched() {
+            return benched;
+        }
+
+        public int getTeamsWithoutLeader() {
+            return teamsWithoutLeader;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Rebalance{withdrawn=%d, moves=%d, leaderSwaps=%d, dissolved=%d, benched=%d}",
+                    withdrawn, moves, leaderSwaps, dissolvedTeams.size(), benched.size());
+        }
+    }
+
+    /**
+     * Snapshots the roster as an immutable formation result
+     */
+    public FormationResult toResult() {
+        return new FormationResult(algorithm, teamSize, participantCount, teams, 0, false, true, false, rules);
+    }
+}
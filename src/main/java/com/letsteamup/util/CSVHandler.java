@@ -1,17 +1,25 @@
 package com.letsteamup.util;
 
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.PairingHistory;
 import com.letsteamup.model.Participant;
 import com.letsteamup.model.Team;
 import com.letsteamup.exception.FileProcessingException;
-import com.letsteamup.validator.ParticipantValidator;
+import com.letsteamup.exception.InvalidInputException;
+import com.letsteamup.validator.ValidationEngine;
+import com.letsteamup.validator.ValidationEngine.Field;
+import com.letsteamup.validator.ValidationEngine.Result;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CSVHandler {
 
     private static final String COMMA_DELIMITER = ",";
+    private static final String LINE_SEPARATOR = "\n";
     // Reads participants from a CSV file, validating each row and collecting valid entries,
     // while tracking errors and reporting the number of successfully loaded participants.
     public static List<Participant> readParticipantsFromCSV(String filename)
@@ -43,13 +51,12 @@ public class CSVHandler {
                     continue;
                 }
 
-                try {
-                    Participant participant = parseParticipantLine(line);
+                Participant participant = parseParticipantLine(line, lineNumber);
+                if (participant != null) {
                     participants.add(participant);
                     successCount++;
-                } catch (Exception e) {
+                } else {
                     errorCount++;
-                    System.err.println("Line " + lineNumber + " - " + e.getMessage());
                 }
             }
 
@@ -72,42 +79,70 @@ public class CSVHandler {
 
         return participants;
     }
-    // Parses a single CSV line into a Participant object by extracting fields,
-    // validating all values, and throwing detailed errors for invalid formats.
-    private static Participant parseParticipantLine(String line) throws Exception {
+    // Parses a single CSV line into a Participant, checking every field with result codes;
+    // a failing row is reported on stderr and yields null, with no exception thrown.
+    private static Participant parseParticipantLine(String line, int lineNumber) {
         String[] values = line.split(COMMA_DELIMITER, -1);
 
         if (values.length < 8) {
-            throw new IllegalArgumentException(
-                    "Insufficient columns (expected 8, got " + values.length + ")"
-            );
+            return rejectLine(lineNumber, "Insufficient columns (expected 8, got " + values.length + ")");
         }
 
-        try {
-            String id = values[0].trim();
-            String name = values[1].trim();
-            String email = values[2].trim();
-            String preferredGame = values[3].trim();
-            int skillLevel = Integer.parseInt(values[4].trim());
-            String preferredRole = values[5].trim();
-            int personalityScore = Integer.parseInt(values[6].trim());
-
-            if (id.isEmpty()) throw new IllegalArgumentException("ID is empty");
-            ParticipantValidator.validateName(name);
-            ParticipantValidator.validateEmail(email);
-            ParticipantValidator.validateGame(preferredGame);
-            ParticipantValidator.validateSkillLevel(skillLevel);
-            ParticipantValidator.validateRole(preferredRole);
-            ParticipantValidator.validatePersonalityScore(personalityScore);
-
-            return new Participant(id, name, 20, email, personalityScore,
-                    preferredGame, preferredRole, skillLevel);
+        String id = values[0].trim();
+        String name = values[1].trim();
+        String email = values[2].trim();
+        String preferredGame = values[3].trim();
+        String skillText = values[4].trim();
+        String preferredRole = values[5].trim();
+        String scoreText = values[6].trim();
+
+        int skillLevel = ValidationEngine.parseNumber(skillText);
+        int personalityScore = ValidationEngine.parseNumber(scoreText);
+        if (skillLevel == ValidationEngine.NOT_A_NUMBER || personalityScore == ValidationEngine.NOT_A_NUMBER) {
+            String text = skillLevel == ValidationEngine.NOT_A_NUMBER ? skillText : scoreText;
+            return rejectLine(lineNumber, "Invalid number format: \"" + text + "\"");
+        }
+        if (id.isEmpty()) {
+            return rejectLine(lineNumber, "Validation failed: ID is empty");
+        }
 
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid number format: " + e.getMessage());
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Validation failed: " + e.getMessage());
+        String failure = firstFailure(name, email, preferredGame, skillLevel, preferredRole, personalityScore);
+        if (failure != null) {
+            return rejectLine(lineNumber, "Validation failed: " + failure);
+        }
+
+        return new Participant(id, name, 20, email, personalityScore,
+                preferredGame, ValidationEngine.canonicalRole(preferredRole), skillLevel);
+    }
+
+    // Message for the first field that fails its check, or null when every field passes.
+    private static String firstFailure(String name, String email, String game, int skillLevel, String role,
+                                       int personalityScore) {
+        Result result;
+        if ((result = ValidationEngine.checkText(Field.NAME, name)) != Result.VALID) {
+            return ValidationEngine.describe(Field.NAME, result, name);
         }
+        if ((result = ValidationEngine.checkText(Field.EMAIL, email)) != Result.VALID) {
+            return ValidationEngine.describe(Field.EMAIL, result, email);
+        }
+        if ((result = ValidationEngine.checkText(Field.GAME, game)) != Result.VALID) {
+            return ValidationEngine.describe(Field.GAME, result, game);
+        }
+        if ((result = ValidationEngine.checkNumber(Field.SKILL_LEVEL, skillLevel)) != Result.VALID) {
+            return ValidationEngine.describe(Field.SKILL_LEVEL, result, skillLevel);
+        }
+        if ((result = ValidationEngine.checkText(Field.ROLE, role)) != Result.VALID) {
+            return ValidationEngine.describe(Field.ROLE, result, role);
+        }
+        if ((result = ValidationEngine.checkNumber(Field.PERSONALITY_SCORE, personalityScore)) != Result.VALID) {
+            return ValidationEngine.describe(Field.PERSONALITY_SCORE, result, personalityScore);
+        }
+        return null;
+    }
+
+    private static Participant rejectLine(int lineNumber, String reason) {
+        System.err.println("Line " + lineNumber + " - " + reason);
+        return null;
     }
     // Writes the list of participants to a CSV file by creating directories if needed,
     // formatting each record safely, and handling IO errors during export.
@@ -155,8 +190,8 @@ public class CSVHandler {
             closeQuietly(bw);
         }
     }
-    // Exports all teams and their members to a detailed CSV file, creating directories if needed
-    // and writing each team-member record with full attributes and proper formatting.
+    // Exports all teams and their members to a detailed CSV file, creating directories if needed.
+    // Lines always end in \n, so the same teams give the same bytes on every platform.
     public static void writeTeamsToCSV(List<Team> teams, String filename)
             throws FileProcessingException {
 
@@ -176,7 +211,7 @@ public class CSVHandler {
 
             bw.write("TeamID,TeamName,TeamSize,MemberID,MemberName,");
             bw.write("Age,Email,PersonalityType,PersonalityScore,PreferredGame,Role,SkillLevel");
-            bw.newLine();
+            bw.write(LINE_SEPARATOR);
 
             for (Team team : teams) {
                 for (Participant member : team.getMembers()) {
@@ -197,7 +232,7 @@ public class CSVHandler {
                     sb.append(member.getSkillLevel());
 
                     bw.write(sb.toString());
-                    bw.newLine();
+                    bw.write(LINE_SEPARATOR);
                 }
             }
 
@@ -210,6 +245,179 @@ public class CSVHandler {
             closeQuietly(bw);
         }
     }
+    // Reads one exported round of teams (the writeTeamsToCSV format) back as the member IDs
+    // of each team, in file order, for recording in a pairing history.
+    public static List<List<String>> readTeamRoundFromCSV(String filename)
+            throws FileProcessingException {
+
+        Map<String, List<String>> membersByTeam = new LinkedHashMap<>();
+        BufferedReader br = null;
+
+        try {
+            File file = new File(filename);
+            if (!file.exists()) {
+                throw new FileProcessingException("File not found: " + filename);
+            }
+
+            br = new BufferedReader(new FileReader(file));
+
+            String header = br.readLine();
+            if (header == null || !header.startsWith("TeamID,")) {
+                throw new FileProcessingException("Not a formed teams file: " + filename);
+            }
+
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> values = splitQuoted(line);
+                if (values.size() < 4) {
+                    throw new FileProcessingException("Malformed team row in " + filename + ": " + line);
+                }
+                membersByTeam.computeIfAbsent(values.get(0), id -> new ArrayList<>()).add(values.get(3));
+            }
+
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading CSV file: " + filename, e);
+        } finally {
+            closeQuietly(br);
+        }
+
+        return new ArrayList<>(membersByTeam.values());
+    }
+    // Loads a saved pairing history: a "Rounds,n" line followed by one former-teammate pair
+    // per line. A missing file yields an empty history.
+    public static PairingHistory readPairingHistory(String filename)
+            throws FileProcessingException {
+
+        PairingHistory history = new PairingHistory();
+        File file = new File(filename);
+        if (!file.exists()) {
+            return history;
+        }
+
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new FileReader(file));
+
+            String header = br.readLine();
+            if (header == null || !header.startsWith("Rounds" + COMMA_DELIMITER)) {
+                throw new FileProcessingException("Not a pairing history file: " + filename);
+            }
+            history.setRounds(Integer.parseInt(header.substring("Rounds".length() + 1).trim()));
+
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> ids = splitQuoted(line);
+                if (ids.size() != 2) {
+                    throw new FileProcessingException("Malformed pair in " + filename + ": " + line);
+                }
+                history.recordPair(ids.get(0), ids.get(1));
+            }
+
+        } catch (NumberFormatException e) {
+            throw new FileProcessingException("Invalid round count in " + filename, e);
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading CSV file: " + filename, e);
+        } finally {
+            closeQuietly(br);
+        }
+
+        return history;
+    }
+    // Saves a pairing history as its round count followed by each recorded pair once.
+    public static void writePairingHistory(PairingHistory history, String filename)
+            throws FileProcessingException {
+
+        BufferedWriter bw = null;
+
+        try {
+            File outputFile = new File(filename);
+
+            File parentDir = outputFile.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                if (!parentDir.mkdirs()) {
+                    throw new FileProcessingException("Could not create directories for: " + filename);
+                }
+            }
+
+            bw = new BufferedWriter(new FileWriter(outputFile));
+
+            bw.write("Rounds" + COMMA_DELIMITER + history.getRounds());
+            bw.newLine();
+            for (String[] pair : history.getPairs()) {
+                bw.write(escape(pair[0]) + COMMA_DELIMITER + escape(pair[1]));
+                bw.newLine();
+            }
+
+            bw.flush();
+
+        } catch (IOException e) {
+            throw new FileProcessingException("Error writing to file: " + filename, e);
+        } finally {
+            closeQuietly(bw);
+        }
+    }
+    // Loads formation rules written one per line (see FormationRules); a missing file yields
+    // the default rules, and a malformed rule is reported with its line number.
+    public static FormationRules readFormationRules(String filename)
+            throws FileProcessingException {
+
+        File file = new File(filename);
+        if (!file.exists()) {
+            return FormationRules.DEFAULT;
+        }
+
+        StringBuilder text = new StringBuilder();
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = br.readLine()) != null) {
+                text.append(line).append(LINE_SEPARATOR);
+            }
+            return FormationRules.parse(text.toString());
+
+        } catch (InvalidInputException e) {
+            throw new FileProcessingException("Invalid formation rules in " + filename + ": " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new FileProcessingException("Error reading rules file: " + filename, e);
+        } finally {
+            closeQuietly(br);
+        }
+    }
+    // Splits a CSV line written with escape(), honouring quoted values and doubled quotes.
+    private static List<String> splitQuoted(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
     // Escapes CSV-sensitive characters by wrapping values in quotes and doubling
     // internal quotation marks to ensure safe and valid CSV formatting.
     private static String escape(String value) {
@@ -1,5 +1,6 @@
 package com.letsteamup.util;
 
+import java.io.IOException;
 import java.util.Scanner;
 
 /**
@@ -54,6 +55,21 @@ public class ConsoleUI {
         System.out.println("[WARNING] " + message);
     }
 
+    /**
+     * Redraws a single live progress line in place
+     */
+    public static synchronized void printProgress(Object progress) {
+        System.out.print("\r[PROGRESS] " + progress + "    ");
+        System.out.flush();
+    }
+
+    /**
+     * Finishes the live progress line so following output starts on a new line
+     */
+    public static synchronized void endProgress() {
+        System.out.println();
+    }
+
     /**
      * Gets validated integer input within range
      */
@@ -83,6 +99,24 @@ public class ConsoleUI {
         return scanner.nextLine().trim();
     }
 
+    /**
+     * Checks whether the user has typed input that has not been read yet
+     */
+    public static boolean isInputPending() {
+        try {
+            return System.in.available() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads and discards the current input line
+     */
+    public static void skipLine() {
+        scanner.nextLine();
+    }
+
     /**
      * Gets yes/no confirmation
      */
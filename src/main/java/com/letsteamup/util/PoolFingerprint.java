@@ -0,0 +1,62 @@
+package com.letsteamup.util;
+
+import com.letsteamup.model.Participant;
+
+import java.util.List;
+
+/**
+ * Computes a 64-bit fingerprint of an ordered participant pool
+ * Used to recognise a pool that has already been formed into teams
+ */
+public class PoolFingerprint {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER = 0xBF58476D1CE4E5B9L;
+
+    /**
+     * Streams every field that influences team formation through a single
+     * running hash. Text is hashed character by character into the 64-bit
+     * state rather than through String.hashCode(), whose 32 bits collide for
+     * strings as short as "Aa" and "BB"; one pass, no allocation.
+     */
+    public static long of(List<Participant> participants) {
+        long hash = SEED ^ participants.size();
+
+        for (Participant p : participants) {
+            hash = mix(hash, p.getId());
+            hash = mix(hash, p.getName());
+            hash = mix(hash, p.getEmail());
+            hash = mix(hash, p.getPreferredGame());
+            hash = mix(hash, p.getPreferredRole());
+            hash = mix(hash, p.getAge());
+            hash = mix(hash, p.getSkillLevel());
+            hash = mix(hash, p.getPersonalityScore());
+        }
+
+        return finish(hash);
+    }
+
+    // Length first (-1 for null) so adjacent fields cannot run into each other.
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1);
+        }
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        hash ^= value * MULTIPLIER;
+        return Long.rotateLeft(hash, 27) * 0x94D049BB133111EBL + SEED;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,122 +1,74 @@
 package com.letsteamup.validator;
 
 import com.letsteamup.exception.InvalidInputException;
-import java.util.regex.Pattern;
+import com.letsteamup.validator.ValidationEngine.Field;
+import com.letsteamup.validator.ValidationEngine.Result;
 
 /**
  * Comprehensive input validation utility
- * Handles all input validation with detailed error messages
+ * Handles all input validation with detailed error messages; the rules themselves live in
+ * ValidationEngine, shared with ParticipantValidator
  */
 public class InputValidator {
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
-    );
-
     /**
      * Validates email format
      */
     public static void validateEmail(String email) throws InvalidInputException {
-        if (email == null || email.trim().isEmpty()) {
-            throw new InvalidInputException("Email cannot be empty");
-        }
-
-        if (!EMAIL_PATTERN.matcher(email).matches()) {
-            throw new InvalidInputException("Invalid email format: " + email);
-        }
+        require(Field.EMAIL, ValidationEngine.checkText(Field.EMAIL, email), email);
     }
 
     /**
      * Validates name format
      */
     public static void validateName(String name) throws InvalidInputException {
-        if (name == null || name.trim().isEmpty()) {
-            throw new InvalidInputException("Name cannot be empty");
-        }
-
-        if (name.length() < 2) {
-            throw new InvalidInputException("Name must be at least 2 characters long");
-        }
-
-        if (name.length() > 100) {
-            throw new InvalidInputException("Name must be less than 100 characters");
-        }
+        require(Field.NAME, ValidationEngine.checkText(Field.NAME, name), name);
     }
 
     /**
      * Validates age range
      */
     public static void validateAge(int age) throws InvalidInputException {
-        if (age < 16 || age > 100) {
-            throw new InvalidInputException("Age must be between 16 and 100");
-        }
+        require(Field.AGE, ValidationEngine.checkNumber(Field.AGE, age), age);
     }
 
     /**
      * Validates skill level
      */
     public static void validateSkillLevel(int skillLevel) throws InvalidInputException {
-        if (skillLevel < 1 || skillLevel > 10) {
-            throw new InvalidInputException("Skill level must be between 1 and 10");
-        }
+        require(Field.SKILL_LEVEL, ValidationEngine.checkNumber(Field.SKILL_LEVEL, skillLevel), skillLevel);
     }
 
     /**
      * Validates personality score
      */
     public static void validatePersonalityScore(int score) throws InvalidInputException {
-        if (score < 0 || score > 100) {
-            throw new InvalidInputException("Personality score must be between 0 and 100. Received: " + score);
+        Result result = ValidationEngine.checkNumber(Field.PERSONALITY_SCORE, score);
+        if (result != Result.VALID) {
+            throw new InvalidInputException(
+                    ValidationEngine.describe(Field.PERSONALITY_SCORE, result, score) + ". Received: " + score);
         }
     }
 
     /**
-     * Validates role
+     * Validates role, ignoring case
      */
     public static void validateRole(String role) throws InvalidInputException {
-        if (role == null || role.trim().isEmpty()) {
-            throw new InvalidInputException("Role cannot be empty");
-        }
-
-        String[] validRoles = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
-        boolean isValid = false;
-        for (String validRole : validRoles) {
-            if (validRole.equalsIgnoreCase(role)) {
-                isValid = true;
-                break;
-            }
-        }
-
-        if (!isValid) {
-            throw new InvalidInputException("Invalid role: " + role +
-                    ". Valid roles are: Strategist, Attacker, Defender, Supporter, Coordinator");
-        }
+        require(Field.ROLE, ValidationEngine.checkText(Field.ROLE, role), role);
     }
 
     /**
      * Validates game name
      */
     public static void validateGame(String game) throws InvalidInputException {
-        if (game == null || game.trim().isEmpty()) {
-            throw new InvalidInputException("Game/Sport cannot be empty");
-        }
-
-        if (game.length() < 2) {
-            throw new InvalidInputException("Game/Sport name must be at least 2 characters");
-        }
+        require(Field.GAME, ValidationEngine.checkText(Field.GAME, game), game);
     }
 
     /**
      * Validates participant ID format
      */
     public static void validateId(String id) throws InvalidInputException {
-        if (id == null || id.trim().isEmpty()) {
-            throw new InvalidInputException("ID cannot be empty");
-        }
-
-        if (!id.matches("^P\\d+$")) {
-            throw new InvalidInputException("ID must start with 'P' followed by numbers (e.g., P001)");
-        }
+        require(Field.ID, ValidationEngine.checkText(Field.ID, id), id);
     }
 
     /**
@@ -136,13 +88,7 @@ public class InputValidator {
      * Validates file path
      */
     public static void validateFilePath(String filePath) throws InvalidInputException {
-        if (filePath == null || filePath.trim().isEmpty()) {
-            throw new InvalidInputException("File path cannot be empty");
-        }
-
-        if (!filePath.toLowerCase().endsWith(".csv")) {
-            throw new InvalidInputException("File must be a CSV file (.csv extension)");
-        }
+        require(Field.CSV_PATH, ValidationEngine.checkText(Field.CSV_PATH, filePath), filePath);
     }
 
     /**
@@ -163,4 +109,10 @@ public class InputValidator {
             throw new InvalidInputException(fieldName + " cannot be empty");
         }
     }
-}
\ No newline at end of file
+
+    private static void require(Field field, Result result, Object value) throws InvalidInputException {
+        if (result != Result.VALID) {
+            throw new InvalidInputException(ValidationEngine.describe(field, result, value));
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.letsteamup.validator;
+
+import com.letsteamup.model.PersonalityType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The participant field rules shared by every validator, CSV loading and console input
+ *
+ * Checks return a Result code and allocate nothing, so bulk callers such as the CSV reader
+ * only build a message (through describe) for a field that failed. Emails are matched by a
+ * hand-written DFA equivalent to ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$, and roles
+ * are found, ignoring case, through a perfect hash of the five role names.
+ */
+public final class ValidationEngine {
+
+    /**
+     * Outcome of checking one field
+     */
+    public enum Result {
+        VALID,
+        EMPTY,
+        TOO_SHORT,
+        TOO_LONG,
+        OUT_OF_RANGE,
+        BAD_FORMAT,
+        UNKNOWN_ROLE
+    }
+
+    /**
+     * A checked field with its display label and bounds: characters for text, values for numbers
+     */
+    public enum Field {
+        ID("ID", 0, Integer.MAX_VALUE),
+        NAME("Name", 2, 100),
+        EMAIL("Email", 0, Integer.MAX_VALUE),
+        GAME("Game/Sport", 2, Integer.MAX_VALUE),
+        ROLE("Role", 0, Integer.MAX_VALUE),
+        CSV_PATH("File path", 0, Integer.MAX_VALUE),
+        AGE("Age", 16, 100),
+        SKILL_LEVEL("Skill level", 1, 10),
+        PERSONALITY_SCORE("Personality score", PersonalityType.MIN_SCORE, PersonalityType.MAX_SCORE);
+
+        private final String label;
+        private final int min;
+        private final int max;
+
+        Field(String label, int min, int max) {
+            this.label = label;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /** Returned by parseNumber for text that is not a decimal int */
+    public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    private static final String[] ROLES = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+    private static final List<String> ROLE_LIST = Collections.unmodifiableList(Arrays.asList(ROLES));
+
+    // Perfect hash: (lower-cased first letter * 31 + length) mod ROLE_SLOTS is distinct for
+    // every role; the slot holds the role's code, or -1.
+    private static final int ROLE_SLOTS;
+    private static final int[] ROLE_BY_SLOT;
+
+    static {
+        int slots = ROLES.length;
+        int[] table;
+        while ((table = roleTable(slots)) == null) {
+            slots++;
+        }
+        ROLE_SLOTS = slots;
+        ROLE_BY_SLOT = table;
+    }
+
+    // Email DFA: character classes, states and the transition table
+    private static final int OTHER = 0;
+    private static final int LETTER = 1;
+    private static final int DIGIT_OR_DASH = 2;
+    private static final int DOT = 3;
+    private static final int PLUS_OR_UNDERSCORE = 4;
+    private static final int AT = 5;
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    private static final int REJECT = 0;
+    private static final int START = 1;
+    private static final int LOCAL = 2;
+    private static final int AFTER_AT = 3;
+    private static final int DOMAIN = 4;
+    private static final int AFTER_DOT = 5;
+    private static final int ONE_LETTER = 6;
+    private static final int TLD = 7;
+
+    // TRANSITIONS[state][class]; TLD (two or more letters after the domain's last dot) accepts
+    private static final byte[][] TRANSITIONS = {
+            //  OTHER   LETTER      DIGIT/-     DOT        +/_     @
+            {REJECT, REJECT,     REJECT,     REJECT,    REJECT, REJECT},    // REJECT
+            {REJECT, LOCAL,      LOCAL,      LOCAL,     LOCAL,  REJECT},    // START
+            {REJECT, LOCAL,      LOCAL,      LOCAL,     LOCAL,  AFTER_AT},  // LOCAL
+            {REJECT, DOMAIN,     DOMAIN,     DOMAIN,    REJECT, REJECT},    // AFTER_AT
+            {REJECT, DOMAIN,     DOMAIN,     AFTER_DOT, REJECT, REJECT},    // DOMAIN
+            {REJECT, ONE_LETTER, DOMAIN,     AFTER_DOT, REJECT, REJECT},    // AFTER_DOT
+            {REJECT, TLD,        DOMAIN,     AFTER_DOT, REJECT, REJECT},    // ONE_LETTER
+            {REJECT, TLD,        DOMAIN,     AFTER_DOT, REJECT, REJECT},    // TLD
+    };
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASS[c] = LETTER;
+            CHAR_CLASS[Character.toUpperCase(c)] = LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASS[c] = DIGIT_OR_DASH;
+        }
+        CHAR_CLASS['-'] = DIGIT_OR_DASH;
+        CHAR_CLASS['.'] = DOT;
+        CHAR_CLASS['+'] = PLUS_OR_UNDERSCORE;
+        CHAR_CLASS['_'] = PLUS_OR_UNDERSCORE;
+        CHAR_CLASS['@'] = AT;
+    }
+
+    private ValidationEngine() {
+    }
+
+    /**
+     * Checks a text field against its rules
+     */
+    public static Result checkText(Field field, String value) {
+        if (isBlank(value)) {
+            return Result.EMPTY;
+        }
+        switch (field) {
+            case EMAIL:
+                return isEmail(value) ? Result.VALID : Result.BAD_FORMAT;
+            case ROLE:
+                return roleCode(value) >= 0 ? Result.VALID : Result.UNKNOWN_ROLE;
+            case ID:
+                return isParticipantId(value) ? Result.VALID : Result.BAD_FORMAT;
+            case CSV_PATH:
+                return value.regionMatches(true, value.length() - 4, ".csv", 0, 4) ? Result.VALID : Result.BAD_FORMAT;
+            default:
+                if (value.length() < field.min) return Result.TOO_SHORT;
+                if (value.length() > field.max) return Result.TOO_LONG;
+                return Result.VALID;
+        }
+    }
+
+    /**
+     * Checks a numeric field against its range, both ends inclusive
+     */
+    public static Result checkNumber(Field field, int value) {
+        return value < field.min || value > field.max ? Result.OUT_OF_RANGE : Result.VALID;
+    }
+
+    /**
+     * The message shown for a failed check of the given value
+     */
+    public static String describe(Field field, Result result, Object value) {
+        switch (result) {
+            case EMPTY:
+                return field.label + " cannot be empty";
+            case TOO_SHORT:
+                return field.label + " must be at least " + field.min + " characters long";
+            case TOO_LONG:
+                return field.label + " must be at most " + field.max + " characters long";
+            case OUT_OF_RANGE:
+                return field.label + " must be between " + field.min + " and " + field.max;
+            case UNKNOWN_ROLE:
+                return "Invalid role: " + value + ". Valid roles are: " + String.join(", ", ROLES);
+            case BAD_FORMAT:
+                if (field == Field.EMAIL) return "Invalid email format: " + value;
+                if (field == Field.ID) return "ID must start with 'P' followed by numbers (e.g., P001)";
+                if (field == Field.CSV_PATH) return "File must be a CSV file (.csv extension)";
+                return "Invalid " + field.label.toLowerCase(Locale.ROOT) + ": " + value;
+            case VALID:
+            default:
+                return field.label + " is valid";
+        }
+    }
+
+    /**
+     * Whether the text matches the email pattern; one table step per character
+     */
+    public static boolean isEmail(String value) {
+        int state = START;
+        for (int i = 0; i < value.length() && state != REJECT; i++) {
+            char c = value.charAt(i);
+            state = TRANSITIONS[state][c < 128 ? CHAR_CLASS[c] : OTHER];
+        }
+        return state == TLD;
+    }
+
+    /**
+     * Code (index in getValidRoles()) of the role, ignoring case, or -1 if it is no role
+     */
+    public static int roleCode(String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        int code = ROLE_BY_SLOT[roleSlot(value, ROLE_SLOTS)];
+        return code >= 0 && ROLES[code].equalsIgnoreCase(value) ? code : -1;
+    }
+
+    /**
+     * The role's name as listed in getValidRoles(), e.g. "Attacker" for "attacker", or null
+     */
+    public static String canonicalRole(String value) {
+        int code = roleCode(value);
+        return code < 0 ? null : ROLES[code];
+    }
+
+    public static List<String> getValidRoles() {
+        return ROLE_LIST;
+    }
+
+    /**
+     * Parses an optionally signed decimal int without throwing; NOT_A_NUMBER when it is not one
+     */
+    public static int parseNumber(String text) {
+        int length = text == null ? 0 : text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i = 1;
+        }
+        if (i == length) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return NOT_A_NUMBER;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE || value <= NOT_A_NUMBER ? NOT_A_NUMBER : (int) value;
+    }
+
+    // Same test as trim().isEmpty() without creating the trimmed string.
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 'P' followed by one or more ASCII digits.
+    private static boolean isParticipantId(String value) {
+        if (value.length() < 2 || value.charAt(0) != 'P') {
+            return false;
+        }
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int roleSlot(String value, int slots) {
+        return (Character.toLowerCase(value.charAt(0)) * 31 + value.length()) % slots;
+    }
+
+    // Slot table for the roles, or null if two of them share a slot at this size.
+    private static int[] roleTable(int slots) {
+        int[] table = new int[slots];
+        Arrays.fill(table, -1);
+        for (int code = 0; code < ROLES.length; code++) {
+            int slot = roleSlot(ROLES[code], slots);
+            if (table[slot] >= 0) {
+                return null;
+            }
+            table[slot] = code;
+        }
+        return table;
+    }
+}
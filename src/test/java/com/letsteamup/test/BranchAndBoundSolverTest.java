@@ -0,0 +1,195 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.BranchAndBoundSolver;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import com.letsteamup.service.TeamFormationService;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for BranchAndBoundSolver
+ */
+public class BranchAndBoundSolverTest {
+
+    private static final String[] GAMES = {"FIFA", "DOTA 2", "Valorant"};
+    private static final String[] ROLES = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+
+    private List<Participant> randomPool(int size, long seed) {
+        Random random = new Random(seed);
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int score = i % 3 == 0 ? 90 + random.nextInt(11) : 50 + random.nextInt(40);
+            list.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    score, GAMES[random.nextInt(GAMES.length)], ROLES[i % ROLES.length], 1 + random.nextInt(10)));
+        }
+        return list;
+    }
+
+    // Lexicographic cost (game cap overflow, skill spread) of assigning pool[i] to teamOf[i],
+    // where team teamCount is the bench, or -1 when the assignment breaks the Leader limits
+    // or leaves a team short.
+    private long cost(List<Participant> pool, int[] teamOf, int teamCount, int teamSize) {
+        int[] sums = new int[teamCount];
+        int[] sizes = new int[teamCount];
+        int[] leaders = new int[teamCount];
+        Map<String, Integer> games = new HashMap<>();
+        int overflow = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            int t = teamOf[i];
+            if (t == teamCount) continue;
+            Participant p = pool.get(i);
+            sums[t] += p.getSkillLevel();
+            sizes[t]++;
+            if (p.getPersonalityType().equals("Leader")) leaders[t]++;
+            if (games.merge(t + p.getPreferredGame(), 1, Integer::sum) > 2) overflow++;
+        }
+        int max = Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        for (int t = 0; t < teamCount; t++) {
+            if (sizes[t] != teamSize || leaders[t] < 1 || leaders[t] > 2) return -1;
+            max = Math.max(max, sums[t]);
+            min = Math.min(min, sums[t]);
+        }
+        return overflow * 1000L + (max - min);
+    }
+
+    private long bruteForce(List<Participant> pool, int teamCount, int teamSize) {
+        int n = pool.size();
+        int[] teamOf = new int[n];
+        long best = Long.MAX_VALUE;
+        // One extra slot for the bench when the pool does not divide evenly
+        int slots = n > teamCount * teamSize ? teamCount + 1 : teamCount;
+        int combinations = (int) Math.pow(slots, n);
+        for (int code = 0; code < combinations; code++) {
+            int c = code;
+            for (int i = 0; i < n; i++) {
+                teamOf[i] = c % slots;
+                c /= slots;
+            }
+            long value = cost(pool, teamOf, teamCount, teamSize);
+            if (value >= 0) best = Math.min(best, value);
+        }
+        return best;
+    }
+
+    @Test
+    public void testMatchesBruteForceOnTinyPools() {
+        for (long seed = 1; seed <= 15; seed++) {
+            List<Participant> pool = randomPool(9, seed);
+            BranchAndBoundSolver.Solution solution = new BranchAndBoundSolver().solve(ParticipantColumns.of(pool),
+                    3, 3, ForkJoinPool.commonPool(), FormationContext.unbounded());
+
+            assertTrue(solution.isProvenOptimal());
+            assertEquals(bruteForce(pool, 3, 3),
+                    solution.getGameOverflow() * 1000L + solution.getSkillSpread(), "seed " + seed);
+        }
+    }
+
+    @Test
+    public void testMatchesBruteForceWithBench() {
+        for (long seed = 1; seed <= 6; seed++) {
+            for (int[] shape : new int[][]{{8, 2}, {10, 3}}) {
+                List<Participant> pool = randomPool(shape[0], seed);
+                BranchAndBoundSolver.Solution solution = new BranchAndBoundSolver().solve(
+                        ParticipantColumns.of(pool), shape[1], 3, ForkJoinPool.commonPool(),
+                        FormationContext.unbounded());
+
+                assertTrue(solution.isProvenOptimal());
+                assertEquals(bruteForce(pool, shape[1], 3),
+                        solution.getGameOverflow() * 1000L + solution.getSkillSpread(),
+                        "seed " + seed + ", " + shape[0] + " participants");
+            }
+        }
+    }
+
+    @Test
+    public void testDeterministicModeIgnoresWorkerCount() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            for (long seed = 1; seed <= 6; seed++) {
+                List<Participant> pool = randomPool(15, seed);
+                List<String> expected = null;
+                for (ForkJoinPool workers : new ForkJoinPool[]{single, several, single, several}) {
+                    BranchAndBoundSolver.Solution solution = new BranchAndBoundSolver().solve(
+                            ParticipantColumns.of(pool), 5, 3, workers, FormationContext.deterministic(seed));
+                    assertTrue(solution.isProvenOptimal());
+
+                    List<String> layout = new ArrayList<>();
+                    for (Team team : solution.toTeams(ParticipantColumns.of(pool), 5, 3)) {
+                        team.getMembers().forEach(m -> layout.add(team.getTeamId() + ":" + m.getId()));
+                    }
+                    if (expected == null) {
+                        expected = layout;
+                    }
+                    assertEquals(expected, layout, "seed " + seed);
+                }
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    public void testSixtyParticipantsRespectLeaderLimits() {
+        List<Participant> pool = randomPool(60, 11);
+        BranchAndBoundSolver.Solution solution = new BranchAndBoundSolver().solve(ParticipantColumns.of(pool),
+                12, 5, ForkJoinPool.commonPool(), FormationContext.withTimeout(10_000));
+
+        List<Team> teams = solution.toTeams(ParticipantColumns.of(pool), 12, 5);
+        assertTrue(solution.hasSolution());
+        for (Team team : teams) {
+            assertEquals(5, team.getCurrentSize());
+            long leaders = team.getMembers().stream()
+                    .filter(m -> m.getPersonalityType().equals("Leader"))
+                    .count();
+            assertTrue(leaders >= 1 && leaders <= 2);
+        }
+    }
+
+    @Test
+    public void testLeftoverParticipantsAreBenched() {
+        List<Participant> pool = randomPool(11, 5);
+        BranchAndBoundSolver.Solution solution = new BranchAndBoundSolver().solve(ParticipantColumns.of(pool),
+                3, 3, ForkJoinPool.commonPool(), FormationContext.unbounded());
+
+        List<Team> teams = solution.toTeams(ParticipantColumns.of(pool), 3, 3);
+        assertEquals(9, teams.stream().mapToInt(Team::getCurrentSize).sum());
+        assertTrue(solution.isProvenOptimal());
+    }
+
+    @Test
+    public void testRejectsLargePools() {
+        assertThrows(IllegalArgumentException.class, () -> new BranchAndBoundSolver().solve(
+                ParticipantColumns.of(randomPool(61, 1)), 20, 3, ForkJoinPool.commonPool(),
+                FormationContext.unbounded()));
+    }
+
+    @Test
+    public void testServiceReportsProvenOptimum() throws InsufficientParticipantsException {
+        TeamFormationService service = new TeamFormationService();
+        try {
+            FormationResult result = service.form(FormationAlgorithm.EXACT, randomPool(12, 8), 3);
+
+            assertTrue(result.isComplete());
+            assertTrue(result.isProvenOptimal());
+            assertEquals(12, result.getAssignedCount());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
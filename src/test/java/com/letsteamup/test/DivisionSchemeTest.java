@@ -0,0 +1,67 @@
+package com.letsteamup.test;
+
+import com.letsteamup.model.DivisionScheme;
+import com.letsteamup.model.Participant;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for DivisionScheme
+ */
+public class DivisionSchemeTest {
+
+    private List<Participant> poolWithSkills(int... skills) {
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < skills.length; i++) {
+            list.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    75, "FIFA", "Attacker", skills[i]));
+        }
+        return list;
+    }
+
+    @Test
+    public void testStandardTiers() {
+        Map<String, List<Participant>> tiers = DivisionScheme.STANDARD.partition(
+                poolWithSkills(1, 3, 4, 6, 7, 10, 2));
+
+        assertEquals(List.of("Skill 1-3", "Skill 4-6", "Skill 7-10"), new ArrayList<>(tiers.keySet()));
+        assertEquals(3, tiers.get("Skill 1-3").size());
+        assertEquals(2, tiers.get("Skill 4-6").size());
+        assertEquals(2, tiers.get("Skill 7-10").size());
+    }
+
+    @Test
+    public void testEmptyTiersAreSkipped() {
+        Map<String, List<Participant>> tiers = DivisionScheme.STANDARD.partition(poolWithSkills(8, 9, 9));
+
+        assertEquals(1, tiers.size());
+        assertTrue(tiers.containsKey("Skill 8-9"));
+    }
+
+    @Test
+    public void testQuantilesSplitEvenly() {
+        Map<String, List<Participant>> tiers = DivisionScheme.quantiles(2).partition(
+                poolWithSkills(1, 2, 3, 4, 5, 6, 7, 8));
+
+        assertEquals(2, tiers.size());
+        tiers.values().forEach(tier -> assertEquals(4, tier.size()));
+    }
+
+    @Test
+    public void testQuantilesKeepTiesTogether() {
+        Map<String, List<Participant>> tiers = DivisionScheme.quantiles(3).partition(
+                poolWithSkills(5, 5, 5, 5, 5, 9));
+
+        assertEquals(2, tiers.size());
+        assertEquals(5, tiers.get("Skill 5").size());
+    }
+
+    @Test
+    public void testRejectsUnorderedBounds() {
+        assertThrows(IllegalArgumentException.class, () -> DivisionScheme.fixed(6, 3));
+    }
+}
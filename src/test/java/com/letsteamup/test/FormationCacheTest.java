@@ -0,0 +1,193 @@
+package com.letsteamup.test;
+
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationCache;
+import com.letsteamup.service.TeamFormationService;
+import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.util.PoolFingerprint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for FormationCache
+ */
+public class FormationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Participant> participants;
+
+    @BeforeEach
+    public void setUp() {
+        participants = new ArrayList<>();
+        participants.add(new Participant("P001", "Alice", 20, "alice@test.com",
+                95, "Valorant", "Strategist", 8));
+        participants.add(new Participant("P002", "Bob", 21, "bob@test.com",
+                75, "FIFA", "Defender", 7));
+        participants.add(new Participant("P003", "Charlie", 19, "charlie@test.com",
+                55, "DOTA 2", "Supporter", 6));
+        participants.add(new Participant("P004", "Diana", 22, "diana@test.com",
+                90, "Basketball", "Attacker", 9));
+        participants.add(new Participant("P005", "Eve", 20, "eve@test.com",
+                72, "Badminton", "Strategist", 8));
+        participants.add(new Participant("P006", "Frank", 21, "frank@test.com",
+                68, "Cricket", "Coordinator", 5));
+    }
+
+    private List<Team> sampleTeams() {
+        Team t1 = new Team("T1", 3);
+        t1.addMember(participants.get(0));
+        t1.addMember(participants.get(1));
+        t1.addMember(participants.get(2));
+        Team t2 = new Team("T2", 3);
+        t2.addMember(participants.get(3));
+        t2.addMember(participants.get(4));
+        t2.addMember(participants.get(5));
+        return List.of(t1, t2);
+    }
+
+    @Test
+    public void testFingerprintStableForSamePool() {
+        assertEquals(PoolFingerprint.of(participants), PoolFingerprint.of(new ArrayList<>(participants)));
+    }
+
+    @Test
+    public void testFingerprintChangesWithOrderAndContent() {
+        long original = PoolFingerprint.of(participants);
+
+        List<Participant> reordered = new ArrayList<>(participants);
+        reordered.add(reordered.remove(0));
+        assertNotEquals(original, PoolFingerprint.of(reordered));
+
+        participants.get(2).setSkillLevel(9);
+        assertNotEquals(original, PoolFingerprint.of(participants));
+    }
+
+    @Test
+    public void testFingerprintSeparatesCollidingHashCodes() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        long before = PoolFingerprint.of(participants);
+        participants.get(0).setName("Aa");
+        long aa = PoolFingerprint.of(participants);
+        participants.get(0).setName("BB");
+        assertNotEquals(aa, PoolFingerprint.of(participants));
+
+        participants.get(0).setName("Alice");
+        participants.get(0).setAge(30);
+        assertNotEquals(before, PoolFingerprint.of(participants));
+    }
+
+    @Test
+    public void testHitIsRebuiltFromTheGivenPool() {
+        FormationCache cache = new FormationCache(4);
+        FormationCache.Key key = FormationCache.keyFor(participants, 3, "balanced");
+        cache.put(key, participants, sampleTeams());
+
+        List<Participant> samePeople = new ArrayList<>();
+        for (Participant p : participants) {
+            samePeople.add(new Participant(p.getId(), p.getName(), p.getAge(), p.getEmail(), p.getPersonalityScore(),
+                    p.getPreferredGame(), p.getPreferredRole(), p.getSkillLevel()));
+        }
+        List<Team> rebuilt = cache.get(key, samePeople);
+        assertSame(samePeople.get(3), rebuilt.get(1).getMembers().get(0));
+
+        List<Participant> others = new ArrayList<>(samePeople);
+        others.set(4, new Participant("P099", "Zed", 20, "zed@test.com", 72, "Badminton", "Strategist", 8));
+        assertNull(cache.get(key, others));
+    }
+
+    @Test
+    public void testServiceNeverReturnsParticipantsOutsideThePool() throws InsufficientParticipantsException {
+        TeamFormationService service = new TeamFormationService(new FormationCache(4));
+        try {
+            participants.get(0).setName("Aa");
+            service.formSkillBasedTeams(participants, 3);
+
+            List<Participant> renamed = new ArrayList<>(participants);
+            renamed.set(0, new Participant("P001", "BB", 20, "alice@test.com", 95, "Valorant", "Strategist", 8));
+            List<Team> teams = service.formSkillBasedTeams(renamed, 3);
+
+            for (Team team : teams) {
+                for (Participant member : team.getMembers()) {
+                    assertTrue(renamed.stream().anyMatch(p -> p == member), member.getName());
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testMissReturnsNull() {
+        FormationCache cache = new FormationCache(4);
+        assertNull(cache.get(FormationCache.keyFor(participants, 3, "balanced"), participants));
+    }
+
+    @Test
+    public void testHitReturnsIndependentCopies() {
+        FormationCache cache = new FormationCache(4);
+        FormationCache.Key key = FormationCache.keyFor(participants, 3, "balanced");
+        cache.put(key, participants, sampleTeams());
+
+        List<Team> first = cache.get(key, participants);
+        first.get(0).getMembers().clear();
+
+        List<Team> second = cache.get(key, participants);
+        assertEquals(3, second.get(0).getCurrentSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryEvicted() {
+        FormationCache cache = new FormationCache(2);
+        FormationCache.Key a = FormationCache.keyFor(participants, 3, "balanced");
+        FormationCache.Key b = FormationCache.keyFor(participants, 3, "skill");
+        FormationCache.Key c = FormationCache.keyFor(participants, 3, "role");
+
+        cache.put(a, participants, sampleTeams());
+        cache.put(b, participants, sampleTeams());
+        cache.get(a, participants);
+        cache.put(c, participants, sampleTeams());
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(a, participants));
+        assertNull(cache.get(b, participants));
+    }
+
+    @Test
+    public void testDiskTierSurvivesNewCacheInstance() {
+        FormationCache.Key key = FormationCache.keyFor(participants, 3, "balanced");
+        new FormationCache(4, tempDir.toFile()).put(key, participants, sampleTeams());
+
+        List<Team> restored = new FormationCache(4, tempDir.toFile()).get(key, participants);
+
+        assertNotNull(restored);
+        assertEquals(2, restored.size());
+        assertSame(participants.get(3), restored.get(1).getMembers().get(0));
+    }
+
+    @Test
+    public void testServiceReusesCachedFormation() throws InsufficientParticipantsException {
+        FormationCache cache = new FormationCache(4);
+        TeamFormationService service = new TeamFormationService(cache);
+        try {
+            List<Team> first = service.formBalancedTeams(participants, 3);
+            List<Team> second = service.formBalancedTeams(participants, 3);
+
+            assertEquals(1, cache.size());
+            assertEquals(first.size(), second.size());
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals(first.get(i).getMembers(), second.get(i).getMembers());
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.letsteamup.test;
+
+import com.letsteamup.cluster.FormationCoordinator;
+import com.letsteamup.cluster.FormationWorker;
+import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import com.letsteamup.service.TeamFormationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the formation coordinator and its TCP workers
+ */
+public class FormationClusterTest {
+
+    private TeamFormationService localService;
+    private final List<FormationWorker> workers = new ArrayList<>();
+    private final List<TeamFormationService> workerServices = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        localService = new TeamFormationService();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (FormationWorker worker : workers) {
+            worker.close();
+        }
+        for (TeamFormationService service : workerServices) {
+            service.shutdown();
+        }
+        localService.shutdown();
+    }
+
+    private FormationWorker startWorker(int port) throws Exception {
+        TeamFormationService service = new TeamFormationService();
+        FormationWorker worker = new FormationWorker(port, service);
+        worker.start();
+        workers.add(worker);
+        workerServices.add(service);
+        return worker;
+    }
+
+    private InetSocketAddress addressOf(int port) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    private List<Participant> pool(int size) {
+        String[] games = {"FIFA", "DOTA 2", "Valorant", "CS:GO", "Basketball"};
+        String[] roles = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int score = i % 3 == 0 ? 95 : 70;
+            list.add(new Participant("C" + i, "Name\twith tab " + i, 20, "c" + i + "@test.com", score,
+                    games[i % 5], roles[(i / 5) % 5], 1 + (i * 7) % 10));
+        }
+        return list;
+    }
+
+    private void assertDistinctMembers(FormationResult result, List<Participant> pool) {
+        Set<String> seen = new HashSet<>();
+        Set<String> teamIds = new HashSet<>();
+        for (Team team : result.getTeams()) {
+            assertTrue(teamIds.add(team.getTeamId()));
+            for (Participant p : team.getMembers()) {
+                assertTrue(seen.add(p.getId()), "duplicate member " + p.getId());
+                assertTrue(pool.contains(p));
+            }
+        }
+    }
+
+    @Test
+    public void testShardOfIsStable() {
+        Participant p = pool(1).get(0);
+        int shard = FormationCoordinator.shardOf(p, 7);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(shard, FormationCoordinator.shardOf(p, 7));
+        }
+        assertTrue(shard >= 0 && shard < 7);
+    }
+
+    @Test
+    public void testFormsAcrossSeveralWorkers() throws Exception {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            addresses.add(addressOf(startWorker(0).getPort()));
+        }
+        List<Participant> participants = pool(300);
+
+        FormationResult result = new FormationCoordinator(addresses, localService)
+                .form(FormationAlgorithm.SKILL_BASED, participants, 5);
+
+        assertDistinctMembers(result, participants);
+        assertTrue(result.getAssignedCount() >= 270, "assigned " + result.getAssignedCount());
+        for (FormationWorker worker : workers) {
+            assertEquals(1, worker.getServedShards());
+        }
+    }
+
+    @Test
+    public void testWorkersFormUnderTheGivenRules() throws Exception {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            addresses.add(addressOf(startWorker(0).getPort()));
+        }
+        List<Participant> participants = pool(200);
+        FormationRules rules = FormationRules.NONE
+                .withMax(FormationRules.Attribute.PERSONALITY, "Leader", 1)
+                .withMin(FormationRules.Attribute.PERSONALITY, "Leader", 1)
+                .withMax(FormationRules.Attribute.GAME, "fifa", 1);
+
+        FormationContext context = FormationContext.unbounded();
+        context.setRules(rules);
+
+        FormationResult result = new FormationCoordinator(addresses, localService)
+                .form(FormationAlgorithm.BALANCED, participants, 5, context);
+
+        assertDistinctMembers(result, participants);
+        assertSame(rules, result.getRules());
+        assertTrue(result.getAssignedCount() > 0);
+        for (Team team : result.getTeams()) {
+            assertEquals(1, team.getLeaderCount(), team.getTeamId());
+            assertTrue(team.getGameCount("FIFA") <= 1, team.getTeamId());
+        }
+        for (FormationWorker worker : workers) {
+            assertEquals(1, worker.getServedShards());
+        }
+    }
+
+    @Test
+    public void testRejectsPoolShortOfLeaders() throws Exception {
+        FormationWorker worker = startWorker(0);
+        List<Participant> participants = new ArrayList<>();
+        for (Participant p : pool(40)) {
+            participants.add(new Participant(p.getId(), p.getName(), p.getAge(), p.getEmail(), 60,
+                    p.getPreferredGame(), p.getPreferredRole(), p.getSkillLevel()));
+        }
+
+        assertThrows(InsufficientParticipantsException.class, () ->
+                new FormationCoordinator(List.of(addressOf(worker.getPort())), localService)
+                        .form(FormationAlgorithm.SKILL_BASED, participants, 4));
+        assertEquals(0, worker.getServedShards());
+    }
+
+    @Test
+    public void testSeedMakesClusterRunsRepeatable() throws Exception {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            addresses.add(addressOf(startWorker(0).getPort()));
+        }
+        List<Participant> participants = pool(120);
+        FormationCoordinator coordinator = new FormationCoordinator(addresses, localService);
+
+        FormationResult first = coordinator.form(FormationAlgorithm.GENETIC, participants, 4,
+                FormationContext.deterministic(42));
+        FormationResult second = coordinator.form(FormationAlgorithm.GENETIC, participants, 4,
+                FormationContext.deterministic(42));
+
+        assertEquals(membersOf(first), membersOf(second));
+        assertTrue(first.isComplete());
+    }
+
+    private List<List<String>> membersOf(FormationResult result) {
+        List<List<String>> members = new ArrayList<>();
+        for (Team team : result.getTeams()) {
+            List<String> ids = new ArrayList<>();
+            for (Participant p : team.getMembers()) {
+                ids.add(p.getId());
+            }
+            members.add(ids);
+        }
+        return members;
+    }
+
+    @Test
+    public void testLeftoversMarkTheResultIncomplete() throws Exception {
+        FormationWorker worker = startWorker(0);
+        List<Participant> participants = new ArrayList<>();
+        List<Participant> base = pool(20);
+        for (int i = 0; i < base.size(); i++) {
+            Participant p = base.get(i);
+            participants.add(new Participant(p.getId(), p.getName(), p.getAge(), p.getEmail(),
+                    p.getPersonalityScore(), i < 12 ? "FIFA" : p.getPreferredGame(), p.getPreferredRole(),
+                    p.getSkillLevel()));
+        }
+        FormationContext context = FormationContext.unbounded();
+        context.setRules(FormationRules.DEFAULT.withMax(FormationRules.Attribute.GAME, "FIFA", 1));
+
+        FormationResult result = new FormationCoordinator(List.of(addressOf(worker.getPort())), localService)
+                .form(FormationAlgorithm.SKILL_BASED, participants, 4, context);
+
+        assertDistinctMembers(result, participants);
+        assertTrue(participants.size() - result.getAssignedCount() >= 4);
+        assertFalse(result.isComplete());
+    }
+
+    @Test
+    public void testToleratesWorkerRestart() throws Exception {
+        FormationWorker first = startWorker(0);
+        int port = first.getPort();
+        first.close();
+
+        Thread restart = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+                startWorker(port);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        restart.start();
+
+        FormationCoordinator coordinator = new FormationCoordinator(List.of(addressOf(port)), localService);
+        coordinator.setRetryPolicy(10, 100);
+        List<Participant> participants = pool(60);
+        FormationResult result = coordinator.form(FormationAlgorithm.BALANCED, participants, 3);
+        restart.join();
+
+        assertDistinctMembers(result, participants);
+        assertEquals(1, workers.get(1).getServedShards());
+    }
+
+    @Test
+    public void testFallsBackToLocalFormationWhenWorkerIsGone() throws Exception {
+        FormationWorker gone = startWorker(0);
+        int port = gone.getPort();
+        gone.close();
+
+        FormationCoordinator coordinator = new FormationCoordinator(List.of(addressOf(port)), localService);
+        coordinator.setRetryPolicy(2, 10);
+        List<Participant> participants = pool(30);
+        FormationResult result = coordinator.form(FormationAlgorithm.SKILL_BASED, participants, 3);
+
+        assertDistinctMembers(result, participants);
+        assertEquals(30, result.getAssignedCount());
+    }
+
+    @Test
+    public void testWorkerInSeparateProcess() throws Exception {
+        String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", classPath, FormationWorker.class.getName(), "0")
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader output = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            String ready = output.readLine();
+            while (ready != null && !ready.startsWith("READY ")) {
+                ready = output.readLine();
+            }
+            assertNotNull(ready, "worker process did not start");
+            int port = Integer.parseInt(ready.substring("READY ".length()).trim());
+
+            FormationWorker inProcess = startWorker(0);
+            List<InetSocketAddress> addresses = List.of(addressOf(port), addressOf(inProcess.getPort()));
+            List<Participant> participants = pool(120);
+            FormationResult result = new FormationCoordinator(addresses, localService)
+                    .form(FormationAlgorithm.ROLE_BASED, participants, 4);
+
+            assertDistinctMembers(result, participants);
+            assertTrue(result.getAssignedCount() >= 100, "assigned " + result.getAssignedCount());
+            assertEquals(1, inProcess.getServedShards());
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.CompiledRules;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.exception.FileProcessingException;
+import com.letsteamup.exception.InvalidInputException;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.util.CSVHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for the formation rule format and its loading from a file
+ */
+public class FormationRulesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testParsesEveryKindOfRule() throws InvalidInputException {
+        FormationRules rules = FormationRules.parse(
+                "# event rules\n"
+                        + "max role Attacker 1\n"
+                        + "prefer max game * 3   # spread the games\n"
+                        + "\n"
+                        + "min personality Thinker 1\n"
+                        + "skill 4 7.5\n");
+
+        assertEquals(3, rules.getRules().size());
+        FormationRules.Rule cap = rules.getRules().get(0);
+        assertEquals(FormationRules.Kind.MAX, cap.getKind());
+        assertEquals(FormationRules.Attribute.ROLE, cap.getAttribute());
+        assertEquals("Attacker", cap.getValue());
+        assertEquals(1, cap.getLimit());
+        assertTrue(rules.getRules().get(1).appliesToEveryValue());
+        assertEquals(FormationRules.Kind.MIN, rules.getRules().get(2).getKind());
+        assertTrue(rules.hasSkillBounds());
+        assertEquals(4.0, rules.getMinAverageSkill());
+        assertEquals(7.5, rules.getMaxAverageSkill());
+    }
+
+    @Test
+    public void testSpecRoundTrips() throws InvalidInputException {
+        FormationRules rules = FormationRules.DEFAULT.withMax(FormationRules.Attribute.ROLE, "*", 2)
+                .withSkillBounds(3, 8);
+
+        assertEquals(rules, FormationRules.parse(rules.toSpec()));
+        assertEquals(rules.fingerprint(), FormationRules.parse(rules.toSpec()).fingerprint());
+        assertNotEquals(FormationRules.DEFAULT.fingerprint(), rules.fingerprint());
+    }
+
+    @Test
+    public void testRejectsMalformedRulesWithTheirLine() {
+        InvalidInputException e = assertThrows(InvalidInputException.class,
+                () -> FormationRules.parse("max role Attacker 1\nmax colour Red 2\n"));
+        assertTrue(e.getMessage().startsWith("Rule on line 2"));
+
+        assertThrows(InvalidInputException.class, () -> FormationRules.parse("min game * 1"));
+        assertThrows(InvalidInputException.class, () -> FormationRules.parse("max game FIFA 0"));
+        assertThrows(InvalidInputException.class, () -> FormationRules.parse("skill 7 4"));
+        assertThrows(InvalidInputException.class, () -> FormationRules.parse("prefer game FIFA 2"));
+    }
+
+    @Test
+    public void testShippedRulesFileHoldsTheDefaults() throws FileProcessingException {
+        assertEquals(FormationRules.DEFAULT, CSVHandler.readFormationRules("src/main/resources/formation_rules.txt"));
+    }
+
+    @Test
+    public void testRulesFileLoading() throws Exception {
+        assertEquals(FormationRules.DEFAULT, CSVHandler.readFormationRules(tempDir.resolve("none.txt").toString()));
+
+        Path file = tempDir.resolve("rules.txt");
+        Files.writeString(file, "max role * 2\nwhatever\n");
+        FileProcessingException e = assertThrows(FileProcessingException.class,
+                () -> CSVHandler.readFormationRules(file.toString()));
+        assertTrue(e.getMessage().contains("line 2"));
+    }
+
+    @Test
+    public void testRuleValuesIgnoreCase() throws InvalidInputException {
+        FormationRules rules = FormationRules.parse("max game fifa 1\nmin personality leader 1\n");
+        List<Participant> pool = List.of(
+                new Participant("P1", "Ann", 20, "p1@test.com", 95, "FIFA", "Attacker", 5),
+                new Participant("P2", "Bob", 20, "p2@test.com", 70, "Fifa", "Defender", 6),
+                new Participant("P3", "Cy", 20, "p3@test.com", 70, "DOTA 2", "Supporter", 7));
+        CompiledRules compiled = CompiledRules.compile(rules, ParticipantColumns.of(pool), 3);
+
+        int game = compiled.counter(0, FormationRules.Attribute.GAME.ordinal());
+        assertEquals(game, compiled.counter(1, FormationRules.Attribute.GAME.ordinal()));
+        assertEquals(2, compiled.poolCount(game));
+        assertEquals(1, compiled.hardCap(game));
+        int leader = compiled.counter(0, FormationRules.Attribute.PERSONALITY.ordinal());
+        assertEquals(1, compiled.poolCount(leader));
+        assertEquals(1, compiled.minimum(leader));
+
+        assertEquals(1, rules.maximumOf(FormationRules.Attribute.GAME, "FIFA"));
+        assertEquals(Integer.MAX_VALUE, rules.maximumOf(FormationRules.Attribute.GAME, "DOTA 2"));
+        assertEquals(1, rules.minimumOf(FormationRules.Attribute.PERSONALITY, "Leader"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.letsteamup.test;
+
+import com.letsteamup.model.FormationStatistics;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for FormationStatistics
+ */
+public class FormationStatisticsTest {
+
+    private static final String[] GAMES = {"FIFA", "DOTA 2", "Valorant", "CS:GO", "Chess", "Basketball"};
+    private static final String[] ROLES = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+
+    private Participant participant(String id, int score, String game, String role, int skill) {
+        return new Participant(id, "Name " + id, 20, id.toLowerCase() + "@test.com", score, game, role, skill);
+    }
+
+    private Team team(String id, Participant... members) {
+        Team team = new Team(id, members.length);
+        for (Participant p : members) {
+            team.addMember(p);
+        }
+        return team;
+    }
+
+    @Test
+    public void testSinglePassMatchesHandCountedValues() {
+        List<Team> teams = List.of(
+                team("T1", participant("A", 95, "FIFA", "Strategist", 2), participant("B", 75, "FIFA", "Attacker", 4)),
+                team("T2", participant("C", 55, "Chess", "Defender", 6), participant("D", 95, "FIFA", "Attacker", 8)),
+                team("T3", participant("E", 75, "DOTA 2", "Supporter", 10)));
+
+        FormationStatistics stats = FormationStatistics.of(teams);
+
+        assertEquals(3, stats.getTotalTeams());
+        assertEquals(5, stats.getTotalMembers());
+        assertEquals(5.0 / 3, stats.getAvgTeamSize(), 1e-9);
+        assertEquals(6.0, stats.getAvgSkillLevel(), 1e-9);
+        assertEquals(8.0, stats.getSkillVariance(), 1e-9);
+        assertEquals(2, stats.getMinSkill());
+        assertEquals(10, stats.getMaxSkill());
+        assertEquals(4.0 / 3, stats.getAvgDiversity(), 1e-9);
+        assertEquals(3.0, stats.getTeamSkillPercentile(0.10), 1e-9);
+        assertEquals(7.0, stats.getTeamSkillPercentile(0.50), 1e-9);
+        assertEquals(10.0, stats.getTeamSkillPercentile(1.0), 1e-9);
+        assertEquals(Map.of("Leader", 2, "Balanced", 2, "Thinker", 1), stats.getPersonalityDistribution());
+        assertEquals(Map.of("FIFA", 3, "Chess", 1, "DOTA 2", 1), stats.getGameDistribution());
+        assertEquals(2, stats.getRoleDistribution().get("Attacker"));
+    }
+
+    @Test
+    public void testParallelCollectionMatchesSequential() {
+        SplittableRandom random = new SplittableRandom(11);
+        List<Team> teams = new ArrayList<>();
+        for (int t = 0; t < 5000; t++) {
+            Team team = new Team("T" + t, 5);
+            for (int k = 0; k < 5; k++) {
+                String id = "P" + t + "_" + k;
+                team.addMember(participant(id, 50 + random.nextInt(51), GAMES[random.nextInt(GAMES.length)],
+                        ROLES[random.nextInt(ROLES.length)], 1 + random.nextInt(10)));
+            }
+            teams.add(team);
+        }
+
+        FormationStatistics sequential = FormationStatistics.of(teams);
+        FormationStatistics parallel = teams.parallelStream().collect(FormationStatistics.collector());
+
+        assertEquals(sequential.getTotalMembers(), parallel.getTotalMembers());
+        assertEquals(sequential.getAvgSkillLevel(), parallel.getAvgSkillLevel(), 1e-12);
+        assertEquals(sequential.getSkillVariance(), parallel.getSkillVariance(), 1e-9);
+        assertEquals(sequential.getAvgDiversity(), parallel.getAvgDiversity(), 1e-12);
+        assertEquals(sequential.getTeamSkillPercentile(0.90), parallel.getTeamSkillPercentile(0.90), 1e-12);
+        assertEquals(List.copyOf(sequential.getGameDistribution().entrySet()),
+                List.copyOf(parallel.getGameDistribution().entrySet()));
+        assertEquals(sequential.toMap(), parallel.toMap());
+    }
+
+    @Test
+    public void testWideSkillRangeIsCountedWithoutHistogram() {
+        List<Team> teams = List.of(
+                team("T1", participant("A", 95, "FIFA", "Strategist", Integer.MIN_VALUE),
+                        participant("B", 75, "FIFA", "Attacker", Integer.MAX_VALUE)),
+                team("T2", participant("C", 55, "Chess", "Defender", Integer.MAX_VALUE)));
+
+        FormationStatistics stats = FormationStatistics.of(teams);
+
+        double mean = ((double) Integer.MIN_VALUE + 2.0 * Integer.MAX_VALUE) / 3;
+        double range = (double) Integer.MAX_VALUE - Integer.MIN_VALUE;
+        assertEquals(mean, stats.getAvgSkillLevel(), 1e-3);
+        assertEquals(range * range * 2 / 9, stats.getSkillVariance(), range * range * 1e-12);
+        assertEquals(Integer.MIN_VALUE, stats.getMinSkill());
+        assertEquals(Integer.MAX_VALUE, stats.getMaxSkill());
+        assertEquals(1, stats.getSkillCount(Integer.MIN_VALUE));
+        assertEquals(2, stats.getSkillCount(Integer.MAX_VALUE));
+        assertEquals(0, stats.getSkillCount(0));
+    }
+
+    @Test
+    public void testEmptyFormationHasZeroStatistics() {
+        FormationStatistics stats = FormationStatistics.of(List.of());
+
+        assertEquals(0, stats.getTotalTeams());
+        assertEquals(0.0, stats.getAvgTeamSize());
+        assertEquals(0, stats.getMinSkill());
+        assertEquals(0.0, stats.getTeamSkillPercentile(0.50));
+        assertTrue(stats.getRoleDistribution().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> stats.getTeamSkillPercentile(1.5));
+    }
+}
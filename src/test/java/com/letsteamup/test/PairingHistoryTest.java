@@ -0,0 +1,83 @@
+package com.letsteamup.test;
+
+import com.letsteamup.exception.FileProcessingException;
+import com.letsteamup.model.PairingHistory;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.util.CSVHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for PairingHistory and its CSV persistence
+ */
+public class PairingHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Team team(String id, String... memberIds) {
+        Team team = new Team(id, memberIds.length);
+        for (String memberId : memberIds) {
+            team.addMember(new Participant(memberId, "Name, " + memberId, 20, memberId.toLowerCase() + "@test.com",
+                    70, "FIFA", "Attacker", 5));
+        }
+        return team;
+    }
+
+    @Test
+    public void testRecordsTeammatesOfARound() {
+        PairingHistory history = new PairingHistory();
+        history.recordRound(List.of(team("T1", "A", "B", "C"), team("T2", "D", "E", "F")));
+
+        assertTrue(history.havePaired("A", "C"));
+        assertTrue(history.havePaired("F", "D"));
+        assertFalse(history.havePaired("A", "D"));
+        assertFalse(history.havePaired("A", "unknown"));
+        assertEquals(1, history.getRounds());
+        assertEquals(6, history.getPairCount());
+        assertEquals(1, history.repeatedPairs(List.of(team("X", "A", "B", "D"))));
+    }
+
+    @Test
+    public void testLargePoolsSwitchToHashedPairs() {
+        PairingHistory history = new PairingHistory();
+        List<List<String>> round = new ArrayList<>();
+        for (int t = 0; t < 2000; t++) {
+            round.add(List.of("P" + (3 * t), "P" + (3 * t + 1), "P" + (3 * t + 2)));
+        }
+        history.recordRoundOfIds(round);
+
+        assertFalse(history.isDense());
+        assertEquals(6000, history.getParticipantCount());
+        assertEquals(6000, history.getPairCount());
+        assertTrue(history.havePaired("P0", "P2"));
+        assertTrue(history.havePaired("P5999", "P5997"));
+        assertFalse(history.havePaired("P2", "P3"));
+    }
+
+    @Test
+    public void testHistoryRoundTripsThroughExportedRounds() throws FileProcessingException {
+        String teamsFile = tempDir.resolve("formed_teams.csv").toString();
+        String historyFile = tempDir.resolve("pairing_history.csv").toString();
+
+        CSVHandler.writeTeamsToCSV(List.of(team("T1", "A", "B"), team("T2", "C", "D,1")), teamsFile);
+        PairingHistory history = CSVHandler.readPairingHistory(historyFile);
+        assertEquals(0, history.getRounds());
+
+        history.recordRoundOfIds(CSVHandler.readTeamRoundFromCSV(teamsFile));
+        CSVHandler.writePairingHistory(history, historyFile);
+        PairingHistory loaded = CSVHandler.readPairingHistory(historyFile);
+
+        assertEquals(1, loaded.getRounds());
+        assertEquals(2, loaded.getPairCount());
+        assertTrue(loaded.havePaired("A", "B"));
+        assertTrue(loaded.havePaired("C", "D,1"));
+        assertFalse(loaded.havePaired("B", "C"));
+    }
+}
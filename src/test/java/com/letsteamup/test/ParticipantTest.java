@@ -1,10 +1,14 @@
 package com.letsteamup.test;
 
+import com.letsteamup.algorithm.ParticipantColumns;
 import com.letsteamup.model.Participant;
+import com.letsteamup.model.PersonalityType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 /**
  * Unit tests for Participant class
  */
@@ -66,6 +70,29 @@ public class ParticipantTest {
         assertEquals("Thinker", participant.getPersonalityType());
     }
 
+    @Test
+    public void testPersonalityTableMatchesBands() {
+        for (int score = -5; score <= 105; score++) {
+            String expected = score > 100 || score < 50 ? "Unknown"
+                    : score >= 90 ? "Leader" : score >= 70 ? "Balanced" : "Thinker";
+            assertEquals(expected, PersonalityType.fromScore(score).getDisplayName(), "score " + score);
+            assertEquals(PersonalityType.fromScore(score), PersonalityType.fromCode(PersonalityType.codeOf(score)));
+        }
+        assertEquals(PersonalityType.BALANCED, PersonalityType.fromName("balanced"));
+        assertNull(PersonalityType.fromName("Captain"));
+    }
+
+    @Test
+    public void testLeaderFlagFollowsScore() {
+        assertTrue(participant.isLeader());
+        assertEquals(PersonalityType.LEADER, participant.getPersonality());
+        participant.setPersonalityScore(89);
+        assertFalse(participant.isLeader());
+        assertSame(PersonalityType.BALANCED.getDisplayName(), participant.getPersonalityType());
+        assertFalse(new Participant().isLeader());
+        assertSame(PersonalityType.UNKNOWN, new Participant().getPersonality());
+    }
+
     @Test
     public void testGettersAndSetters() {
         participant.setName("Bob Smith");
@@ -106,5 +133,21 @@ public class ParticipantTest {
     public void testDefaultConstructor() {
         Participant emptyParticipant = new Participant();
         assertNotNull(emptyParticipant);
+        assertEquals(PersonalityType.UNKNOWN, emptyParticipant.getPersonality());
+        assertEquals(emptyParticipant.getPersonality().getDisplayName(), emptyParticipant.getPersonalityType());
+    }
+
+    @Test
+    public void testColumnsCodePersonalityByType() {
+        List<Participant> pool = List.of(new Participant("P1", "Ann", 20, "a@test.com", 60, "FIFA", "Attacker", 5),
+                new Participant("P2", "Bob", 20, "b@test.com", 95, "FIFA", "Defender", 6), new Participant());
+        ParticipantColumns columns = ParticipantColumns.of(pool);
+
+        for (int i = 0; i < pool.size(); i++) {
+            PersonalityType type = pool.get(i).getPersonality();
+            assertEquals(type.ordinal(), columns.personality(i));
+            assertEquals(type.getDisplayName(), columns.personalityName(columns.personality(i)));
+        }
+        assertEquals(PersonalityType.values().length, columns.personalityCount());
     }
 }
\ No newline at end of file
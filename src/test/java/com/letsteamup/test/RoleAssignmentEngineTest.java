@@ -0,0 +1,110 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.MinCostFlow;
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.algorithm.RoleAssignmentEngine;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for RoleAssignmentEngine and MinCostFlow
+ */
+public class RoleAssignmentEngineTest {
+
+    private static final String[] ROLES = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+
+    private List<Participant> pool(int size, int leaderEvery, long seed) {
+        Random random = new Random(seed);
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int score = i % leaderEvery == 0 ? 95 : 60 + random.nextInt(30);
+            list.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    score, "FIFA", ROLES[random.nextInt(ROLES.length)], 1 + random.nextInt(10)));
+        }
+        return list;
+    }
+
+    @Test
+    public void testMinCostFlowFindsCheapestRouting() {
+        // Two units from 0 to 3: paths 0-1-3 (cost 1+1) and 0-2-3 (cost 2+2), plus a costly 0-3 arc.
+        MinCostFlow flow = new MinCostFlow(4, 5);
+        int a = flow.addEdge(0, 1, 1, 1);
+        flow.addEdge(1, 3, 1, 1);
+        int b = flow.addEdge(0, 2, 1, 2);
+        flow.addEdge(2, 3, 1, 2);
+        int direct = flow.addEdge(0, 3, 1, 10);
+
+        long[] result = flow.solve(0, 3);
+
+        assertEquals(3, result[0]);
+        assertEquals(16, result[1]);
+        assertEquals(1, flow.flow(a));
+        assertEquals(1, flow.flow(b));
+        assertEquals(1, flow.flow(direct));
+    }
+
+    @Test
+    public void testEveryoneAssignedWithLeaderLimits() {
+        List<Participant> participants = pool(500, 4, 7);
+        List<Team> teams = new RoleAssignmentEngine().assign(ParticipantColumns.of(participants), 100, 5,
+                FormationContext.unbounded());
+
+        assertEquals(100, teams.size());
+        assertEquals(500, teams.stream().mapToInt(Team::getCurrentSize).sum());
+        for (Team team : teams) {
+            long leaders = team.getMembers().stream()
+                    .filter(m -> m.getPersonalityType().equals("Leader"))
+                    .count();
+            assertTrue(leaders >= 1 && leaders <= 2, team.getTeamId() + " has " + leaders + " leaders");
+        }
+    }
+
+    @Test
+    public void testRoleMixIsAsVariedAsPoolAllows() {
+        // Every role appears equally often, so each team of five can hold all five roles.
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int score = i < 20 ? 92 : 75;
+            participants.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    score, "FIFA", ROLES[i % ROLES.length], 1 + (i % 10)));
+        }
+
+        List<Team> teams = new RoleAssignmentEngine().assign(ParticipantColumns.of(participants), 20, 5,
+                FormationContext.unbounded());
+
+        for (Team team : teams) {
+            assertEquals(5, team.getCurrentSize());
+            assertEquals(5, new HashSet<>(team.getRoles()).size());
+        }
+    }
+
+    @Test
+    public void testSurplusLeadersStayUnassigned() {
+        // Ten leaders for three teams: at most two each, so four cannot be seated.
+        List<Participant> participants = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int score = i < 10 ? 95 : 70;
+            participants.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    score, "FIFA", ROLES[i % ROLES.length], 5));
+        }
+
+        List<Team> teams = new RoleAssignmentEngine().assign(ParticipantColumns.of(participants), 3, 4,
+                FormationContext.unbounded());
+
+        assertEquals(8, teams.stream().mapToInt(Team::getCurrentSize).sum());
+        for (Team team : teams) {
+            long leaders = team.getMembers().stream()
+                    .filter(m -> m.getPersonalityType().equals("Leader"))
+                    .count();
+            assertEquals(2, leaders);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.SkillKernels;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for SkillKernels; under the vector profile get() is the SIMD implementation
+ */
+public class SkillKernelsTest {
+
+    @Test
+    public void testActiveKernelsMatchScalar() {
+        SplittableRandom random = new SplittableRandom(5);
+        int teamCount = 37;
+        int rows = 6;
+        int[] matrix = new int[teamCount * rows];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = random.nextInt(11);
+        }
+
+        SkillKernels active = SkillKernels.get();
+        SkillKernels scalar = SkillKernels.scalar();
+        int[] expected = new int[teamCount];
+        int[] actual = new int[teamCount];
+        scalar.teamSums(matrix, teamCount, rows, expected);
+        active.teamSums(matrix, teamCount, rows, actual);
+        assertArrayEquals(expected, actual, active.name());
+        scalar.teamSquares(matrix, teamCount, rows, expected);
+        active.teamSquares(matrix, teamCount, rows, actual);
+        assertArrayEquals(expected, actual, active.name());
+
+        int[] expectedCounts = new int[8];
+        int[] actualCounts = new int[8];
+        scalar.histogram(matrix, matrix.length - 3, 2, expectedCounts);
+        active.histogram(matrix, matrix.length - 3, 2, actualCounts);
+        assertArrayEquals(expectedCounts, actualCounts, active.name());
+    }
+
+    @Test
+    public void testVectorProfileLoadsSimdKernels() {
+        // Set by the vector build profile, which compiles the SIMD kernels and adds the module
+        if (Boolean.getBoolean("letsteamup.expectVectorKernels")) {
+            assertTrue(SkillKernels.get().name().startsWith("vector"), SkillKernels.get().name());
+        }
+    }
+
+    @Test
+    public void testTeamMoments() {
+        // Seat-major: team 0 has 2 and 4, team 1 has 6 and an empty seat, team 2 is empty
+        int[] matrix = {2, 6, 0, 4, 0, 0};
+        double[] means = new double[3];
+        double[] variances = new double[3];
+        SkillKernels.get().teamMoments(matrix, 3, 2, new int[]{2, 1, 0}, means, variances);
+
+        assertArrayEquals(new double[]{3.0, 6.0, 0.0}, means, 1e-12);
+        assertArrayEquals(new double[]{1.0, 0.0, 0.0}, variances, 1e-12);
+    }
+}
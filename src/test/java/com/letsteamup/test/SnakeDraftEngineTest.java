@@ -0,0 +1,123 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.ParticipantColumns;
+import com.letsteamup.algorithm.SnakeDraftEngine;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.FormationContext;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for SnakeDraftEngine
+ */
+public class SnakeDraftEngineTest {
+
+    private List<Participant> randomPool(int size, long seed) {
+        Random random = new Random(seed);
+        String[] games = {"FIFA", "DOTA 2", "Valorant", "CS:GO", "Basketball"};
+        String[] roles = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com",
+                    50 + random.nextInt(51), games[random.nextInt(games.length)],
+                    roles[random.nextInt(roles.length)], 1 + random.nextInt(10)));
+        }
+        return list;
+    }
+
+    // Comparator-based zigzag draft the engine replaces, kept here as the reference behaviour.
+    private List<Team> referenceDraft(List<Participant> participants, int teamSize) {
+        List<Participant> sorted = new ArrayList<>(participants);
+        sorted.sort(Comparator.comparingInt(Participant::getSkillLevel).reversed());
+
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < participants.size() / teamSize; i++) {
+            teams.add(new Team("T" + (i + 1), teamSize));
+        }
+
+        boolean reverse = false;
+        int index = 0;
+        while (index < sorted.size() && teams.stream().anyMatch(t -> !t.isFull())) {
+            List<Team> order = new ArrayList<>(teams);
+            if (reverse) {
+                Collections.reverse(order);
+            }
+            for (Team team : order) {
+                if (index < sorted.size() && !team.isFull()) {
+                    Participant p = sorted.get(index);
+                    long leaders = team.getMembers().stream()
+                            .filter(m -> m.getPersonalityType().equals("Leader"))
+                            .count();
+                    index++;
+                    if (p.getPersonalityType().equals("Leader") && leaders >= 2) {
+                        continue;
+                    }
+                    team.addMember(p);
+                }
+            }
+            reverse = !reverse;
+        }
+        return teams;
+    }
+
+    @Test
+    public void testMatchesReferenceDraft() {
+        for (long seed = 1; seed <= 20; seed++) {
+            List<Participant> pool = randomPool(120, seed);
+            List<Team> expected = referenceDraft(pool, 4);
+            List<Team> actual = new SnakeDraftEngine().draft(ParticipantColumns.of(pool), 30, 4,
+                    FormationContext.unbounded());
+
+            assertEquals(expected.size(), actual.size());
+            for (int t = 0; t < expected.size(); t++) {
+                assertEquals(expected.get(t).getMembers(), actual.get(t).getMembers(), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testOrderBySkillDescendingIsStable() {
+        List<Participant> pool = randomPool(200, 42);
+        int[] order = SnakeDraftEngine.orderBySkillDescending(ParticipantColumns.of(pool));
+
+        for (int k = 1; k < order.length; k++) {
+            int previous = pool.get(order[k - 1]).getSkillLevel();
+            int current = pool.get(order[k]).getSkillLevel();
+            assertTrue(previous > current || (previous == current && order[k - 1] < order[k]));
+        }
+    }
+
+    @Test
+    public void testUnevenPoolTerminates() {
+        List<Participant> pool = randomPool(31, 3);
+        List<Team> teams = new SnakeDraftEngine().draft(ParticipantColumns.of(pool), 10, 3,
+                FormationContext.unbounded());
+
+        assertEquals(10, teams.size());
+        assertTrue(teams.stream().allMatch(t -> t.getCurrentSize() <= 3));
+    }
+
+    @Test
+    public void testWideSkillRangeFallsBackToComparisonSort() {
+        int[] skills = {0, 1_000_000_000, 7, Integer.MIN_VALUE, 1_000_000_000, Integer.MAX_VALUE, 0};
+        List<Participant> pool = new ArrayList<>();
+        for (int i = 0; i < skills.length; i++) {
+            pool.add(new Participant("P" + i, "Person" + i, 20, "p" + i + "@test.com", 70, "FIFA", "Attacker",
+                    skills[i]));
+        }
+
+        int[] order = SnakeDraftEngine.orderBySkillDescending(ParticipantColumns.of(pool));
+
+        assertArrayEquals(new int[]{5, 1, 4, 2, 0, 6, 3}, order);
+        List<Team> teams = new SnakeDraftEngine().draft(ParticipantColumns.of(pool), 2, 3,
+                FormationContext.unbounded());
+        assertEquals(List.of(pool.get(5), pool.get(2), pool.get(0)), teams.get(0).getMembers());
+    }
+}
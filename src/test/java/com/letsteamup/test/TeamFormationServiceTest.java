@@ -1,17 +1,47 @@
 package com.letsteamup.test;
 
+import com.letsteamup.model.AutoSelection;
+import com.letsteamup.model.Division;
+import com.letsteamup.model.DivisionScheme;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.PairingHistory;
 import com.letsteamup.model.Participant;
 import com.letsteamup.model.Team;
+import com.letsteamup.model.RobustnessReport;
+import com.letsteamup.model.TeamSizeOption;
+import com.letsteamup.service.CancellationToken;
+import com.letsteamup.service.FormationCache;
+import com.letsteamup.service.FormationContext;
+import com.letsteamup.service.FormationProgress;
+import com.letsteamup.service.FormationProgressPublisher;
+import com.letsteamup.service.FormationSession;
 import com.letsteamup.service.TeamFormationService;
 import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.util.CSVHandler;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class TeamFormationServiceTest {
 
@@ -316,6 +346,592 @@ public class TeamFormationServiceTest {
         assertTrue(totalAssigned >= 4);
     }
 
+    @Test
+    public void testFormReturnsImmutableResult() throws InsufficientParticipantsException {
+        FormationResult result = service.form(FormationAlgorithm.BALANCED, participants, 3);
+
+        assertEquals(FormationAlgorithm.BALANCED, result.getAlgorithm());
+        assertEquals(2, result.getTeamCount());
+        assertEquals(6, result.getParticipantCount());
+
+        result.getTeams().get(0).getMembers().clear();
+        assertEquals(3, result.getTeams().get(0).getCurrentSize());
+    }
+
+    @Test
+    public void testConcurrentFormationsDoNotInterfere() throws Exception {
+        List<Participant> largeList = createLargeList(60);
+        List<CompletableFuture<FormationResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            List<Participant> pool = (i % 2 == 0) ? participants : largeList;
+            futures.add(service.formAsync(FormationAlgorithm.values()[i % 3], pool, 3));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            FormationResult result = futures.get(i).get(10, TimeUnit.SECONDS);
+            int expectedTeams = (i % 2 == 0) ? 2 : 20;
+            assertEquals(expectedTeams, result.getTeamCount());
+        }
+    }
+
+    @Test
+    public void testSessionsKeepSeparateResults() throws InsufficientParticipantsException {
+        FormationSession league = service.openSession("League");
+        FormationSession cup = service.openSession("Cup");
+
+        league.form(FormationAlgorithm.BALANCED, participants, 3);
+        cup.form(FormationAlgorithm.SKILL_BASED, createLargeList(30), 3);
+
+        assertEquals(2, league.getFormedTeams().size());
+        assertEquals(10, cup.getFormedTeams().size());
+        assertEquals(FormationAlgorithm.BALANCED, league.getLatestResult().getAlgorithm());
+    }
+
+    @Test
+    public void testSharedExecutorIsNotShutDownByService() {
+        ExecutorService shared = Executors.newFixedThreadPool(2);
+        try {
+            TeamFormationService first = new TeamFormationService(shared, new FormationCache(4));
+            first.shutdown();
+            assertFalse(shared.isShutdown());
+        } finally {
+            shared.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancelledFormationReturnsBestSoFar() throws InsufficientParticipantsException {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        FormationAlgorithm[] greedy = {
+                FormationAlgorithm.BALANCED, FormationAlgorithm.SKILL_BASED, FormationAlgorithm.ROLE_BASED
+        };
+        for (FormationAlgorithm algorithm : greedy) {
+            FormationResult result = service.form(algorithm, createLargeList(30), 3,
+                    new FormationContext(0, token));
+            assertFalse(result.isComplete());
+            assertTrue(result.getAssignedCount() < 30);
+        }
+    }
+
+    @Test
+    public void testCancelledGeneticFormationReturnsBestGenome() throws InsufficientParticipantsException {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        FormationResult result = service.form(FormationAlgorithm.GENETIC, createLargeList(30), 3,
+                new FormationContext(0, token));
+
+        assertFalse(result.isComplete());
+        assertEquals(30, result.getAssignedCount());
+    }
+
+    @Test
+    public void testIncompleteFormationIsNotCached() throws InsufficientParticipantsException {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        service.form(FormationAlgorithm.BALANCED, participants, 3, new FormationContext(0, token));
+
+        FormationResult result = service.form(FormationAlgorithm.BALANCED, participants, 3,
+                FormationContext.withTimeout(60_000));
+        assertFalse(result.isFromCache());
+        assertTrue(result.isComplete());
+        assertEquals(6, result.getAssignedCount());
+    }
+
+    @Test
+    public void testProgressListenerReceivesFinalSnapshot() throws InsufficientParticipantsException {
+        List<FormationProgress> events = new ArrayList<>();
+        FormationContext context = FormationContext.unbounded();
+        context.setProgressListener(events::add);
+
+        service.form(FormationAlgorithm.BALANCED, createLargeList(30), 3, context);
+
+        assertFalse(events.isEmpty());
+        FormationProgress last = events.get(events.size() - 1);
+        assertTrue(last.isFinished());
+        assertEquals(10, last.getTeamsFormed());
+        assertEquals(30, last.getParticipantsAssigned());
+        assertTrue(last.getObjectiveValue() >= 0.0);
+    }
+
+    @Test
+    public void testProgressPublisherDeliversToFlowSubscriber() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        try (FormationProgressPublisher publisher = new FormationProgressPublisher()) {
+            publisher.subscribe(new Flow.Subscriber<FormationProgress>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(FormationProgress item) {
+                    if (item.isFinished()) {
+                        finished.countDown();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+            FormationContext context = FormationContext.unbounded();
+            context.setProgressListener(publisher);
+            service.form(FormationAlgorithm.SKILL_BASED, participants, 3, context);
+
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testGeneticTeamsRespectConstraints() throws InsufficientParticipantsException {
+        List<Participant> pool = createLargeList(60);
+        FormationContext context = FormationContext.unbounded();
+        context.setSeed(7);
+
+        List<Team> teams = service.form(FormationAlgorithm.GENETIC, pool, 5, context).getTeams();
+
+        assertEquals(12, teams.size());
+        Set<Participant> seen = new HashSet<>();
+        for (Team team : teams) {
+            assertEquals(5, team.getCurrentSize());
+            long leaders = team.getMembers().stream()
+                    .filter(p -> p.getPersonalityType().equals("Leader"))
+                    .count();
+            assertTrue(leaders >= 1 && leaders <= 2);
+            seen.addAll(team.getMembers());
+        }
+        assertEquals(60, seen.size());
+    }
+
+    @Test
+    public void testGeneticTeamsReproducibleWithSeed() throws InsufficientParticipantsException {
+        List<Participant> pool = createLargeList(45);
+        FormationContext first = FormationContext.unbounded();
+        first.setSeed(99);
+        FormationContext second = FormationContext.unbounded();
+        second.setSeed(99);
+
+        List<Team> a = service.form(FormationAlgorithm.GENETIC, pool, 3, first).getTeams();
+        TeamFormationService other = new TeamFormationService();
+        try {
+            List<Team> b = other.form(FormationAlgorithm.GENETIC, pool, 3, second).getTeams();
+            for (int i = 0; i < a.size(); i++) {
+                assertEquals(a.get(i).getMembers(), b.get(i).getMembers());
+            }
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testFormByGameKeepsTeamsWithinOneGame() throws InsufficientParticipantsException {
+        FormationResult result = service.formByGame(FormationAlgorithm.BALANCED, createLargeList(60), 3,
+                FormationContext.unbounded());
+
+        assertFalse(result.getTeams().isEmpty());
+        for (Team team : result.getTeams()) {
+            if (!team.getTeamName().startsWith("Mixed")) {
+                assertEquals(1, new HashSet<>(team.getGames()).size(), team.getTeamName());
+            }
+            long leaders = team.getMembers().stream()
+                    .filter(m -> m.getPersonalityType().equals("Leader"))
+                    .count();
+            assertTrue(leaders <= 2);
+        }
+    }
+
+    @Test
+    public void testFormByGameMergesLeftoversAcrossGames() throws Exception {
+        List<Participant> pool = new ArrayList<>();
+        int[] scores = {95, 92, 70, 60, 95, 70, 65, 60, 75};
+        String[] games = {"FIFA", "FIFA", "FIFA", "FIFA", "DOTA 2", "DOTA 2", "DOTA 2", "DOTA 2", "Valorant"};
+        for (int i = 0; i < scores.length; i++) {
+            pool.add(new Participant("G" + i, "Gamer" + i, 21, "g" + i + "@test.com", scores[i],
+                    games[i], getRole(i % 5), 5));
+        }
+
+        FormationResult result = service.formByGameAsync(FormationAlgorithm.SKILL_BASED, pool, 3,
+                FormationContext.unbounded()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, result.getTeamCount());
+        assertEquals(9, result.getAssignedCount());
+        assertTrue(result.getTeams().get(2).getTeamName().startsWith("Mixed"));
+    }
+
+    @Test
+    public void testFormDivisionsKeepsTeamsWithinTier() throws Exception {
+        List<Division> divisions = service.formDivisionsAsync(FormationAlgorithm.SKILL_BASED, createLargeList(90),
+                3, DivisionScheme.STANDARD, FormationContext.unbounded()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, divisions.size());
+        Set<String> teamIds = new HashSet<>();
+        for (Division division : divisions) {
+            String[] range = division.getLabel().replace("Skill ", "").split("-");
+            int low = Integer.parseInt(range[0]);
+            int high = Integer.parseInt(range[range.length - 1]);
+            for (Team team : division.getTeams()) {
+                assertTrue(teamIds.add(team.getTeamId()));
+                for (Participant p : team.getMembers()) {
+                    assertTrue(p.getSkillLevel() >= low && p.getSkillLevel() <= high);
+                }
+            }
+        }
+        assertEquals(teamIds.size(), service.getLastResult().getTeamCount());
+    }
+
+    @Test
+    public void testPartitionedFormationCompletesOnSingleThreadExecutor() throws Exception {
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        try {
+            TeamFormationService bounded = new TeamFormationService(single, new FormationCache(4));
+            FormationResult byGame = bounded.formByGameAsync(FormationAlgorithm.SKILL_BASED, createLargeList(90), 3,
+                    FormationContext.unbounded()).get(30, TimeUnit.SECONDS);
+            List<Division> divisions = bounded.formDivisionsAsync(FormationAlgorithm.SKILL_BASED,
+                    createLargeList(90), 3, DivisionScheme.STANDARD, FormationContext.unbounded())
+                    .get(30, TimeUnit.SECONDS);
+
+            assertTrue(byGame.getTeamCount() > 0);
+            assertEquals(3, divisions.size());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPairingHistoryKeepsTeamQualityAndSplitsFormerTeammates() throws InsufficientParticipantsException {
+        List<Participant> pool = createLargeList(90);
+        FormationResult firstRound = service.form(FormationAlgorithm.SKILL_BASED, pool, 3);
+        PairingHistory history = new PairingHistory();
+        history.recordRound(firstRound.getTeams());
+
+        FormationContext context = FormationContext.unbounded();
+        context.setPairingHistory(history);
+        FormationResult secondRound = service.form(FormationAlgorithm.SKILL_BASED, pool, 3, context);
+
+        assertEquals(90, history.repeatedPairs(firstRound.getTeams()));
+        assertTrue(history.repeatedPairs(secondRound.getTeams()) < 30,
+                "repeated " + history.repeatedPairs(secondRound.getTeams()));
+        assertFalse(secondRound.isFromCache());
+        for (int t = 0; t < firstRound.getTeamCount(); t++) {
+            Team before = firstRound.getTeams().get(t);
+            Team after = secondRound.getTeams().get(t);
+            assertEquals(before.getSkillTotal(), after.getSkillTotal());
+            assertEquals(before.getLeaderCount(), after.getLeaderCount());
+        }
+    }
+
+    @Test
+    public void testPairingHistorySplitsTeammatesInIrregularPool() throws InsufficientParticipantsException {
+        List<Participant> pool = createRandomPool(400, 17);
+        for (FormationAlgorithm algorithm : new FormationAlgorithm[]{
+                FormationAlgorithm.SKILL_BASED, FormationAlgorithm.BALANCED, FormationAlgorithm.GENETIC}) {
+            FormationContext first = FormationContext.unbounded();
+            first.setSeed(3);
+            FormationResult firstRound = service.form(algorithm, pool, 5, first);
+            PairingHistory history = new PairingHistory();
+            history.recordRound(firstRound.getTeams());
+
+            FormationContext context = FormationContext.unbounded();
+            context.setSeed(3);
+            context.setPairingHistory(history);
+            FormationResult secondRound = service.form(algorithm, pool, 5, context);
+
+            int before = history.repeatedPairs(firstRound.getTeams());
+            int after = history.repeatedPairs(secondRound.getTeams());
+            assertTrue(after <= before / 10, algorithm + ": repeated " + after + " of " + before);
+            assertTrue(gameOverflow(secondRound.getTeams()) <= gameOverflow(firstRound.getTeams()), algorithm.getKey());
+            for (int t = 0; t < secondRound.getTeamCount(); t++) {
+                Team team = secondRound.getTeams().get(t);
+                assertTrue(team.getLeaderCount() <= 2, algorithm.getKey());
+                if (algorithm != FormationAlgorithm.GENETIC) {
+                    assertEquals(firstRound.getTeams().get(t).getSkillTotal(), team.getSkillTotal());
+                    assertEquals(firstRound.getTeams().get(t).getLeaderCount(), team.getLeaderCount());
+                }
+            }
+        }
+    }
+
+    // Players beyond two of one game in a team, summed over the teams.
+    private int gameOverflow(List<Team> teams) {
+        int overflow = 0;
+        for (Team team : teams) {
+            Map<String, Long> games = team.getMembers().stream()
+                    .collect(Collectors.groupingBy(Participant::getPreferredGame, Collectors.counting()));
+            for (long count : games.values()) {
+                overflow += Math.max(0, count - 2);
+            }
+        }
+        return overflow;
+    }
+
+    @Test
+    public void testRotationRoundsAvoidRepeatPairings() throws Exception {
+        List<Participant> pool = createLargeList(5000);
+        FormationContext context = FormationContext.unbounded();
+        context.setSeed(7);
+
+        List<FormationResult> rounds = service.formRotationAsync(FormationAlgorithm.SKILL_BASED, pool, 5, 10, context)
+                .get(60, TimeUnit.SECONDS);
+
+        assertEquals(10, rounds.size());
+        PairingHistory history = new PairingHistory();
+        int repeated = 0;
+        for (FormationResult round : rounds) {
+            assertEquals(1000, round.getTeamCount());
+            assertEquals(5000, round.getAssignedCount());
+            for (Team team : round.getTeams()) {
+                assertTrue(team.getLeaderCount() >= 1 && team.getLeaderCount() <= 2);
+            }
+            repeated += history.repeatedPairs(round.getTeams());
+            history.recordRound(round.getTeams());
+        }
+        assertTrue(repeated < history.getPairCount() / 20, "repeated " + repeated + " of " + history.getPairCount());
+        assertSame(rounds.get(0), service.getLastResult());
+    }
+
+    @Test
+    public void testRotationCompletesOnSingleThreadExecutor() throws Exception {
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        try {
+            TeamFormationService bounded = new TeamFormationService(single, new FormationCache(4));
+            List<FormationResult> rounds = bounded.formRotationAsync(FormationAlgorithm.SKILL_BASED,
+                    createLargeList(30), 3, 2, FormationContext.unbounded()).get(30, TimeUnit.SECONDS);
+
+            assertEquals(2, rounds.size());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFormAutoRacesEveryAlgorithmAndKeepsTheBest() throws Exception {
+        AutoSelection selection = service.formAutoAsync(createLargeList(30), 3, FormationContext.unbounded())
+                .get(60, TimeUnit.SECONDS);
+
+        assertEquals(FormationAlgorithm.values().length, selection.getEntries().size());
+        double best = selection.getEntries().get(0).getScore();
+        for (AutoSelection.Entry entry : selection.getEntries()) {
+            assertTrue(entry.isSuccessful(), entry.getAlgorithm() + ": " + entry.getFailure());
+            assertTrue(entry.getScore() <= best);
+            assertEquals(30, entry.getResult().getParticipantCount());
+        }
+        assertSame(selection.getWinner(), service.getLastResult());
+    }
+
+    @Test
+    public void testConcurrentFormAutoCompletesOnBoundedExecutor() throws Exception {
+        ExecutorService bounded = Executors.newFixedThreadPool(2);
+        try {
+            TeamFormationService shared = new TeamFormationService(bounded, new FormationCache(4));
+            CompletableFuture<AutoSelection> first = shared.formAutoAsync(createLargeList(30), 3,
+                    FormationContext.unbounded());
+            CompletableFuture<AutoSelection> second = shared.formAutoAsync(createLargeList(30), 3,
+                    FormationContext.unbounded());
+
+            assertNotNull(first.get(60, TimeUnit.SECONDS).getWinner());
+            assertNotNull(second.get(60, TimeUnit.SECONDS).getWinner());
+        } finally {
+            bounded.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFormAutoSkipsExactForLargePools() throws InsufficientParticipantsException {
+        AutoSelection selection = service.formAuto(createLargeList(90), 3, FormationContext.unbounded());
+
+        assertTrue(selection.getEntries().stream()
+                .noneMatch(entry -> entry.getAlgorithm() == FormationAlgorithm.EXACT));
+        assertNotNull(selection.getWinner());
+    }
+
+    @Test
+    public void testAnalyseTeamSizesChecksDivisionAndLeaders() {
+        List<TeamSizeOption> options = service.analyseTeamSizes(createLargeList(90), 3, 12);
+
+        assertEquals(10, options.size());
+        for (TeamSizeOption option : options) {
+            int size = option.getTeamSize();
+            boolean expected = 90 % size == 0 && 30 >= 90 / size;
+            assertEquals(expected, option.isFeasible(), "size " + size);
+            assertEquals(90 % size, option.getLeftover());
+        }
+        TeamSizeOption eleven = options.get(8);
+        assertTrue(eleven.getIssues().contains("2 participants left over"));
+        assertTrue(eleven.getIssues().stream().anyMatch(issue -> issue.startsWith("FIFA has 18 players")));
+    }
+
+    @Test
+    public void testSweepTeamSizesFormsEveryFeasibleSize() throws Exception {
+        List<TeamSizeOption> swept = service.sweepTeamSizesAsync(FormationAlgorithm.SKILL_BASED, createLargeList(90),
+                3, 10, FormationContext.unbounded()).get(30, TimeUnit.SECONDS);
+
+        for (TeamSizeOption option : swept) {
+            if (option.isFeasible()) {
+                assertNotNull(option.getResult(), "size " + option.getTeamSize());
+                assertEquals(option.getTeamCount(), option.getResult().getTeamCount());
+                assertTrue(option.getScore() > 0);
+            } else {
+                assertNull(option.getResult());
+            }
+        }
+        assertEquals(5, swept.stream().filter(option -> option.getResult() != null).count());
+    }
+
+    @Test
+    public void testSweepTeamSizesCompletesOnSingleThreadExecutor() throws Exception {
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        try {
+            TeamFormationService bounded = new TeamFormationService(single, new FormationCache(4));
+            List<TeamSizeOption> swept = bounded.sweepTeamSizesAsync(FormationAlgorithm.SKILL_BASED,
+                    createLargeList(90), 3, 6, FormationContext.unbounded()).get(30, TimeUnit.SECONDS);
+
+            assertTrue(swept.stream().anyMatch(option -> option.getResult() != null));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFormRobustKeepsBestOfReproducibleRuns() throws Exception {
+        List<Participant> pool = createLargeList(60);
+        FormationContext context = FormationContext.unbounded();
+        context.setSeed(42L);
+        RobustnessReport report = service.formRobustAsync(FormationAlgorithm.BALANCED, pool, 4, 12, context)
+                .get(30, TimeUnit.SECONDS);
+
+        assertEquals(12, report.getRuns());
+        assertTrue(report.getBestScore() >= report.getBaselineScore());
+        assertEquals(report.getScore().getMax(), report.getBestScore(), 1e-9);
+        assertTrue(report.getSkillSpread().getMin() <= report.getSkillSpread().getMedian());
+        assertTrue(report.getSkillSpread().getMedian() <= report.getSkillSpread().getP95());
+        assertSame(report.getBest(), service.getLastResult());
+
+        FormationContext again = FormationContext.unbounded();
+        again.setSeed(42L);
+        RobustnessReport repeat = service.formRobust(FormationAlgorithm.BALANCED, pool, 4, 12, again);
+        assertEquals(report.getBestRun(), repeat.getBestRun());
+        assertEquals(report.getScore().getMedian(), repeat.getScore().getMedian(), 1e-9);
+    }
+
+    @Test
+    public void testFormRobustCompletesOnSingleThreadExecutor() throws Exception {
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        try {
+            TeamFormationService bounded = new TeamFormationService(single, new FormationCache(4));
+            RobustnessReport report = bounded.formRobustAsync(FormationAlgorithm.BALANCED, createLargeList(60), 4,
+                    6, FormationContext.unbounded()).get(30, TimeUnit.SECONDS);
+
+            assertEquals(6, report.getRuns());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDeterministicExportIgnoresThreadCount(@TempDir Path dir) throws Exception {
+        List<Participant> pool = createLargeList(30);
+        for (FormationAlgorithm algorithm : FormationAlgorithm.values()) {
+            byte[] expected = null;
+            for (int threads : new int[]{1, 4}) {
+                ForkJoinPool executor = new ForkJoinPool(threads);
+                TeamFormationService shared = new TeamFormationService(executor, new FormationCache(4));
+                try {
+                    FormationResult result = shared.formAsync(algorithm, pool, 5, FormationContext.deterministic(99L))
+                            .get(60, TimeUnit.SECONDS);
+                    Path file = dir.resolve(algorithm.getKey() + "_" + threads + ".csv");
+                    CSVHandler.writeTeamsToCSV(result.getTeams(), file.toString());
+                    byte[] bytes = Files.readAllBytes(file);
+                    if (expected == null) {
+                        expected = bytes;
+                    }
+                    assertArrayEquals(expected, bytes, algorithm + " with " + threads + " threads");
+                } finally {
+                    shared.shutdown();
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCustomRulesAreHonouredByEveryAlgorithm() throws Exception {
+        FormationRules rules = FormationRules.parse("max personality Leader 2\n"
+                + "min personality Leader 1\n"
+                + "max role * 2\n"
+                + "min role Strategist 1\n"
+                + "skill 4 7\n");
+
+        for (FormationAlgorithm algorithm : FormationAlgorithm.values()) {
+            List<Participant> pool = createLargeList(algorithm == FormationAlgorithm.EXACT ? 20 : 60);
+            FormationContext context = FormationContext.deterministic(7L);
+            context.setRules(rules);
+            List<Team> teams = service.form(algorithm, pool, 5, context).getTeams();
+
+            assertFalse(teams.isEmpty(), algorithm.getKey());
+            for (Team team : teams) {
+                Map<String, Long> roles = team.getMembers().stream()
+                        .collect(Collectors.groupingBy(Participant::getPreferredRole, Collectors.counting()));
+                assertTrue(roles.values().stream().allMatch(count -> count <= 2), algorithm.getKey() + " " + roles);
+                assertTrue(team.getLeaderCount() <= 2, algorithm.getKey());
+                if (algorithm != FormationAlgorithm.SKILL_BASED) {
+                    assertTrue(roles.containsKey("Strategist"), algorithm.getKey() + " " + roles);
+                    assertTrue(team.getLeaderCount() >= 1, algorithm.getKey());
+                }
+                if (team.getCurrentSize() == 5) {
+                    double average = team.getMembers().stream().mapToInt(Participant::getSkillLevel).average()
+                            .orElse(0);
+                    assertTrue(average >= 4 && average <= 7, algorithm.getKey() + " average " + average);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRulesDecideFeasibility() throws Exception {
+        FormationContext context = FormationContext.unbounded();
+        context.setRules(FormationRules.DEFAULT.withMin(FormationRules.Attribute.GAME, "FIFA", 1));
+
+        InsufficientParticipantsException e = assertThrows(InsufficientParticipantsException.class,
+                () -> service.form(FormationAlgorithm.BALANCED, createLargeList(30), 3, context));
+        assertTrue(e.getMessage().startsWith("Insufficient FIFA players"), e.getMessage());
+
+        List<TeamSizeOption> options = service.analyseTeamSizes(createLargeList(30), 3, 6, context.getRules());
+        assertFalse(options.get(0).isFeasible());
+        assertTrue(options.get(2).isFeasible(), options.get(2).getIssues().toString());
+    }
+
+    private List<Participant> createLargeList(int size) {
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int score = (i % 3 == 0) ? 95 : ((i % 3 == 1) ? 75 : 55);
+            list.add(new Participant("P" + String.format("%03d", i), "Participant" + i,
+                    20 + (i % 10), "p" + i + "@test.com", score,
+                    getGame(i % 5), getRole(i % 5), 1 + (i % 10)));
+        }
+        return list;
+    }
+
+    // Attributes drawn independently, so no combination of them repeats on a schedule.
+    private List<Participant> createRandomPool(int size, long seed) {
+        Random random = new Random(seed);
+        String[] games = {"FIFA", "DOTA 2", "Valorant", "CS:GO", "Basketball", "Chess", "Badminton"};
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int score = random.nextInt(100) < 30 ? 90 + random.nextInt(11) : 50 + random.nextInt(40);
+            list.add(new Participant("R" + i, "Random" + i, 18 + random.nextInt(10), "r" + i + "@test.com", score,
+                    games[random.nextInt(games.length)], getRole(random.nextInt(5)), 1 + random.nextInt(10)));
+        }
+        return list;
+    }
+
     private String getRole(int index) {
         String[] roles = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
         return roles[index];
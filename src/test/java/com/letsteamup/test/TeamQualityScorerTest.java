@@ -0,0 +1,128 @@
+package com.letsteamup.test;
+
+import com.letsteamup.algorithm.TeamQualityScorer;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for TeamQualityScorer
+ */
+public class TeamQualityScorerTest {
+
+    private final TeamQualityScorer scorer = new TeamQualityScorer();
+
+    private Participant participant(String id, int score, String game, String role, int skill) {
+        return new Participant(id, "Name " + id, 20, id.toLowerCase() + "@test.com", score, game, role, skill);
+    }
+
+    private Team team(String id, Participant... members) {
+        Team team = new Team(id, members.length);
+        for (Participant p : members) {
+            team.addMember(p);
+        }
+        return team;
+    }
+
+    @Test
+    public void testBalancedDiverseTeamsScoreFull() {
+        List<Team> teams = List.of(
+                team("T1", participant("A", 95, "FIFA", "Strategist", 5), participant("B", 75, "DOTA 2", "Attacker", 5),
+                        participant("C", 55, "Valorant", "Defender", 5)),
+                team("T2", participant("D", 95, "CS:GO", "Strategist", 5), participant("E", 75, "FIFA", "Attacker", 5),
+                        participant("F", 55, "DOTA 2", "Defender", 5)));
+
+        assertEquals(100.0, scorer.score(teams, 6), 1e-9);
+    }
+
+    @Test
+    public void testImbalanceAndUnplacedParticipantsLowerTheScore() {
+        Team strong = team("T1", participant("A", 95, "FIFA", "Strategist", 9),
+                participant("B", 75, "DOTA 2", "Attacker", 9), participant("C", 55, "Valorant", "Defender", 9));
+        Team weak = team("T2", participant("D", 75, "FIFA", "Strategist", 1),
+                participant("E", 75, "FIFA", "Strategist", 1), participant("F", 75, "FIFA", "Strategist", 1));
+
+        double full = scorer.score(List.of(strong, weak), 6);
+        assertTrue(full < 50.0, "score " + full);
+        assertEquals(full / 2, scorer.score(List.of(strong, weak), 12), 1e-9);
+        assertEquals(0.0, scorer.score(List.of(), 6));
+    }
+
+    @Test
+    public void testSwapDeltaMatchesFullEvaluation() {
+        String[] games = {"FIFA", "DOTA 2", "Valorant", "CS:GO"};
+        String[] roles = {"Strategist", "Attacker", "Defender", "Supporter", "Coordinator"};
+        int[] scores = {95, 75, 55};
+        List<Team> teams = new ArrayList<>();
+        int id = 0;
+        for (int t = 0; t < 4; t++) {
+            Participant[] members = new Participant[5];
+            for (int k = 0; k < members.length; k++, id++) {
+                members[k] = participant("P" + id, scores[(id * 7) % 3], games[(id * 5) % 4], roles[(id * 3) % 5],
+                        1 + (id * 11) % 10);
+            }
+            teams.add(team("T" + (t + 1), members));
+        }
+
+        TeamQualityScorer.Evaluation evaluation = scorer.evaluate(teams, 22);
+        assertEquals(scorer.score(teams, 22), evaluation.score(), 1e-9);
+
+        SplittableRandom random = new SplittableRandom(3);
+        for (int step = 0; step < 200; step++) {
+            int a = random.nextInt(4);
+            int b = random.nextInt(4);
+            int i = random.nextInt(5);
+            int j = random.nextInt(5);
+            double before = evaluation.score();
+            double delta = evaluation.swapDelta(a, i, b, j);
+            assertEquals(before, evaluation.score(), 1e-12, "a trial swap leaves the evaluation unchanged");
+
+            evaluation.applySwap(a, i, b, j);
+            double full = scorer.score(evaluation.toTeams(), 22);
+            assertEquals(full, evaluation.score(), 1e-9, "step " + step);
+            assertEquals(full - before, delta, 1e-9, "step " + step);
+        }
+    }
+
+    @Test
+    public void testWeightsChangeWhatScoresBest() {
+        Team mixed = team("T1", participant("A", 95, "FIFA", "Strategist", 9),
+                participant("B", 75, "DOTA 2", "Attacker", 9), participant("C", 55, "Valorant", "Defender", 9));
+        Team alike = team("T2", participant("D", 95, "FIFA", "Strategist", 1),
+                participant("E", 75, "FIFA", "Strategist", 1), participant("F", 55, "FIFA", "Strategist", 1));
+        List<Team> teams = List.of(mixed, alike);
+
+        double[] perTeam = scorer.scoreTeams(teams);
+        assertTrue(perTeam[0] > perTeam[1]);
+
+        TeamQualityScorer skillOnly = new TeamQualityScorer(TeamQualityScorer.Weights.of(1, 0, 0, 0, 0));
+        TeamQualityScorer leadersOnly = new TeamQualityScorer(TeamQualityScorer.Weights.of(0, 0, 0, 0, 2));
+        assertEquals(100.0 / 17, skillOnly.score(teams, 6), 1e-9);
+        assertEquals(100.0, leadersOnly.score(teams, 6), 1e-9);
+        assertEquals(1.0, TeamQualityScorer.Weights.of(3, 0, 0, 0, 1).getSkill()
+                + TeamQualityScorer.Weights.of(3, 0, 0, 0, 1).getLeader(), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> TeamQualityScorer.Weights.of(0, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> TeamQualityScorer.Weights.of(1, -1, 0, 0, 0));
+    }
+
+    @Test
+    public void testLeaderBalanceFollowsTheRules() {
+        List<Team> teams = List.of(team("T1", participant("A", 95, "FIFA", "Strategist", 5),
+                participant("B", 95, "DOTA 2", "Attacker", 5), participant("C", 95, "Valorant", "Defender", 5)));
+        TeamQualityScorer leadersOnly = new TeamQualityScorer(TeamQualityScorer.Weights.of(0, 0, 0, 0, 1));
+        FormationRules threeLeaders = FormationRules.NONE
+                .withMax(FormationRules.Attribute.PERSONALITY, "leader", 3)
+                .withMin(FormationRules.Attribute.PERSONALITY, "Leader", 1);
+
+        assertEquals(0.0, leadersOnly.score(teams, 3), 1e-9);
+        assertEquals(100.0, leadersOnly.withRules(threeLeaders).score(teams, 3), 1e-9);
+        assertEquals(100.0, leadersOnly.withRules(threeLeaders).evaluate(teams, 3).score(), 1e-9);
+        assertSame(leadersOnly, leadersOnly.withRules(FormationRules.DEFAULT));
+    }
+}
@@ -0,0 +1,263 @@
+package com.letsteamup.test;
+
+import com.letsteamup.exception.InsufficientParticipantsException;
+import com.letsteamup.model.FormationAlgorithm;
+import com.letsteamup.model.FormationResult;
+import com.letsteamup.model.FormationRules;
+import com.letsteamup.model.Participant;
+import com.letsteamup.model.Team;
+import com.letsteamup.service.TeamFormationService;
+import com.letsteamup.service.TeamRoster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for TeamRoster
+ */
+public class TeamRosterTest {
+
+    private TeamFormationService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TeamFormationService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    private Participant participant(String id, int score, String game, int skill) {
+        return new Participant(id, "Name " + id, 20, id.toLowerCase() + "@test.com", score, game, "Attacker", skill);
+    }
+
+    private List<Participant> pool(int size) {
+        String[] games = {"FIFA", "DOTA 2", "Valorant", "CS:GO", "Basketball"};
+        List<Participant> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(participant("P" + i, i % 3 == 0 ? 95 : 70, games[i % 5], 1 + (i % 10)));
+        }
+        return list;
+    }
+
+    private Map<String, String> teamOfEachMember(List<Team> teams) {
+        Map<String, String> teamOf = new HashMap<>();
+        for (Team team : teams) {
+            for (Participant p : team.getMembers()) {
+                teamOf.put(p.getId(), team.getTeamId());
+            }
+        }
+        return teamOf;
+    }
+
+    @Test
+    public void testLateParticipantsOpenTeamsWithoutMovingAnyone() throws InsufficientParticipantsException {
+        FormationResult formed = service.form(FormationAlgorithm.SKILL_BASED, pool(12), 4);
+        Map<String, String> before = teamOfEachMember(formed.getTeams());
+
+        TeamRoster roster = service.openRoster(formed);
+        List<Participant> late = List.of(participant("L1", 70, "FIFA", 3), participant("L2", 70, "DOTA 2", 9),
+                participant("L3", 95, "FIFA", 6), participant("L4", 70, "CS:GO", 2),
+                participant("L5", 70, "Valorant", 8));
+        FormationResult updated = service.placeLateParticipants(roster, late);
+
+        Map<String, String> after = teamOfEachMember(updated.getTeams());
+        before.forEach((id, team) -> assertEquals(team, after.get(id)));
+        assertEquals(16, after.size());
+        assertEquals(4, updated.getTeamCount());
+        assertEquals(List.of(late.get(4)), roster.getWaiting());
+        assertSame(updated, service.getLastResult());
+    }
+
+    @Test
+    public void testLateParticipantsFillOpenSeats() {
+        Team first = new Team("T1", 4);
+        first.addMember(participant("A", 95, "FIFA", 9));
+        first.addMember(participant("B", 70, "DOTA 2", 8));
+        Team second = new Team("T2", 4);
+        second.addMember(participant("C", 95, "FIFA", 2));
+        second.addMember(participant("D", 70, "DOTA 2", 3));
+        FormationResult formed = new FormationResult(FormationAlgorithm.BALANCED, 4, 4,
+                List.of(first, second), 0, false, true);
+
+        TeamRoster roster = new TeamRoster(formed);
+        assertEquals(1, roster.placeLate(List.of(participant("E", 70, "CS:GO", 6))));
+
+        List<Team> teams = roster.toResult().getTeams();
+        assertEquals(3, teams.get(1).getCurrentSize());
+        assertEquals(11, teams.get(1).getSkillTotal());
+    }
+
+    @Test
+    public void testLeadersGoToTeamsWithoutLeader() {
+        Team noLeader = new Team("T1", 3);
+        noLeader.addMember(participant("A", 70, "FIFA", 5));
+        Team oneLeader = new Team("T2", 3);
+        oneLeader.addMember(participant("B", 95, "FIFA", 1));
+        FormationResult formed = new FormationResult(FormationAlgorithm.BALANCED, 3, 2,
+                List.of(noLeader, oneLeader), 0, false, true);
+
+        TeamRoster roster = new TeamRoster(formed);
+        assertEquals(1, roster.placeLate(List.of(participant("L", 96, "DOTA 2", 9))));
+
+        assertEquals(1, roster.toResult().getTeams().get(0).getLeaderCount());
+    }
+
+    @Test
+    public void testNewTeamOpensWhenTeamsAreFull() {
+        Team full = new Team("T1", 3);
+        full.addMember(participant("A", 95, "FIFA", 5));
+        full.addMember(participant("B", 70, "FIFA", 5));
+        full.addMember(participant("C", 70, "DOTA 2", 5));
+        FormationResult formed = new FormationResult(FormationAlgorithm.BALANCED, 3, 3,
+                List.of(full), 0, false, true);
+
+        TeamRoster roster = new TeamRoster(formed);
+        int placed = roster.placeLate(List.of(participant("D", 70, "FIFA", 2),
+                participant("E", 70, "CS:GO", 4), participant("F", 95, "FIFA", 7),
+                participant("G", 70, "FIFA", 6)));
+
+        assertEquals(3, placed);
+        assertEquals(2, roster.getTeamCount());
+        assertEquals(1, roster.getWaiting().size());
+        assertEquals(1, roster.toResult().getTeams().get(1).getLeaderCount());
+    }
+
+    private Team team(String id, Participant... members) {
+        Team team = new Team(id, members.length);
+        for (Participant p : members) {
+            team.addMember(p);
+        }
+        return team;
+    }
+
+    @Test
+    public void testWithdrawnLeaderIsReplacedBySpareLeader() {
+        Team first = team("T1", participant("A", 95, "FIFA", 5), participant("B", 70, "DOTA 2", 4),
+                participant("C", 70, "CS:GO", 6));
+        Team second = team("T2", participant("D", 95, "FIFA", 5), participant("E", 95, "DOTA 2", 5),
+                participant("F", 70, "CS:GO", 5));
+        FormationResult formed = new FormationResult(FormationAlgorithm.BALANCED, 3, 6,
+                List.of(first, second), 0, false, true);
+
+        TeamRoster roster = service.openRoster(formed);
+        service.placeLateParticipants(roster, List.of(participant("G", 70, "Valorant", 4)));
+        TeamRoster.Rebalance rebalance = service.rebalanceAfterWithdrawals(roster, Set.of("A"));
+
+        List<Team> teams = service.getLastResult().getTeams();
+        assertEquals(1, rebalance.getWithdrawn());
+        assertEquals(1, rebalance.getMoves());
+        assertEquals(1, rebalance.getLeaderSwaps());
+        assertEquals(0, rebalance.getTeamsWithoutLeader());
+        for (Team team : teams) {
+            assertTrue(team.isFull());
+            assertEquals(1, team.getLeaderCount());
+        }
+        assertTrue(roster.getWaiting().isEmpty());
+    }
+
+    @Test
+    public void testWithdrawalFilledFromWaitingWithoutMoves() throws InsufficientParticipantsException {
+        FormationResult formed = service.form(FormationAlgorithm.SKILL_BASED, pool(12), 4);
+        TeamRoster roster = service.openRoster(formed);
+        roster.placeLate(List.of(participant("L1", 70, "FIFA", 3)));
+
+        String leaver = formed.getTeams().get(0).getMembers().stream()
+                .filter(p -> p.getPersonalityScore() < 90).findFirst().orElseThrow().getId();
+        TeamRoster.Rebalance rebalance = roster.withdraw(Set.of(leaver));
+
+        assertEquals(0, rebalance.getMoves());
+        assertTrue(rebalance.getDissolvedTeams().isEmpty());
+        assertTrue(roster.toResult().getTeams().stream().allMatch(Team::isFull));
+    }
+
+    @Test
+    public void testShortTeamIsDissolvedIntoTheOthers() throws InsufficientParticipantsException {
+        FormationResult formed = service.form(FormationAlgorithm.SKILL_BASED, pool(12), 3);
+        Map<String, String> before = teamOfEachMember(formed.getTeams());
+        List<Participant> firstTeam = formed.getTeams().get(0).getMembers();
+        List<Participant> secondTeam = formed.getTeams().get(1).getMembers();
+        Set<String> leavers = Set.of(firstTeam.get(0).getId(), firstTeam.get(1).getId(),
+                secondTeam.get(0).getId());
+
+        TeamRoster roster = service.openRoster(formed);
+        TeamRoster.Rebalance rebalance = roster.withdraw(leavers);
+
+        FormationResult after = roster.toResult();
+        assertEquals(3, rebalance.getWithdrawn());
+        assertEquals(List.of(formed.getTeams().get(0).getTeamId()), rebalance.getDissolvedTeams());
+        assertEquals(3, after.getTeamCount());
+        assertEquals(9, after.getAssignedCount());
+        assertEquals(1, rebalance.getMoves());
+        assertTrue(rebalance.getBenched().isEmpty());
+
+        Map<String, String> teamOf = teamOfEachMember(after.getTeams());
+        long stayed = teamOf.entrySet().stream().filter(e -> e.getValue().equals(before.get(e.getKey()))).count();
+        assertEquals(8, stayed);
+        for (Team team : after.getTeams()) {
+            assertTrue(team.isFull());
+            assertTrue(team.getLeaderCount() >= 1 && team.getLeaderCount() <= 2);
+        }
+    }
+
+    @Test
+    public void testWithdrawalsScaleWithoutReshuffling() throws InsufficientParticipantsException {
+        FormationResult formed = service.form(FormationAlgorithm.SKILL_BASED, pool(20000), 5);
+        TeamRoster roster = service.openRoster(formed);
+        Set<String> leavers = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            leavers.add(formed.getTeams().get(i * 10).getMembers().get(i % 5).getId());
+        }
+
+        TeamRoster.Rebalance rebalance = roster.withdraw(leavers);
+
+        assertEquals(200, rebalance.getWithdrawn());
+        assertTrue(rebalance.getMoves() <= 200 * 4, "moves " + rebalance.getMoves());
+        assertTrue(roster.toResult().getTeams().stream().allMatch(Team::isFull));
+        assertEquals(0, rebalance.getTeamsWithoutLeader());
+    }
+
+    @Test
+    public void testRosterKeepsTheRulesOfItsFormation() throws Exception {
+        FormationRules rules = FormationRules.parse("max personality leader 1\nmin personality Leader 1\n"
+                + "max game fifa 1\n");
+        Team first = team("T1", participant("A", 95, "FIFA", 5), participant("B", 70, "DOTA 2", 4),
+                participant("C", 70, "CS:GO", 6));
+        Team second = new Team("T2", 3);
+        second.addMember(participant("D", 95, "Valorant", 5));
+        second.addMember(participant("E", 70, "FIFA", 5));
+        FormationResult formed = new FormationResult(FormationAlgorithm.BALANCED, 3, 5,
+                List.of(first, second), 0, false, true, false, rules);
+
+        TeamRoster roster = service.openRoster(formed);
+        FormationResult updated = service.placeLateParticipants(roster, List.of(participant("L", 95, "DOTA 2", 5),
+                participant("F", 70, "FIFA", 5)));
+
+        assertEquals(2, roster.getTeamCount());
+        assertEquals(2, roster.getWaiting().size());
+        assertSame(rules, updated.getRules());
+        for (Team team : updated.getTeams()) {
+            assertTrue(team.getLeaderCount() <= 1);
+            assertTrue(team.getGameCount("FIFA") <= 1);
+        }
+
+        roster.placeLate(List.of(participant("G", 70, "Basketball", 3)));
+        assertEquals(3, roster.toResult().getTeams().get(1).getCurrentSize());
+        TeamRoster.Rebalance rebalance = roster.withdraw(Set.of("A"));
+        for (Team team : roster.toResult().getTeams()) {
+            assertTrue(team.getLeaderCount() <= 1, team.getTeamId());
+            assertTrue(team.getGameCount("FIFA") <= 1, team.getTeamId());
+        }
+        assertEquals(0, rebalance.getTeamsWithoutLeader());
+    }
+}
@@ -178,4 +178,22 @@ public class TeamTest {
         assertTrue(result.contains("Alice"));
         assertTrue(result.contains("Bob"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAggregatesFollowMembership() {
+        team.addMember(participant1);
+        team.addMember(participant2);
+
+        assertEquals(15, team.getSkillTotal());
+        assertEquals(1, team.getLeaderCount());
+        assertEquals(1, team.getGameCount("Valorant"));
+
+        assertTrue(team.removeMember(participant1));
+        assertFalse(team.removeMember(participant3));
+
+        assertEquals(7, team.getSkillTotal());
+        assertEquals(0, team.getLeaderCount());
+        assertEquals(0, team.getGameCount("Valorant"));
+        assertEquals(7, team.copy().getSkillTotal());
+    }
+}
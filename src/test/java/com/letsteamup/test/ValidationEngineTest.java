@@ -0,0 +1,88 @@
+package com.letsteamup.test;
+
+import com.letsteamup.validator.ValidationEngine;
+import com.letsteamup.validator.ValidationEngine.Field;
+import com.letsteamup.validator.ValidationEngine.Result;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Unit tests for ValidationEngine
+ */
+public class ValidationEngineTest {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static final String EMAIL_ALPHABET = "aZ9+_.-@.@é ";
+
+    @Test
+    public void testEmailAutomatonMatchesPattern() {
+        String[] samples = {"test@example.com", "user.name@domain.co.uk", "alice+test@university.edu",
+                "a@b.co", "a@.co", "a@b..co", "a@b.c", "a@b.c1", "a@b-.com", "@b.com", "a@@b.com",
+                "a@b.com.", "a_b@c_d.com", "a@b.com\n", "notanemail", "test@"};
+        for (String sample : samples) {
+            assertEquals(EMAIL_PATTERN.matcher(sample).matches(), ValidationEngine.isEmail(sample), sample);
+        }
+
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(10);
+            for (int k = 0; k < length; k++) {
+                sb.append(EMAIL_ALPHABET.charAt(random.nextInt(EMAIL_ALPHABET.length())));
+            }
+            String sample = sb.toString();
+            assertEquals(EMAIL_PATTERN.matcher(sample).matches(), ValidationEngine.isEmail(sample), sample);
+        }
+    }
+
+    @Test
+    public void testRolesIgnoreCaseAndCanonicalise() {
+        for (int code = 0; code < ValidationEngine.getValidRoles().size(); code++) {
+            String role = ValidationEngine.getValidRoles().get(code);
+            assertEquals(code, ValidationEngine.roleCode(role));
+            assertEquals(code, ValidationEngine.roleCode(role.toUpperCase()));
+        }
+        assertEquals("Attacker", ValidationEngine.canonicalRole("attacker"));
+        assertEquals(-1, ValidationEngine.roleCode("Sniper"));
+        assertEquals(-1, ValidationEngine.roleCode("Attackers"));
+        assertEquals(Result.UNKNOWN_ROLE, ValidationEngine.checkText(Field.ROLE, "Healer"));
+        assertEquals(Result.EMPTY, ValidationEngine.checkText(Field.ROLE, "  "));
+    }
+
+    @Test
+    public void testResultCodes() {
+        assertEquals(Result.VALID, ValidationEngine.checkText(Field.NAME, "Al"));
+        assertEquals(Result.TOO_SHORT, ValidationEngine.checkText(Field.NAME, "A"));
+        assertEquals(Result.TOO_LONG, ValidationEngine.checkText(Field.NAME, "x".repeat(101)));
+        assertEquals(Result.BAD_FORMAT, ValidationEngine.checkText(Field.ID, "P12a"));
+        assertEquals(Result.VALID, ValidationEngine.checkText(Field.ID, "P001"));
+        assertEquals(Result.BAD_FORMAT, ValidationEngine.checkText(Field.CSV_PATH, "teams.txt"));
+        assertEquals(Result.VALID, ValidationEngine.checkText(Field.CSV_PATH, "Teams.CSV"));
+        assertEquals(Result.OUT_OF_RANGE, ValidationEngine.checkNumber(Field.SKILL_LEVEL, 11));
+        assertEquals(Result.VALID, ValidationEngine.checkNumber(Field.AGE, 16));
+        assertEquals("Skill level must be between 1 and 10",
+                ValidationEngine.describe(Field.SKILL_LEVEL, Result.OUT_OF_RANGE, 11));
+        assertEquals(Result.VALID, ValidationEngine.checkText(Field.NAME, "x".repeat(100)));
+        assertEquals("Name must be at most 100 characters long",
+                ValidationEngine.describe(Field.NAME, Result.TOO_LONG, "x".repeat(101)));
+    }
+
+    @Test
+    public void testParseNumberMatchesParseInt() {
+        String[] samples = {"0", "7", "-3", "+42", "2147483647", "2147483648", "-2147483647", "", "-", "1.5",
+                "12a", " 1", "99999999999"};
+        for (String sample : samples) {
+            int expected;
+            try {
+                expected = Integer.parseInt(sample);
+            } catch (NumberFormatException e) {
+                expected = ValidationEngine.NOT_A_NUMBER;
+            }
+            assertEquals(expected, ValidationEngine.parseNumber(sample), sample);
+        }
+    }
+}